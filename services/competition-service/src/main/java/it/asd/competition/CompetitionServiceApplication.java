@@ -1,9 +1,12 @@
 package it.asd.competition;
 
+import it.asd.competition.features.eligibilitycache.EligibilityL1Properties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication(scanBasePackages = {"it.asd.competition", "it.asd.common"})
+@EnableConfigurationProperties(EligibilityL1Properties.class)
 public class CompetitionServiceApplication {
     static void main(String[] args) {
         SpringApplication.run(CompetitionServiceApplication.class, args);
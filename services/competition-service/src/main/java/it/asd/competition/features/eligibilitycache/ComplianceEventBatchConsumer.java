@@ -0,0 +1,69 @@
+package it.asd.competition.features.eligibilitycache;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.listener.KeyOrderedDispatcher;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch variant of {@link ComplianceEventConsumer} — active when asd.kafka.batch.enabled=true.
+ * <p>
+ * The poll is split by person (the partition key) through
+ * KeyOrderedDispatcher.dispatchGroups: each person's records are applied by
+ * EligibilityCacheService as batched array statements in one transaction,
+ * persons run concurrently on virtual threads. This is what lets the consumer keep up
+ * with the 06:00 expiry burst on a topic with the broker's default partitions.
+ * <p>
+ * Failure: the listener throws BatchListenerFailedException for the first
+ * failed person's first record. The batch error handler commits everything
+ * before it, retries it with backoff and finally dead-letters it
+ * (asd.kafka.errors). Persons after it are redelivered; the array statements
+ * tolerate the replay.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "true")
+public class ComplianceEventBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ComplianceEventBatchConsumer.class);
+
+    private final EligibilityCacheService cacheService;
+    private final KeyOrderedDispatcher dispatcher;
+
+    public ComplianceEventBatchConsumer(EligibilityCacheService cacheService, KeyOrderedDispatcher dispatcher) {
+        this.cacheService = cacheService;
+        this.dispatcher = dispatcher;
+    }
+
+    @KafkaListener(
+            topics = {KafkaTopics.DOCUMENT_EXPIRED, KafkaTopics.DOCUMENT_RENEWED},
+            groupId = "competition-service",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void onComplianceEvents(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        var written = new AtomicInteger();
+        var result = dispatcher.dispatchGroups(records, group ->
+                written.addAndGet(cacheService.applyComplianceEvents(EventBatches.payloads(group, DomainEvent.class))));
+        if (result.complete()) {
+            log.info("[CACHE] Applied {} compliance records to {} cache entries", records.size(), written.get());
+            ack.acknowledge();
+            return;
+        }
+        var failed = records.get(result.firstFailedIndex());
+        log.error("[CACHE] Failed processing envelopeId={} at offset {} after {} of {} records: {}",
+                failed.value() == null ? null : failed.value().envelopeId(),
+                failed.offset(), result.firstFailedIndex(), records.size(), result.error().getMessage());
+        throw new BatchListenerFailedException("Compliance event failed", result.error(), failed);
+    }
+}
@@ -4,8 +4,10 @@ import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.events.compliance.DocumentExpiredEvent;
 import it.asd.events.compliance.DocumentRenewedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
@@ -18,12 +20,19 @@ import org.springframework.stereotype.Component;
  * <p>
  * This means RegisterParticipantHandler rarely hits Compliance sync —
  * only on the very first registration attempt (cold cache).
+ * Both writes go through EligibilityCacheService, which also updates the
+ * in-process L1 once the write commits.
  * <p>
- * Manual ack: if processing fails, we do NOT ack → Kafka redelivers.
- * After N failures the message goes to the dead-letter topic (configure
- * a DeadLetterPublishingRecoverer in production).
+ * Record-at-a-time mode; see ComplianceEventBatchConsumer for
+ * asd.kafka.batch.enabled=true, which applies a poll in parallel across
+ * persons and is the mode to run for the 06:00 expiry burst.
+ * <p>
+ * Failure: the exception goes to the record error handler, which retries
+ * the record with backoff and finally dead-letters it (asd.kafka.errors).
+ * markIneligible and removeBlocker tolerate the replay.
  */
 @Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class ComplianceEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(ComplianceEventConsumer.class);
@@ -39,30 +48,34 @@ public class ComplianceEventConsumer {
             groupId = "competition-service",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void onComplianceEvent(EventEnvelope envelope, Acknowledgment ack) {
+    public void onComplianceEvent(ConsumerRecord<String, EventEnvelope> record, Acknowledgment ack) {
         try {
-            switch (envelope.payload()) {
-                case DocumentExpiredEvent evt -> {
-                    cacheService.markIneligible(
-                            evt.personId(), evt.asdId(),
-                            evt.documentType(), "EXPIRED on " + evt.expiredOn());
-                    log.info("[CACHE] Marked ineligible: personId={} doc={}",
-                            evt.personId(), evt.documentType());
-                }
-                case DocumentRenewedEvent evt -> {
-                    cacheService.removeBlocker(evt.personId(), evt.asdId(), evt.documentType());
-                    log.info("[CACHE] Removed blocker: personId={} doc={}",
-                            evt.personId(), evt.documentType());
-                }
-                // Unknown event type on this topic — log and ack to avoid poison pill
-                default -> log.warn("[CACHE] Unhandled event type: {}",
-                        envelope.payload().getClass().getSimpleName());
-            }
+            apply(record.value());
             ack.acknowledge();
         } catch (Exception ex) {
-            log.error("[CACHE] Failed processing envelopeId={}: {}",
-                    envelope.envelopeId(), ex.getMessage(), ex);
-            // Do NOT ack → triggers redelivery
+            log.error("[CACHE] Failed processing envelopeId={} at offset {}, handing off to the error handler: {}",
+                    record.value().envelopeId(), record.offset(), ex.getMessage());
+            throw ex;   // retried, then dead-lettered (asd.kafka.errors)
+        }
+    }
+
+    private void apply(EventEnvelope envelope) {
+        switch (envelope.payload()) {
+            case DocumentExpiredEvent evt -> {
+                cacheService.markIneligible(
+                        evt.personId(), evt.asdId(),
+                        evt.documentType(), "EXPIRED on " + evt.expiredOn());
+                log.info("[CACHE] Marked ineligible: personId={} doc={}",
+                        evt.personId(), evt.documentType());
+            }
+            case DocumentRenewedEvent evt -> {
+                cacheService.removeBlocker(evt.personId(), evt.asdId(), evt.documentType(), evt.newExpiryDate());
+                log.info("[CACHE] Removed blocker: personId={} doc={}",
+                        evt.personId(), evt.documentType());
+            }
+            // Unknown event type on this topic — log and skip to avoid poison pill
+            default -> log.warn("[CACHE] Unhandled event type: {}",
+                    envelope.payload().getClass().getSimpleName());
         }
     }
 }
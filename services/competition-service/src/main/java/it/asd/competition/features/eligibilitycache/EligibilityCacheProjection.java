@@ -0,0 +1,63 @@
+package it.asd.competition.features.eligibilitycache;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.replay.ReadModelProjection;
+import it.asd.common.kafka.replay.ShadowTables;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Tables;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * eligibility_cache (blocking docs inline) as a replayable read model.
+ * <p>
+ * Replays the compliance topics through the same blocker statements as the
+ * live consumers. Entries that only ever came from a sync check have no event
+ * behind them: a rebuild from earliest drops them, and the next registration
+ * repopulates them through the cold path. A rebuild from a timestamp or offset
+ * starts from a copy of the live rows and keeps them.
+ * <p>
+ * After the swap this replica's L1 is cleared. Other replicas catch up within
+ * the L1 expire-after-write.
+ */
+@Component
+public class EligibilityCacheProjection implements ReadModelProjection {
+
+    private final EligibilityCacheService cacheService;
+    private final EligibilityL1Cache l1;
+
+    public EligibilityCacheProjection(EligibilityCacheService cacheService, EligibilityL1Cache l1) {
+        this.cacheService = cacheService;
+        this.l1 = l1;
+    }
+
+    @Override
+    public String name() {
+        return Tables.LIVE.cache();
+    }
+
+    @Override
+    public List<String> topics() {
+        return List.of(KafkaTopics.DOCUMENT_EXPIRED, KafkaTopics.DOCUMENT_RENEWED);
+    }
+
+    @Override
+    public List<String> tables() {
+        return List.of(Tables.LIVE.cache());
+    }
+
+    @Override
+    public void apply(List<ConsumerRecord<String, EventEnvelope>> records, ShadowTables shadow) {
+        var tables = new Tables(shadow.of(Tables.LIVE.cache()));
+        cacheService.applyComplianceEvents(tables, EventBatches.payloads(records, DomainEvent.class));
+    }
+
+    @Override
+    public void afterSwap() {
+        l1.invalidateAll();
+    }
+}
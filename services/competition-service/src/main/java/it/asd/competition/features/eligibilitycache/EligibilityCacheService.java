@@ -1,11 +1,25 @@
 package it.asd.competition.features.eligibilitycache;
 
 import it.asd.competition.shared.entity.EligibilityCacheEntity;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.BlockerChange;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Row;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Tables;
 import it.asd.competition.shared.repository.EligibilityCacheRepository;
+import it.asd.events.DomainEvent;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import it.asd.events.compliance.DocumentRenewedEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,80 +28,197 @@ import java.util.UUID;
  * Updated from two sources:
  * 1. Sync check result (RegisterParticipantHandler cold path)
  * 2. Async Kafka events (ComplianceEventConsumer)
+ * <p>
+ * Two tiers: {@link EligibilityL1Cache} in memory, then the eligibility_cache
+ * table. Reads check the L1 first. Every write to the live table is also
+ * written through to the L1 once it commits.
+ * <p>
+ * Every entry carries validUntil, the last day Compliance vouched for it. From
+ * the next day it is a miss in both tiers, so no answer outlives the document
+ * scadenza it was computed from — without a nightly invalidation.
+ * Event-driven writes keep the stored horizon; a renewal caps it at the new scadenza.
+ * <p>
+ * Entries are per flavour: (person, asd, agonistic). A registration reads the
+ * answer for its own flag. A compliance event touches only the flavours whose
+ * required documents include it ({@link EligibilityFlavours}).
  */
 @Component
 public class EligibilityCacheService {
 
     private final EligibilityCacheRepository repo;
+    private final EligibilityCacheBatchRepository batchRepo;
+    private final EligibilityL1Cache l1;
 
-    public EligibilityCacheService(EligibilityCacheRepository repo) {
+    public EligibilityCacheService(EligibilityCacheRepository repo,
+                                   EligibilityCacheBatchRepository batchRepo,
+                                   EligibilityL1Cache l1) {
         this.repo = repo;
+        this.batchRepo = batchRepo;
+        this.l1 = l1;
     }
 
     /**
      * Wraps the raw entity in a typed record so callers
      * don't depend on the JPA entity directly.
      */
-    public record CachedEligibility(boolean isEligible, List<String> blockingDocuments) {
+    public record CachedEligibility(boolean isEligible, List<String> blockingDocuments, LocalDate validUntil) {
+
+        public boolean isValidOn(LocalDate day) {
+            return validUntil == null || !day.isAfter(validUntil);
+        }
+    }
+
+    /**
+     * L1 hit → no transaction, no SQL. L1 miss → table read, copied into the L1.
+     * An entry past its validUntil is a miss.
+     */
+    public Optional<CachedEligibility> get(UUID personId, UUID asdId, boolean agonistic) {
+        var key = new Key(personId, asdId, agonistic);
+        var today = LocalDate.now();
+        var hit = l1.get(key);
+        if (hit != null && hit.isValidOn(today)) return Optional.of(hit);
+
+        var loaded = repo.findByPersonIdAndAsdIdAndAgonistic(personId, asdId, agonistic)
+                .map(EligibilityCacheService::toCached)
+                .filter(value -> value.isValidOn(today));
+        loaded.ifPresent(value -> l1.fill(key, value));
+        return loaded;
+    }
+
+    /**
+     * Batch form of get() for bulk registration. Keys are looked up in the L1 first.
+     * The misses are read from the table with one query and copied into the L1.
+     * Keys cached in neither tier, or past their validUntil, are absent from the result.
+     */
+    public Map<Key, CachedEligibility> getAll(Collection<Key> keys) {
+        var today = LocalDate.now();
+        var found = new HashMap<Key, CachedEligibility>();
+        var misses = new ArrayList<Key>();
+        for (var key : keys) {
+            var hit = l1.get(key);
+            if (hit != null && hit.isValidOn(today)) found.put(key, hit);
+            else misses.add(key);
+        }
+        if (misses.isEmpty()) return found;
+
+        batchRepo.load(Tables.LIVE, misses).forEach((key, row) -> {
+            var value = toCached(row);
+            if (!value.isValidOn(today)) return;
+            l1.fill(key, value);
+            found.put(key, value);
+        });
+        return found;
     }
 
-    @Transactional(readOnly = true)
-    public Optional<CachedEligibility> get(UUID personId, UUID asdId) {
-        return repo.findByPersonIdAndAsdId(personId, asdId)
-                .map(e -> new CachedEligibility(e.isEligible(), e.getBlockingDocuments()));
+    @Transactional
+    public void updateFromSyncCheck(UUID personId, UUID asdId, boolean agonistic,
+                                    boolean eligible, List<String> blockingDocs, LocalDate validUntil) {
+        upsert(new Key(personId, asdId, agonistic), eligible, blockingDocs, validUntil, "sync_check");
     }
 
+    /**
+     * Batch form of updateFromSyncCheck: one batch upsert, one L1 write-through.
+     */
     @Transactional
-    public void updateFromSyncCheck(UUID personId, UUID asdId,
-                                    boolean eligible, List<String> blockingDocs) {
-        upsert(personId, asdId, eligible, blockingDocs, "sync_check");
+    public void updateFromSyncChecks(Map<Key, CachedEligibility> results) {
+        if (results.isEmpty()) return;
+        var rows = new ArrayList<Row>(results.size());
+        results.forEach((key, value) -> rows.add(new Row(UUID.randomUUID(), key,
+                value.isEligible(), new ArrayList<>(value.blockingDocuments()), value.validUntil(), "sync_check")));
+        batchRepo.saveAll(Tables.LIVE, rows);
+        l1.putAll(results);
     }
 
+    /**
+     * One atomic upsert per flavour requiring the document — no read first, so
+     * concurrent events on the pair cannot lose each other's blocker.
+     */
     @Transactional
     public void markIneligible(UUID personId, UUID asdId,
                                String documentType, String reason) {
-        var cached = repo.findByPersonIdAndAsdId(personId, asdId)
-                .orElseGet(() -> newEntry(personId, asdId));
-
-        var blocking = new java.util.ArrayList<>(cached.getBlockingDocuments());
         var entry = documentType + " [" + reason + "]";
-        if (!blocking.contains(entry)) blocking.add(entry);
+        for (var agonistic : EligibilityFlavours.requiring(documentType))
+            writeThrough(batchRepo.appendBlocker(new Key(personId, asdId, agonistic), entry, "document.expired"));
+    }
 
-        cached.setEligible(false);
-        cached.setBlockingDocuments(blocking);
-        cached.setSource("document.expired");
-        repo.save(cached);
+    /**
+     * One atomic update per flavour requiring the document. Nothing cached → nothing to unblock.
+     */
+    @Transactional
+    public void removeBlocker(UUID personId, UUID asdId, String documentType, LocalDate newExpiry) {
+        for (var agonistic : EligibilityFlavours.requiring(documentType))
+            batchRepo.removeBlocker(new Key(personId, asdId, agonistic), documentType, newExpiry, "document.renewed")
+                    .ifPresent(this::writeThrough);
     }
 
+    /**
+     * Batch form of markIneligible/removeBlocker for a whole Kafka poll.
+     * Each event becomes the same array statement, applied in poll order, so an
+     * expiry followed by a renewal in the same poll ends up exactly as if applied
+     * one by one. No read-modify-write: a sync check, bulk registration or warm-up
+     * writing the same pair meanwhile keeps its blockers. The touched rows are read
+     * back once, in the same transaction, for the L1.
+     *
+     * @return number of cache entries written
+     */
     @Transactional
-    public void removeBlocker(UUID personId, UUID asdId, String documentType) {
-        repo.findByPersonIdAndAsdId(personId, asdId).ifPresent(cached -> {
-            var remaining = cached.getBlockingDocuments().stream()
-                    .filter(d -> !d.startsWith(documentType))
-                    .toList();
-            cached.setBlockingDocuments(remaining);
-            cached.setEligible(remaining.isEmpty());
-            cached.setSource("document.renewed");
-            repo.save(cached);
-        });
+    public int applyComplianceEvents(List<DomainEvent> events) {
+        return applyComplianceEvents(Tables.LIVE, events);
+    }
+
+    /**
+     * Same statements against other tables — EligibilityCacheProjection replays into the rebuild shadows.
+     * Only writes to the live tables reach the L1.
+     */
+    @Transactional
+    public int applyComplianceEvents(Tables tables, List<DomainEvent> events) {
+        var changes = new ArrayList<BlockerChange>();
+        for (var event : events) {
+            switch (event) {
+                case DocumentExpiredEvent evt -> {
+                    for (var agonistic : EligibilityFlavours.requiring(evt.documentType()))
+                        changes.add(new BlockerChange.Append(new Key(evt.personId(), evt.asdId(), agonistic),
+                                evt.documentType() + " [EXPIRED on " + evt.expiredOn() + "]", "document.expired"));
+                }
+                case DocumentRenewedEvent evt -> {
+                    for (var agonistic : EligibilityFlavours.requiring(evt.documentType()))
+                        changes.add(new BlockerChange.Remove(new Key(evt.personId(), evt.asdId(), agonistic),
+                                evt.documentType(), evt.newExpiryDate(), "document.renewed"));
+                }
+                default -> {
+                }
+            }
+        }
+        if (changes.isEmpty()) return 0;
+
+        batchRepo.applyAll(tables, changes);
+        var keys = new LinkedHashSet<Key>();
+        changes.forEach(change -> keys.add(change.key()));
+        var touched = batchRepo.load(tables, keys);   // a renewal of an uncached pair wrote nothing
+        if (tables.equals(Tables.LIVE)) {
+            var written = new HashMap<Key, CachedEligibility>();
+            touched.forEach((key, row) -> written.put(key, toCached(row)));
+            l1.putAll(written);
+        }
+        return touched.size();
+    }
+
+    private void upsert(Key key, boolean eligible, List<String> blocking, LocalDate validUntil, String source) {
+        batchRepo.saveAll(Tables.LIVE, List.of(new Row(UUID.randomUUID(), key, eligible,
+                new ArrayList<>(blocking), validUntil, source)));
+        l1.put(key, new CachedEligibility(eligible, List.copyOf(blocking), validUntil));
+    }
+
+    private void writeThrough(Row written) {
+        l1.put(written.key(), toCached(written));
     }
 
-    private void upsert(UUID personId, UUID asdId,
-                        boolean eligible, List<String> blocking, String source) {
-        var entity = repo.findByPersonIdAndAsdId(personId, asdId)
-                .orElseGet(() -> newEntry(personId, asdId));
-        entity.setEligible(eligible);
-        entity.setBlockingDocuments(new java.util.ArrayList<>(blocking));
-        entity.setSource(source);
-        repo.save(entity);
+    private static CachedEligibility toCached(Row row) {
+        return new CachedEligibility(row.eligible(), List.copyOf(row.blockingDocuments()), row.validUntil());
     }
 
-    private EligibilityCacheEntity newEntry(UUID personId, UUID asdId) {
-        return EligibilityCacheEntity.builder()
-                .personId(personId)
-                .asdId(asdId)
-                .eligible(false)
-                .source("unknown")
-                .build();
+    private static CachedEligibility toCached(EligibilityCacheEntity entity) {
+        return new CachedEligibility(entity.isEligible(), List.copyOf(entity.getBlockingDocuments()),
+                entity.getValidUntil());
     }
 }
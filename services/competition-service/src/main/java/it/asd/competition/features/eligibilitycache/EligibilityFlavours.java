@@ -0,0 +1,36 @@
+package it.asd.competition.features.eligibilitycache;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which cached flavours a document counts for.
+ * <p>
+ * Mirrors DocumentType.AGONISTIC_REQUIRED / RECREATIONAL_REQUIRED in
+ * compliance-service. A compliance event names a document, not a flavour: an
+ * expired agonistic certificate must block the agonistic answer only, and a
+ * document neither flavour requires changes no answer.
+ */
+final class EligibilityFlavours {
+
+    private static final Set<String> AGONISTIC_REQUIRED =
+            Set.of("CERTIFICATO_MEDICO_AGONISTICO", "ASSICURAZIONE", "TESSERA_FEDERALE");
+
+    private static final Set<String> RECREATIONAL_REQUIRED =
+            Set.of("CERTIFICATO_MEDICO_NON_AGONISTICO", "ASSICURAZIONE");
+
+    private EligibilityFlavours() {
+    }
+
+    /**
+     * @return the agonistic flags whose answer {@code documentType} can change; empty for none
+     */
+    static List<Boolean> requiring(String documentType) {
+        boolean agonistic = AGONISTIC_REQUIRED.contains(documentType);
+        boolean recreational = RECREATIONAL_REQUIRED.contains(documentType);
+        if (agonistic && recreational) return List.of(true, false);
+        if (agonistic) return List.of(true);
+        if (recreational) return List.of(false);
+        return List.of();
+    }
+}
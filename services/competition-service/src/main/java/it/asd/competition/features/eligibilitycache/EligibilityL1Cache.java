@@ -0,0 +1,128 @@
+package it.asd.competition.features.eligibilitycache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService.CachedEligibility;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process L1 in front of the eligibility_cache table.
+ * <p>
+ * A warm registration is a hash lookup, not a query on eligibility_cache.
+ * Entries come from two places:
+ * - read-through: a table hit is copied in with putIfAbsent. A write that
+ * committed in the meantime is never overwritten by the older row.
+ * - write-through: every EligibilityCacheService write is published here.
+ * The publish happens after its transaction commits, so the L1 never shows a
+ * value that was rolled back.
+ * <p>
+ * Absence is not cached. A miss must reach the table, and then the cold path.
+ * <p>
+ * Each entry lives expire-after-write, cut short at the end of its validUntil
+ * day: an answer never outlives the scadenza it was computed from, and an
+ * entry already past it expires on arrival.
+ * <p>
+ * Meters (CaffeineCacheMetrics, cache=eligibility_l1): cache.gets{result=hit|miss},
+ * cache.evictions, cache.size.
+ */
+@Component
+public class EligibilityL1Cache {
+
+    static final String CACHE_NAME = "eligibility_l1";
+
+    private final Cache<Key, CachedEligibility> cache;
+
+    public EligibilityL1Cache(EligibilityL1Properties props, MeterRegistry meterRegistry) {
+        this.cache = props.enabled()
+                ? Caffeine.newBuilder()
+                .maximumSize(props.maxSize())
+                .expireAfter(new UntilValid(props.expireAfterWrite()))
+                .recordStats()
+                .build()
+                : null;
+        if (cache != null) CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CachedEligibility get(Key key) {
+        return cache == null ? null : cache.getIfPresent(key);
+    }
+
+    /**
+     * Read-through fill. Loses against any entry already present.
+     */
+    public void fill(Key key, CachedEligibility value) {
+        if (cache != null) cache.asMap().putIfAbsent(key, value);
+    }
+
+    /**
+     * Write-through. Applied after the surrounding transaction commits, or at once if there is none.
+     */
+    public void put(Key key, CachedEligibility value) {
+        putAll(Map.of(key, value));
+    }
+
+    public void putAll(Map<Key, CachedEligibility> values) {
+        if (cache == null || values.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.putAll(values);
+            return;
+        }
+        var staged = new LinkedHashMap<>(values);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.putAll(staged);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        if (cache != null) cache.invalidateAll();
+    }
+
+    long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    /**
+     * Lifetime of an entry written at {@code now}: {@code max}, or less if its validUntil ends sooner.
+     */
+    static Duration ttl(CachedEligibility value, Duration max, ZonedDateTime now) {
+        if (value.validUntil() == null) return max;
+        var left = Duration.between(now, value.validUntil().plusDays(1).atStartOfDay(now.getZone()));
+        if (left.isNegative()) return Duration.ZERO;
+        return left.compareTo(max) < 0 ? left : max;
+    }
+
+    /**
+     * Reads do not extend an entry: its clock restarts only when it is written again.
+     */
+    private record UntilValid(Duration max) implements Expiry<Key, CachedEligibility> {
+
+        @Override
+        public long expireAfterCreate(Key key, CachedEligibility value, long currentTime) {
+            return ttl(value, max, ZonedDateTime.now()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, CachedEligibility value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, CachedEligibility value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
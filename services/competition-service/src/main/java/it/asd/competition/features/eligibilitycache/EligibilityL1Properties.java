@@ -0,0 +1,30 @@
+package it.asd.competition.features.eligibilitycache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Binds {@code asd.competition.eligibility-cache.l1.*} from application.yml.
+ * <p>
+ * max-size bounds the entries kept in memory (roughly 200 bytes each); beyond
+ * it Caffeine evicts by frequency. expire-after-write bounds how long another
+ * replica's write can stay invisible here: compliance events are consumed by
+ * one replica of the group, so only that replica writes through. An entry
+ * whose validUntil ends sooner expires then instead.
+ */
+@ConfigurationProperties(prefix = "asd.competition.eligibility-cache.l1")
+public record EligibilityL1Properties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("200000") long maxSize,
+        @DefaultValue("5m") Duration expireAfterWrite
+) {
+
+    public EligibilityL1Properties {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("asd.competition.eligibility-cache.l1.max-size must be >= 1");
+        if (expireAfterWrite.isNegative() || expireAfterWrite.isZero())
+            throw new IllegalArgumentException("asd.competition.eligibility-cache.l1.expire-after-write must be > 0");
+    }
+}
@@ -0,0 +1,62 @@
+package it.asd.competition.features.eligibilitywarmup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The warm-up's own client for POST /compliance/eligibility:batch.
+ * <p>
+ * Registration keeps its fail-closed ComplianceClient. Here a failed call
+ * only means the pairs stay cold, so errors propagate as plain
+ * RestClientExceptions and the caller skips the chunk.
+ */
+@Component
+class ComplianceBatchClient {
+
+    /**
+     * Mirrors CheckEligibilityBatchQuery.MAX_ITEMS in compliance-service.
+     */
+    static final int MAX_BATCH = 1000;
+
+    private final RestClient restClient;
+
+    ComplianceBatchClient(RestClient.Builder builder, @Value("${services.compliance.base-url}") String baseUrl) {
+        this.restClient = builder.baseUrl(baseUrl).build();
+    }
+
+    /**
+     * @return one answer per query, in request order
+     * @throws IllegalStateException when the response does not match the request
+     */
+    List<Answer> check(List<Query> queries) {
+        var response = restClient.post()
+                .uri("/compliance/eligibility:batch")
+                .body(new BatchRequest(queries))
+                .retrieve()
+                .body(BatchResponse.class);
+
+        if (response == null || response.results() == null || response.results().size() != queries.size())
+            throw new IllegalStateException("Malformed batch response from Compliance");
+        return response.results();
+    }
+
+    record Query(UUID personId, UUID asdId, boolean agonistic) {
+    }
+
+    /**
+     * Same JSON shape as EligibilityResponse in compliance-service.
+     */
+    record Answer(boolean eligible, List<String> blockingDocuments, List<String> warnings, LocalDate validUntil) {
+    }
+
+    record BatchRequest(List<Query> items) {
+    }
+
+    record BatchResponse(List<Answer> results) {
+    }
+}
@@ -0,0 +1,126 @@
+package it.asd.competition.features.eligibilitywarmup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService.CachedEligibility;
+import it.asd.competition.features.eligibilitywarmup.ComplianceBatchClient.Query;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prefetches eligibility into the cache before anyone registers.
+ * <p>
+ * Keys are sent to POST /compliance/eligibility:batch in chunks of
+ * warmup.batch-size, at most warmup.calls-per-second calls (shared by every
+ * listener thread of this replica). A warm-up must never become the
+ * compliance hiccup it exists to absorb. Answers are written exactly like a
+ * bulk cold-path check (updateFromSyncChecks): table upsert, then L1.
+ * <p>
+ * Every key carries its flavour and is asked with it, so each answer lands
+ * under the key a registration with the same agonistic flag reads.
+ * EligibilityWarmupConsumer warms both flavours of a pair.
+ * <p>
+ * A chunk that fails is logged and counted, not retried. Its keys stay
+ * cold and the registration cold path still covers them.
+ * <p>
+ * Meters: competition.eligibility.warmup{result=warmed|failed} (keys).
+ */
+@Component
+class EligibilityWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(EligibilityWarmer.class);
+
+    private final ComplianceBatchClient client;
+    private final EligibilityCacheService cacheService;
+    private final int batchSize;
+    private final long intervalNanos;
+    private final Counter warmed;
+    private final Counter failed;
+
+    private long nextCallAt = System.nanoTime();   // guarded by this
+
+    EligibilityWarmer(ComplianceBatchClient client,
+                      EligibilityCacheService cacheService,
+                      MeterRegistry meterRegistry,
+                      @Value("${asd.competition.eligibility-cache.warmup.batch-size:200}") int batchSize,
+                      @Value("${asd.competition.eligibility-cache.warmup.calls-per-second:5}") double callsPerSecond) {
+        this.client = client;
+        this.cacheService = cacheService;
+        this.batchSize = Math.min(batchSize, ComplianceBatchClient.MAX_BATCH);
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / callsPerSecond);
+        this.warmed = counter(meterRegistry, "warmed");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * @param refresh keys to re-check even when cached (their documents changed)
+     * @param fill    keys to check only when cached in neither tier
+     * @return number of keys written to the cache
+     */
+    int warm(Collection<Key> refresh, Collection<Key> fill) {
+        var keys = new LinkedHashSet<>(refresh);
+        var candidates = fill.stream().filter(k -> !keys.contains(k)).distinct().toList();
+        if (!candidates.isEmpty()) {
+            var cached = cacheService.getAll(candidates).keySet();
+            candidates.stream().filter(k -> !cached.contains(k)).forEach(keys::add);
+        }
+
+        var all = List.copyOf(keys);
+        int written = 0;
+        for (int from = 0; from < all.size(); from += batchSize) {
+            var chunk = all.subList(from, Math.min(from + batchSize, all.size()));
+            awaitSlot();
+            try {
+                var answers = client.check(chunk.stream()
+                        .map(k -> new Query(k.personId(), k.asdId(), k.agonistic())).toList());
+                var results = new HashMap<Key, CachedEligibility>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    var answer = answers.get(i);
+                    results.put(chunk.get(i), new CachedEligibility(answer.eligible(),
+                            answer.blockingDocuments() == null ? List.of() : List.copyOf(answer.blockingDocuments()),
+                            answer.validUntil()));
+                }
+                cacheService.updateFromSyncChecks(results);
+                written += chunk.size();
+                warmed.increment(chunk.size());
+            } catch (RestClientException | IllegalStateException ex) {
+                failed.increment(chunk.size());
+                log.warn("[WARMUP] Chunk of {} keys left cold: {}", chunk.size(), ex.getMessage());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Reserves the next call slot under the lock, then waits for it outside.
+     */
+    private void awaitSlot() {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextCallAt);
+            nextCallAt = slot + intervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("competition.eligibility.warmup")
+                .description("(person, asd, agonistic) keys prefetched from Compliance")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,83 @@
+package it.asd.competition.features.eligibilitywarmup;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.compliance.DocumentCreatedEvent;
+import it.asd.events.membership.MembershipActivatedEvent;
+import it.asd.events.registry.SeasonActivatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Turns activations into eligibility warm-ups, so the first registrations of
+ * a season find the cache warm instead of calling Compliance one by one.
+ * <p>
+ * membership.activated        → that (person, asd), if not cached yet
+ * season.activated            → every person this service knows for the asd
+ * (past participants, cached pairs), if not cached yet
+ * compliance.document.created → that (person, asd), always re-checked
+ * <p>
+ * Competition does not hold memberships, so a season activation warms the
+ * people it has seen for the asd. New members arrive through
+ * membership.activated. One poll = one EligibilityWarmer.warm call; pairs
+ * repeated in the poll are checked once.
+ * <p>
+ * Every pair is warmed in both flavours, agonistic and recreational: nothing
+ * here says which one the person will register for.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.competition.eligibility-cache.warmup", name = "enabled",
+        havingValue = "true", matchIfMissing = true)
+public class EligibilityWarmupConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(EligibilityWarmupConsumer.class);
+
+    private final EligibilityWarmer warmer;
+    private final EligibilityCacheBatchRepository cacheRepo;
+
+    public EligibilityWarmupConsumer(EligibilityWarmer warmer, EligibilityCacheBatchRepository cacheRepo) {
+        this.warmer = warmer;
+        this.cacheRepo = cacheRepo;
+    }
+
+    @KafkaListener(
+            topics = {KafkaTopics.MEMBERSHIP_ACTIVATED, KafkaTopics.DOCUMENT_CREATED, KafkaTopics.SEASON_ACTIVATED},
+            groupId = "competition-warmup",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void onActivations(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        var refresh = new LinkedHashSet<Key>();
+        var fill = new LinkedHashSet<Key>();
+        for (var event : EventBatches.payloads(records, DomainEvent.class)) {
+            switch (event) {
+                case DocumentCreatedEvent evt -> addBothFlavours(refresh, evt.personId(), evt.asdId());
+                case MembershipActivatedEvent evt -> addBothFlavours(fill, evt.personId(), evt.asdId());
+                case SeasonActivatedEvent evt -> cacheRepo.knownPersons(evt.asdId())
+                        .forEach(personId -> addBothFlavours(fill, personId, evt.asdId()));
+                default -> log.warn("[WARMUP] Unhandled event type: {}", event.getClass().getSimpleName());
+            }
+        }
+        int written = warmer.warm(refresh, fill);
+        log.info("[WARMUP] {} records → {} keys warmed", records.size(), written);
+        ack.acknowledge();
+    }
+
+    private static void addBothFlavours(Set<Key> keys, UUID personId, UUID asdId) {
+        keys.add(new Key(personId, asdId, true));
+        keys.add(new Key(personId, asdId, false));
+    }
+}
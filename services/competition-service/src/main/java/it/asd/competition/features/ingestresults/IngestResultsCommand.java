@@ -0,0 +1,30 @@
+package it.asd.competition.features.ingestresults;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An uploaded result file. body is the raw request stream — read once, row by row.
+ */
+public record IngestResultsCommand(UUID eventId, Format format, InputStream body) {
+
+    public enum Format {
+        /**
+         * Header row, then one row per result. See ResultRow for the columns.
+         */
+        CSV,
+        /**
+         * A top-level array of result objects.
+         */
+        JSON;
+
+        public static Optional<Format> of(String contentType) {
+            if (contentType == null) return Optional.empty();
+            var type = contentType.toLowerCase();
+            if (type.startsWith("text/csv")) return Optional.of(CSV);
+            if (type.startsWith("application/json")) return Optional.of(JSON);
+            return Optional.empty();
+        }
+    }
+}
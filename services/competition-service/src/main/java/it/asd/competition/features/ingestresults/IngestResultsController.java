@@ -0,0 +1,51 @@
+package it.asd.competition.features.ingestresults;
+
+import it.asd.common.exception.ApiErrors;
+import it.asd.common.validation.annotation.ValidUUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * POST /competition/events/{eventId}/results:ingest
+ * <p>
+ * Body: a timing-system export as text/csv (header row) or application/json
+ * (array of result objects). The body is streamed into the handler, never
+ * buffered. 200 with a per-row report. If the file breaks mid-way: 400, and
+ * the report of the rows already stored is in the problem's "report" property.
+ * Re-uploading a corrected file is safe, because the same row just records
+ * the same values again.
+ */
+@Validated
+@RestController
+@RequestMapping("/competition/events/{eventId}/results:ingest")
+public class IngestResultsController {
+
+    private final IngestResultsHandler handler;
+
+    public IngestResultsController(IngestResultsHandler handler) {
+        this.handler = handler;
+    }
+
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> ingest(
+            @PathVariable @ValidUUID UUID eventId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        var format = IngestResultsCommand.Format.of(contentType).orElseThrow();   // guaranteed by consumes
+        return switch (handler.handle(new IngestResultsCommand(eventId, format, body))) {
+            case IngestResultsResult.Ingested r -> ResponseEntity.ok(r.report());
+            case IngestResultsResult.Unreadable r -> ResponseEntity.badRequest().body(ApiErrors.of(
+                    HttpStatus.BAD_REQUEST, ApiErrors.VALIDATION_FAILED, r.reason(),
+                    Map.of("report", r.report())));
+        };
+    }
+}
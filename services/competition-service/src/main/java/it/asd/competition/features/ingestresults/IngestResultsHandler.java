@@ -0,0 +1,204 @@
+package it.asd.competition.features.ingestresults;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.common.kafka.EventPublisher;
+import it.asd.competition.features.ingestresults.IngestionReport.RowOutcome;
+import it.asd.competition.features.ingestresults.IngestionReport.Status;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.ResultTarget;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.ResultUpdate;
+import it.asd.events.KafkaTopics;
+import it.asd.events.competition.ParticipantResultSetEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Vertical slice handler for a result file from a timing system.
+ * <p>
+ * The upload is read row by row (ResultRowReader) and applied in chunks of
+ * asd.competition.results.ingest.chunk-size. Each chunk is one transaction:
+ * 1. One query locks the participations the chunk points at (by id or by person).
+ * Rows matching none are NOT_FOUND.
+ * 2. Values merge as in RecordResultHandler: a field the row leaves empty keeps
+ * the stored value. If several rows hit the same participation, the last row wins.
+ * 3. One JDBC batch update, then one publishAll of ParticipantResultSetEvents per
+ * (asd, season) — outbox rows in the same transaction.
+ * <p>
+ * Memory is bounded by one chunk plus the per-row report. A row that fails
+ * to parse is INVALID and does not stop the file. A file that breaks mid-way
+ * keeps the chunks already committed (Unreadable carries their report).
+ */
+@Component
+public class IngestResultsHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestResultsHandler.class);
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    private final EventParticipationBatchRepository participationRepo;
+    private final EventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    public IngestResultsHandler(EventParticipationBatchRepository participationRepo,
+                                EventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${asd.competition.results.ingest.chunk-size:500}") int chunkSize) {
+        this.participationRepo = participationRepo;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public IngestResultsResult handle(IngestResultsCommand cmd) {
+        var outcomes = new ArrayList<RowOutcome>();
+        var chunk = new ArrayList<ResultRow>(chunkSize);
+        String unreadable = null;
+
+        try (var rows = ResultRowReader.open(cmd.format(), cmd.body(), objectMapper)) {
+            while (rows.hasNext()) {
+                var row = rows.next();
+                if (!row.isValid()) {
+                    outcomes.add(new RowOutcome(row.number(), null, Status.INVALID, row.error()));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    outcomes.addAll(applyChunk(cmd.eventId(), chunk));
+                    chunk.clear();
+                }
+            }
+        } catch (ResultRowReader.Unreadable ex) {
+            unreadable = ex.getMessage();
+        } catch (IOException ex) {
+            // close() only — every row was read
+            log.debug("[INGEST] Closing upload for eventId={}: {}", cmd.eventId(), ex.getMessage());
+        }
+        outcomes.addAll(applyChunk(cmd.eventId(), chunk));   // rows read before a break are kept too
+        outcomes.sort(Comparator.comparingInt(RowOutcome::row));
+
+        var report = IngestionReport.of(cmd.eventId(), outcomes);
+        log.info("[INGEST] eventId={} rows={} recorded={} rejected={}{}",
+                cmd.eventId(), report.rows(), report.recorded(), report.rejected(),
+                unreadable == null ? "" : " — " + unreadable);
+        return unreadable == null
+                ? new IngestResultsResult.Ingested(report)
+                : new IngestResultsResult.Unreadable(unreadable, report);
+    }
+
+    private List<RowOutcome> applyChunk(UUID eventId, List<ResultRow> chunk) {
+        if (chunk.isEmpty()) return List.of();
+        return tx.execute(_ -> {
+            var ids = chunk.stream().map(ResultRow::participationId).filter(Objects::nonNull).distinct().toList();
+            var personIds = chunk.stream().map(ResultRow::personId).filter(Objects::nonNull).distinct().toList();
+            var byId = new HashMap<UUID, ResultTarget>();
+            var byPerson = new HashMap<UUID, ResultTarget>();
+            for (var target : participationRepo.lockForResults(eventId, ids, personIds)) {
+                byId.put(target.id(), target);
+                if (target.personId() != null) byPerson.put(target.personId(), target);
+            }
+
+            var outcomes = new ArrayList<RowOutcome>(chunk.size());
+            var merged = new LinkedHashMap<UUID, Merged>();   // last row per participation wins
+            for (var row : chunk) {
+                var target = row.participationId() != null ? byId.get(row.participationId()) : byPerson.get(row.personId());
+                if (target == null) {
+                    outcomes.add(new RowOutcome(row.number(), row.participationId(), Status.NOT_FOUND,
+                            "No participation in this event for the row"));
+                    continue;
+                }
+                if (row.personId() != null && !row.personId().equals(target.personId())) {
+                    outcomes.add(new RowOutcome(row.number(), target.id(), Status.INVALID,
+                            "personId does not match participationId"));
+                    continue;
+                }
+                var current = merged.computeIfAbsent(target.id(), _ -> Merged.of(target));
+                merged.put(target.id(), current.with(row));
+                outcomes.add(new RowOutcome(row.number(), target.id(), Status.RECORDED, null));
+            }
+
+            participationRepo.updateResults(merged.values().stream()
+                    .map(m -> new ResultUpdate(m.target().id(), m.posizione(), m.punteggio(), toJson(m)))
+                    .toList());
+            publish(eventId, merged.values());
+            return outcomes;
+        });
+    }
+
+    private void publish(UUID eventId, Iterable<Merged> results) {
+        var now = Instant.now();
+        var bySeason = new LinkedHashMap<Scope, List<ParticipantResultSetEvent>>();
+        for (var m : results) {
+            var t = m.target();
+            bySeason.computeIfAbsent(new Scope(t.asdId(), t.seasonId()), _ -> new ArrayList<>())
+                    .add(new ParticipantResultSetEvent(
+                            UUID.randomUUID(), t.id(), eventId, t.personId(), t.groupId(),
+                            null,   // disciplina comes from the event — same gap as RecordResultHandler
+                            m.posizione(),
+                            m.punteggio() != null ? m.punteggio().doubleValue() : null,
+                            resultData(m), now));
+        }
+        bySeason.forEach((scope, events) ->
+                eventPublisher.publishAll(KafkaTopics.PARTICIPANT_RESULT_SET, events, scope.asdId(), scope.seasonId()));
+    }
+
+    private String toJson(Merged m) {
+        if (m.resultData() == null) return m.target().resultData();
+        try {
+            return objectMapper.writeValueAsString(m.resultData());
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Map<String, Object> resultData(Merged m) {
+        if (m.resultData() != null || m.target().resultData() == null) return m.resultData();
+        try {
+            return objectMapper.readValue(m.target().resultData(), JSON_MAP);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Scope(UUID asdId, UUID seasonId) {
+    }
+
+    /**
+     * Values after the chunk's rows. resultData null = keep the stored jsonb.
+     */
+    private record Merged(ResultTarget target, Integer posizione, BigDecimal punteggio,
+                          Map<String, Object> resultData) {
+        static Merged of(ResultTarget target) {
+            return new Merged(target, target.posizione(), target.punteggio(), null);
+        }
+
+        Merged with(ResultRow row) {
+            return new Merged(target,
+                    row.posizione() != null ? row.posizione() : posizione,
+                    row.punteggio() != null ? row.punteggio() : punteggio,
+                    row.resultData() != null ? row.resultData() : resultData);
+        }
+    }
+}
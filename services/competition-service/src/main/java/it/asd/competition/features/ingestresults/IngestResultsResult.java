@@ -0,0 +1,18 @@
+package it.asd.competition.features.ingestresults;
+
+/**
+ * Sealed result for IngestResults.
+ * <p>
+ * Chunks commit as they go, so even Unreadable carries the report of the rows
+ * read before the file broke — those results are stored and published.
+ */
+public sealed interface IngestResultsResult
+        permits IngestResultsResult.Ingested,
+        IngestResultsResult.Unreadable {
+
+    record Ingested(IngestionReport report) implements IngestResultsResult {
+    }
+
+    record Unreadable(String reason, IngestionReport report) implements IngestResultsResult {
+    }
+}
@@ -0,0 +1,23 @@
+package it.asd.competition.features.ingestresults;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-row outcome of an upload, in file order.
+ */
+public record IngestionReport(UUID eventId, int rows, int recorded, int rejected, List<RowOutcome> outcomes) {
+
+    public enum Status {RECORDED, NOT_FOUND, INVALID}
+
+    /**
+     * @param row 1-based data row of the file
+     */
+    public record RowOutcome(int row, UUID participationId, Status status, String reason) {
+    }
+
+    static IngestionReport of(UUID eventId, List<RowOutcome> outcomes) {
+        int recorded = (int) outcomes.stream().filter(o -> o.status() == Status.RECORDED).count();
+        return new IngestionReport(eventId, outcomes.size(), recorded, outcomes.size() - recorded, outcomes);
+    }
+}
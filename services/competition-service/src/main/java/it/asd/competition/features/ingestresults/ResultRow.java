@@ -0,0 +1,79 @@
+package it.asd.competition.features.ingestresults;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One uploaded result, parsed from a CSV row or a JSON object.
+ * <p>
+ * Recognised fields: participationId and/or personId (at least one),
+ * posizione, punteggio, resultData. In JSON, resultData is an object. Without
+ * it, every other field (in CSV, every other column: splits, lane, reaction time…)
+ * becomes resultData. Blank values count as absent.
+ * <p>
+ * A row that cannot be parsed carries an error and no values; it is reported
+ * as INVALID and the rest of the file goes on.
+ *
+ * @param number 1-based data row (the CSV header is not counted)
+ */
+record ResultRow(int number, UUID participationId, UUID personId,
+                 Integer posizione, BigDecimal punteggio, Map<String, Object> resultData,
+                 String error) {
+
+    private static final Set<String> KNOWN = Set.of("participationId", "personId", "posizione", "punteggio", "resultData");
+
+    boolean isValid() {
+        return error == null;
+    }
+
+    static ResultRow invalid(int number, String error) {
+        return new ResultRow(number, null, null, null, null, null, error);
+    }
+
+    @SuppressWarnings("unchecked")
+    static ResultRow parse(int number, Map<String, Object> fields) {
+        try {
+            var participationId = uuid(fields.get("participationId"));
+            var personId = uuid(fields.get("personId"));
+            if (participationId == null && personId == null)
+                return invalid(number, "participationId or personId is required");
+
+            var posizione = text(fields.get("posizione")) == null ? null
+                    : Integer.valueOf(text(fields.get("posizione")));
+            if (posizione != null && posizione < 1)
+                return invalid(number, "posizione must be positive");
+            var punteggio = text(fields.get("punteggio")) == null ? null
+                    : new BigDecimal(text(fields.get("punteggio")));
+
+            Map<String, Object> resultData;
+            if (fields.get("resultData") instanceof Map<?, ?> explicit) {
+                resultData = (Map<String, Object>) explicit;
+            } else {
+                resultData = new LinkedHashMap<>();
+                for (var e : fields.entrySet())
+                    if (!KNOWN.contains(e.getKey()) && text(e.getValue()) != null) resultData.put(e.getKey(), e.getValue());
+                if (resultData.isEmpty()) resultData = null;
+            }
+
+            if (posizione == null && punteggio == null && resultData == null)
+                return invalid(number, "no result values");
+            return new ResultRow(number, participationId, personId, posizione, punteggio, resultData, null);
+        } catch (IllegalArgumentException ex) {   // NumberFormatException included
+            return invalid(number, "unparseable value: " + ex.getMessage());
+        }
+    }
+
+    private static UUID uuid(Object value) {
+        var text = text(value);
+        return text == null ? null : UUID.fromString(text);
+    }
+
+    private static String text(Object value) {
+        if (value == null) return null;
+        var text = value.toString().strip();
+        return text.isEmpty() ? null : text;
+    }
+}
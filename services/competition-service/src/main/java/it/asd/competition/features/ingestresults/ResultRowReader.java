@@ -0,0 +1,79 @@
+package it.asd.competition.features.ingestresults;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Pulls ResultRows off an upload one at a time — the file is never held in memory.
+ * <p>
+ * Both formats go through a Jackson MappingIterator: CSV with the header row as
+ * schema, JSON as the elements of the top-level array. A file that stops
+ * parsing mid-way (broken quoting, truncated JSON) raises Unreadable; rows
+ * before it have already been handed out.
+ */
+final class ResultRowReader implements Iterator<ResultRow>, Closeable {
+
+    static final class Unreadable extends RuntimeException {
+        Unreadable(int afterRow, Throwable cause) {
+            super("Unreadable after row " + afterRow + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private static final CsvMapper CSV = new CsvMapper();
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {
+    };
+
+    private final MappingIterator<Map<String, Object>> rows;
+    private int number;
+
+    private ResultRowReader(MappingIterator<Map<String, Object>> rows) {
+        this.rows = rows;
+    }
+
+    static ResultRowReader open(IngestResultsCommand.Format format, InputStream body, ObjectMapper json) {
+        try {
+            return new ResultRowReader(switch (format) {
+                case CSV -> CSV.readerFor(ROW)
+                        .with(CsvSchema.emptySchema().withHeader())
+                        .readValues(body);
+                case JSON -> json.readerFor(ROW).readValues(body);
+            });
+        } catch (IOException ex) {
+            throw new Unreadable(0, ex);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return rows.hasNextValue();
+        } catch (IOException | RuntimeException ex) {
+            throw new Unreadable(number, ex);
+        }
+    }
+
+    @Override
+    public ResultRow next() {
+        Map<String, Object> fields;
+        try {
+            fields = rows.nextValue();
+        } catch (IOException | RuntimeException ex) {
+            throw new Unreadable(number, ex);
+        }
+        return ResultRow.parse(++number, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+}
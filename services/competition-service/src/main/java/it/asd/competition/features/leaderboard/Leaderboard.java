@@ -0,0 +1,104 @@
+package it.asd.competition.features.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Live standings of one event: an OrderStatisticTree of ranked Standings plus
+ * two lookups (participationId → standing, personId → participationId).
+ * <p>
+ * A recorded result is a remove + add, so rank queries and top-N never sort.
+ * A person has at most one participation per event (uq_participation_event_person),
+ * so rank-of-person is one map lookup plus one indexOf.
+ * <p>
+ * Every method holds the instance monitor. LeaderboardService also takes it
+ * to send a snapshot or a delta, so subscribers see them in board order.
+ */
+final class Leaderboard {
+
+    /**
+     * rank is 1-based.
+     */
+    record Ranked(int rank, Standing standing) {
+    }
+
+    /**
+     * One change of the board. rank 0 = left the board, previousRank 0 = new on the board.
+     * Entries between the two ranks shift by one; subscribers shift them locally.
+     */
+    record Delta(Standing standing, int rank, int previousRank) {
+    }
+
+    private final UUID eventId;
+    private final OrderStatisticTree<Standing> ranking = new OrderStatisticTree<>(Standing.ORDER);
+    private final Map<UUID, Standing> byParticipation = new HashMap<>();
+    private final Map<UUID, UUID> participationByPerson = new HashMap<>();
+    private boolean loaded;
+
+    Leaderboard(UUID eventId) {
+        this.eventId = eventId;
+    }
+
+    UUID eventId() {
+        return eventId;
+    }
+
+    /**
+     * Fills the board from the table once. Results applied before the load are
+     * overwritten by the stored rows, which are at least as recent.
+     */
+    synchronized void ensureLoaded(Supplier<? extends Collection<Standing>> stored) {
+        if (loaded) return;
+        for (var standing : stored.get()) apply(standing);
+        loaded = true;
+    }
+
+    /**
+     * @return the change, or empty if the board did not move
+     */
+    synchronized Optional<Delta> apply(Standing standing) {
+        var previous = byParticipation.remove(standing.participationId());
+        int previousRank = 0;
+        if (previous != null) {
+            previousRank = ranking.indexOf(previous) + 1;
+            ranking.remove(previous);
+            if (previous.personId() != null) participationByPerson.remove(previous.personId());
+        }
+
+        int rank = 0;
+        if (standing.isRanked()) {
+            ranking.add(standing);
+            byParticipation.put(standing.participationId(), standing);
+            if (standing.personId() != null)
+                participationByPerson.put(standing.personId(), standing.participationId());
+            rank = ranking.indexOf(standing) + 1;
+        }
+
+        if (standing.equals(previous) || (rank == 0 && previousRank == 0)) return Optional.empty();
+        return Optional.of(new Delta(standing, rank, previousRank));
+    }
+
+    synchronized List<Ranked> top(int limit) {
+        var top = ranking.first(limit);
+        var out = new ArrayList<Ranked>(top.size());
+        for (int i = 0; i < top.size(); i++) out.add(new Ranked(i + 1, top.get(i)));
+        return out;
+    }
+
+    synchronized Optional<Ranked> rankOf(UUID personId) {
+        var participationId = participationByPerson.get(personId);
+        if (participationId == null) return Optional.empty();
+        var standing = byParticipation.get(participationId);
+        return Optional.of(new Ranked(ranking.indexOf(standing) + 1, standing));
+    }
+
+    synchronized int size() {
+        return ranking.size();
+    }
+}
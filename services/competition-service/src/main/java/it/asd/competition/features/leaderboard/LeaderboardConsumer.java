@@ -0,0 +1,43 @@
+package it.asd.competition.features.leaderboard;
+
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.competition.ParticipantResultSetEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds live leaderboards from this service's own competition.participant.result_set.
+ * <p>
+ * Boards live in memory, so every replica must see every result: the group id
+ * is unique per instance and starts at the latest offset. Older results are
+ * already in event_participation, where a board is loaded from on first read.
+ * Applying a result cannot fail, so the whole poll is acked at once.
+ */
+@Component
+public class LeaderboardConsumer {
+
+    private final LeaderboardService leaderboards;
+
+    public LeaderboardConsumer(LeaderboardService leaderboards) {
+        this.leaderboards = leaderboards;
+    }
+
+    @KafkaListener(
+            topics = KafkaTopics.PARTICIPANT_RESULT_SET,
+            groupId = "competition-leaderboard-${random.uuid}",
+            properties = "auto.offset.reset=latest",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void onResults(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        for (var rec : records) {
+            if (rec.value() != null && rec.value().payload() instanceof ParticipantResultSetEvent evt)
+                leaderboards.apply(evt.competitionEventId(), Standing.of(evt));
+        }
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,56 @@
+package it.asd.competition.features.leaderboard;
+
+import it.asd.common.exception.ApiErrors;
+import it.asd.common.validation.annotation.ValidUUID;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+@Validated
+@RestController
+@RequestMapping("/competition/events/{eventId}/leaderboard")
+public class LeaderboardController {
+
+    static final int MAX_LIMIT = 500;
+
+    private final LeaderboardService leaderboards;
+
+    public LeaderboardController(LeaderboardService leaderboards) {
+        this.leaderboards = leaderboards;
+    }
+
+    @GetMapping
+    public ResponseEntity<LeaderboardResponse> top(
+            @PathVariable @ValidUUID UUID eventId,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_LIMIT) int limit) {
+        return ResponseEntity.ok(leaderboards.top(eventId, limit));
+    }
+
+    @GetMapping("/persons/{personId}")
+    public ResponseEntity<?> rankOf(
+            @PathVariable @ValidUUID UUID eventId,
+            @PathVariable @ValidUUID UUID personId) {
+        return leaderboards.rankOf(eventId, personId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiErrors.of(
+                        HttpStatus.NOT_FOUND, ApiErrors.NOT_FOUND,
+                        "No ranked result for personId " + personId + " in eventId " + eventId)));
+    }
+
+    /**
+     * Server-sent events: one "snapshot" with the top {@code limit}, then a "delta" per change.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @PathVariable @ValidUUID UUID eventId,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_LIMIT) int limit) {
+        return leaderboards.subscribe(eventId, limit);
+    }
+}
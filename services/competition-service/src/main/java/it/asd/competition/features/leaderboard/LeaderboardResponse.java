@@ -0,0 +1,31 @@
+package it.asd.competition.features.leaderboard;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * HTTP / SSE shapes. Static factories — flat records, nothing to map.
+ */
+public record LeaderboardResponse(UUID eventId, int ranked, List<Entry> standings) {
+
+    public record Entry(int rank, UUID participationId, UUID personId, UUID groupId,
+                        BigDecimal punteggio, Integer posizione) {
+        static Entry of(Leaderboard.Ranked r) {
+            var s = r.standing();
+            return new Entry(r.rank(), s.participationId(), s.personId(), s.groupId(), s.punteggio(), s.posizione());
+        }
+    }
+
+    /**
+     * SSE "delta" payload. rank 0 = left the board, previousRank 0 = new on the board.
+     */
+    public record Delta(UUID participationId, UUID personId, UUID groupId,
+                        BigDecimal punteggio, Integer posizione, int rank, int previousRank) {
+        static Delta of(Leaderboard.Delta d) {
+            var s = d.standing();
+            return new Delta(s.participationId(), s.personId(), s.groupId(), s.punteggio(), s.posizione(),
+                    d.rank(), d.previousRank());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package it.asd.competition.features.leaderboard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.asd.competition.shared.repository.EventParticipationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Live leaderboards, one per event that is being read.
+ * <p>
+ * A board is built from event_participation on its first read: one
+ * findByEventId and n inserts. After that, results change it in place and
+ * each poll is O(log n + N).
+ * - apply(): called by LeaderboardConsumer for every
+ * competition.participant.result_set. Results for events without a live board
+ * are ignored; their rows are already in the table for the first read.
+ * - The board is in the cache before it is loaded, and both the load and apply()
+ * hold its monitor. A result consumed during the load lands before or after
+ * it, and either order converges: results arrive after their commit.
+ * <p>
+ * Boards neither read nor updated for asd.competition.leaderboard.idle-expiry are dropped, and at
+ * most max-events are kept. Dropping a board completes its SSE streams: apply()
+ * no longer reaches them, and their clients reconnect to a fresh board. Meters (CaffeineCacheMetrics, cache=leaderboards):
+ * cache.gets{result=hit|miss}, cache.evictions, cache.size.
+ */
+@Component
+public class LeaderboardService {
+
+    static final String CACHE_NAME = "leaderboards";
+
+    private final EventParticipationRepository repo;
+    private final LeaderboardStreams streams;
+    private final Cache<UUID, Leaderboard> boards;
+
+    public LeaderboardService(EventParticipationRepository repo,
+                              LeaderboardStreams streams,
+                              @Value("${asd.competition.leaderboard.max-events:500}") int maxEvents,
+                              @Value("${asd.competition.leaderboard.idle-expiry:6h}") Duration idleExpiry,
+                              MeterRegistry meterRegistry) {
+        this.repo = repo;
+        this.streams = streams;
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(maxEvents)
+                .expireAfterAccess(idleExpiry)
+                .removalListener((UUID eventId, Leaderboard _, RemovalCause cause) -> {
+                    if (eventId != null && cause.wasEvicted()) streams.closeAll(eventId, "board evicted (" + cause + ")");
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, boards, CACHE_NAME);
+    }
+
+    public LeaderboardResponse top(UUID eventId, int limit) {
+        return snapshot(board(eventId), limit);
+    }
+
+    public Optional<LeaderboardResponse.Entry> rankOf(UUID eventId, UUID personId) {
+        return board(eventId).rankOf(personId).map(LeaderboardResponse.Entry::of);
+    }
+
+    /**
+     * The snapshot is taken and the subscriber registered under the board's
+     * monitor, so no delta can fall between them.
+     */
+    public SseEmitter subscribe(UUID eventId, int limit) {
+        var board = board(eventId);
+        synchronized (board) {
+            return streams.subscribe(eventId, snapshot(board, limit));
+        }
+    }
+
+    /**
+     * Applies a recorded result to the event's board, if it is live, and
+     * pushes the change to its subscribers. The delta is enqueued under the
+     * monitor, so every subscriber sees deltas in board order and after its
+     * snapshot; LeaderboardStreams writes them off this (Kafka) thread.
+     */
+    void apply(UUID eventId, Standing standing) {
+        var board = boards.getIfPresent(eventId);
+        if (board == null) return;
+        synchronized (board) {
+            board.apply(standing).ifPresent(d -> streams.publish(eventId, LeaderboardResponse.Delta.of(d)));
+        }
+    }
+
+    private Leaderboard board(UUID eventId) {
+        var board = boards.get(eventId, Leaderboard::new);
+        board.ensureLoaded(() -> repo.findByEventId(eventId).stream().map(Standing::of).toList());
+        return board;
+    }
+
+    private static LeaderboardResponse snapshot(Leaderboard board, int limit) {
+        synchronized (board) {
+            var standings = board.top(limit).stream().map(LeaderboardResponse.Entry::of).toList();
+            return new LeaderboardResponse(board.eventId(), board.size(), standings);
+        }
+    }
+}
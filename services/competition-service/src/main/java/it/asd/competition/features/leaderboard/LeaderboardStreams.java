@@ -0,0 +1,140 @@
+package it.asd.competition.features.leaderboard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE subscribers per event.
+ * <p>
+ * A subscriber gets one "snapshot" (top-N) and then a "delta" for every change
+ * of the board. The connection closes after asd.competition.leaderboard.stream-timeout;
+ * EventSource reconnects and gets a fresh snapshot.
+ * <p>
+ * subscribe() and publish() only enqueue, so they are cheap enough to call under
+ * the board's monitor on the Kafka thread. Every subscriber has its own queue of
+ * asd.competition.leaderboard.subscriber-buffer events, drained in order by a
+ * virtual thread that exists only while there is something to send. A subscriber
+ * whose queue is full, or whose send fails, is dropped and its connection completed:
+ * a slow client reconnects to a fresh snapshot instead of holding up the others.
+ */
+@Component
+class LeaderboardStreams implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardStreams.class);
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration timeout;
+    private final int buffer;
+
+    LeaderboardStreams(@Value("${asd.competition.leaderboard.stream-timeout:30m}") Duration timeout,
+                       @Value("${asd.competition.leaderboard.subscriber-buffer:256}") int buffer) {
+        this.timeout = timeout;
+        this.buffer = buffer;
+    }
+
+    SseEmitter subscribe(UUID eventId, LeaderboardResponse snapshot) {
+        var subscriber = new Subscriber(eventId, new SseEmitter(timeout.toMillis()));
+        subscribers.computeIfAbsent(eventId, _ -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        Runnable drop = () -> unsubscribe(subscriber);
+        subscriber.emitter.onCompletion(drop);
+        subscriber.emitter.onTimeout(drop);
+        subscriber.emitter.onError(_ -> drop.run());
+        subscriber.offer("snapshot", snapshot);
+        return subscriber.emitter;
+    }
+
+    void publish(UUID eventId, LeaderboardResponse.Delta delta) {
+        var current = subscribers.get(eventId);
+        if (current == null) return;
+        for (var subscriber : current) subscriber.offer("delta", delta);
+    }
+
+    /**
+     * Completes every stream of the event; EventSource reconnects and gets a fresh snapshot.
+     */
+    void closeAll(UUID eventId, String reason) {
+        var current = subscribers.get(eventId);
+        if (current == null) return;
+        for (var subscriber : current) subscriber.drop(reason);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.eventId, (_, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final UUID eventId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(buffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        Subscriber(UUID eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        void offer(String name, Object payload) {
+            if (dropped.get()) return;
+            if (!pending.offer(SseEmitter.event().name(name).data(payload, MediaType.APPLICATION_JSON))) {
+                drop("more than " + buffer + " events behind");
+                return;
+            }
+            if (draining.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        /**
+         * One drain at a time per subscriber, so events go out in the order they were
+         * offered. The re-check after clearing the flag picks up an offer that saw
+         * the flag still set.
+         */
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!dropped.get() && (event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException ex) {
+                        drop(ex.getMessage());
+                    }
+                }
+                draining.set(false);
+            } while (!dropped.get() && !pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void drop(String reason) {
+            if (!dropped.compareAndSet(false, true)) return;
+            log.debug("[LEADERBOARD] Dropping subscriber of eventId={}: {}", eventId, reason);
+            pending.clear();
+            unsubscribe(this);
+            emitter.complete();
+        }
+    }
+}
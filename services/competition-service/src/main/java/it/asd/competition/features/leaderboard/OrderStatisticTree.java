@@ -0,0 +1,184 @@
+package it.asd.competition.features.leaderboard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set with positional access: a treap whose nodes carry their subtree size.
+ * <p>
+ * add / remove / indexOf / get are O(log n) expected; first(k) is O(log n + k).
+ * The JDK has no sorted collection that answers "what is the index of x" without
+ * walking it, which is the one query a live standing needs on every poll.
+ * <p>
+ * The comparator must be a total order: two distinct elements never compare as 0.
+ * Not thread-safe — Leaderboard guards it.
+ */
+final class OrderStatisticTree<T> {
+
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private record Split<T>(Node<T> lower, Node<T> upper) {
+    }
+
+    private final Comparator<? super T> order;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<T> root;
+
+    OrderStatisticTree(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * @return false if an equal element is already present
+     */
+    boolean add(T value) {
+        if (indexOf(value) >= 0) return false;
+        root = insert(root, new Node<>(value, random.nextInt()));
+        return true;
+    }
+
+    /**
+     * @return false if no equal element was present
+     */
+    boolean remove(T value) {
+        if (indexOf(value) < 0) return false;
+        root = remove(root, value);
+        return true;
+    }
+
+    /**
+     * @return 0-based position in comparator order, or -1 if absent
+     */
+    int indexOf(T value) {
+        int index = 0;
+        var node = root;
+        while (node != null) {
+            int c = order.compare(value, node.value);
+            if (c == 0) return index + size(node.left);
+            if (c < 0) {
+                node = node.left;
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index 0-based, must be below size()
+     */
+    T get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        var node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index == leftSize) return node.value;
+            if (index < leftSize) {
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * The first {@code limit} elements in order — an in-order walk that stops early.
+     */
+    List<T> first(int limit) {
+        var out = new ArrayList<T>(Math.min(limit, size()));
+        var stack = new ArrayDeque<Node<T>>();
+        var node = root;
+        while (out.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            out.add(node.value);
+            node = node.right;
+        }
+        return out;
+    }
+
+    // ── Treap internals ──────────────────────────────────────────────────────
+
+    private Node<T> insert(Node<T> node, Node<T> fresh) {
+        if (node == null) return fresh;
+        if (fresh.priority > node.priority) {
+            var parts = split(node, fresh.value);
+            fresh.left = parts.lower();
+            fresh.right = parts.upper();
+            return update(fresh);
+        }
+        if (order.compare(fresh.value, node.value) < 0) node.left = insert(node.left, fresh);
+        else node.right = insert(node.right, fresh);
+        return update(node);
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        int c = order.compare(value, node.value);
+        if (c == 0) return merge(node.left, node.right);
+        if (c < 0) node.left = remove(node.left, value);
+        else node.right = remove(node.right, value);
+        return update(node);
+    }
+
+    /**
+     * lower: elements before key; upper: key and everything after it.
+     */
+    private Split<T> split(Node<T> node, T key) {
+        if (node == null) return new Split<>(null, null);
+        if (order.compare(node.value, key) < 0) {
+            var parts = split(node.right, key);
+            node.right = parts.lower();
+            return new Split<>(update(node), parts.upper());
+        }
+        var parts = split(node.left, key);
+        node.left = parts.upper();
+        return new Split<>(parts.lower(), update(node));
+    }
+
+    /**
+     * Every element of lower precedes every element of upper.
+     */
+    private Node<T> merge(Node<T> lower, Node<T> upper) {
+        if (lower == null) return upper;
+        if (upper == null) return lower;
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            return update(lower);
+        }
+        upper.left = merge(lower, upper.left);
+        return update(upper);
+    }
+
+    private static <T> Node<T> update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,39 @@
+package it.asd.competition.features.leaderboard;
+
+import it.asd.competition.shared.entity.EventParticipationEntity;
+import it.asd.events.competition.ParticipantResultSetEvent;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * One participation's result as the leaderboard sees it.
+ * <p>
+ * ORDER: posizione ascending, then punteggio descending, then participationId so
+ * that no two participations tie. An official posizione wins over the score it was
+ * derived from (ex aequo, penalties, judges' placings); participations with only a
+ * punteggio rank after every placed one. A participation with neither value is not ranked.
+ */
+record Standing(UUID participationId, UUID personId, UUID groupId,
+                BigDecimal punteggio, Integer posizione) {
+
+    static final Comparator<Standing> ORDER = Comparator
+            .comparing(Standing::posizione, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Standing::punteggio, Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+            .thenComparing(Standing::participationId);
+
+    boolean isRanked() {
+        return punteggio != null || posizione != null;
+    }
+
+    static Standing of(EventParticipationEntity e) {
+        return new Standing(e.getId(), e.getPersonId(), e.getGroupId(), e.getPunteggio(), e.getPosizione());
+    }
+
+    static Standing of(ParticipantResultSetEvent evt) {
+        return new Standing(evt.participationId(), evt.personId(), evt.groupId(),
+                evt.punteggio() != null ? BigDecimal.valueOf(evt.punteggio()) : null,
+                evt.posizione());
+    }
+}
@@ -0,0 +1,72 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.Predicate;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles a ResultQuery into predicates idx_participation_result_gin can serve.
+ * <p>
+ * EQUALS   {"path": "a.b", "value": v}  → result_data @> '{"a":{"b":v}}'
+ * CONTAINS {"path": "a.b", "value": v}  → result_data @> '{"a":{"b":[v]}}'
+ * RANGE    {"path": "a.b", "min", "max"} → result_data @? '$."a"."b" ? (@ >= min && @ <= max)'
+ * <p>
+ * @> is answered by the index alone. For @? the index narrows to rows that
+ * have the keys, and the bounds are checked on those rows. The jsonb document is a
+ * bound parameter. The jsonpath is a bound parameter too, built only from
+ * validated keys (ResultQuery.PATH) and BigDecimal bounds.
+ */
+final class ResultFilterCompiler {
+
+    private final ObjectMapper objectMapper;
+
+    ResultFilterCompiler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    List<Predicate> compile(ResultQuery query) {
+        var predicates = new ArrayList<Predicate>(query.filters().size() + 2);
+        if (query.eventId() != null) predicates.add(new Predicate("event_id = ?", List.of(query.eventId())));
+        if (query.asdId() != null) predicates.add(new Predicate("asd_id = ?", List.of(query.asdId())));
+        for (var filter : query.filters()) predicates.add(compile(filter));
+        return predicates;
+    }
+
+    private Predicate compile(ResultQuery.Filter filter) {
+        var keys = keys(filter.path());
+        return switch (filter.op()) {
+            case EQUALS -> contains(keys, filter.value());
+            case CONTAINS -> contains(keys, List.of(filter.value()));
+            case RANGE -> {
+                var bounds = new ArrayList<String>(2);
+                if (filter.min() != null) bounds.add("@ >= " + filter.min().toPlainString());
+                if (filter.max() != null) bounds.add("@ <= " + filter.max().toPlainString());
+                var jsonPath = keys.stream().map(k -> ".\"" + k + "\"").collect(Collectors.joining("", "$", ""))
+                        + " ? (" + String.join(" && ", bounds) + ")";
+                // ?? is PgJDBC's escape for the literal ? of the @? operator
+                yield new Predicate("result_data @?? ?::jsonpath", List.of(jsonPath));
+            }
+        };
+    }
+
+    private Predicate contains(List<String> keys, Object leaf) {
+        Object document = leaf;
+        for (var key : keys.reversed()) document = Map.of(key, document);
+        try {
+            return new Predicate("result_data @> ?::jsonb", List.of(objectMapper.writeValueAsString(document)));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static List<String> keys(String path) {
+        if (!path.matches(ResultQuery.PATH)) throw new IllegalArgumentException("Invalid result path: " + path);
+        return List.of(path.split("\\."));
+    }
+}
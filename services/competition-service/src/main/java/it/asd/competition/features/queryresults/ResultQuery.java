@@ -0,0 +1,65 @@
+package it.asd.competition.features.queryresults;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filter over result_data. All filters must match (AND).
+ * <pre>
+ * {"eventId": "...",
+ *  "filters": [{"path": "opening.eco",  "op": "EQUALS",   "value": "B90"},
+ *              {"path": "strokes",      "op": "CONTAINS", "value": "FREESTYLE"},
+ *              {"path": "splits.50",    "op": "RANGE",    "min": 25.0, "max": 28.5}],
+ *  "after": "...", "limit": 100}
+ * </pre>
+ * after is the nextCursor of the previous page. limit is ignored when streaming.
+ */
+public record ResultQuery(
+        UUID eventId,     // optional scope
+        UUID asdId,       // optional scope
+        @NotEmpty @Size(max = ResultQuery.MAX_FILTERS) List<@Valid @NotNull Filter> filters,
+        UUID after,
+        @Min(1) @Max(ResultQuery.MAX_LIMIT) Integer limit
+) {
+
+    public static final int MAX_FILTERS = 10;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Dot-separated keys. Kept to identifier characters so a key can be quoted
+     * into a jsonpath without escaping.
+     */
+    public static final String PATH = "[A-Za-z0-9_]{1,64}(\\.[A-Za-z0-9_]{1,64}){0,7}";
+
+    public enum Op {
+        EQUALS,     // value at path equals value (scalar or object)
+        CONTAINS,   // array at path contains value
+        RANGE       // number at path within [min, max], either bound optional
+    }
+
+    public record Filter(
+            @NotNull @Pattern(regexp = PATH, message = "path must be dot-separated keys of [A-Za-z0-9_]") String path,
+            @NotNull Op op,
+            Object value,
+            BigDecimal min,
+            BigDecimal max
+    ) {
+        @AssertTrue(message = "EQUALS and CONTAINS need a value; RANGE needs min and/or max")
+        public boolean isWellFormed() {
+            if (op == null) return true;
+            return op == Op.RANGE
+                    ? value == null && (min != null || max != null)
+                    : value != null && min == null && max == null;
+        }
+    }
+}
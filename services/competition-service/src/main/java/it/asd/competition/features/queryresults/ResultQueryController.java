@@ -0,0 +1,53 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * POST /competition/results:query  — one page; pass nextCursor back as "after"
+ * POST /competition/results:stream — every match as application/x-ndjson
+ * <p>
+ * Body: a ResultQuery. A stream that breaks can be resumed by sending the
+ * last participationId received as "after".
+ */
+@Validated
+@RestController
+@RequestMapping("/competition")
+public class ResultQueryController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ResultQueryHandler handler;
+    private final ObjectMapper objectMapper;
+
+    public ResultQueryController(ResultQueryHandler handler, ObjectMapper objectMapper) {
+        this.handler = handler;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/results:query")
+    public ResponseEntity<ResultQueryResponse> query(@Valid @RequestBody ResultQuery query) {
+        return ResponseEntity.ok(ResultQueryResponse.of(handler.page(query)));
+    }
+
+    @PostMapping("/results:stream")
+    public ResponseEntity<StreamingResponseBody> stream(@Valid @RequestBody ResultQuery query) {
+        StreamingResponseBody body = out -> handler.stream(query, match -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(ResultQueryResponse.Item.of(match)));   // writeValue would close out
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);   // client went away — ends the query
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
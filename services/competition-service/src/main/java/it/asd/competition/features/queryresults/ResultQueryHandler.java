@@ -0,0 +1,73 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.ResultMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Vertical slice handler for result_data queries (satellites, admin tools).
+ * <p>
+ * page():   one keyset page. Reads limit + 1 rows; the extra row only says
+ * whether there is a next page, and nextCursor is the last id returned.
+ * stream(): every match, pushed to the sink row by row from a server-side
+ * cursor, inside a read-only transaction.
+ */
+@Component
+public class ResultQueryHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultQueryHandler.class);
+
+    public record ResultPage(List<ResultMatch> results, UUID nextCursor) {
+    }
+
+    private final ParticipationResultQueryRepository queryRepo;
+    private final ResultFilterCompiler compiler;
+    private final TransactionTemplate readOnlyTx;
+    private final int pageSize;
+    private final int fetchSize;
+
+    public ResultQueryHandler(ParticipationResultQueryRepository queryRepo,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${asd.competition.results.query.page-size:100}") int pageSize,
+                              @Value("${asd.competition.results.query.fetch-size:500}") int fetchSize) {
+        this.queryRepo = queryRepo;
+        this.compiler = new ResultFilterCompiler(objectMapper);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.pageSize = pageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    public ResultPage page(ResultQuery query) {
+        int limit = query.limit() != null ? query.limit() : pageSize;
+        var rows = queryRepo.page(compiler.compile(query), query.after(), limit + 1);
+        if (rows.size() <= limit) return new ResultPage(rows, null);
+        var page = rows.subList(0, limit);
+        return new ResultPage(page, page.getLast().participationId());
+    }
+
+    /**
+     * @return number of rows pushed to the sink
+     */
+    public long stream(ResultQuery query, Consumer<ResultMatch> sink) {
+        var predicates = compiler.compile(query);
+        var count = new long[1];
+        readOnlyTx.executeWithoutResult(_ -> queryRepo.stream(predicates, query.after(), fetchSize, match -> {
+            sink.accept(match);
+            count[0]++;
+        }));
+        log.debug("[RESULTS] Streamed {} results for {} filters", count[0], query.filters().size());
+        return count[0];
+    }
+}
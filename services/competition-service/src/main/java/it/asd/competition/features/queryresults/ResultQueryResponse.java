@@ -0,0 +1,29 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.ResultMatch;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * HTTP shapes. resultData is written as the stored jsonb text, never parsed.
+ */
+public record ResultQueryResponse(List<Item> results, UUID nextCursor) {
+
+    static ResultQueryResponse of(ResultQueryHandler.ResultPage page) {
+        return new ResultQueryResponse(page.results().stream().map(Item::of).toList(), page.nextCursor());
+    }
+
+    /**
+     * Also one NDJSON line of the stream.
+     */
+    public record Item(UUID participationId, UUID eventId, UUID personId, UUID groupId, UUID asdId,
+                       Integer posizione, BigDecimal punteggio, @JsonRawValue String resultData) {
+        static Item of(ResultMatch m) {
+            return new Item(m.participationId(), m.eventId(), m.personId(), m.groupId(), m.asdId(),
+                    m.posizione(), m.punteggio(), m.resultData());
+        }
+    }
+}
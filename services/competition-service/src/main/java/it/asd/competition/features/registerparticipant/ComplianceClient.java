@@ -7,7 +7,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -18,7 +22,7 @@ import java.util.UUID;
  * The caller (RegisterParticipantHandler) catches this and returns
  * RegisterParticipantResult.ComplianceUnavailable — never silently allows through.
  * <p>
- * Kept inside the feature package: only RegisterParticipantHandler uses it.
+ * Kept inside the feature package: only the single and bulk registration handlers use it.
  * If another feature needed compliance calls, it would get its own client or
  * this would be promoted to shared/.
  */
@@ -27,10 +31,18 @@ class ComplianceClient {
 
     private static final Logger log = LoggerFactory.getLogger(ComplianceClient.class);
 
+    /**
+     * Mirrors CheckEligibilityBatchQuery.MAX_ITEMS in compliance-service.
+     */
+    static final int MAX_BATCH = 1000;
+
     private final RestClient restClient;
 
-    ComplianceClient(@Value("${services.compliance.base-url}") String baseUrl) {
-        this.restClient = RestClient.builder().baseUrl(baseUrl).build();
+    /**
+     * The injected builder carries the shared customizers (correlation id forwarding).
+     */
+    ComplianceClient(RestClient.Builder builder, @Value("${services.compliance.base-url}") String baseUrl) {
+        this.restClient = builder.baseUrl(baseUrl).build();
     }
 
     /**
@@ -55,10 +67,56 @@ class ComplianceClient {
         }
     }
 
+    /**
+     * Eligibility of many persons via POST /compliance/eligibility:batch
+     * (bulk registration cold path): one HTTP call per MAX_BATCH queries.
+     * <p>
+     * Answers come back in request order. A failed call leaves its whole chunk
+     * out of the map. The caller treats a missing answer as ComplianceUnavailable
+     * for that entry (fail-closed).
+     */
+    Map<EligibilityQuery, EligibilityApiResponse> checkEligibilityAll(Collection<EligibilityQuery> queries) {
+        var answers = new HashMap<EligibilityQuery, EligibilityApiResponse>();
+        var all = List.copyOf(queries);
+        for (int from = 0; from < all.size(); from += MAX_BATCH) {
+            var chunk = all.subList(from, Math.min(from + MAX_BATCH, all.size()));
+            try {
+                var response = restClient.post()
+                        .uri("/compliance/eligibility:batch")
+                        .body(new BatchRequest(chunk))
+                        .retrieve()
+                        .body(BatchResponse.class);
+
+                if (response == null || response.results() == null || response.results().size() != chunk.size())
+                    throw new ComplianceCallException("Malformed batch response from Compliance");
+                for (int i = 0; i < chunk.size(); i++)
+                    answers.put(chunk.get(i), response.results().get(i));
+
+            } catch (RestClientException | ComplianceCallException ex) {
+                log.error("[COMPLIANCE-CLIENT] Batch of {} unreachable: {}", chunk.size(), ex.getMessage());
+            }
+        }
+        return answers;
+    }
+
+    record EligibilityQuery(UUID personId, UUID asdId, boolean agonistic) {
+    }
+
+    /**
+     * Request/response shapes of compliance-service's batch endpoint; results carry the same fields as EligibilityApiResponse.
+     */
+    record BatchRequest(List<EligibilityQuery> items) {
+    }
+
+    record BatchResponse(List<EligibilityApiResponse> results) {
+    }
+
     /**
      * Record mirrors the JSON shape of EligibilityResponse from compliance-service.
+     * validUntil: last day the answer may be cached; null = no horizon.
      */
-    record EligibilityApiResponse(boolean eligible, List<String> blockingDocuments, List<String> warnings) {
+    record EligibilityApiResponse(boolean eligible, List<String> blockingDocuments, List<String> warnings,
+                                  LocalDate validUntil) {
     }
 
     static final class ComplianceCallException extends RuntimeException {
@@ -0,0 +1,155 @@
+package it.asd.competition.features.registerparticipant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.asd.competition.features.registerparticipant.ComplianceClient.ComplianceCallException;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityApiResponse;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cold-path front of {@link ComplianceClient} for RegisterParticipantHandler.
+ * <p>
+ * Single-flight: concurrent lookups of the same (person, asd, agonistic) share
+ * one in-flight future. A parent registering a child for five events at once
+ * causes one Compliance call, not five.
+ * <p>
+ * Micro-batching: distinct misses that arrive within coalesce.window are sent
+ * together. The first caller of a window is its leader. It waits out the window,
+ * takes everything queued, and makes the call for all of them. A window that
+ * reaches coalesce.max-batch is sent at once by the caller that filled it.
+ * A lone query goes to the per-person GET; two or more go to
+ * POST /compliance/eligibility:batch.
+ * <p>
+ * Fail-closed is unchanged. Every caller without an answer gets a
+ * ComplianceCallException, exactly as from a direct call. A future leaves the
+ * in-flight map before it completes, so a later miss never reuses an old answer.
+ * <p>
+ * Meters: competition.compliance.coalesced (lookups served by another caller's
+ * call), competition.compliance.batch.size (queries per outgoing call).
+ */
+@Component
+class ComplianceCoalescer {
+
+    private final ComplianceClient client;
+    private final Duration window;
+    private final int maxBatch;
+    private final Counter coalesced;
+    private final DistributionSummary batchSize;
+
+    private final Map<EligibilityQuery, CompletableFuture<EligibilityApiResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<EligibilityQuery> pending = new ArrayList<>();   // guarded by lock
+
+    ComplianceCoalescer(ComplianceClient client,
+                        @Value("${services.compliance.coalesce.window:5ms}") Duration window,
+                        @Value("${services.compliance.coalesce.max-batch:200}") int maxBatch,
+                        MeterRegistry meterRegistry) {
+        this.client = client;
+        this.window = window;
+        this.maxBatch = Math.min(maxBatch, ComplianceClient.MAX_BATCH);
+        this.coalesced = Counter.builder("competition.compliance.coalesced")
+                .description("Eligibility lookups answered by a call already in flight")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("competition.compliance.batch.size")
+                .description("Queries per outgoing Compliance eligibility call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same contract as ComplianceClient.checkEligibility.
+     *
+     * @throws ComplianceCallException when Compliance gave no answer for this query
+     */
+    EligibilityApiResponse checkEligibility(UUID personId, UUID asdId, boolean agonistic) {
+        var query = new EligibilityQuery(personId, asdId, agonistic);
+        var mine = new CompletableFuture<EligibilityApiResponse>();
+        var shared = inFlight.putIfAbsent(query, mine);
+        if (shared != null) {
+            coalesced.increment();
+            return await(shared);
+        }
+
+        List<EligibilityQuery> full = null;
+        boolean leader;
+        synchronized (lock) {
+            leader = pending.isEmpty();
+            pending.add(query);
+            if (pending.size() >= maxBatch) full = drain();
+        }
+        if (full != null) {
+            send(full);
+        } else if (leader) {
+            sleep(window);
+            List<EligibilityQuery> batch;
+            synchronized (lock) {
+                batch = drain();
+            }
+            send(batch);   // may be empty: a full window was already sent by another caller
+        }
+        return await(mine);
+    }
+
+    private List<EligibilityQuery> drain() {
+        var batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void send(List<EligibilityQuery> batch) {
+        if (batch.isEmpty()) return;
+        batchSize.record(batch.size());
+
+        if (batch.size() == 1) {
+            var query = batch.getFirst();
+            var future = inFlight.remove(query);
+            try {
+                future.complete(client.checkEligibility(query.personId(), query.asdId(), query.agonistic()));
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+            return;
+        }
+
+        Map<EligibilityQuery, EligibilityApiResponse> answers;
+        try {
+            answers = client.checkEligibilityAll(batch);
+        } catch (RuntimeException ex) {
+            answers = Map.of();
+        }
+        for (var query : batch) {
+            var future = inFlight.remove(query);
+            var answer = answers.get(query);
+            if (answer != null) future.complete(answer);
+            else future.completeExceptionally(new ComplianceCallException("Compliance unreachable"));
+        }
+    }
+
+    private static EligibilityApiResponse await(CompletableFuture<EligibilityApiResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof ComplianceCallException cce) throw cce;
+            throw new ComplianceCallException("Compliance unreachable: " + ex.getCause().getMessage());
+        }
+    }
+
+    private static void sleep(Duration window) {
+        try {
+            Thread.sleep(window);
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();   // send early rather than strand the window
+        }
+    }
+}
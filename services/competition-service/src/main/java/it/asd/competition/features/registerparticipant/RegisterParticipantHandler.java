@@ -2,9 +2,8 @@ package it.asd.competition.features.registerparticipant;
 
 import it.asd.common.kafka.EventPublisher;
 import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
-import it.asd.competition.shared.entity.EventParticipationEntity;
-import it.asd.competition.shared.entity.ParticipationStatus;
-import it.asd.competition.shared.repository.EventParticipationRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.NewParticipation;
 import it.asd.events.KafkaTopics;
 import it.asd.events.competition.ParticipantRegisteredEvent;
 import org.slf4j.Logger;
@@ -13,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -21,78 +21,70 @@ import java.util.UUID;
  * Eligibility resolution order (fail-closed at every step):
  * 1. Check local eligibility cache (warm path — no network call)
  * 2. If cache says INELIGIBLE → deny immediately
- * 3. If cache is absent → call Compliance sync (cold path)
+ * 3. If cache is absent → call Compliance sync (cold path, coalesced with
+ * concurrent misses by ComplianceCoalescer)
  * 4. If Compliance unreachable → DENY (fail-closed, return ComplianceUnavailable)
  * 5. If Compliance says ineligible → DENY, update cache
- * 6. If eligible → persist, publish event, update cache
+ * 6. If eligible → insert optimistically, publish event, update cache
+ * <p>
+ * There is no duplicate read up front. The insert goes through the unique index
+ * uq_participation_event_person, and a conflict becomes AlreadyRegistered. This
+ * also closes the race between two concurrent registrations of the same person.
+ * A person already registered is therefore answered after the eligibility check.
  */
 @Component
 public class RegisterParticipantHandler {
 
     private static final Logger log = LoggerFactory.getLogger(RegisterParticipantHandler.class);
 
-    private final EventParticipationRepository participationRepo;
+    private final EventParticipationBatchRepository participationRepo;
     private final EligibilityCacheService eligibilityCache;
-    private final ComplianceClient complianceClient;
+    private final ComplianceCoalescer compliance;
     private final EventPublisher eventPublisher;
 
     public RegisterParticipantHandler(
-            EventParticipationRepository participationRepo,
+            EventParticipationBatchRepository participationRepo,
             EligibilityCacheService eligibilityCache,
-            ComplianceClient complianceClient,
+            ComplianceCoalescer compliance,
             EventPublisher eventPublisher) {
         this.participationRepo = participationRepo;
         this.eligibilityCache = eligibilityCache;
-        this.complianceClient = complianceClient;
+        this.compliance = compliance;
         this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public RegisterParticipantResult handle(RegisterParticipantCommand cmd) {
 
-        // ── Step 1: duplicate check ───────────────────────────────────────────
-        if (cmd.personId() != null) {
-            var existing = participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId())
-                    .stream()
-                    .filter(p -> p.getEventId().equals(cmd.eventId()))
-                    .findFirst();
-            if (existing.isPresent())
-                return new RegisterParticipantResult.AlreadyRegistered(existing.get().getId());
-        }
-
-        // ── Step 2+3+4: eligibility check (cache → sync → fail-closed) ────────
+        // ── Step 1+2+3+4: eligibility check (cache → sync → fail-closed) ──────
         if (cmd.personId() != null) {
             var eligibility = resolveEligibility(cmd);
             if (eligibility instanceof RegisterParticipantResult r) return r;
             // null means "eligible — proceed"
         }
 
-        // ── Step 5: persist ───────────────────────────────────────────────────
-        var participation = EventParticipationEntity.builder()
-                .eventId(cmd.eventId())
-                .personId(cmd.personId())
-                .groupId(cmd.groupId())
-                .asdId(cmd.asdId())
-                .seasonId(cmd.seasonId())
-                .categoria(cmd.categoria())
-                .stato(ParticipationStatus.REGISTERED)
-                .build();
-        var saved = participationRepo.save(participation);
+        // ── Step 5: optimistic insert — the unique index is the duplicate check
+        var participation = new NewParticipation(UUID.randomUUID(), cmd.eventId(), cmd.personId(), cmd.groupId(),
+                cmd.asdId(), cmd.seasonId(), cmd.categoria());
+        if (!participationRepo.insertIfAbsent(participation)) {
+            var existing = participationRepo.findRegistered(cmd.eventId(), List.of(cmd.personId()));
+            return new RegisterParticipantResult.AlreadyRegistered(existing.get(cmd.personId()));
+        }
 
         // ── Step 6: publish domain event ─────────────────────────────────────
         eventPublisher.publish(
                 KafkaTopics.PARTICIPANT_REGISTERED,
                 new ParticipantRegisteredEvent(
-                        UUID.randomUUID(), saved.getId(), saved.getEventId(),
-                        saved.getPersonId(), saved.getGroupId(),
-                        saved.getAsdId(), saved.getSeasonId(),
-                        saved.getCategoria(), Instant.now()),
-                saved.getAsdId(), saved.getSeasonId());
+                        UUID.randomUUID(), participation.id(), participation.eventId(),
+                        participation.personId(), participation.groupId(),
+                        participation.asdId(), participation.seasonId(),
+                        participation.categoria(), Instant.now()),
+                participation.asdId(), participation.seasonId());
 
         log.info("[REGISTER] participationId={} eventId={} personId={}",
-                saved.getId(), saved.getEventId(), saved.getPersonId());
+                participation.id(), participation.eventId(), participation.personId());
 
-        return new RegisterParticipantResult.Registered(saved.getId());
+        return new RegisterParticipantResult.Registered(participation.id());
     }
 
     /**
@@ -102,8 +94,8 @@ public class RegisterParticipantHandler {
      * This helper keeps the main handle() method readable.
      */
     private RegisterParticipantResult resolveEligibility(RegisterParticipantCommand cmd) {
-        // Warm path: local cache
-        var cached = eligibilityCache.get(cmd.personId(), cmd.asdId());
+        // Warm path: local cache, the answer for this registration's flavour
+        var cached = eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic());
 
         if (cached.isPresent()) {
             var entry = cached.get();
@@ -114,13 +106,13 @@ public class RegisterParticipantHandler {
 
         // Cold path: sync call to Compliance
         try {
-            var response = complianceClient.checkEligibility(
+            var response = compliance.checkEligibility(
                     cmd.personId(), cmd.asdId(), cmd.agonistic());
 
             // Update cache from sync result
             eligibilityCache.updateFromSyncCheck(
-                    cmd.personId(), cmd.asdId(),
-                    response.eligible(), response.blockingDocuments());
+                    cmd.personId(), cmd.asdId(), cmd.agonistic(),
+                    response.eligible(), response.blockingDocuments(), response.validUntil());
 
             if (!response.eligible())
                 return new RegisterParticipantResult.Ineligible(response.blockingDocuments());
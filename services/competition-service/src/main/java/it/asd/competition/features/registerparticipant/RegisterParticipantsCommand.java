@@ -0,0 +1,35 @@
+package it.asd.competition.features.registerparticipant;
+
+import it.asd.common.validation.annotation.ValidUUID;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A club's entry list for one event: every entry shares the event, asd and season.
+ */
+public record RegisterParticipantsCommand(
+        UUID eventId,     // taken from the path
+        @ValidUUID UUID asdId,
+        @ValidUUID UUID seasonId,
+        @NotEmpty @Size(max = RegisterParticipantsCommand.MAX_ENTRIES) List<@Valid Entry> entries
+) {
+
+    public static final int MAX_ENTRIES = 1000;
+
+    public record Entry(
+            UUID personId,    // null for team events
+            UUID groupId,     // null for individual events
+            String categoria,
+            boolean agonistic
+    ) {
+        @AssertTrue(message = "personId or groupId is required")
+        public boolean isIdentified() {
+            return personId != null || groupId != null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package it.asd.competition.features.registerparticipant;
+
+import it.asd.common.validation.annotation.ValidUUID;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * POST /competition/events/{eventId}/participants:bulk
+ * <p>
+ * Registers a whole entry list. Always 200: the outcome of each entry is in
+ * the body, in request order, mapped from the same sealed results as the
+ * single endpoint. If any entry failed closed on Compliance, a Retry-After
+ * header is added. Resubmitting the full list is safe, because entries that
+ * already registered come back as ALREADY_REGISTERED.
+ */
+@Validated
+@RestController
+@RequestMapping("/competition/events/{eventId}/participants:bulk")
+public class RegisterParticipantsController {
+
+    private final RegisterParticipantsHandler handler;
+
+    public RegisterParticipantsController(RegisterParticipantsHandler handler) {
+        this.handler = handler;
+    }
+
+    @PostMapping
+    public ResponseEntity<BulkRegistrationResponse> register(
+            @PathVariable @ValidUUID UUID eventId,
+            @Valid @RequestBody RegisterParticipantsCommand cmd) {
+
+        var effectiveCmd = new RegisterParticipantsCommand(eventId, cmd.asdId(), cmd.seasonId(), cmd.entries());
+        var results = handler.handle(effectiveCmd);
+
+        var outcomes = new ArrayList<EntryOutcome>(results.size());
+        boolean retry = false;
+        for (int i = 0; i < results.size(); i++) {
+            var entry = cmd.entries().get(i);
+            // Exhaustive switch — all 4 sealed cases must be handled
+            var outcome = switch (results.get(i)) {
+                case RegisterParticipantResult.Registered r ->
+                        EntryOutcome.of(i, entry, Status.REGISTERED, r.participationId(), null, null);
+                case RegisterParticipantResult.Ineligible r ->
+                        EntryOutcome.of(i, entry, Status.INELIGIBLE, null, r.blockingDocuments(), null);
+                case RegisterParticipantResult.AlreadyRegistered r ->
+                        EntryOutcome.of(i, entry, Status.ALREADY_REGISTERED, r.existingParticipationId(), null, null);
+                // FAIL-CLOSED: this entry could not be verified
+                case RegisterParticipantResult.ComplianceUnavailable r ->
+                        EntryOutcome.of(i, entry, Status.COMPLIANCE_UNAVAILABLE, null, null, r.reason());
+            };
+            retry |= outcome.status() == Status.COMPLIANCE_UNAVAILABLE;
+            outcomes.add(outcome);
+        }
+
+        var registered = (int) outcomes.stream().filter(o -> o.status() == Status.REGISTERED).count();
+        var response = ResponseEntity.ok();
+        if (retry) response.header("Retry-After", String.valueOf(Duration.ofMinutes(2).toSeconds()));
+        return response.body(new BulkRegistrationResponse(eventId, registered, outcomes.size() - registered, outcomes));
+    }
+
+    enum Status {REGISTERED, INELIGIBLE, ALREADY_REGISTERED, COMPLIANCE_UNAVAILABLE}
+
+    record EntryOutcome(int index, UUID personId, UUID groupId, Status status,
+                        UUID participationId, List<String> blockingDocuments, String reason) {
+        static EntryOutcome of(int index, RegisterParticipantsCommand.Entry entry, Status status,
+                               UUID participationId, List<String> blockingDocuments, String reason) {
+            return new EntryOutcome(index, entry.personId(), entry.groupId(), status,
+                    participationId, blockingDocuments, reason);
+        }
+    }
+
+    record BulkRegistrationResponse(UUID eventId, int registered, int notRegistered, List<EntryOutcome> entries) {
+    }
+}
@@ -0,0 +1,174 @@
+package it.asd.competition.features.registerparticipant;
+
+import it.asd.common.kafka.EventPublisher;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService.CachedEligibility;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityQuery;
+import it.asd.competition.features.registerparticipant.RegisterParticipantsCommand.Entry;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.NewParticipation;
+import it.asd.events.KafkaTopics;
+import it.asd.events.competition.ParticipantRegisteredEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Vertical slice handler for a whole entry list. It follows the same rules as
+ * RegisterParticipantHandler, but each step runs once per list instead of once per entry:
+ * <p>
+ * 1. Duplicates: one query over (eventId, personIds). A person listed twice
+ * is registered once; the repeat gets AlreadyRegistered.
+ * 2. Eligibility: one L1 + table read for every person (the answer for the
+ * entry's agonistic flag), then one batch
+ * Compliance call (POST /compliance/eligibility:batch) for the misses. Fail-closed per entry: a missing answer
+ * means ComplianceUnavailable for that entry only.
+ * 3. One transaction: one insert for every row, a batch cache update from the sync
+ * answers, and a pipelined burst of ParticipantRegisteredEvents. The insert
+ * skips rows that conflict on uq_participation_event_person. If a concurrent
+ * registration won the race for a row, that entry becomes AlreadyRegistered and
+ * gets no event.
+ * <p>
+ * Steps 1–2 run outside the transaction, so the Compliance calls do not hold a
+ * pooled connection.
+ */
+@Component
+public class RegisterParticipantsHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(RegisterParticipantsHandler.class);
+
+    private final EventParticipationBatchRepository participationRepo;
+    private final EligibilityCacheService eligibilityCache;
+    private final ComplianceClient complianceClient;
+    private final EventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+
+    public RegisterParticipantsHandler(
+            EventParticipationBatchRepository participationRepo,
+            EligibilityCacheService eligibilityCache,
+            ComplianceClient complianceClient,
+            EventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.participationRepo = participationRepo;
+        this.eligibilityCache = eligibilityCache;
+        this.complianceClient = complianceClient;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return one sealed result per entry, in request order
+     */
+    public List<RegisterParticipantResult> handle(RegisterParticipantsCommand cmd) {
+        var entries = cmd.entries();
+        var results = new RegisterParticipantResult[entries.size()];
+
+        // ── Step 1: duplicate check — one query ──────────────────────────────
+        var personIds = new LinkedHashSet<UUID>();
+        for (var entry : entries)
+            if (entry.personId() != null) personIds.add(entry.personId());
+        var existing = participationRepo.findRegistered(cmd.eventId(), personIds);
+
+        var firstIndex = new HashMap<UUID, Integer>();   // personId → entry that registers it
+        var pending = new LinkedHashMap<Key, Entry>();
+        for (int i = 0; i < entries.size(); i++) {
+            var personId = entries.get(i).personId();
+            if (personId == null) continue;
+            var already = existing.get(personId);
+            if (already != null) {
+                results[i] = new RegisterParticipantResult.AlreadyRegistered(already);
+            } else if (firstIndex.putIfAbsent(personId, i) == null) {
+                pending.put(new Key(personId, cmd.asdId(), entries.get(i).agonistic()), entries.get(i));
+            }
+        }
+
+        // ── Step 2: eligibility — one cache read, one Compliance batch call ──
+        var eligibility = new HashMap<Key, CachedEligibility>(eligibilityCache.getAll(pending.keySet()));
+        var queries = new ArrayList<EligibilityQuery>();
+        pending.forEach((key, _) -> {
+            if (!eligibility.containsKey(key))
+                queries.add(new EligibilityQuery(key.personId(), key.asdId(), key.agonistic()));
+        });
+        var answers = complianceClient.checkEligibilityAll(queries);
+        var syncResults = new HashMap<Key, CachedEligibility>();
+        answers.forEach((query, response) -> syncResults.put(
+                new Key(query.personId(), query.asdId(), query.agonistic()),
+                new CachedEligibility(response.eligible(), response.blockingDocuments(), response.validUntil())));
+        eligibility.putAll(syncResults);
+
+        // ── Step 3: decide each first occurrence, collect the rows ──────────
+        var rows = new ArrayList<NewParticipation>();
+        var rowEntry = new HashMap<UUID, Integer>();   // participationId → entry index
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] != null) continue;
+            var entry = entries.get(i);
+            if (entry.personId() != null) {
+                if (firstIndex.get(entry.personId()) != i) continue;   // repeat — resolved below
+                var answer = eligibility.get(new Key(entry.personId(), cmd.asdId(), entry.agonistic()));
+                if (answer == null) {
+                    results[i] = new RegisterParticipantResult.ComplianceUnavailable(
+                            "Compliance unreachable for personId " + entry.personId());
+                    continue;
+                }
+                if (!answer.isEligible()) {
+                    results[i] = new RegisterParticipantResult.Ineligible(answer.blockingDocuments());
+                    continue;
+                }
+            }
+            var id = UUID.randomUUID();
+            rows.add(new NewParticipation(id, cmd.eventId(), entry.personId(), entry.groupId(),
+                    cmd.asdId(), cmd.seasonId(), entry.categoria()));
+            rowEntry.put(id, i);
+            results[i] = new RegisterParticipantResult.Registered(id);
+        }
+
+        // ── Step 4: one transaction — insert, cache, pipelined publish ───────
+        var now = Instant.now();
+        var registered = tx.execute(_ -> {
+            var inserted = participationRepo.insertAll(rows);
+            var lost = rows.stream().filter(r -> !inserted.contains(r.id())).toList();
+            if (!lost.isEmpty()) {
+                var winners = participationRepo.findRegistered(cmd.eventId(),
+                        lost.stream().map(NewParticipation::personId).toList());
+                for (var r : lost)
+                    results[rowEntry.get(r.id())] = new RegisterParticipantResult.AlreadyRegistered(
+                            winners.get(r.personId()));
+            }
+            var events = rows.stream()
+                    .filter(r -> inserted.contains(r.id()))
+                    .map(r -> new ParticipantRegisteredEvent(UUID.randomUUID(), r.id(), r.eventId(),
+                            r.personId(), r.groupId(), r.asdId(), r.seasonId(), r.categoria(), now))
+                    .toList();
+            eligibilityCache.updateFromSyncChecks(syncResults);
+            eventPublisher.publishAll(KafkaTopics.PARTICIPANT_REGISTERED, events, cmd.asdId(), cmd.seasonId());
+            return events.size();
+        });
+
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] != null) continue;
+            var first = results[firstIndex.get(entries.get(i).personId())];
+            results[i] = first instanceof RegisterParticipantResult.Registered r
+                    ? new RegisterParticipantResult.AlreadyRegistered(r.participationId())
+                    : first;
+        }
+
+        log.info("[REGISTER] bulk eventId={} entries={} registered={} complianceCalls={}",
+                cmd.eventId(), entries.size(), registered, queries.size());
+        if (answers.size() < queries.size())
+            log.warn("[REGISTER] FAIL-CLOSED: {} of {} Compliance calls failed for eventId={}",
+                    queries.size() - answers.size(), queries.size(), cmd.eventId());
+
+        return List.of(results);
+    }
+}
@@ -2,14 +2,18 @@ package it.asd.competition.shared.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Local read-model of compliance eligibility per (person, asd) pair.
+ * Local read-model of compliance eligibility per (person, asd) pair and flavour:
+ * an agonistic and a recreational registration are answered by different rows.
  * <p>
  * Warm path: populated by the async compliance.document.expired /
  * compliance.document.renewed events.
@@ -19,7 +23,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "eligibility_cache",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"person_id", "asd_id"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"person_id", "asd_id", "agonistic"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,16 +41,29 @@ public class EligibilityCacheEntity {
     @Column(name = "asd_id", nullable = false)
     private UUID asdId;
 
+    /**
+     * The flag Compliance was asked with — true = agonistic, false = recreational.
+     */
+    @Column(name = "agonistic", nullable = false)
+    private boolean agonistic;
+
     @Column(name = "eligible", nullable = false)
     private boolean eligible;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "eligibility_blocking_docs",
-            joinColumns = @JoinColumn(name = "cache_id"))
-    @Column(name = "document_type")
+    /**
+     * text[] column — mutated in place by EligibilityCacheBatchRepository, not through JPA.
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "blocking_documents", nullable = false, columnDefinition = "text[]")
     @Builder.Default
     private List<String> blockingDocuments = new ArrayList<>();
 
+    /**
+     * Last day the row may be served; null = no horizon. See EligibilityCacheService.
+     */
+    @Column(name = "valid_until")
+    private LocalDate validUntil;
+
     /**
      * "sync_check" | "document.expired" | "document.renewed"
      */
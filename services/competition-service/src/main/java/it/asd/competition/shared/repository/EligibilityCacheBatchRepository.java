@@ -0,0 +1,259 @@
+package it.asd.competition.shared.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Set-based and single-statement access to eligibility_cache.
+ * Blocking documents live inline in its blocking_documents text[] column.
+ * A row is keyed by (person, asd, agonistic): each flavour has its own answer.
+ * <p>
+ * load():          one query for every key of the poll (unnest of three arrays)
+ * saveAll():       one batch upsert, blocking documents included
+ * appendBlocker(): INSERT … ON CONFLICT DO UPDATE that appends to the array unless present
+ * removeBlocker(): UPDATE that filters the array in place, eligible when it ends up empty,
+ *                  and caps valid_until at the renewed document's new scadenza
+ * applyAll():      the same two statements for a whole poll, one JDBC batch per run of
+ *                  same-kind changes, in the order given
+ * knownPersons():  persons seen for an asd — participations plus cached pairs (warm-up)
+ * <p>
+ * appendBlocker and removeBlocker are one statement each. The row lock of the
+ * upsert serialises concurrent events on the same key, so neither can lose
+ * the other's change, nor a sync check's. Both return the row as written, for the L1;
+ * applyAll returns nothing (a batch cannot RETURNING), so callers load() the keys after it
+ * in the same transaction — the rows stay locked until commit.
+ * <p>
+ * load/saveAll/applyAll also take the {@link Tables} to work on, so EligibilityCacheProjection
+ * can replay into the rebuild shadow table with the same statements.
+ */
+@Repository
+public class EligibilityCacheBatchRepository {
+
+    /**
+     * @param agonistic the flavour Compliance is asked for — true = agonistic, false = recreational
+     */
+    public record Key(UUID personId, UUID asdId, boolean agonistic) {
+    }
+
+    /**
+     * @param validUntil last day the row may be served; null = no horizon
+     */
+    public record Row(UUID id, Key key, boolean eligible, List<String> blockingDocuments,
+                      LocalDate validUntil, String source) {
+    }
+
+    public record Tables(String cache) {
+        public static final Tables LIVE = new Tables("eligibility_cache");
+
+        private String format(String sql) {
+            return sql.replace("{cache}", cache);
+        }
+    }
+
+    /**
+     * A change to one key's blockers, for applyAll().
+     */
+    public sealed interface BlockerChange {
+        Key key();
+
+        record Append(Key key, String entry, String source) implements BlockerChange {
+        }
+
+        /**
+         * @param newExpiry the renewed document's scadenza; valid_until never ends up later than it
+         */
+        record Remove(Key key, String documentType, LocalDate newExpiry, String source) implements BlockerChange {
+        }
+    }
+
+    private static final String LOAD_SQL = """
+            SELECT c.id, c.person_id, c.asd_id, c.agonistic, c.eligible, c.source, c.blocking_documents,
+                   c.valid_until
+            FROM {cache} c
+            JOIN unnest(?::uuid[], ?::uuid[], ?::boolean[]) AS k(person_id, asd_id, agonistic)
+                ON c.person_id = k.person_id AND c.asd_id = k.asd_id AND c.agonistic = k.agonistic
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO {cache} (id, person_id, asd_id, agonistic, eligible, blocking_documents, valid_until,
+                                 source, last_updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (person_id, asd_id, agonistic) DO UPDATE SET
+                eligible           = EXCLUDED.eligible,
+                blocking_documents = EXCLUDED.blocking_documents,
+                valid_until        = EXCLUDED.valid_until,
+                source             = EXCLUDED.source,
+                last_updated_at    = NOW()
+            """;
+
+    private static final String APPEND_BLOCKER_SQL = """
+            INSERT INTO {cache} AS c
+                (id, person_id, asd_id, agonistic, eligible, blocking_documents, source, last_updated_at)
+            VALUES (gen_random_uuid(), ?, ?, ?, FALSE, ARRAY[?]::text[], ?, NOW())
+            ON CONFLICT (person_id, asd_id, agonistic) DO UPDATE SET
+                eligible           = FALSE,
+                blocking_documents = CASE
+                    WHEN EXCLUDED.blocking_documents[1] = ANY(c.blocking_documents) THEN c.blocking_documents
+                    ELSE c.blocking_documents || EXCLUDED.blocking_documents END,
+                source             = EXCLUDED.source,
+                last_updated_at    = NOW()
+            """;
+
+    private static final String REMOVE_BLOCKER_SQL = """
+            UPDATE {cache} SET
+                blocking_documents = ARRAY(
+                    SELECT d FROM unnest(blocking_documents) WITH ORDINALITY AS t(d, n)
+                    WHERE NOT starts_with(d, ?) ORDER BY n),
+                eligible           = NOT EXISTS (
+                    SELECT 1 FROM unnest(blocking_documents) AS t(d) WHERE NOT starts_with(d, ?)),
+                valid_until        = LEAST(valid_until, ?::date),
+                source             = ?,
+                last_updated_at    = NOW()
+            WHERE person_id = ? AND asd_id = ? AND agonistic = ?
+            """;
+
+    private static final String RETURNING_SQL = """
+            RETURNING id, person_id, asd_id, agonistic, eligible, source, blocking_documents, valid_until
+            """;
+
+    private static final String KNOWN_PERSONS_SQL = """
+            SELECT person_id FROM event_participation WHERE asd_id = ? AND person_id IS NOT NULL
+            UNION
+            SELECT person_id FROM eligibility_cache WHERE asd_id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public EligibilityCacheBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Map<Key, Row> load(Collection<Key> keys) {
+        return load(Tables.LIVE, keys);
+    }
+
+    public void saveAll(List<Row> rows) {
+        saveAll(Tables.LIVE, rows);
+    }
+
+    public Map<Key, Row> load(Tables tables, Collection<Key> keys) {
+        var rows = new HashMap<Key, Row>();
+        if (keys.isEmpty()) return rows;
+
+        var personIds = keys.stream().map(Key::personId).toArray(UUID[]::new);
+        var asdIds = keys.stream().map(Key::asdId).toArray(UUID[]::new);
+        var flavours = keys.stream().map(Key::agonistic).toArray(Boolean[]::new);
+
+        jdbc.query(tables.format(LOAD_SQL), ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", asdIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("boolean", flavours));
+        }, rs -> {
+            var row = map(rs);
+            rows.put(row.key(), row);
+        });
+        return rows;
+    }
+
+    /**
+     * Rows are matched on (person_id, asd_id, agonistic): an existing row keeps its id.
+     */
+    public void saveAll(Tables tables, List<Row> rows) {
+        if (rows.isEmpty()) return;
+
+        jdbc.batchUpdate(tables.format(UPSERT_SQL), rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.id());
+            ps.setObject(2, row.key().personId());
+            ps.setObject(3, row.key().asdId());
+            ps.setBoolean(4, row.key().agonistic());
+            ps.setBoolean(5, row.eligible());
+            ps.setArray(6, ps.getConnection().createArrayOf("text", row.blockingDocuments().toArray()));
+            ps.setObject(7, row.validUntil(), Types.DATE);
+            ps.setString(8, row.source());
+        });
+    }
+
+    /**
+     * Marks the key ineligible with {@code entry} among its blockers, creating the row if needed.
+     * valid_until is left as it is (null on a new row): an ineligible answer cannot turn
+     * eligible by date alone.
+     */
+    public Row appendBlocker(Key key, String entry, String source) {
+        var change = new BlockerChange.Append(key, entry, source);
+        return jdbc.query(Tables.LIVE.format(APPEND_BLOCKER_SQL + RETURNING_SQL), ps -> bind(ps, change),
+                (rs, _) -> map(rs)).getFirst();
+    }
+
+    /**
+     * Drops every blocker starting with {@code documentType}. Empty when the key is not cached.
+     *
+     * @param newExpiry the renewed document's scadenza; valid_until never ends up later than it
+     */
+    public Optional<Row> removeBlocker(Key key, String documentType, LocalDate newExpiry, String source) {
+        var change = new BlockerChange.Remove(key, documentType, newExpiry, source);
+        return jdbc.query(Tables.LIVE.format(REMOVE_BLOCKER_SQL + RETURNING_SQL), ps -> bind(ps, change),
+                (rs, _) -> map(rs)).stream().findFirst();
+    }
+
+    /**
+     * appendBlocker/removeBlocker for many changes, applied in list order. Consecutive
+     * changes of the same kind go out as one JDBC batch, so an all-expiry poll is one round trip.
+     */
+    public void applyAll(Tables tables, List<BlockerChange> changes) {
+        int from = 0;
+        while (from < changes.size()) {
+            var kind = changes.get(from).getClass();
+            int to = from + 1;
+            while (to < changes.size() && changes.get(to).getClass() == kind) to++;
+            var run = changes.subList(from, to);
+            var sql = kind == BlockerChange.Append.class ? APPEND_BLOCKER_SQL : REMOVE_BLOCKER_SQL;
+            jdbc.batchUpdate(tables.format(sql), run, run.size(), (ps, change) -> {
+                switch (change) {
+                    case BlockerChange.Append a -> bind(ps, a);
+                    case BlockerChange.Remove r -> bind(ps, r);
+                }
+            });
+            from = to;
+        }
+    }
+
+    public List<UUID> knownPersons(UUID asdId) {
+        return jdbc.queryForList(KNOWN_PERSONS_SQL, UUID.class, asdId, asdId);
+    }
+
+    private static void bind(PreparedStatement ps, BlockerChange.Append change) throws SQLException {
+        ps.setObject(1, change.key().personId());
+        ps.setObject(2, change.key().asdId());
+        ps.setBoolean(3, change.key().agonistic());
+        ps.setString(4, change.entry());
+        ps.setString(5, change.source());
+    }
+
+    private static void bind(PreparedStatement ps, BlockerChange.Remove change) throws SQLException {
+        ps.setString(1, change.documentType());
+        ps.setString(2, change.documentType());
+        ps.setObject(3, change.newExpiry(), Types.DATE);
+        ps.setString(4, change.source());
+        ps.setObject(5, change.key().personId());
+        ps.setObject(6, change.key().asdId());
+        ps.setBoolean(7, change.key().agonistic());
+    }
+
+    private static Row map(ResultSet rs) throws SQLException {
+        var docs = rs.getArray("blocking_documents");
+        return new Row(rs.getObject("id", UUID.class),
+                new Key(rs.getObject("person_id", UUID.class), rs.getObject("asd_id", UUID.class),
+                        rs.getBoolean("agonistic")),
+                rs.getBoolean("eligible"),
+                docs == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList((String[]) docs.getArray())),
+                rs.getObject("valid_until", LocalDate.class),
+                rs.getString("source"));
+    }
+}
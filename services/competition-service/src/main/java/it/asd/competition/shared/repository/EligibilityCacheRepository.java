@@ -9,5 +9,5 @@ import java.util.UUID;
 public interface EligibilityCacheRepository
         extends JpaRepository<EligibilityCacheEntity, UUID> {
 
-    Optional<EligibilityCacheEntity> findByPersonIdAndAsdId(UUID personId, UUID asdId);
+    Optional<EligibilityCacheEntity> findByPersonIdAndAsdIdAndAgonistic(UUID personId, UUID asdId, boolean agonistic);
 }
@@ -0,0 +1,187 @@
+package it.asd.competition.shared.repository;
+
+import it.asd.competition.shared.entity.ParticipationStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based access to event_participation, used by single and bulk registration.
+ * <p>
+ * insertIfAbsent(): optimistic insert; a conflict on uq_participation_event_person
+ * means the person is already registered
+ * insertAll():      one INSERT … SELECT FROM unnest(…), same conflict rule, returns the ids that
+ * went in. Ids are generated by the caller so events can be built up front
+ * findRegistered(): existing participations for a set of persons (uq_participation_event_person)
+ * lockForResults(): the participations a chunk of uploaded results points at, by id (PK) or
+ * by person (uq_participation_event_person), locked FOR UPDATE until the chunk commits
+ * updateResults():  one JDBC batch of result updates
+ * <p>
+ * ON CONFLICT DO NOTHING instead of catching the unique violation: a failed
+ * statement would abort the surrounding transaction, outbox write included.
+ */
+@Repository
+public class EventParticipationBatchRepository {
+
+    public record NewParticipation(UUID id, UUID eventId, UUID personId, UUID groupId,
+                                   UUID asdId, UUID seasonId, String categoria) {
+    }
+
+    /**
+     * Current state of a participation a result row points at. resultData is the jsonb as text.
+     */
+    public record ResultTarget(UUID id, UUID personId, UUID groupId, UUID asdId, UUID seasonId,
+                               Integer posizione, BigDecimal punteggio, String resultData) {
+    }
+
+    /**
+     * Final values to write. resultData is jsonb text, null = SQL NULL.
+     */
+    public record ResultUpdate(UUID id, Integer posizione, BigDecimal punteggio, String resultData) {
+    }
+
+    private static final String FIND_REGISTERED_SQL = """
+            SELECT person_id, id
+            FROM event_participation
+            WHERE event_id = ? AND person_id = ANY(?)
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO event_participation
+                (id, event_id, person_id, group_id, asd_id, season_id, categoria, stato)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (event_id, person_id) WHERE person_id IS NOT NULL DO NOTHING
+            """;
+
+    private static final String INSERT_ALL_SQL = """
+            INSERT INTO event_participation
+                (id, event_id, person_id, group_id, asd_id, season_id, categoria, stato)
+            SELECT r.id, ?, r.person_id, r.group_id, ?, ?, r.categoria, ?
+            FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::varchar[]) AS r(id, person_id, group_id, categoria)
+            ON CONFLICT (event_id, person_id) WHERE person_id IS NOT NULL DO NOTHING
+            RETURNING id
+            """;
+
+    private static final String LOCK_FOR_RESULTS_SQL = """
+            SELECT id, person_id, group_id, asd_id, season_id, posizione, punteggio,
+                   result_data::text AS result_data
+            FROM event_participation
+            WHERE event_id = ? AND (id = ANY(?) OR person_id = ANY(?))
+            FOR UPDATE
+            """;
+
+    private static final String UPDATE_RESULT_SQL = """
+            UPDATE event_participation
+            SET posizione = ?, punteggio = ?, result_data = ?::jsonb
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public EventParticipationBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return personId → existing participationId, for the persons already registered to the event
+     */
+    public Map<UUID, UUID> findRegistered(UUID eventId, Collection<UUID> personIds) {
+        var registered = new HashMap<UUID, UUID>();
+        if (personIds.isEmpty()) return registered;
+
+        var ids = personIds.toArray(UUID[]::new);
+        jdbc.query(FIND_REGISTERED_SQL, ps -> {
+            ps.setObject(1, eventId);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids));
+        }, rs -> {
+            registered.put(rs.getObject("person_id", UUID.class), rs.getObject("id", UUID.class));
+        });
+        return registered;
+    }
+
+    /**
+     * @return false when the person already has a participation for the event
+     */
+    public boolean insertIfAbsent(NewParticipation row) {
+        return jdbc.update(INSERT_SQL,
+                row.id(), row.eventId(), row.personId(), row.groupId(),
+                row.asdId(), row.seasonId(), row.categoria(), ParticipationStatus.REGISTERED.name()) == 1;
+    }
+
+    /**
+     * All rows must share eventId, asdId and seasonId (one entry list).
+     *
+     * @return ids of the rows inserted; a row missing here lost to an existing participation
+     */
+    public Set<UUID> insertAll(List<NewParticipation> rows) {
+        var inserted = new HashSet<UUID>();
+        if (rows.isEmpty()) return inserted;
+
+        var first = rows.getFirst();
+        var ids = rows.stream().map(NewParticipation::id).toArray(UUID[]::new);
+        var personIds = rows.stream().map(NewParticipation::personId).toArray(UUID[]::new);
+        var groupIds = rows.stream().map(NewParticipation::groupId).toArray(UUID[]::new);
+        var categorie = rows.stream().map(NewParticipation::categoria).toArray(String[]::new);
+
+        jdbc.query(INSERT_ALL_SQL, ps -> {
+            ps.setObject(1, first.eventId());
+            ps.setObject(2, first.asdId());
+            ps.setObject(3, first.seasonId());
+            ps.setString(4, ParticipationStatus.REGISTERED.name());
+            ps.setArray(5, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setArray(6, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(7, ps.getConnection().createArrayOf("uuid", groupIds));
+            ps.setArray(8, ps.getConnection().createArrayOf("varchar", categorie));
+        }, rs -> {
+            inserted.add(rs.getObject("id", UUID.class));
+        });
+        return inserted;
+    }
+
+    /**
+     * Must run inside the transaction that writes the results.
+     */
+    public List<ResultTarget> lockForResults(UUID eventId, Collection<UUID> ids, Collection<UUID> personIds) {
+        var targets = new ArrayList<ResultTarget>();
+        if (ids.isEmpty() && personIds.isEmpty()) return targets;
+
+        var idArray = ids.toArray(UUID[]::new);
+        var personArray = personIds.toArray(UUID[]::new);
+        jdbc.query(LOCK_FOR_RESULTS_SQL, ps -> {
+            ps.setObject(1, eventId);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", idArray));
+            ps.setArray(3, ps.getConnection().createArrayOf("uuid", personArray));
+        }, rs -> {
+            targets.add(new ResultTarget(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("person_id", UUID.class),
+                    rs.getObject("group_id", UUID.class),
+                    rs.getObject("asd_id", UUID.class),
+                    rs.getObject("season_id", UUID.class),
+                    rs.getObject("posizione", Integer.class),
+                    rs.getBigDecimal("punteggio"),
+                    rs.getString("result_data")));
+        });
+        return targets;
+    }
+
+    public void updateResults(List<ResultUpdate> updates) {
+        if (updates.isEmpty()) return;
+        jdbc.batchUpdate(UPDATE_RESULT_SQL, updates, updates.size(), (ps, u) -> {
+            ps.setObject(1, u.posizione(), Types.INTEGER);
+            ps.setBigDecimal(2, u.punteggio());
+            ps.setString(3, u.resultData());
+            ps.setObject(4, u.id());
+        });
+    }
+}
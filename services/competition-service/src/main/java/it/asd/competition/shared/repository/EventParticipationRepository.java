@@ -9,7 +9,5 @@ import java.util.UUID;
 public interface EventParticipationRepository
         extends JpaRepository<EventParticipationEntity, UUID> {
 
-    List<EventParticipationEntity> findByPersonIdAndAsdId(UUID personId, UUID asdId);
-
     List<EventParticipationEntity> findByEventId(UUID eventId);
 }
@@ -0,0 +1,114 @@
+package it.asd.competition.shared.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads over event_participation.result_data, filtered by sport-specific fields.
+ * <p>
+ * The JSON predicates arrive compiled (ResultFilterCompiler) as
+ * result_data @> ?::jsonb and result_data @?? ?::jsonpath (?? is PgJDBC's escape
+ * for a literal ?, so the operator is not taken for a placeholder). Both operators are
+ * served by idx_participation_result_gin; the jsonb_path_exists() function is not.
+ * User input only ever travels as bound parameters.
+ * <p>
+ * page():   keyset pagination on id — WHERE id > :after ORDER BY id LIMIT n
+ * stream(): same query without LIMIT, read through a server-side cursor
+ * (fetch size) so the result set never sits in the heap. Needs a transaction:
+ * PgJDBC only uses a cursor when autocommit is off.
+ */
+@Repository
+public class ParticipationResultQueryRepository {
+
+    /**
+     * A compiled filter: SQL fragment with ? placeholders and its arguments, in order.
+     */
+    public record Predicate(String sql, List<Object> args) {
+    }
+
+    /**
+     * resultData is the jsonb as text, passed through unparsed.
+     */
+    public record ResultMatch(UUID participationId, UUID eventId, UUID personId, UUID groupId, UUID asdId,
+                              Integer posizione, BigDecimal punteggio, String resultData) {
+    }
+
+    private static final String SELECT_SQL = """
+            SELECT id, event_id, person_id, group_id, asd_id, posizione, punteggio,
+                   result_data::text AS result_data
+            FROM event_participation
+            WHERE result_data IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public ParticipationResultQueryRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param after last id of the previous page, null for the first page
+     */
+    public List<ResultMatch> page(List<Predicate> predicates, UUID after, int limit) {
+        var args = new ArrayList<>();
+        var sql = select(predicates, after, args) + " LIMIT ?";
+        args.add(limit);
+
+        var matches = new ArrayList<ResultMatch>();
+        jdbc.query(sql, ps -> bind(ps, args), (RowCallbackHandler) rs -> matches.add(map(rs)));
+        return matches;
+    }
+
+    /**
+     * @param after resume point of a broken stream, null to start from the beginning
+     */
+    public void stream(List<Predicate> predicates, UUID after, int fetchSize, Consumer<ResultMatch> sink) {
+        var args = new ArrayList<>();
+        var sql = select(predicates, after, args);
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            bind(ps, args);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(map(rs)));
+    }
+
+    private static String select(List<Predicate> predicates, UUID after, List<Object> args) {
+        var sql = new StringBuilder(SELECT_SQL);
+        for (var p : predicates) {
+            sql.append(" AND ").append(p.sql());
+            args.addAll(p.args());
+        }
+        if (after != null) {
+            sql.append(" AND id > ?");
+            args.add(after);
+        }
+        return sql.append(" ORDER BY id").toString();
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> args) throws SQLException {
+        for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+    }
+
+    private static ResultMatch map(ResultSet rs) throws SQLException {
+        return new ResultMatch(
+                rs.getObject("id", UUID.class),
+                rs.getObject("event_id", UUID.class),
+                rs.getObject("person_id", UUID.class),
+                rs.getObject("group_id", UUID.class),
+                rs.getObject("asd_id", UUID.class),
+                rs.getObject("posizione", Integer.class),
+                rs.getBigDecimal("punteggio"),
+                rs.getString("result_data"));
+    }
+}
@@ -0,0 +1,47 @@
+-- One participation per person per event, enforced by the database
+-- Flyway migration V3
+-- Registration inserts optimistically (ON CONFLICT DO NOTHING) and maps a
+-- conflict to AlreadyRegistered, so check and insert can no longer race.
+-- Team rows (person_id NULL) stay out of the index.
+
+-- The old check-then-insert could register a person twice; the index cannot be
+-- built over those. Keep the oldest row of each (event, person) — the one the
+-- first registration created — and move over any result only a later copy has.
+CREATE TEMPORARY TABLE participation_duplicate ON COMMIT DROP AS
+SELECT id,
+       first_value(id) OVER w AS keep_id,
+       row_number() OVER w    AS n
+FROM event_participation
+WHERE person_id IS NOT NULL
+WINDOW w AS (PARTITION BY event_id, person_id ORDER BY created_at, id);
+
+UPDATE event_participation keep
+SET posizione   = COALESCE(keep.posizione, dup.posizione),
+    punteggio   = COALESCE(keep.punteggio, dup.punteggio),
+    result_data = COALESCE(keep.result_data, dup.result_data)
+FROM (SELECT DISTINCT ON (d.keep_id) d.keep_id, p.posizione, p.punteggio, p.result_data
+      FROM participation_duplicate d
+      JOIN event_participation p ON p.id = d.id
+      WHERE d.n > 1
+        AND (p.posizione IS NOT NULL OR p.punteggio IS NOT NULL OR p.result_data IS NOT NULL)
+      ORDER BY d.keep_id, p.updated_at DESC) dup
+WHERE keep.id = dup.keep_id;
+
+DO
+$$
+    DECLARE
+        removed INT;
+    BEGIN
+        DELETE FROM event_participation p
+        USING participation_duplicate d
+        WHERE p.id = d.id AND d.n > 1;
+        GET DIAGNOSTICS removed = ROW_COUNT;
+        RAISE NOTICE 'V3: removed % duplicate participations (oldest row of each person/event kept)', removed;
+    END
+$$;
+
+CREATE UNIQUE INDEX uq_participation_event_person
+    ON event_participation (event_id, person_id) WHERE person_id IS NOT NULL;
+
+-- Same columns and predicate as the unique index; nothing reads by person_id alone any more
+DROP INDEX idx_participation_person_event;
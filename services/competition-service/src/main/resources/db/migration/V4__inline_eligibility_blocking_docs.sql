@@ -0,0 +1,15 @@
+-- Blocking documents move from the eligibility_blocking_docs child table into
+-- an array column on eligibility_cache: a read is one row, and an expiry or
+-- renewal is one atomic upsert instead of a read + delete + reinsert.
+
+ALTER TABLE eligibility_cache
+    ADD COLUMN blocking_documents TEXT[] NOT NULL DEFAULT '{}';
+
+UPDATE eligibility_cache c
+SET blocking_documents = d.docs
+FROM (SELECT cache_id, array_agg(document_type) AS docs
+      FROM eligibility_blocking_docs
+      GROUP BY cache_id) d
+WHERE d.cache_id = c.id;
+
+DROP TABLE eligibility_blocking_docs;
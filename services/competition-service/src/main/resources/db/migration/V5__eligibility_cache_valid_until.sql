@@ -0,0 +1,11 @@
+-- Per-entry validity horizon: the validUntil Compliance returns with every answer
+-- (earliest upcoming scadenza of the pair's documents). A row is served up to and
+-- including that day; from the next day a read treats it as a miss.
+
+ALTER TABLE eligibility_cache
+    ADD COLUMN valid_until DATE;   -- NULL = no horizon
+
+-- Rows cached before this column have no horizon. An ineligible answer cannot
+-- turn eligible by date alone, but an eligible one can: those are served until
+-- the end of today and then re-checked on their next read.
+UPDATE eligibility_cache SET valid_until = CURRENT_DATE WHERE eligible;
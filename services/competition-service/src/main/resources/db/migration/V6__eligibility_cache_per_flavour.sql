@@ -0,0 +1,17 @@
+-- A Compliance answer depends on the agonistic flag it was asked with
+-- (agonistic and recreational registrations require different documents), so the
+-- flag becomes part of the key: one row per (person, asd, flavour).
+
+-- Existing rows do not record which flavour they answer. They are dropped; the
+-- registration cold path and the warm-up fill both flavours again.
+DELETE FROM eligibility_cache;
+
+ALTER TABLE eligibility_cache
+    ADD COLUMN agonistic BOOLEAN NOT NULL;
+
+ALTER TABLE eligibility_cache
+    DROP CONSTRAINT uq_eligibility,
+    ADD CONSTRAINT uq_eligibility UNIQUE (person_id, asd_id, agonistic);
+
+-- The unique constraint's index starts with the same columns
+DROP INDEX idx_eligibility_lookup;
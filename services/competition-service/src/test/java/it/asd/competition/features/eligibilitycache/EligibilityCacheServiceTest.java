@@ -0,0 +1,303 @@
+package it.asd.competition.features.eligibilitycache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.competition.shared.TestFixtures;
+import it.asd.competition.shared.entity.EligibilityCacheEntity;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.BlockerChange;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Row;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Tables;
+import it.asd.competition.shared.repository.EligibilityCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.PERSON_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EligibilityCacheService")
+@Tag("unit")
+class EligibilityCacheServiceTest {
+
+    private static final Key KEY = new Key(PERSON_ID, ASD_ID, true);
+    private static final Key RECREATIONAL = new Key(PERSON_ID, ASD_ID, false);
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    EligibilityCacheRepository repo;
+    @Mock
+    EligibilityCacheBatchRepository batchRepo;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EligibilityL1Cache l1;
+    private EligibilityCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        l1 = new EligibilityL1Cache(new EligibilityL1Properties(true, 100, Duration.ofMinutes(5)), meterRegistry);
+        service = new EligibilityCacheService(repo, batchRepo, l1);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", EligibilityL1Cache.CACHE_NAME)
+                .tag("result", result).functionCounter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Row> savedRows() {
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(batchRepo).saveAll(eq(Tables.LIVE), captor.capture());
+        return captor.getValue();
+    }
+
+    @Nested
+    @DisplayName("get — L1 then table")
+    class Get {
+
+        @Test
+        @DisplayName("a table hit is copied into the L1; the next read is a memory read")
+        void readThrough() {
+            var entity = EligibilityCacheEntity.builder()
+                    .personId(PERSON_ID).asdId(ASD_ID).agonistic(true).eligible(false)
+                    .blockingDocuments(List.of("TESSERA")).source("sync_check").build();
+            when(repo.findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true)).thenReturn(Optional.of(entity));
+
+            var first = service.get(PERSON_ID, ASD_ID, true);
+            var second = service.get(PERSON_ID, ASD_ID, true);
+
+            assertThat(first).isEqualTo(second);
+            assertThat(second.orElseThrow().blockingDocuments()).containsExactly("TESSERA");
+            verify(repo, times(1)).findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true);
+            assertThat(gets("miss")).isEqualTo(1);
+            assertThat(gets("hit")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("absence is not cached — every miss reaches the table")
+        void absenceNotCached() {
+            when(repo.findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true)).thenReturn(Optional.empty());
+
+            assertThat(service.get(PERSON_ID, ASD_ID, true)).isEmpty();
+            assertThat(service.get(PERSON_ID, ASD_ID, true)).isEmpty();
+
+            verify(repo, times(2)).findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true);
+        }
+
+        @Test
+        @DisplayName("a sync check is one upsert and writes through — no table read at all")
+        void syncCheckWritesThrough() {
+            service.updateFromSyncCheck(PERSON_ID, ASD_ID, true, true, List.of(), TODAY.plusMonths(6));
+
+            assertThat(service.get(PERSON_ID, ASD_ID, true)).contains(
+                    new EligibilityCacheService.CachedEligibility(true, List.of(), TODAY.plusMonths(6)));
+            assertThat(savedRows()).singleElement().extracting(Row::key).isEqualTo(KEY);
+            verifyNoInteractions(repo);
+        }
+
+        @Test
+        @DisplayName("the agonistic and the recreational answer are separate entries")
+        void perFlavour() {
+            when(repo.findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, false)).thenReturn(Optional.empty());
+
+            service.updateFromSyncCheck(PERSON_ID, ASD_ID, true, false, List.of("TESSERA_FEDERALE"), null);
+
+            assertThat(service.get(PERSON_ID, ASD_ID, false)).isEmpty();
+            assertThat(l1.get(RECREATIONAL)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("markIneligible / removeBlocker — one statement each")
+    class PerEvent {
+
+        @Test
+        @DisplayName("an expiry appends the blocker atomically and writes the returned row through")
+        void expiryAppends() {
+            var entry = "CERTIFICATO_MEDICO_AGONISTICO [EXPIRED on 2024-01-01]";
+            when(batchRepo.appendBlocker(KEY, entry, "document.expired"))
+                    .thenReturn(new Row(UUID.randomUUID(), KEY, false, List.of("TESSERA", entry), null, "document.expired"));
+
+            service.markIneligible(PERSON_ID, ASD_ID, "CERTIFICATO_MEDICO_AGONISTICO", "EXPIRED on 2024-01-01");
+
+            assertThat(l1.get(KEY).blockingDocuments()).containsExactly("TESSERA", entry);
+            verify(batchRepo, never()).load(any(), any());
+            verifyNoInteractions(repo);
+        }
+
+        @Test
+        @DisplayName("a renewal for an uncached pair leaves the L1 empty")
+        void renewalWithoutEntry() {
+            var newExpiry = TODAY.plusYears(1);
+            when(batchRepo.removeBlocker(KEY, "CERTIFICATO_MEDICO_AGONISTICO", newExpiry, "document.renewed"))
+                    .thenReturn(Optional.empty());
+
+            service.removeBlocker(PERSON_ID, ASD_ID, "CERTIFICATO_MEDICO_AGONISTICO", newExpiry);
+
+            assertThat(l1.get(KEY)).isNull();
+        }
+
+        @Test
+        @DisplayName("a document is applied to the flavours that require it, and only those")
+        void flavoursRequiringTheDocument() {
+            when(batchRepo.appendBlocker(any(), any(), any())).thenAnswer(call -> new Row(UUID.randomUUID(),
+                    call.getArgument(0), false, List.of((String) call.getArgument(1)), null, "document.expired"));
+
+            service.markIneligible(PERSON_ID, ASD_ID, "ASSICURAZIONE", "EXPIRED on 2024-01-01");
+            service.markIneligible(PERSON_ID, ASD_ID, "CERTIFICATO_MEDICO_NON_AGONISTICO", "EXPIRED on 2024-01-01");
+            service.markIneligible(PERSON_ID, ASD_ID, "CONSENSO_PRIVACY", "EXPIRED on 2024-01-01");
+
+            verify(batchRepo).appendBlocker(eq(KEY), any(), any());
+            verify(batchRepo, times(2)).appendBlocker(eq(RECREATIONAL), any(), any());
+            verify(batchRepo, times(3)).appendBlocker(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("validUntil — per-entry TTL")
+    class ValidUntil {
+
+        @Test
+        @DisplayName("a table row past its validUntil is a miss and is not copied into the L1")
+        void pastRowIsMiss() {
+            var entity = EligibilityCacheEntity.builder()
+                    .personId(PERSON_ID).asdId(ASD_ID).agonistic(true).eligible(true)
+                    .validUntil(TODAY.minusDays(1)).source("sync_check").build();
+            when(repo.findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true)).thenReturn(Optional.of(entity));
+
+            assertThat(service.get(PERSON_ID, ASD_ID, true)).isEmpty();
+            assertThat(l1.get(KEY)).isNull();
+        }
+
+        @Test
+        @DisplayName("getAll leaves out rows past their validUntil")
+        void getAllSkipsPastRows() {
+            var other = new Key(UUID.randomUUID(), ASD_ID, true);
+            when(batchRepo.load(eq(Tables.LIVE), any())).thenReturn(new HashMap<>(Map.of(
+                    KEY, new Row(UUID.randomUUID(), KEY, true, List.of(), TODAY, "sync_check"),
+                    other, new Row(UUID.randomUUID(), other, true, List.of(), TODAY.minusDays(1), "sync_check"))));
+
+            assertThat(service.getAll(List.of(KEY, other))).containsOnlyKeys(KEY);
+        }
+
+        @Test
+        @DisplayName("an answer already past its validUntil is stored but never served from the L1")
+        void pastWriteThroughExpires() {
+            when(repo.findByPersonIdAndAsdIdAndAgonistic(PERSON_ID, ASD_ID, true)).thenReturn(Optional.empty());
+
+            service.updateFromSyncCheck(PERSON_ID, ASD_ID, true, true, List.of(), TODAY.minusDays(1));
+
+            assertThat(service.get(PERSON_ID, ASD_ID, true)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("the L1 lifetime is expire-after-write, cut short at the end of the validUntil day")
+        void l1Ttl() {
+            var max = Duration.ofMinutes(5);
+            var now = ZonedDateTime.of(TODAY.atTime(23, 58), ZoneId.systemDefault());
+            var endsTonight = new EligibilityCacheService.CachedEligibility(true, List.of(), TODAY);
+            var endsNextYear = new EligibilityCacheService.CachedEligibility(true, List.of(), TODAY.plusYears(1));
+            var noHorizon = new EligibilityCacheService.CachedEligibility(false, List.of(), null);
+
+            assertThat(EligibilityL1Cache.ttl(endsTonight, max, now)).isEqualTo(Duration.ofMinutes(2));
+            assertThat(EligibilityL1Cache.ttl(endsNextYear, max, now)).isEqualTo(max);
+            assertThat(EligibilityL1Cache.ttl(noHorizon, max, now)).isEqualTo(max);
+            assertThat(EligibilityL1Cache.ttl(endsTonight, max, now.plusMinutes(3))).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("applyComplianceEvents — batched array statements")
+    class ApplyComplianceEvents {
+
+        private static final String EXPIRED_ENTRY = "CERTIFICATO_MEDICO_AGONISTICO [EXPIRED on 2024-01-01]";
+
+        @SuppressWarnings("unchecked")
+        private List<BlockerChange> appliedChanges(Tables tables) {
+            var captor = ArgumentCaptor.forClass(List.class);
+            verify(batchRepo).applyAll(eq(tables), captor.capture());
+            return captor.getValue();
+        }
+
+        @Test
+        @DisplayName("an expiry appends its blocker and the row as written reaches the L1")
+        void expiryAppendsBlocker() {
+            var written = new Row(UUID.randomUUID(), KEY, false, List.of(EXPIRED_ENTRY), null, "document.expired");
+            when(batchRepo.load(eq(Tables.LIVE), any())).thenReturn(new HashMap<>(Map.of(KEY, written)));
+
+            int count = service.applyComplianceEvents(List.of(
+                    TestFixtures.documentExpiredEvent("CERTIFICATO_MEDICO_AGONISTICO", LocalDate.of(2024, 1, 1))));
+
+            assertThat(count).isEqualTo(1);
+            assertThat(appliedChanges(Tables.LIVE))
+                    .containsExactly(new BlockerChange.Append(KEY, EXPIRED_ENTRY, "document.expired"));
+            assertThat(l1.get(KEY).isEligible()).isFalse();
+            assertThat(l1.get(KEY).blockingDocuments()).containsExactly(EXPIRED_ENTRY);
+        }
+
+        @Test
+        @DisplayName("expiry then renewal go out in poll order, with no blind upsert over concurrent writes")
+        void keepsPollOrderWithoutUpsert() {
+            var written = new Row(UUID.randomUUID(), KEY, true, List.of(), TODAY.plusMonths(2), "document.renewed");
+            when(batchRepo.load(eq(Tables.LIVE), any())).thenReturn(new HashMap<>(Map.of(KEY, written)));
+
+            service.applyComplianceEvents(List.of(
+                    TestFixtures.documentExpiredEvent("CERTIFICATO_MEDICO_AGONISTICO", LocalDate.of(2024, 1, 1)),
+                    TestFixtures.documentRenewedEvent("CERTIFICATO_MEDICO_AGONISTICO")));
+
+            assertThat(appliedChanges(Tables.LIVE)).containsExactly(
+                    new BlockerChange.Append(KEY, EXPIRED_ENTRY, "document.expired"),
+                    new BlockerChange.Remove(KEY, "CERTIFICATO_MEDICO_AGONISTICO", TODAY.plusYears(1),
+                            "document.renewed"));
+            verify(batchRepo, never()).saveAll(any(), any());
+            verify(batchRepo, times(1)).load(eq(Tables.LIVE), any());
+            assertThat(l1.get(KEY).isEligible()).isTrue();
+        }
+
+        @Test
+        @DisplayName("renewal for an uncached pair writes nothing")
+        void renewalWithoutEntryIsNoop() {
+            when(batchRepo.load(eq(Tables.LIVE), any())).thenReturn(new HashMap<>());
+
+            int count = service.applyComplianceEvents(List.of(
+                    TestFixtures.documentRenewedEvent("CERTIFICATO_MEDICO_AGONISTICO")));
+
+            assertThat(count).isZero();
+            assertThat(l1.get(KEY)).isNull();
+        }
+
+        @Test
+        @DisplayName("a replay into the rebuild shadows leaves the L1 alone")
+        void shadowWritesSkipL1() {
+            var shadow = new Tables("eligibility_cache__rebuild");
+            var written = new Row(UUID.randomUUID(), KEY, false, List.of(EXPIRED_ENTRY), null, "document.expired");
+            when(batchRepo.load(eq(shadow), any())).thenReturn(new HashMap<>(Map.of(KEY, written)));
+
+            service.applyComplianceEvents(shadow, List.of(
+                    TestFixtures.documentExpiredEvent("CERTIFICATO_MEDICO_AGONISTICO", LocalDate.of(2024, 1, 1))));
+
+            assertThat(appliedChanges(shadow)).hasSize(1);
+            assertThat(l1.get(KEY)).isNull();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package it.asd.competition.features.eligibilitywarmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService.CachedEligibility;
+import it.asd.competition.features.eligibilitywarmup.ComplianceBatchClient.Answer;
+import it.asd.competition.features.eligibilitywarmup.ComplianceBatchClient.Query;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EligibilityWarmer")
+@Tag("unit")
+class EligibilityWarmerTest {
+
+    private static final Answer ELIGIBLE = new Answer(true, List.of(), List.of(), null);
+
+    @Mock
+    private ComplianceBatchClient client;
+    @Mock
+    private EligibilityCacheService cacheService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EligibilityWarmer warmer(int batchSize, double callsPerSecond) {
+        return new EligibilityWarmer(client, cacheService, meterRegistry, batchSize, callsPerSecond);
+    }
+
+    private static Key key() {
+        return new Key(UUID.randomUUID(), ASD_ID, true);
+    }
+
+    private double pairs(String result) {
+        return meterRegistry.get("competition.eligibility.warmup").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("fill keys already cached are skipped; refresh keys are always re-checked, each with its flavour")
+    @SuppressWarnings("unchecked")
+    void skipsCachedFills() {
+        var cached = key();
+        var cold = new Key(UUID.randomUUID(), ASD_ID, false);
+        var changed = key();
+        when(cacheService.getAll(any())).thenReturn(Map.of(cached, new CachedEligibility(true, List.of(), null)));
+        when(client.check(any())).thenReturn(List.of(ELIGIBLE, ELIGIBLE));
+
+        int written = warmer(200, 1000).warm(List.of(changed), List.of(cached, cold, changed));
+
+        assertThat(written).isEqualTo(2);
+        var queries = ArgumentCaptor.forClass(List.class);
+        verify(client).check(queries.capture());
+        assertThat((List<Query>) queries.getValue()).containsExactly(
+                new Query(changed.personId(), ASD_ID, true), new Query(cold.personId(), ASD_ID, false));
+        verify(cacheService).getAll(List.of(cached, cold));
+        verify(cacheService).updateFromSyncChecks(Map.of(
+                changed, new CachedEligibility(true, List.of(), null),
+                cold, new CachedEligibility(true, List.of(), null)));
+    }
+
+    @Test
+    @DisplayName("a failed chunk is counted and left cold; the other chunks are still written")
+    void failedChunkStaysCold() {
+        when(client.check(any()))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(List.of(ELIGIBLE));
+
+        int written = warmer(2, 1000).warm(List.of(key(), key(), key()), List.of());
+
+        assertThat(written).isEqualTo(1);
+        verify(cacheService, times(1)).updateFromSyncChecks(any());
+        assertThat(pairs("failed")).isEqualTo(2);
+        assertThat(pairs("warmed")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("calls are spaced by the rate limit")
+    void rateLimited() {
+        when(client.check(any())).thenReturn(List.of(ELIGIBLE));
+
+        long start = System.nanoTime();
+        warmer(1, 20).warm(List.of(key(), key(), key()), List.of());
+
+        // first call immediately, then one every 50 ms
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        verify(client, times(3)).check(any());
+    }
+}
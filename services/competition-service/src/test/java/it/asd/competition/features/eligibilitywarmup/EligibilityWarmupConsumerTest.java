@@ -0,0 +1,81 @@
+package it.asd.competition.features.eligibilitywarmup;
+
+import it.asd.competition.shared.TestFixtures;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.PERSON_ID;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EligibilityWarmupConsumer")
+@Tag("unit")
+class EligibilityWarmupConsumerTest {
+
+    @Mock
+    private EligibilityWarmer warmer;
+    @Mock
+    private EligibilityCacheBatchRepository cacheRepo;
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private EligibilityWarmupConsumer consumer;
+
+    private static List<ConsumerRecord<String, EventEnvelope>> poll(DomainEvent... events) {
+        return Arrays.stream(events)
+                .map(e -> new ConsumerRecord<String, EventEnvelope>("topic", 0, 0L, null,
+                        EventEnvelope.of(e, "test")))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("season activation expands to known persons; memberships fill, new documents refresh; both flavours")
+    void collectsPairs() {
+        var member = UUID.randomUUID();
+        var pastParticipant = UUID.randomUUID();
+        when(cacheRepo.knownPersons(ASD_ID)).thenReturn(List.of(pastParticipant, member));
+
+        consumer.onActivations(poll(
+                TestFixtures.seasonActivatedEvent(),
+                TestFixtures.membershipActivatedEvent(member),
+                TestFixtures.membershipActivatedEvent(member),
+                TestFixtures.documentCreatedEvent("CERTIFICATO_MEDICO_AGONISTICO")), ack);
+
+        verify(warmer).warm(
+                argThat(refresh -> Set.copyOf(refresh).equals(
+                        Set.of(new Key(PERSON_ID, ASD_ID, true), new Key(PERSON_ID, ASD_ID, false)))),
+                argThat(fill -> fill.size() == 4 && Set.copyOf(fill).equals(Set.of(
+                        new Key(pastParticipant, ASD_ID, true), new Key(pastParticipant, ASD_ID, false),
+                        new Key(member, ASD_ID, true), new Key(member, ASD_ID, false)))));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @DisplayName("a poll without activations still acks")
+    void emptyPoll() {
+        consumer.onActivations(poll(TestFixtures.documentRenewedEvent("ASSICURAZIONE")), ack);
+
+        verify(warmer).warm(argThat(c -> c.isEmpty()), argThat(c -> c.isEmpty()));
+        verify(ack).acknowledge();
+        verifyNoInteractions(cacheRepo);
+    }
+}
@@ -0,0 +1,87 @@
+package it.asd.competition.features.ingestresults;
+
+import it.asd.common.exception.GlobalExceptionHandler;
+import it.asd.common.exception.ValidatorExceptionHandler;
+import it.asd.competition.features.ingestresults.IngestionReport.RowOutcome;
+import it.asd.competition.features.ingestresults.IngestionReport.Status;
+import it.asd.competition.shared.TestFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(IngestResultsController.class)
+@Import({GlobalExceptionHandler.class, ValidatorExceptionHandler.class})
+@DisplayName("IngestResultsController")
+@Tag("unit")
+class IngestResultsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IngestResultsHandler handler;
+
+    private static final UUID EVENT_ID = TestFixtures.EVENT_ID;
+
+    private static IngestionReport report(RowOutcome... outcomes) {
+        return IngestionReport.of(EVENT_ID, List.of(outcomes));
+    }
+
+    @Test
+    @DisplayName("POST text/csv returns 200 with the per-row report")
+    void returnsReport() throws Exception {
+        var participationId = UUID.randomUUID();
+        when(handler.handle(any())).thenReturn(new IngestResultsResult.Ingested(report(
+                new RowOutcome(1, participationId, Status.RECORDED, null),
+                new RowOutcome(2, null, Status.INVALID, "no result values"))));
+
+        mockMvc.perform(post("/competition/events/{eventId}/results:ingest", EVENT_ID)
+                        .contentType("text/csv")
+                        .content("personId,posizione\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recorded").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.outcomes[0].participationId").value(participationId.toString()))
+                .andExpect(jsonPath("$.outcomes[1].status").value("INVALID"));
+    }
+
+    @Test
+    @DisplayName("POST returns 400 with the partial report when the file breaks mid-way")
+    void returns400OnUnreadable() throws Exception {
+        when(handler.handle(any())).thenReturn(new IngestResultsResult.Unreadable("Unreadable after row 1: EOF",
+                report(new RowOutcome(1, UUID.randomUUID(), Status.RECORDED, null))));
+
+        mockMvc.perform(post("/competition/events/{eventId}/results:ingest", EVENT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"posizione\": 1}, {"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.report.recorded").value(1));
+    }
+
+    @Test
+    @DisplayName("POST returns 415 for an unsupported content type")
+    void returns415OnOtherFormats() throws Exception {
+        mockMvc.perform(post("/competition/events/{eventId}/results:ingest", EVENT_ID)
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<results/>"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(handler);
+    }
+}
@@ -0,0 +1,133 @@
+package it.asd.competition.features.ingestresults;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.common.kafka.EventPublisher;
+import it.asd.competition.features.ingestresults.IngestResultsCommand.Format;
+import it.asd.competition.features.ingestresults.IngestionReport.Status;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.ResultTarget;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.ResultUpdate;
+import it.asd.events.KafkaTopics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static it.asd.competition.shared.TestFixtures.SEASON_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestResultsHandler")
+@Tag("unit")
+class IngestResultsHandlerTest {
+
+    private static final UUID ANNA = UUID.randomUUID();
+    private static final UUID ANNA_PARTICIPATION = UUID.randomUUID();
+    private static final UUID LUCA = UUID.randomUUID();
+    private static final UUID LUCA_PARTICIPATION = UUID.randomUUID();
+
+    @Mock
+    private EventParticipationBatchRepository participationRepo;
+    @Mock
+    private EventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IngestResultsHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new IngestResultsHandler(participationRepo, eventPublisher, new ObjectMapper(),
+                transactionManager, 2);
+    }
+
+    private static IngestResultsCommand upload(Format format, String body) {
+        return new IngestResultsCommand(EVENT_ID, format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ResultTarget target(UUID id, UUID personId) {
+        return new ResultTarget(id, personId, null, ASD_ID, SEASON_ID, null, null, null);
+    }
+
+    @Test
+    @DisplayName("CSV: applies rows in chunks, extra columns become resultData, bad rows are reported")
+    @SuppressWarnings("unchecked")
+    void csvInChunks() {
+        when(participationRepo.lockForResults(eq(EVENT_ID), any(), any()))
+                .thenReturn(List.of(target(ANNA_PARTICIPATION, ANNA), target(LUCA_PARTICIPATION, LUCA)));
+
+        var csv = """
+                personId,posizione,punteggio,split50
+                %s,1,58.31,27.90
+                %s,,,
+                %s,2,59.02,28.40
+                %s,3,,
+                """.formatted(ANNA, UUID.randomUUID(), LUCA, "not-a-uuid");
+
+        var result = handler.handle(upload(Format.CSV, csv));
+
+        var report = ((IngestResultsResult.Ingested) result).report();
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.recorded()).isEqualTo(2);
+        assertThat(report.outcomes()).extracting(IngestionReport.RowOutcome::status)
+                .containsExactly(Status.RECORDED, Status.INVALID, Status.RECORDED, Status.INVALID);
+
+        // invalid rows never enter a chunk: rows 1 and 3 fill the one chunk of 2
+        var updates = ArgumentCaptor.forClass(List.class);
+        verify(participationRepo, times(1)).updateResults(updates.capture());
+        assertThat((List<ResultUpdate>) updates.getValue()).extracting(ResultUpdate::punteggio)
+                .containsExactly(new BigDecimal("58.31"), new BigDecimal("59.02"));
+        assertThat(((List<ResultUpdate>) updates.getValue()).getFirst().resultData()).contains("split50");
+        verify(eventPublisher).publishAll(eq(KafkaTopics.PARTICIPANT_RESULT_SET), any(), eq(ASD_ID), eq(SEASON_ID));
+    }
+
+    @Test
+    @DisplayName("JSON: unknown participations are NOT_FOUND and nothing is written for them")
+    void jsonNotFound() {
+        when(participationRepo.lockForResults(eq(EVENT_ID), any(), any())).thenReturn(List.of());
+
+        var json = """
+                [{"participationId": "%s", "posizione": 1}]
+                """.formatted(UUID.randomUUID());
+
+        var report = ((IngestResultsResult.Ingested) handler.handle(upload(Format.JSON, json))).report();
+
+        assertThat(report.outcomes().getFirst().status()).isEqualTo(Status.NOT_FOUND);
+        verify(participationRepo).updateResults(List.of());
+    }
+
+    @Test
+    @DisplayName("a file that breaks mid-way keeps the rows read before the break")
+    void truncatedFile() {
+        when(participationRepo.lockForResults(eq(EVENT_ID), any(), any()))
+                .thenReturn(List.of(target(ANNA_PARTICIPATION, ANNA)));
+
+        var json = """
+                [{"personId": "%s", "punteggio": 9.5}, {"personId": "%s", "punteg
+                """.formatted(ANNA, LUCA);
+
+        var result = handler.handle(upload(Format.JSON, json));
+
+        assertThat(result).isInstanceOf(IngestResultsResult.Unreadable.class);
+        var report = ((IngestResultsResult.Unreadable) result).report();
+        assertThat(report.recorded()).isEqualTo(1);
+        verify(transactionManager).commit(any());
+    }
+}
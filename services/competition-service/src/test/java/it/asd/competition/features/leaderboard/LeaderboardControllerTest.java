@@ -0,0 +1,76 @@
+package it.asd.competition.features.leaderboard;
+
+import it.asd.common.exception.GlobalExceptionHandler;
+import it.asd.common.exception.ValidatorExceptionHandler;
+import it.asd.competition.shared.TestFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LeaderboardController.class)
+@Import({GlobalExceptionHandler.class, ValidatorExceptionHandler.class})
+@DisplayName("LeaderboardController")
+@Tag("unit")
+class LeaderboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LeaderboardService leaderboards;
+
+    private static final UUID EVENT_ID = TestFixtures.EVENT_ID;
+    private static final UUID PERSON_ID = TestFixtures.PERSON_ID;
+
+    private static LeaderboardResponse.Entry first() {
+        return new LeaderboardResponse.Entry(1, TestFixtures.PARTICIPATION_ID, PERSON_ID, null,
+                new BigDecimal("9.50"), null);
+    }
+
+    @Test
+    @DisplayName("GET returns the top standings")
+    void returnsTop() throws Exception {
+        when(leaderboards.top(EVENT_ID, 3)).thenReturn(new LeaderboardResponse(EVENT_ID, 7, List.of(first())));
+
+        mockMvc.perform(get("/competition/events/{eventId}/leaderboard", EVENT_ID).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ranked").value(7))
+                .andExpect(jsonPath("$.standings[0].rank").value(1))
+                .andExpect(jsonPath("$.standings[0].personId").value(PERSON_ID.toString()));
+    }
+
+    @Test
+    @DisplayName("GET person returns 404 when the person has no ranked result")
+    void returns404ForUnrankedPerson() throws Exception {
+        when(leaderboards.rankOf(EVENT_ID, PERSON_ID)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/competition/events/{eventId}/leaderboard/persons/{personId}", EVENT_ID, PERSON_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET returns 400 for a limit above the maximum")
+    void returns400OnLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/competition/events/{eventId}/leaderboard", EVENT_ID)
+                        .param("limit", String.valueOf(LeaderboardController.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(leaderboards);
+    }
+}
@@ -0,0 +1,131 @@
+package it.asd.competition.features.leaderboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.competition.shared.entity.EventParticipationEntity;
+import it.asd.competition.shared.repository.EventParticipationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LeaderboardService")
+@Tag("unit")
+class LeaderboardServiceTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+    private static final UUID CARLA = UUID.randomUUID();
+
+    @Mock
+    private EventParticipationRepository repo;
+
+    private LeaderboardService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LeaderboardService(repo, new LeaderboardStreams(Duration.ofMinutes(1), 16),
+                10, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    private static EventParticipationEntity row(UUID personId, String punteggio) {
+        return EventParticipationEntity.builder()
+                .id(UUID.randomUUID()).eventId(EVENT_ID).personId(personId)
+                .punteggio(punteggio != null ? new BigDecimal(punteggio) : null)
+                .build();
+    }
+
+    @Test
+    @DisplayName("loads the board once and ranks by score, unranked rows left out")
+    void loadsOnce() {
+        when(repo.findByEventId(EVENT_ID)).thenReturn(List.of(
+                row(ALICE, "8.5"), row(BOB, "9.0"), row(CARLA, null)));
+
+        var board = service.top(EVENT_ID, 10);
+        service.top(EVENT_ID, 10);
+
+        assertThat(board.ranked()).isEqualTo(2);
+        assertThat(board.standings()).extracting(LeaderboardResponse.Entry::personId).containsExactly(BOB, ALICE);
+        assertThat(service.rankOf(EVENT_ID, CARLA)).isEmpty();
+        verify(repo, times(1)).findByEventId(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("an evicted board completes its streams, so subscribers reconnect to a fresh one")
+    void evictionClosesStreams() {
+        var streams = mock(LeaderboardStreams.class);
+        var bounded = new LeaderboardService(repo, streams, 1, Duration.ofHours(1), new SimpleMeterRegistry());
+        var other = UUID.randomUUID();
+        when(repo.findByEventId(any())).thenReturn(List.of());
+
+        bounded.top(EVENT_ID, 10);
+        bounded.top(other, 10);
+
+        verify(streams, timeout(5_000)).closeAll(argThat(id -> id.equals(EVENT_ID) || id.equals(other)), anyString());
+    }
+
+    @Test
+    @DisplayName("a recorded result moves the person without reloading")
+    void appliesIncrementally() {
+        var alice = row(ALICE, "8.5");
+        when(repo.findByEventId(EVENT_ID)).thenReturn(List.of(alice, row(BOB, "9.0")));
+        service.top(EVENT_ID, 10);
+
+        service.apply(EVENT_ID, new Standing(alice.getId(), ALICE, null, new BigDecimal("9.5"), null));
+        service.apply(EVENT_ID, new Standing(UUID.randomUUID(), CARLA, null, new BigDecimal("1.0"), null));
+
+        assertThat(service.rankOf(EVENT_ID, ALICE)).get().extracting(LeaderboardResponse.Entry::rank).isEqualTo(1);
+        assertThat(service.rankOf(EVENT_ID, BOB)).get().extracting(LeaderboardResponse.Entry::rank).isEqualTo(2);
+        assertThat(service.rankOf(EVENT_ID, CARLA)).get().extracting(LeaderboardResponse.Entry::rank).isEqualTo(3);
+        verify(repo, times(1)).findByEventId(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("results for events without a live board are ignored")
+    void ignoresColdEvents() {
+        service.apply(EVENT_ID, new Standing(UUID.randomUUID(), ALICE, null, BigDecimal.TEN, null));
+
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("an official posizione outranks a higher punteggio; score-only entries come after")
+    void posizioneFirst() {
+        var board = new Leaderboard(EVENT_ID);
+        board.apply(new Standing(UUID.randomUUID(), CARLA, null, new BigDecimal("9.9"), null));
+        board.apply(new Standing(UUID.randomUUID(), BOB, null, new BigDecimal("9.0"), 2));
+        board.apply(new Standing(UUID.randomUUID(), ALICE, null, new BigDecimal("8.5"), 1));
+
+        assertThat(board.top(3)).extracting(r -> r.standing().personId()).containsExactly(ALICE, BOB, CARLA);
+    }
+
+    @Test
+    @DisplayName("Leaderboard reports old and new rank, and nothing for an unchanged result")
+    void deltas() {
+        var board = new Leaderboard(EVENT_ID);
+        var bob = new Standing(UUID.randomUUID(), BOB, null, new BigDecimal("9.0"), null);
+        var alice = new Standing(UUID.randomUUID(), ALICE, null, new BigDecimal("8.0"), null);
+        board.apply(bob);
+        board.apply(alice);
+
+        var moved = new Standing(alice.participationId(), ALICE, null, new BigDecimal("9.5"), null);
+        assertThat(board.apply(moved)).contains(new Leaderboard.Delta(moved, 1, 2));
+        assertThat(board.apply(moved)).isEmpty();
+
+        var withdrawn = new Standing(bob.participationId(), BOB, null, null, null);
+        assertThat(board.apply(withdrawn)).contains(new Leaderboard.Delta(withdrawn, 0, 2));
+        assertThat(board.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package it.asd.competition.features.leaderboard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OrderStatisticTree")
+@Tag("unit")
+class OrderStatisticTreeTest {
+
+    @Test
+    @DisplayName("matches a sorted reference under random adds and removes")
+    void matchesReference() {
+        var random = new Random(42);
+        var tree = new OrderStatisticTree<Integer>(Comparator.reverseOrder());
+        var reference = new TreeSet<Integer>(Comparator.reverseOrder());
+
+        for (int op = 0; op < 5_000; op++) {
+            int value = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) assertThat(tree.remove(value)).isEqualTo(reference.remove(value));
+            else assertThat(tree.add(value)).isEqualTo(reference.add(value));
+        }
+
+        var sorted = new ArrayList<>(reference);
+        assertThat(tree.size()).isEqualTo(sorted.size());
+        assertThat(tree.first(sorted.size() + 10)).containsExactlyElementsOf(sorted);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(tree.indexOf(sorted.get(i))).isEqualTo(i);
+            assertThat(tree.get(i)).isEqualTo(sorted.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("first(k) stops after k; absent values have no index")
+    void firstAndAbsent() {
+        var tree = new OrderStatisticTree<Integer>(Comparator.naturalOrder());
+        for (int v : new int[]{5, 1, 4, 2, 3}) tree.add(v);
+
+        assertThat(tree.first(3)).containsExactly(1, 2, 3);
+        assertThat(tree.indexOf(9)).isEqualTo(-1);
+        assertThat(tree.remove(9)).isFalse();
+        assertThatThrownBy(() -> tree.get(5)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
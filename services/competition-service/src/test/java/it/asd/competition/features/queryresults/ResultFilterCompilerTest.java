@@ -0,0 +1,70 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.competition.features.queryresults.ResultQuery.Filter;
+import it.asd.competition.features.queryresults.ResultQuery.Op;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.Predicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ResultFilterCompiler")
+@Tag("unit")
+class ResultFilterCompilerTest {
+
+    private final ResultFilterCompiler compiler = new ResultFilterCompiler(new ObjectMapper());
+
+    private static ResultQuery query(Filter... filters) {
+        return new ResultQuery(null, null, List.of(filters), null, null);
+    }
+
+    @Test
+    @DisplayName("EQUALS and CONTAINS compile to @> with a nested document as parameter")
+    void containment() {
+        var predicates = compiler.compile(query(
+                new Filter("opening.eco", Op.EQUALS, "B90", null, null),
+                new Filter("strokes", Op.CONTAINS, "FREESTYLE", null, null)));
+
+        assertThat(predicates).containsExactly(
+                new Predicate("result_data @> ?::jsonb", List.of("{\"opening\":{\"eco\":\"B90\"}}")),
+                new Predicate("result_data @> ?::jsonb", List.of("{\"strokes\":[\"FREESTYLE\"]}")));
+    }
+
+    @Test
+    @DisplayName("RANGE compiles to @? with quoted keys and only the bounds given")
+    void range() {
+        var predicates = compiler.compile(query(
+                new Filter("splits.50", Op.RANGE, null, new BigDecimal("25.0"), new BigDecimal("28.5")),
+                new Filter("time", Op.RANGE, null, null, new BigDecimal("1E+2"))));
+
+        assertThat(predicates).extracting(Predicate::sql).containsOnly("result_data @?? ?::jsonpath");
+        assertThat(predicates).extracting(p -> p.args().getFirst()).containsExactly(
+                "$.\"splits\".\"50\" ? (@ >= 25.0 && @ <= 28.5)",
+                "$.\"time\" ? (@ <= 100)");
+    }
+
+    @Test
+    @DisplayName("eventId and asdId scope the query before the JSON filters")
+    void scope() {
+        var predicates = compiler.compile(new ResultQuery(EVENT_ID, null,
+                List.of(new Filter("stroke", Op.EQUALS, "BACK", null, null)), null, null));
+
+        assertThat(predicates.getFirst()).isEqualTo(new Predicate("event_id = ?", List.of(EVENT_ID)));
+        assertThat(predicates).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("a path outside the identifier alphabet never reaches SQL")
+    void rejectsInjection() {
+        assertThatThrownBy(() -> compiler.compile(query(
+                new Filter("a\" ? (true) || $.\"b", Op.RANGE, null, BigDecimal.ONE, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
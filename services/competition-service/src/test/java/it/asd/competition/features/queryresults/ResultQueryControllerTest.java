@@ -0,0 +1,100 @@
+package it.asd.competition.features.queryresults;
+
+import it.asd.common.exception.GlobalExceptionHandler;
+import it.asd.common.exception.ValidatorExceptionHandler;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.ResultMatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ResultQueryController.class)
+@Import({GlobalExceptionHandler.class, ValidatorExceptionHandler.class})
+@DisplayName("ResultQueryController")
+@Tag("unit")
+class ResultQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ResultQueryHandler handler;
+
+    private static final String QUERY = """
+            {"eventId": "%s", "filters": [{"path": "opening.eco", "op": "EQUALS", "value": "B90"}]}
+            """.formatted(EVENT_ID);
+
+    private static ResultMatch match(UUID id) {
+        return new ResultMatch(id, EVENT_ID, UUID.randomUUID(), null, ASD_ID, 1, null,
+                "{\"opening\":{\"eco\":\"B90\"}}");
+    }
+
+    @Test
+    @DisplayName("POST :query returns the page with resultData as JSON and the nextCursor")
+    void returnsPage() throws Exception {
+        var id = UUID.randomUUID();
+        when(handler.page(any())).thenReturn(new ResultQueryHandler.ResultPage(List.of(match(id)), id));
+
+        mockMvc.perform(post("/competition/results:query")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(QUERY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].resultData.opening.eco").value("B90"))
+                .andExpect(jsonPath("$.nextCursor").value(id.toString()));
+    }
+
+    @Test
+    @DisplayName("POST :query returns 400 for a path outside the key alphabet or a RANGE without bounds")
+    void returns400OnBadFilter() throws Exception {
+        mockMvc.perform(post("/competition/results:query")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"filters": [{"path": "a'b", "op": "EQUALS", "value": 1},
+                                             {"path": "splits.50", "op": "RANGE"}]}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(handler);
+    }
+
+    @Test
+    @DisplayName("POST :stream writes one NDJSON line per match")
+    @SuppressWarnings("unchecked")
+    void streamsNdjson() throws Exception {
+        doAnswer(inv -> {
+            Consumer<ResultMatch> sink = inv.getArgument(1);
+            sink.accept(match(UUID.randomUUID()));
+            sink.accept(match(UUID.randomUUID()));
+            return 2L;
+        }).when(handler).stream(any(), any(Consumer.class));
+
+        var started = mockMvc.perform(post("/competition/results:stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(QUERY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(result -> assertThat(result.getResponse().getContentAsString().lines()).hasSize(2));
+    }
+}
@@ -0,0 +1,101 @@
+package it.asd.competition.features.queryresults;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.competition.features.queryresults.ResultQuery.Filter;
+import it.asd.competition.features.queryresults.ResultQuery.Op;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository;
+import it.asd.competition.shared.repository.ParticipationResultQueryRepository.ResultMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResultQueryHandler")
+@Tag("unit")
+class ResultQueryHandlerTest {
+
+    @Mock
+    private ParticipationResultQueryRepository queryRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResultQueryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new ResultQueryHandler(queryRepo, new ObjectMapper(), transactionManager, 2, 50);
+    }
+
+    private static ResultQuery query(UUID after, Integer limit) {
+        return new ResultQuery(EVENT_ID, null,
+                List.of(new Filter("stroke", Op.EQUALS, "FREESTYLE", null, null)), after, limit);
+    }
+
+    private static ResultMatch match() {
+        return new ResultMatch(UUID.randomUUID(), EVENT_ID, UUID.randomUUID(), null, ASD_ID,
+                null, null, "{\"stroke\":\"FREESTYLE\"}");
+    }
+
+    @Test
+    @DisplayName("reads one row past the page and returns the last id as nextCursor")
+    void nextCursor() {
+        var rows = List.of(match(), match(), match());
+        when(queryRepo.page(any(), eq(null), eq(3))).thenReturn(rows);
+
+        var page = handler.page(query(null, null));
+
+        assertThat(page.results()).hasSize(2);
+        assertThat(page.nextCursor()).isEqualTo(rows.get(1).participationId());
+    }
+
+    @Test
+    @DisplayName("the last page has no nextCursor")
+    void lastPage() {
+        var after = UUID.randomUUID();
+        when(queryRepo.page(any(), eq(after), eq(11))).thenReturn(List.of(match()));
+
+        var page = handler.page(query(after, 10));
+
+        assertThat(page.results()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("stream pushes every row to the sink inside a read-only transaction")
+    @SuppressWarnings("unchecked")
+    void stream() {
+        doAnswer(inv -> {
+            Consumer<ResultMatch> sink = inv.getArgument(3);
+            sink.accept(match());
+            sink.accept(match());
+            return null;
+        }).when(queryRepo).stream(any(), eq(null), anyInt(), any(Consumer.class));
+
+        var received = new ArrayList<ResultMatch>();
+        var count = handler.stream(query(null, null), received::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(received).hasSize(2);
+        verify(queryRepo).stream(any(), eq(null), eq(50), any(Consumer.class));
+        verify(transactionManager).getTransaction(argThat(def -> def.isReadOnly()));
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,133 @@
+package it.asd.competition.features.registerparticipant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.competition.features.registerparticipant.ComplianceClient.ComplianceCallException;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityApiResponse;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ComplianceCoalescer")
+@Tag("unit")
+class ComplianceCoalescerTest {
+
+    private static final EligibilityApiResponse ELIGIBLE = new EligibilityApiResponse(true, List.of(), List.of(), null);
+
+    @Mock
+    private ComplianceClient client;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ComplianceCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        // generous window: every caller below starts well inside it
+        coalescer = new ComplianceCoalescer(client, Duration.ofMillis(200), 200, meterRegistry);
+    }
+
+    /**
+     * Runs the lookups concurrently, released together.
+     */
+    private List<Future<EligibilityApiResponse>> concurrently(List<UUID> personIds) {
+        var gate = new CountDownLatch(1);
+        var futures = new ArrayList<Future<EligibilityApiResponse>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var personId : personIds) {
+                Callable<EligibilityApiResponse> lookup = () -> {
+                    gate.await();
+                    return coalescer.checkEligibility(personId, ASD_ID, true);
+                };
+                futures.add(executor.submit(lookup));
+            }
+            gate.countDown();
+        }
+        return futures;
+    }
+
+    @Test
+    @DisplayName("concurrent lookups of the same person share one call")
+    void singleFlight() throws Exception {
+        var personId = UUID.randomUUID();
+        when(client.checkEligibility(personId, ASD_ID, true)).thenReturn(ELIGIBLE);
+
+        var futures = concurrently(List.of(personId, personId, personId, personId, personId));
+
+        for (var future : futures) assertThat(future.get()).isEqualTo(ELIGIBLE);
+        verify(client, times(1)).checkEligibility(personId, ASD_ID, true);
+        verify(client, never()).checkEligibilityAll(any());
+        assertThat(meterRegistry.get("competition.compliance.coalesced").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("distinct misses within the window go out as one batch call")
+    @SuppressWarnings("unchecked")
+    void microBatch() throws Exception {
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        when(client.checkEligibilityAll(any())).thenReturn(Map.of(
+                new EligibilityQuery(first, ASD_ID, true), ELIGIBLE,
+                new EligibilityQuery(second, ASD_ID, true), ELIGIBLE));
+
+        var futures = concurrently(List.of(first, second));
+
+        for (var future : futures) assertThat(future.get()).isEqualTo(ELIGIBLE);
+        var batch = ArgumentCaptor.forClass(Collection.class);
+        verify(client, times(1)).checkEligibilityAll(batch.capture());
+        assertThat(batch.getValue()).hasSize(2);
+        verify(client, never()).checkEligibility(any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("a query left unanswered by the batch fails closed; the others still get theirs")
+    void unansweredFailsClosed() {
+        var answered = UUID.randomUUID();
+        var unanswered = UUID.randomUUID();
+        when(client.checkEligibilityAll(any())).thenReturn(Map.of(
+                new EligibilityQuery(answered, ASD_ID, true), ELIGIBLE));
+
+        var futures = concurrently(List.of(answered, unanswered));
+
+        assertThat(futures.get(0)).succeedsWithin(Duration.ZERO).isEqualTo(ELIGIBLE);
+        assertThatThrownBy(() -> futures.get(1).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ComplianceCallException.class);
+    }
+
+    @Test
+    @DisplayName("a lone miss keeps the per-person call and its error")
+    void loneMiss() {
+        var personId = UUID.randomUUID();
+        when(client.checkEligibility(personId, ASD_ID, false))
+                .thenThrow(new ComplianceCallException("Connection refused"));
+        var fast = new ComplianceCoalescer(client, Duration.ofMillis(1), 200, meterRegistry);
+
+        assertThatThrownBy(() -> fast.checkEligibility(personId, ASD_ID, false))
+                .isInstanceOf(ComplianceCallException.class)
+                .hasMessage("Connection refused");
+    }
+}
@@ -3,7 +3,7 @@ package it.asd.competition.features.registerparticipant;
 import it.asd.common.kafka.EventPublisher;
 import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
 import it.asd.competition.shared.TestFixtures;
-import it.asd.competition.shared.repository.EventParticipationRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
 import it.asd.events.KafkaTopics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,7 +14,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,13 +31,13 @@ import static org.mockito.Mockito.*;
 class RegisterParticipantHandlerTest {
 
     @Mock
-    private EventParticipationRepository participationRepo;
+    private EventParticipationBatchRepository participationRepo;
 
     @Mock
     private EligibilityCacheService eligibilityCache;
 
     @Mock
-    private ComplianceClient complianceClient;
+    private ComplianceCoalescer compliance;
 
     @Mock
     private EventPublisher eventPublisher;
@@ -53,21 +55,18 @@ class RegisterParticipantHandlerTest {
         @DisplayName("returns Registered, saves participation, and publishes event")
         void returnsRegistered() {
             var cmd = TestFixtures.validRegisterParticipantCommand();
-            var savedEntity = TestFixtures.savedParticipation(UUID.randomUUID());
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of());
-            when(eligibilityCache.get(cmd.personId(), cmd.asdId()))
-                    .thenReturn(Optional.of(new EligibilityCacheService.CachedEligibility(true, List.of())));
-            when(participationRepo.save(any())).thenReturn(savedEntity);
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+                    .thenReturn(Optional.of(new EligibilityCacheService.CachedEligibility(true, List.of(), null)));
+            when(participationRepo.insertIfAbsent(any())).thenReturn(true);
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.Registered.class);
-            verify(participationRepo).save(any());
+            verify(participationRepo).insertIfAbsent(any());
             verify(eventPublisher).publish(
                     eq(KafkaTopics.PARTICIPANT_REGISTERED), any(), any(), any());
-            verifyNoInteractions(complianceClient);
+            verifyNoInteractions(compliance);
         }
     }
 
@@ -79,22 +78,20 @@ class RegisterParticipantHandlerTest {
         @DisplayName("returns Registered, updates cache, saves, and publishes event")
         void returnsRegistered() {
             var cmd = TestFixtures.validRegisterParticipantCommand();
-            var savedEntity = TestFixtures.savedParticipation(UUID.randomUUID());
+            var validUntil = LocalDate.now().plusMonths(6);
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of());
-            when(eligibilityCache.get(cmd.personId(), cmd.asdId()))
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
                     .thenReturn(Optional.empty());
-            when(complianceClient.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
-                    .thenReturn(new ComplianceClient.EligibilityApiResponse(true, List.of(), List.of()));
-            when(participationRepo.save(any())).thenReturn(savedEntity);
+            when(compliance.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+                    .thenReturn(new ComplianceClient.EligibilityApiResponse(true, List.of(), List.of(), validUntil));
+            when(participationRepo.insertIfAbsent(any())).thenReturn(true);
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.Registered.class);
             verify(eligibilityCache).updateFromSyncCheck(
-                    eq(cmd.personId()), eq(cmd.asdId()), eq(true), any());
-            verify(participationRepo).save(any());
+                    eq(cmd.personId()), eq(cmd.asdId()), eq(cmd.agonistic()), eq(true), any(), eq(validUntil));
+            verify(participationRepo).insertIfAbsent(any());
             verify(eventPublisher).publish(
                     eq(KafkaTopics.PARTICIPANT_REGISTERED), any(), any(), any());
         }
@@ -107,22 +104,21 @@ class RegisterParticipantHandlerTest {
     class WhenAlreadyRegistered {
 
         @Test
-        @DisplayName("returns AlreadyRegistered without saving or publishing")
+        @DisplayName("returns the existing participation when the insert hits the unique index, without publishing")
         void returnsAlreadyRegistered() {
             var cmd = TestFixtures.validRegisterParticipantCommand();
-            var existing = TestFixtures.savedParticipation(UUID.randomUUID());
-            // existing participation matches the same eventId
-            existing.setEventId(cmd.eventId());
+            var existingId = UUID.randomUUID();
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of(existing));
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+                    .thenReturn(Optional.of(new EligibilityCacheService.CachedEligibility(true, List.of(), null)));
+            when(participationRepo.insertIfAbsent(any())).thenReturn(false);
+            when(participationRepo.findRegistered(cmd.eventId(), List.of(cmd.personId())))
+                    .thenReturn(Map.of(cmd.personId(), existingId));
 
             var result = handler.handle(cmd);
 
-            assertThat(result).isInstanceOf(RegisterParticipantResult.AlreadyRegistered.class);
-            verify(participationRepo, never()).save(any());
-            verifyNoInteractions(eligibilityCache);
-            verifyNoInteractions(complianceClient);
+            assertThat(result).isEqualTo(new RegisterParticipantResult.AlreadyRegistered(existingId));
+            verifyNoInteractions(compliance);
             verifyNoInteractions(eventPublisher);
         }
     }
@@ -139,18 +135,16 @@ class RegisterParticipantHandlerTest {
             var cmd = TestFixtures.validRegisterParticipantCommand();
             var blocking = List.of("CERTIFICATO_MEDICO_AGONISTICO [EXPIRED on 2024-01-01]");
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of());
-            when(eligibilityCache.get(cmd.personId(), cmd.asdId()))
-                    .thenReturn(Optional.of(new EligibilityCacheService.CachedEligibility(false, blocking)));
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+                    .thenReturn(Optional.of(new EligibilityCacheService.CachedEligibility(false, blocking, null)));
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.Ineligible.class);
             var ineligible = (RegisterParticipantResult.Ineligible) result;
             assertThat(ineligible.blockingDocuments()).containsExactlyElementsOf(blocking);
-            verify(participationRepo, never()).save(any());
-            verifyNoInteractions(complianceClient);
+            verify(participationRepo, never()).insertIfAbsent(any());
+            verifyNoInteractions(compliance);
             verifyNoInteractions(eventPublisher);
         }
     }
@@ -167,19 +161,17 @@ class RegisterParticipantHandlerTest {
             var cmd = TestFixtures.validRegisterParticipantCommand();
             var blocking = List.of("CERTIFICATO_MEDICO_AGONISTICO");
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of());
-            when(eligibilityCache.get(cmd.personId(), cmd.asdId()))
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
                     .thenReturn(Optional.empty());
-            when(complianceClient.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
-                    .thenReturn(new ComplianceClient.EligibilityApiResponse(false, blocking, List.of()));
+            when(compliance.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+                    .thenReturn(new ComplianceClient.EligibilityApiResponse(false, blocking, List.of(), null));
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.Ineligible.class);
             verify(eligibilityCache).updateFromSyncCheck(
-                    eq(cmd.personId()), eq(cmd.asdId()), eq(false), eq(blocking));
-            verify(participationRepo, never()).save(any());
+                    eq(cmd.personId()), eq(cmd.asdId()), eq(cmd.agonistic()), eq(false), eq(blocking), any());
+            verify(participationRepo, never()).insertIfAbsent(any());
             verifyNoInteractions(eventPublisher);
         }
     }
@@ -195,17 +187,15 @@ class RegisterParticipantHandlerTest {
         void returnsComplianceUnavailable() {
             var cmd = TestFixtures.validRegisterParticipantCommand();
 
-            when(participationRepo.findByPersonIdAndAsdId(cmd.personId(), cmd.asdId()))
-                    .thenReturn(List.of());
-            when(eligibilityCache.get(cmd.personId(), cmd.asdId()))
+            when(eligibilityCache.get(cmd.personId(), cmd.asdId(), cmd.agonistic()))
                     .thenReturn(Optional.empty());
-            when(complianceClient.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
+            when(compliance.checkEligibility(cmd.personId(), cmd.asdId(), cmd.agonistic()))
                     .thenThrow(new ComplianceClient.ComplianceCallException("Connection refused"));
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.ComplianceUnavailable.class);
-            verify(participationRepo, never()).save(any());
+            verify(participationRepo, never()).insertIfAbsent(any());
             verifyNoInteractions(eventPublisher);
         }
     }
@@ -220,18 +210,15 @@ class RegisterParticipantHandlerTest {
         @DisplayName("skips duplicate check and eligibility check, returns Registered")
         void registersTeamDirectly() {
             var cmd = TestFixtures.teamRegisterParticipantCommand();
-            var savedEntity = TestFixtures.savedParticipation(UUID.randomUUID());
-            savedEntity.setPersonId(null);
-            savedEntity.setGroupId(cmd.groupId());
 
-            when(participationRepo.save(any())).thenReturn(savedEntity);
+            when(participationRepo.insertIfAbsent(any())).thenReturn(true);
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RegisterParticipantResult.Registered.class);
-            verify(participationRepo, never()).findByPersonIdAndAsdId(any(), any());
+            verify(participationRepo, never()).findRegistered(any(), any());
             verifyNoInteractions(eligibilityCache);
-            verifyNoInteractions(complianceClient);
+            verifyNoInteractions(compliance);
             verify(eventPublisher).publish(
                     eq(KafkaTopics.PARTICIPANT_REGISTERED), any(), any(), any());
         }
@@ -1,5 +1,6 @@
 package it.asd.competition.features.registerparticipant;
 
+import it.asd.competition.features.eligibilitycache.EligibilityL1Cache;
 import it.asd.competition.integration.BaseIntegrationTest;
 import it.asd.competition.shared.TestFixtures;
 import it.asd.competition.shared.entity.ParticipationStatus;
@@ -47,6 +48,9 @@ public class RegisterParticipantIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private EligibilityCacheRepository cacheRepository;
 
+    @Autowired
+    private EligibilityL1Cache l1Cache;
+
     /**
      * Mock the HTTP client so tests do not require a live compliance-service.
      * Default behaviour (before any stubbing): returns eligible=true.
@@ -58,9 +62,10 @@ public class RegisterParticipantIntegrationTest extends BaseIntegrationTest {
     void setUp() {
         participationRepository.deleteAll();
         cacheRepository.deleteAll();
+        l1Cache.invalidateAll();
         // Default: compliance says eligible
         when(complianceClient.checkEligibility(any(), any(), anyBoolean()))
-                .thenReturn(new ComplianceClient.EligibilityApiResponse(true, List.of(), List.of()));
+                .thenReturn(new ComplianceClient.EligibilityApiResponse(true, List.of(), List.of(), null));
     }
 
     // ── Happy path ────────────────────────────────────────────────────────────
@@ -96,6 +101,7 @@ public class RegisterParticipantIntegrationTest extends BaseIntegrationTest {
         var second = register(validCommand());
         assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
         assertThat(second.getBody().toString()).contains("ALREADY_REGISTERED");
+        assertThat(participationRepository.findAll()).hasSize(1);
     }
 
     // ── Ineligible → 422 ─────────────────────────────────────────────────────
@@ -107,7 +113,8 @@ public class RegisterParticipantIntegrationTest extends BaseIntegrationTest {
                 .thenReturn(new ComplianceClient.EligibilityApiResponse(
                         false,
                         List.of("CERTIFICATO_MEDICO_AGONISTICO"),
-                        List.of()));
+                        List.of(),
+                        null));
 
         var response = register(validCommand());
 
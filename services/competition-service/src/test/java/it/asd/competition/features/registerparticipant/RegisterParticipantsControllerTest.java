@@ -0,0 +1,101 @@
+package it.asd.competition.features.registerparticipant;
+
+import it.asd.common.exception.GlobalExceptionHandler;
+import it.asd.common.exception.ValidatorExceptionHandler;
+import it.asd.competition.shared.TestFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RegisterParticipantsController.class)
+@Import({GlobalExceptionHandler.class, ValidatorExceptionHandler.class})
+@DisplayName("RegisterParticipantsController")
+@Tag("unit")
+class RegisterParticipantsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RegisterParticipantsHandler handler;
+
+    private static final UUID EVENT_ID = TestFixtures.EVENT_ID;
+    private static final UUID ASD_ID = TestFixtures.ASD_ID;
+    private static final UUID SEASON_ID = TestFixtures.SEASON_ID;
+
+    private static String body(UUID... personIds) {
+        var entries = new StringBuilder();
+        for (var id : personIds) {
+            if (!entries.isEmpty()) entries.append(',');
+            entries.append("{\"personId\":\"%s\",\"agonistic\":true}".formatted(id));
+        }
+        return """
+                {
+                  "asdId": "%s",
+                  "seasonId": "%s",
+                  "entries": [%s]
+                }
+                """.formatted(ASD_ID, SEASON_ID, entries);
+    }
+
+    @Test
+    @DisplayName("POST returns 200 with one outcome per entry, in request order")
+    void returnsOutcomesInOrder() throws Exception {
+        var participationId = UUID.randomUUID();
+        when(handler.handle(any())).thenReturn(List.of(
+                new RegisterParticipantResult.Registered(participationId),
+                new RegisterParticipantResult.Ineligible(List.of("TESSERA"))));
+
+        mockMvc.perform(post("/competition/events/{eventId}/participants:bulk", EVENT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body(UUID.randomUUID(), UUID.randomUUID())))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Retry-After"))
+                .andExpect(jsonPath("$.registered").value(1))
+                .andExpect(jsonPath("$.notRegistered").value(1))
+                .andExpect(jsonPath("$.entries[0].status").value("REGISTERED"))
+                .andExpect(jsonPath("$.entries[0].participationId").value(participationId.toString()))
+                .andExpect(jsonPath("$.entries[1].status").value("INELIGIBLE"))
+                .andExpect(jsonPath("$.entries[1].blockingDocuments[0]").value("TESSERA"));
+    }
+
+    @Test
+    @DisplayName("POST adds Retry-After when an entry failed closed on Compliance")
+    void retryAfterOnComplianceUnavailable() throws Exception {
+        when(handler.handle(any())).thenReturn(List.of(
+                new RegisterParticipantResult.ComplianceUnavailable("Compliance unreachable")));
+
+        mockMvc.perform(post("/competition/events/{eventId}/participants:bulk", EVENT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body(UUID.randomUUID())))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.entries[0].status").value("COMPLIANCE_UNAVAILABLE"));
+    }
+
+    @Test
+    @DisplayName("POST returns 400 for an empty entry list")
+    void returns400OnEmptyList() throws Exception {
+        mockMvc.perform(post("/competition/events/{eventId}/participants:bulk", EVENT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body()))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(handler);
+    }
+}
@@ -0,0 +1,183 @@
+package it.asd.competition.features.registerparticipant;
+
+import it.asd.common.kafka.EventPublisher;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService;
+import it.asd.competition.features.eligibilitycache.EligibilityCacheService.CachedEligibility;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityApiResponse;
+import it.asd.competition.features.registerparticipant.ComplianceClient.EligibilityQuery;
+import it.asd.competition.features.registerparticipant.RegisterParticipantsCommand.Entry;
+import it.asd.competition.shared.repository.EligibilityCacheBatchRepository.Key;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository;
+import it.asd.competition.shared.repository.EventParticipationBatchRepository.NewParticipation;
+import it.asd.events.KafkaTopics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static it.asd.competition.shared.TestFixtures.ASD_ID;
+import static it.asd.competition.shared.TestFixtures.EVENT_ID;
+import static it.asd.competition.shared.TestFixtures.SEASON_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RegisterParticipantsHandler")
+@Tag("unit")
+class RegisterParticipantsHandlerTest {
+
+    private static final UUID ALREADY = UUID.randomUUID();
+    private static final UUID CACHED_OK = UUID.randomUUID();
+    private static final UUID CACHED_KO = UUID.randomUUID();
+    private static final UUID COLD_OK = UUID.randomUUID();
+    private static final UUID COLD_DOWN = UUID.randomUUID();
+    private static final UUID EXISTING_PARTICIPATION = UUID.randomUUID();
+
+    @Mock
+    private EventParticipationBatchRepository participationRepo;
+    @Mock
+    private EligibilityCacheService eligibilityCache;
+    @Mock
+    private ComplianceClient complianceClient;
+    @Mock
+    private EventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RegisterParticipantsHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new RegisterParticipantsHandler(participationRepo, eligibilityCache,
+                complianceClient, eventPublisher, transactionManager);
+    }
+
+    private static Entry person(UUID personId) {
+        return new Entry(personId, null, "SENIOR", true);
+    }
+
+    private static RegisterParticipantsCommand command(Entry... entries) {
+        return new RegisterParticipantsCommand(EVENT_ID, ASD_ID, SEASON_ID, List.of(entries));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insertEverything() {
+        when(participationRepo.insertAll(any())).thenAnswer(inv -> ((List<NewParticipation>) inv.getArgument(0))
+                .stream().map(NewParticipation::id).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("resolves a mixed list with one query, one cache read and one Compliance batch call")
+    @SuppressWarnings("unchecked")
+    void mixedList() {
+        when(participationRepo.findRegistered(eq(EVENT_ID), any()))
+                .thenReturn(Map.of(ALREADY, EXISTING_PARTICIPATION));
+        when(eligibilityCache.getAll(any())).thenReturn(Map.of(
+                new Key(CACHED_OK, ASD_ID, true), new CachedEligibility(true, List.of(), null),
+                new Key(CACHED_KO, ASD_ID, true), new CachedEligibility(false, List.of("TESSERA"), null)));
+        when(complianceClient.checkEligibilityAll(any())).thenReturn(Map.of(
+                new EligibilityQuery(COLD_OK, ASD_ID, true), new EligibilityApiResponse(true, List.of(), List.of(), null)));
+        insertEverything();
+
+        var results = handler.handle(command(
+                person(ALREADY), person(CACHED_OK), person(CACHED_KO),
+                person(COLD_OK), person(COLD_DOWN), person(CACHED_OK)));
+
+        assertThat(results.get(0)).isEqualTo(new RegisterParticipantResult.AlreadyRegistered(EXISTING_PARTICIPATION));
+        assertThat(results.get(1)).isInstanceOf(RegisterParticipantResult.Registered.class);
+        assertThat(results.get(2)).isEqualTo(new RegisterParticipantResult.Ineligible(List.of("TESSERA")));
+        assertThat(results.get(3)).isInstanceOf(RegisterParticipantResult.Registered.class);
+        assertThat(results.get(4)).isInstanceOf(RegisterParticipantResult.ComplianceUnavailable.class);
+        // listed twice → registered once, the repeat points at the same participation
+        var first = (RegisterParticipantResult.Registered) results.get(1);
+        assertThat(results.get(5)).isEqualTo(new RegisterParticipantResult.AlreadyRegistered(first.participationId()));
+
+        var queries = ArgumentCaptor.forClass(Collection.class);
+        verify(complianceClient).checkEligibilityAll(queries.capture());
+        assertThat(queries.getValue()).containsExactly(
+                new EligibilityQuery(COLD_OK, ASD_ID, true), new EligibilityQuery(COLD_DOWN, ASD_ID, true));
+
+        var rows = ArgumentCaptor.forClass(List.class);
+        verify(participationRepo).insertAll(rows.capture());
+        assertThat(((List<NewParticipation>) rows.getValue()).stream().map(NewParticipation::personId))
+                .containsExactly(CACHED_OK, COLD_OK);
+        verify(eligibilityCache).updateFromSyncChecks(
+                Map.of(new Key(COLD_OK, ASD_ID, true), new CachedEligibility(true, List.of(), null)));
+
+        var events = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(eq(KafkaTopics.PARTICIPANT_REGISTERED), events.capture(),
+                eq(ASD_ID), eq(SEASON_ID));
+        assertThat(events.getValue()).hasSize(2);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("each entry is answered for its own flavour: a cached agonistic answer does not cover a recreational entry")
+    void perFlavour() {
+        when(participationRepo.findRegistered(eq(EVENT_ID), any())).thenReturn(Map.of());
+        when(eligibilityCache.getAll(any())).thenReturn(Map.of(
+                new Key(CACHED_OK, ASD_ID, true), new CachedEligibility(true, List.of(), null)));
+        when(complianceClient.checkEligibilityAll(any())).thenReturn(Map.of(
+                new EligibilityQuery(CACHED_OK, ASD_ID, false),
+                new EligibilityApiResponse(false, List.of("CERTIFICATO_MEDICO_NON_AGONISTICO"), List.of(), null)));
+
+        var results = handler.handle(command(new Entry(CACHED_OK, null, "SENIOR", false)));
+
+        assertThat(results).containsExactly(
+                new RegisterParticipantResult.Ineligible(List.of("CERTIFICATO_MEDICO_NON_AGONISTICO")));
+        verify(eligibilityCache).getAll(argThat(keys -> Set.copyOf(keys).equals(Set.of(new Key(CACHED_OK, ASD_ID, false)))));
+        verify(complianceClient).checkEligibilityAll(List.of(new EligibilityQuery(CACHED_OK, ASD_ID, false)));
+    }
+
+    @Test
+    @DisplayName("team entries skip the duplicate and eligibility checks")
+    void teamEntries() {
+        when(participationRepo.findRegistered(eq(EVENT_ID), any())).thenReturn(Map.of());
+        when(eligibilityCache.getAll(any())).thenReturn(Map.of());
+        when(complianceClient.checkEligibilityAll(any())).thenReturn(Map.of());
+        insertEverything();
+
+        var results = handler.handle(command(new Entry(null, UUID.randomUUID(), "TEAM", false)));
+
+        assertThat(results.getFirst()).isInstanceOf(RegisterParticipantResult.Registered.class);
+        verify(complianceClient).checkEligibilityAll(List.of());
+    }
+
+    @Test
+    @DisplayName("a row that loses to a concurrent registration becomes AlreadyRegistered, repeats included")
+    @SuppressWarnings("unchecked")
+    void lostRace() {
+        var winner = UUID.randomUUID();
+        when(participationRepo.findRegistered(eq(EVENT_ID), any()))
+                .thenReturn(Map.of())                       // step 1: nobody registered yet
+                .thenReturn(Map.of(CACHED_OK, winner));     // after the insert: someone was faster
+        when(eligibilityCache.getAll(any())).thenReturn(Map.of(
+                new Key(CACHED_OK, ASD_ID, true), new CachedEligibility(true, List.of(), null)));
+        when(complianceClient.checkEligibilityAll(any())).thenReturn(Map.of());
+        when(participationRepo.insertAll(any())).thenReturn(Set.of());
+
+        var results = handler.handle(command(person(CACHED_OK), person(CACHED_OK)));
+
+        assertThat(results).containsExactly(
+                new RegisterParticipantResult.AlreadyRegistered(winner),
+                new RegisterParticipantResult.AlreadyRegistered(winner));
+        var events = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(eq(KafkaTopics.PARTICIPANT_REGISTERED), events.capture(),
+                eq(ASD_ID), eq(SEASON_ID));
+        assertThat(events.getValue()).isEmpty();
+    }
+}
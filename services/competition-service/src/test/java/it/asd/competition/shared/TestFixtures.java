@@ -5,8 +5,15 @@ import it.asd.competition.features.registerparticipant.RegisterParticipantComman
 import it.asd.competition.shared.entity.EligibilityCacheEntity;
 import it.asd.competition.shared.entity.EventParticipationEntity;
 import it.asd.competition.shared.entity.ParticipationStatus;
+import it.asd.events.compliance.DocumentCreatedEvent;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import it.asd.events.compliance.DocumentRenewedEvent;
+import it.asd.events.membership.MembershipActivatedEvent;
+import it.asd.events.registry.SeasonActivatedEvent;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -122,6 +129,7 @@ public final class TestFixtures {
                 .id(UUID.randomUUID())
                 .personId(PERSON_ID)
                 .asdId(ASD_ID)
+                .agonistic(true)
                 .eligible(true)
                 .source("sync_check")
                 .build();
@@ -132,9 +140,38 @@ public final class TestFixtures {
                 .id(UUID.randomUUID())
                 .personId(PERSON_ID)
                 .asdId(ASD_ID)
+                .agonistic(true)
                 .eligible(false)
                 .blockingDocuments(List.of("CERTIFICATO_MEDICO_AGONISTICO [EXPIRED on 2024-01-01]"))
                 .source("document.expired")
                 .build();
     }
+
+    // ── Compliance events ─────────────────────────────────────────────────────
+
+    public static DocumentExpiredEvent documentExpiredEvent(String documentType, LocalDate expiredOn) {
+        return new DocumentExpiredEvent(UUID.randomUUID(), PERSON_ID, ASD_ID, UUID.randomUUID(),
+                documentType, expiredOn, Instant.now());
+    }
+
+    public static DocumentRenewedEvent documentRenewedEvent(String documentType) {
+        return new DocumentRenewedEvent(UUID.randomUUID(), PERSON_ID, ASD_ID, UUID.randomUUID(),
+                documentType, LocalDate.now().plusYears(1), Instant.now());
+    }
+
+    public static DocumentCreatedEvent documentCreatedEvent(String documentType) {
+        return new DocumentCreatedEvent(UUID.randomUUID(), UUID.randomUUID(), PERSON_ID, ASD_ID,
+                documentType, LocalDate.now().plusYears(1), Instant.now());
+    }
+
+    // ── Activation events (eligibility warm-up) ───────────────────────────────
+
+    public static MembershipActivatedEvent membershipActivatedEvent(UUID personId) {
+        return new MembershipActivatedEvent(UUID.randomUUID(), UUID.randomUUID(), personId, ASD_ID, SEASON_ID,
+                "T-0001", LocalDate.now(), Instant.now());
+    }
+
+    public static SeasonActivatedEvent seasonActivatedEvent() {
+        return new SeasonActivatedEvent(UUID.randomUUID(), ASD_ID, SEASON_ID, "2025-2026", Instant.now());
+    }
 }
@@ -0,0 +1,52 @@
+package it.asd.compliance.features.checkeligibility;
+
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * POST /compliance/eligibility:batch
+ * <p>
+ * Batch form of GET /compliance/persons/{personId}/eligibility. It is called by
+ * competition-service for bulk registration, and is usable by any roster screen.
+ * Same contract: 200 whatever the outcome, one result per item in request order.
+ * A 5xx fails the whole batch closed in the caller.
+ */
+@Validated
+@RestController
+@RequestMapping("/compliance/eligibility:batch")
+public class CheckEligibilityBatchController {
+
+    private final CheckEligibilityBatchHandler handler;
+
+    public CheckEligibilityBatchController(CheckEligibilityBatchHandler handler) {
+        this.handler = handler;
+    }
+
+    @PostMapping
+    public ResponseEntity<BatchEligibilityResponse> check(@Valid @RequestBody CheckEligibilityBatchQuery query) {
+        var results = handler.handle(query);
+        var items = new ArrayList<ItemResponse>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            var item = query.items().get(i);
+            var response = EligibilityResponse.from(results.get(i));
+            items.add(new ItemResponse(item.personId(), item.asdId(),
+                    response.eligible(), response.blockingDocuments(), response.warnings(),
+                    response.validUntil()));
+        }
+        return ResponseEntity.ok(new BatchEligibilityResponse(items));
+    }
+
+    record ItemResponse(UUID personId, UUID asdId, boolean eligible,
+                        List<String> blockingDocuments, List<String> warnings, LocalDate validUntil) {
+    }
+
+    record BatchEligibilityResponse(List<ItemResponse> results) {
+    }
+}
@@ -0,0 +1,53 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Batch form of CheckEligibilityHandler: one person_eligibility query for every
+ * (person, asd) pair of the request. The pairs without a current row are
+ * recomputed together in one EligibilityProjector refresh.
+ * Round trips: 1 when every pair is current, plus one refresh otherwise.
+ *
+ * @see PersonEligibilityRepository#findAll
+ */
+@Component
+public class CheckEligibilityBatchHandler {
+
+    private final PersonEligibilityRepository eligibilityRepo;
+    private final EligibilityProjector projector;
+
+    public CheckEligibilityBatchHandler(PersonEligibilityRepository eligibilityRepo,
+                                        EligibilityProjector projector) {
+        this.eligibilityRepo = eligibilityRepo;
+        this.projector = projector;
+    }
+
+    /**
+     * @return one result per item, in request order
+     */
+    public List<EligibilityResult> handle(CheckEligibilityBatchQuery batch) {
+        var queries = batch.items().stream().map(CheckEligibilityBatchQuery.Item::toQuery).toList();
+
+        var keys = new LinkedHashSet<PersonAsd>();
+        for (var query : queries)
+            keys.add(new PersonAsd(query.personId(), query.asdId()));
+
+        var today = LocalDate.now();
+        var rows = eligibilityRepo.findAll(keys);
+        var stale = keys.stream()
+                .filter(key -> rows.get(key) == null || !rows.get(key).isCurrent(today))
+                .toList();
+        if (!stale.isEmpty()) rows.putAll(projector.refresh(stale));
+
+        return queries.stream()
+                .map(q -> EligibilityRules.result(
+                        rows.get(new PersonAsd(q.personId(), q.asdId())).answer(q.agonistic())))
+                .toList();
+    }
+}
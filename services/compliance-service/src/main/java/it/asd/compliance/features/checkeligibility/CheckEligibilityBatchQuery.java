@@ -0,0 +1,29 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.common.validation.annotation.ValidUUID;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Many (person, asd, agonistic) tuples answered in one round trip.
+ * Duplicates are allowed; each position gets its own answer.
+ */
+public record CheckEligibilityBatchQuery(
+        @NotEmpty @Size(max = CheckEligibilityBatchQuery.MAX_ITEMS) List<@Valid Item> items
+) {
+
+    public static final int MAX_ITEMS = 1000;
+
+    /**
+     * agonistic defaults to true, as on the single GET endpoint.
+     */
+    public record Item(@ValidUUID UUID personId, @ValidUUID UUID asdId, Boolean agonistic) {
+        CheckEligibilityQuery toQuery() {
+            return new CheckEligibilityQuery(personId, asdId, agonistic == null || agonistic);
+        }
+    }
+}
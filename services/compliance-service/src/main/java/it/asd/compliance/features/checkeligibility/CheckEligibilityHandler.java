@@ -1,12 +1,11 @@
 package it.asd.compliance.features.checkeligibility;
 
-import it.asd.compliance.shared.entity.DocumentType;
-import it.asd.compliance.shared.repository.DocumentRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Set;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Handles eligibility checks for the Compliance service.
@@ -15,46 +14,28 @@ import java.util.Set;
  * If this endpoint is unreachable, the competition service MUST deny registration.
  * This handler never needs to know about that — it just checks the documents.
  * <p>
- * Uses read-only transaction: no writes, just queries.
+ * One primary-key lookup on person_eligibility, kept current by EligibilityProjector.
+ * Only a pair never checked before, or whose answer changes today by date alone,
+ * is recomputed from its documents (and stored for the next check).
  */
 @Component
 public class CheckEligibilityHandler {
 
-    private static final int EXPIRY_WARNING_DAYS = 30;
+    private final PersonEligibilityRepository eligibilityRepo;
+    private final EligibilityProjector projector;
 
-    private final DocumentRepository repository;
-
-    public CheckEligibilityHandler(DocumentRepository repository) {
-        this.repository = repository;
+    public CheckEligibilityHandler(PersonEligibilityRepository eligibilityRepo,
+                                   EligibilityProjector projector) {
+        this.eligibilityRepo = eligibilityRepo;
+        this.projector = projector;
     }
 
-    @Transactional(readOnly = true)
     public EligibilityResult handle(CheckEligibilityQuery query) {
-        Set<DocumentType> required = query.agonistic()
-                ? DocumentType.AGONISTIC_REQUIRED
-                : DocumentType.RECREATIONAL_REQUIRED;
-
-        var blocking = new ArrayList<String>();
-        var expiringSoon = new ArrayList<String>();
-
-        for (var type : required) {
-            var docOpt = repository.findActiveByPersonAsdAndType(
-                    query.personId(), query.asdId(), type);
-
-            if (docOpt.isEmpty()) {
-                blocking.add(type.name() + " [MISSING]");
-            } else {
-                var doc = docOpt.get();
-                if (doc.isExpired()) {
-                    blocking.add(type.name() + " [EXPIRED on " + doc.getDataScadenza() + "]");
-                } else if (doc.isExpiringSoon(EXPIRY_WARNING_DAYS)) {
-                    expiringSoon.add(type.name() + " [EXPIRING on " + doc.getDataScadenza() + "]");
-                }
-            }
-        }
-
-        if (!blocking.isEmpty()) return new EligibilityResult.Ineligible(blocking);
-        if (!expiringSoon.isEmpty()) return new EligibilityResult.ExpiringSoon(expiringSoon);
-        return new EligibilityResult.Eligible();
+        var key = new PersonAsd(query.personId(), query.asdId());
+        var today = LocalDate.now();
+        var row = eligibilityRepo.find(key)
+                .filter(r -> r.isCurrent(today))
+                .orElseGet(() -> projector.refresh(List.of(key)).get(key));
+        return EligibilityRules.result(row.answer(query.agonistic()));
     }
 }
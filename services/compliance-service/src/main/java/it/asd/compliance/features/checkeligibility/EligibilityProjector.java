@@ -0,0 +1,78 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.compliance.shared.entity.DocumentType;
+import it.asd.compliance.shared.repository.DocumentBatchRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ActiveDocument;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Row;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains person_eligibility: both answers (agonistic and recreational) per (person, asd).
+ * <p>
+ * Every document write calls refresh() for its pairs inside its own transaction:
+ * UploadDocumentHandler, RenewDocumentHandler and each ExpiryCheckHandler chunk.
+ * The check handlers call it too, for a pair with no row yet or whose recheck_on
+ * has come — the day a document enters the warning window or expires — so a
+ * stored answer is never served past the day it stops being true.
+ * <p>
+ * One refresh: lock the pairs, one findActive for all of them, EligibilityRules
+ * for both flavours, one batch upsert.
+ */
+@Component
+public class EligibilityProjector {
+
+    private static final EnumSet<DocumentType> ALL_REQUIRED = EnumSet.noneOf(DocumentType.class);
+
+    static {
+        ALL_REQUIRED.addAll(DocumentType.AGONISTIC_REQUIRED);
+        ALL_REQUIRED.addAll(DocumentType.RECREATIONAL_REQUIRED);
+    }
+
+    private final DocumentBatchRepository documentRepo;
+    private final PersonEligibilityRepository eligibilityRepo;
+
+    public EligibilityProjector(DocumentBatchRepository documentRepo,
+                                PersonEligibilityRepository eligibilityRepo) {
+        this.documentRepo = documentRepo;
+        this.eligibilityRepo = eligibilityRepo;
+    }
+
+    /**
+     * Callers that wrote documents through JPA must flush first: the documents are read over JDBC.
+     *
+     * @return the rows as stored, one per pair
+     */
+    @Transactional
+    public Map<PersonAsd, Row> refresh(Collection<PersonAsd> pairs) {
+        var rows = new LinkedHashMap<PersonAsd, Row>();
+        if (pairs.isEmpty()) return rows;
+
+        eligibilityRepo.lock(pairs);
+
+        var active = new HashMap<PersonAsd, Map<DocumentType, ActiveDocument>>();
+        for (var doc : documentRepo.findActive(pairs, ALL_REQUIRED))
+            active.computeIfAbsent(doc.key(), _ -> new EnumMap<>(DocumentType.class)).put(doc.tipo(), doc);
+
+        var today = LocalDate.now();
+        for (var pair : pairs) {
+            var docs = active.getOrDefault(pair, Map.of());
+            rows.put(pair, new Row(pair,
+                    EligibilityRules.evaluate(true, docs, today),
+                    EligibilityRules.evaluate(false, docs, today),
+                    today, EligibilityRules.recheckOn(docs.values(), today)));
+        }
+        eligibilityRepo.saveAll(rows.values().stream().toList());
+        return rows;
+    }
+}
@@ -1,5 +1,6 @@
 package it.asd.compliance.features.checkeligibility;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -8,19 +9,24 @@ import java.util.List;
  * <p>
  * 'eligible' is the single boolean the Competition service checks
  * for its fail-closed decision. The other fields provide detail for UIs.
+ * validUntil is the last day the answer holds (null = no horizon): callers
+ * caching the answer must not serve it after that day.
  */
 public record EligibilityResponse(
         boolean eligible,
         List<String> blockingDocuments,
-        List<String> warnings
+        List<String> warnings,
+        LocalDate validUntil
 ) {
     public static EligibilityResponse from(EligibilityResult result) {
         return switch (result) {
-            case EligibilityResult.Eligible _ -> new EligibilityResponse(true, List.of(), List.of());
+            case EligibilityResult.Eligible e -> new EligibilityResponse(true, List.of(), List.of(), e.validUntil());
 
-            case EligibilityResult.ExpiringSoon e -> new EligibilityResponse(true, List.of(), e.expiringDocuments());
+            case EligibilityResult.ExpiringSoon e ->
+                    new EligibilityResponse(true, List.of(), e.expiringDocuments(), e.validUntil());
 
-            case EligibilityResult.Ineligible e -> new EligibilityResponse(false, e.blockingDocuments(), List.of());
+            case EligibilityResult.Ineligible e ->
+                    new EligibilityResponse(false, e.blockingDocuments(), List.of(), e.validUntil());
         };
     }
 }
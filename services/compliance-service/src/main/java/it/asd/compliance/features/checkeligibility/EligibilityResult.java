@@ -1,5 +1,6 @@
 package it.asd.compliance.features.checkeligibility;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -11,23 +12,30 @@ import java.util.List;
  * - ExpiringSoon: eligible today but documents expiring within 30 days (warning)
  * <p>
  * Note: ExpiringSoon extends Eligible — the person CAN compete but needs a warning.
+ * <p>
+ * Every outcome carries validUntil: the earliest upcoming scadenza among the
+ * required documents. Until a document is written, the verdict cannot change
+ * before the day after it (warnings may appear earlier). Null when no required
+ * document has a scadenza ahead.
  */
 public sealed interface EligibilityResult
         permits EligibilityResult.Eligible,
         EligibilityResult.ExpiringSoon,
         EligibilityResult.Ineligible {
 
+    LocalDate validUntil();
+
     /**
      * All required docs are valid and not near expiry. Clear to compete.
      */
-    record Eligible() implements EligibilityResult {
+    record Eligible(LocalDate validUntil) implements EligibilityResult {
     }
 
     /**
      * All required docs are valid but one or more expire within EXPIRY_WARNING_DAYS.
      * Still eligible to compete — but the UI should warn the user.
      */
-    record ExpiringSoon(List<String> expiringDocuments) implements EligibilityResult {
+    record ExpiringSoon(List<String> expiringDocuments, LocalDate validUntil) implements EligibilityResult {
         public boolean isEligible() {
             return true;
         }
@@ -38,7 +46,7 @@ public sealed interface EligibilityResult
      * FAIL-CLOSED: competition service MUST deny registration when it receives this.
      * blockingDocuments contains type + reason for each blocker (for UI messages).
      */
-    record Ineligible(List<String> blockingDocuments) implements EligibilityResult {
+    record Ineligible(List<String> blockingDocuments, LocalDate validUntil) implements EligibilityResult {
         public boolean isEligible() {
             return false;
         }
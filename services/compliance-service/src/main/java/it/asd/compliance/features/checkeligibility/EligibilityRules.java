@@ -0,0 +1,80 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.compliance.shared.entity.DocumentType;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ActiveDocument;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Answer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The eligibility rules, kept separate from how the documents are fetched.
+ * EligibilityProjector applies them when a document changes and stores the
+ * answers; the check handlers only turn a stored answer into a result.
+ */
+final class EligibilityRules {
+
+    static final int EXPIRY_WARNING_DAYS = 30;
+
+    private EligibilityRules() {
+    }
+
+    static Set<DocumentType> required(boolean agonistic) {
+        return agonistic ? DocumentType.AGONISTIC_REQUIRED : DocumentType.RECREATIONAL_REQUIRED;
+    }
+
+    /**
+     * @param active the active document per type; a required type absent from the map is MISSING
+     */
+    static Answer evaluate(boolean agonistic, Map<DocumentType, ActiveDocument> active, LocalDate today) {
+        var blocking = new ArrayList<String>();
+        var expiringSoon = new ArrayList<String>();
+        LocalDate validUntil = null;
+
+        for (var type : required(agonistic)) {
+            var doc = active.get(type);
+            if (doc == null) {
+                blocking.add(type.name() + " [MISSING]");
+                continue;
+            }
+            var scadenza = doc.dataScadenza();
+            if (scadenza == null) continue;
+            if (scadenza.isBefore(today)) {
+                blocking.add(type.name() + " [EXPIRED on " + scadenza + "]");
+                continue;
+            }
+            if (scadenza.isBefore(today.plusDays(EXPIRY_WARNING_DAYS))) {
+                expiringSoon.add(type.name() + " [EXPIRING on " + scadenza + "]");
+            }
+            if (validUntil == null || scadenza.isBefore(validUntil)) validUntil = scadenza;
+        }
+        return new Answer(blocking, expiringSoon, validUntil);
+    }
+
+    static EligibilityResult result(Answer answer) {
+        if (!answer.blocking().isEmpty())
+            return new EligibilityResult.Ineligible(answer.blocking(), answer.validUntil());
+        if (!answer.expiring().isEmpty())
+            return new EligibilityResult.ExpiringSoon(answer.expiring(), answer.validUntil());
+        return new EligibilityResult.Eligible(answer.validUntil());
+    }
+
+    /**
+     * First day, after today, on which evaluate() would answer differently for the same documents:
+     * a document entering the warning window or passing its scadenza. Null if none ever will.
+     */
+    static LocalDate recheckOn(Collection<ActiveDocument> docs, LocalDate today) {
+        LocalDate next = null;
+        for (var doc : docs) {
+            var scadenza = doc.dataScadenza();
+            if (scadenza == null || scadenza.isBefore(today)) continue;
+            var warningFrom = scadenza.minusDays(EXPIRY_WARNING_DAYS - 1);
+            var change = today.isBefore(warningFrom) ? warningFrom : scadenza.plusDays(1);
+            if (next == null || change.isBefore(next)) next = change;
+        }
+        return next;
+    }
+}
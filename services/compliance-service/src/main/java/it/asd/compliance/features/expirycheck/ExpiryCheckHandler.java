@@ -1,68 +1,178 @@
 package it.asd.compliance.features.expirycheck;
 
 import it.asd.common.kafka.EventPublisher;
-import it.asd.compliance.shared.entity.DocumentStatus;
-import it.asd.compliance.shared.repository.DocumentRepository;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
+import it.asd.compliance.shared.repository.DocumentBatchRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ScanCursor;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ScannedDocument;
 import it.asd.events.KafkaTopics;
 import it.asd.events.compliance.DocumentExpiredEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent.ExpiringDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * Daily expiry engine for one hash range of asd_id (ranges are handed out by
+ * ExpiryScanCoordinator). Two phases, each a keyset walk over the range in
+ * idx_doc_expiry_scan, in chunks of asd.compliance.expiry.chunk-size:
+ * 1. expire: data_scadenza before today → EXPIRED, plus one DocumentExpiredEvent per document
+ * 2. expiring soon: VALID with data_scadenza within EXPIRY_WARNING_DAYS → EXPIRING_SOON,
+ * plus one DocumentsExpiringSoonEvent per (person, asd) touched by the chunk, listing
+ * all of that pair's EXPIRING_SOON documents (the ones flipped earlier included)
+ * <p>
+ * A chunk is one transaction: the fence (lease renewal), one UPDATE … RETURNING,
+ * the person_eligibility refresh of the chunk's pairs, then the chunk's events as
+ * one publishAll per asd (outbox rows in the same transaction). Memory is bounded by one chunk, and no transaction outlives its chunk.
+ * A fence that throws — the lease was taken over — rolls the chunk back and stops the range.
+ * <p>
+ * Resuming: a failed chunk rolls back alone and stops the run (PartialFailure).
+ * Committed chunks stay flipped and no longer match, so the next run carries on
+ * with what is left. Nothing is expired or published twice.
+ */
 @Component
 public class ExpiryCheckHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ExpiryCheckHandler.class);
     private static final int EXPIRY_WARNING_DAYS = 30;
 
-    private final DocumentRepository repository;
+    private final DocumentBatchRepository batchRepo;
     private final EventPublisher eventPublisher;
+    private final EligibilityProjector projector;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
 
-    public ExpiryCheckHandler(DocumentRepository repository,
-                              EventPublisher eventPublisher) {
-        this.repository = repository;
+    public ExpiryCheckHandler(DocumentBatchRepository batchRepo,
+                              EventPublisher eventPublisher,
+                              EligibilityProjector projector,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${asd.compliance.expiry.chunk-size:1000}") int chunkSize) {
+        this.batchRepo = batchRepo;
         this.eventPublisher = eventPublisher;
+        this.projector = projector;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
     }
 
-    @Transactional
-    public ExpiryCheckResult handle() {
-        var threshold = LocalDate.now().plusDays(EXPIRY_WARNING_DAYS);
-        var docs = repository.findExpiringOrExpired(threshold);
-        var failed = new ArrayList<UUID>();
-        int expired = 0;
-        int expiringSoon = 0;
-
-        for (var doc : docs) {
-            try {
-                if (doc.isExpired()) {
-                    doc.setStato(DocumentStatus.EXPIRED);
-                    repository.save(doc);
-                    eventPublisher.publish(
-                            KafkaTopics.DOCUMENT_EXPIRED,
-                            new DocumentExpiredEvent(
-                                    UUID.randomUUID(), doc.getPersonId(), doc.getAsdId(),
-                                    doc.getId(), doc.getTipo().name(),
-                                    doc.getDataScadenza(), Instant.now()),
-                            doc.getAsdId(), null);
-                    expired++;
-                } else if (doc.isExpiringSoon(EXPIRY_WARNING_DAYS)) {
-                    doc.setStato(DocumentStatus.EXPIRING_SOON);
-                    repository.save(doc);
-                    expiringSoon++;
-                }
-            } catch (Exception ex) {
-                log.error("[EXPIRY_JOB] Failed processing documentId={}: {}",
-                        doc.getId(), ex.getMessage(), ex);
-                failed.add(doc.getId());
+    /**
+     * @param fence runs first in every chunk transaction; throws to abandon the range
+     */
+    public ExpiryCheckResult handle(int scanRange, LocalDate today, Runnable fence) {
+        var horizon = today.plusDays(EXPIRY_WARNING_DAYS);
+
+        var expired = new Phase(scanRange, "expire");
+        var expiringSoon = new Phase(scanRange, "expiring-soon");
+        try {
+            expired.run(fence, after -> batchRepo.expire(scanRange, today, after, chunkSize),
+                    this::onExpired);
+            expiringSoon.run(fence, after -> batchRepo.markExpiringSoon(scanRange, today, horizon, after, chunkSize),
+                    this::onExpiringSoon);
+        } catch (RuntimeException ex) {
+            log.error("[EXPIRY_JOB] Range {} stopped after expired={} expiringSoon={}: {}",
+                    scanRange, expired.count, expiringSoon.count, ex.getMessage(), ex);
+            return new ExpiryCheckResult.PartialFailure(expired.count, expiringSoon.count, ex.getMessage());
+        }
+        return new ExpiryCheckResult.Summary(expired.count, expiringSoon.count);
+    }
+
+    private void onExpired(List<ScannedDocument> docs) {
+        projector.refresh(pairs(docs));
+
+        var now = Instant.now();
+        var byAsd = new LinkedHashMap<UUID, List<DocumentExpiredEvent>>();
+        for (var doc : docs)
+            byAsd.computeIfAbsent(doc.asdId(), _ -> new ArrayList<>()).add(new DocumentExpiredEvent(
+                    UUID.randomUUID(), doc.personId(), doc.asdId(), doc.id(),
+                    doc.tipo().name(), doc.dataScadenza(), now));
+        byAsd.forEach((asdId, events) ->
+                eventPublisher.publishAll(KafkaTopics.DOCUMENT_EXPIRED, events, asdId, null));
+    }
+
+    /**
+     * A pair whose documents span two chunks gets two digests; the second one is complete.
+     */
+    private void onExpiringSoon(List<ScannedDocument> flipped) {
+        var pairs = pairs(flipped);
+        projector.refresh(pairs);
+
+        var byPair = new LinkedHashMap<PersonAsd, List<ExpiringDocument>>();
+        for (var doc : batchRepo.findExpiringSoon(pairs))
+            byPair.computeIfAbsent(new PersonAsd(doc.personId(), doc.asdId()), _ -> new ArrayList<>())
+                    .add(new ExpiringDocument(doc.id(), doc.tipo().name(), doc.dataScadenza()));
+
+        var now = Instant.now();
+        var byAsd = new LinkedHashMap<UUID, List<DocumentsExpiringSoonEvent>>();
+        byPair.forEach((pair, docs) -> byAsd.computeIfAbsent(pair.asdId(), _ -> new ArrayList<>())
+                .add(new DocumentsExpiringSoonEvent(UUID.randomUUID(), pair.personId(), pair.asdId(),
+                        docs, docs.getFirst().expiresOn(), now)));
+        byAsd.forEach((asdId, events) ->
+                eventPublisher.publishAll(KafkaTopics.DOCUMENT_EXPIRING, events, asdId, null));
+    }
+
+    private static Set<PersonAsd> pairs(List<ScannedDocument> docs) {
+        return docs.stream()
+                .map(doc -> new PersonAsd(doc.personId(), doc.asdId()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * One keyset walk: flip a chunk and handle its rows in one transaction, until a chunk comes back empty.
+     */
+    private final class Phase {
+        private final int scanRange;
+        private final String name;
+        private int count;
+        private int chunks;
+
+        Phase(int scanRange, String name) {
+            this.scanRange = scanRange;
+            this.name = name;
+        }
+
+        void run(Runnable fence, ChunkFlip flip, Consumer<List<ScannedDocument>> then) {
+            ScanCursor cursor = null;
+            while (true) {
+                var after = cursor;
+                var docs = tx.execute(_ -> {
+                    fence.run();
+                    var flipped = flip.next(after);
+                    if (!flipped.isEmpty()) then.accept(flipped);
+                    return flipped;
+                });
+                if (docs == null || docs.isEmpty()) break;
+                count += docs.size();
+                chunks++;
+                // RETURNING has no order: the cursor is the largest key of the chunk
+                cursor = docs.stream().map(ScannedDocument::cursor)
+                        .max(ExpiryCheckHandler::compare).orElseThrow();
             }
+            log.info("[EXPIRY_JOB] Range {} {}: {} documents in {} chunks", scanRange, name, count, chunks);
         }
+    }
+
+    @FunctionalInterface
+    private interface ChunkFlip {
+        List<ScannedDocument> next(ScanCursor after);
+    }
 
-        return new ExpiryCheckResult.Summary(expired, expiringSoon, failed);
+    private static int compare(ScanCursor a, ScanCursor b) {
+        int byDate = a.dataScadenza().compareTo(b.dataScadenza());
+        return byDate != 0 ? byDate : a.id().compareTo(b.id());
     }
 }
@@ -1,24 +1,27 @@
 package it.asd.compliance.features.expirycheck;
 
-import java.util.List;
-import java.util.UUID;
-
 /**
  * Sealed result for the daily expiry scan job.
- * Always returns Summary (the job always completes — errors are per-document).
- * Using sealed here documents the fact that there's only one outcome shape,
- * making future extension (e.g. adding PartialFailure) explicit and safe.
+ * The job commits chunk by chunk, so even an interrupted run keeps its work.
+ * Counts are documents flipped (and, for expiry, published) by this run.
  */
 public sealed interface ExpiryCheckResult
-        permits ExpiryCheckResult.Summary {
+        permits ExpiryCheckResult.Summary, ExpiryCheckResult.PartialFailure {
 
     record Summary(
+            int expiredCount,
+            int expiringSoonCount
+    ) implements ExpiryCheckResult {
+    }
+
+    /**
+     * A chunk failed and the run stopped there. Earlier chunks are committed;
+     * the next run continues with the documents still unflipped.
+     */
+    record PartialFailure(
             int expiredCount,
             int expiringSoonCount,
-            List<UUID> failedDocumentIds    // IDs that couldn't be processed
+            String reason
     ) implements ExpiryCheckResult {
-        public boolean hasFailures() {
-            return !failedDocumentIds.isEmpty();
-        }
     }
 }
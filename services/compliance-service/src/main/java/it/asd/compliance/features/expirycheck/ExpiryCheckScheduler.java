@@ -7,32 +7,32 @@ import org.springframework.stereotype.Component;
 
 /**
  * Drives the daily expiry check job.
- * Separated from the handler so the handler is easily testable without scheduling.
+ * Fires on every replica; ExpiryScanCoordinator splits the work between them.
+ * Separated from the coordinator so it is easily testable without scheduling.
  */
 @Component
 public class ExpiryCheckScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(ExpiryCheckScheduler.class);
 
-    private final ExpiryCheckHandler handler;
+    private final ExpiryScanCoordinator coordinator;
 
-    public ExpiryCheckScheduler(ExpiryCheckHandler handler) {
-        this.handler = handler;
+    public ExpiryCheckScheduler(ExpiryScanCoordinator coordinator) {
+        this.coordinator = coordinator;
     }
 
     @Scheduled(cron = "0 0 6 * * *")    // every day at 06:00
     public void runDailyExpiryCheck() {
         log.info("[SCHEDULER] Starting daily compliance expiry check");
-        var result = handler.handle();
+        var result = coordinator.run();
 
         // Exhaustive switch — if we add a new result type, this won't compile
         switch (result) {
-            case ExpiryCheckResult.Summary s -> {
-                log.info("[SCHEDULER] Done: expired={}, expiringSoon={}, failed={}",
-                        s.expiredCount(), s.expiringSoonCount(), s.failedDocumentIds().size());
-                if (s.hasFailures())
-                    log.warn("[SCHEDULER] Failed document IDs: {}", s.failedDocumentIds());
-            }
+            case ExpiryCheckResult.Summary s -> log.info("[SCHEDULER] Done: expired={}, expiringSoon={}",
+                    s.expiredCount(), s.expiringSoonCount());
+            case ExpiryCheckResult.PartialFailure f -> log.warn(
+                    "[SCHEDULER] Stopped early: expired={}, expiringSoon={}, reason={} — next run resumes",
+                    f.expiredCount(), f.expiringSoonCount(), f.reason());
         }
     }
 }
@@ -0,0 +1,162 @@
+package it.asd.compliance.features.expirycheck;
+
+import it.asd.compliance.shared.repository.ExpiryScanLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Splits the daily expiry scan across replicas.
+ * <p>
+ * The documents are split into hash ranges of asd_id (document.scan_range,
+ * one expiry_scan_lease row per range). Every replica runs the same loop:
+ * 1. {@code workers} threads each claim a free range, scan it with
+ * ExpiryCheckHandler and mark it completed for today, until no range is claimable
+ * 2. if ranges are still pending they are held by other replicas: wait
+ * {@code poll-interval} and go back to 1
+ * 3. stop when every range is completed for today, or after {@code max-run}
+ * <p>
+ * Every chunk renews its lease inside the chunk transaction (the fence). A replica
+ * that dies stops renewing; once leased_until passes, a waiting replica claims the
+ * range in step 1 and scans it. The scan is state-based, so the takeover only
+ * finds what the dead replica had not committed yet.
+ * <p>
+ * Ranges are claimed one at a time, so a replica that finishes early takes more
+ * and the work spreads over however many replicas are running.
+ */
+@Component
+public class ExpiryScanCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryScanCoordinator.class);
+
+    private final ExpiryCheckHandler handler;
+    private final ExpiryScanLeaseRepository leaseRepo;
+    private final String owner;
+    private final int workers;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+    private final Duration maxRun;
+
+    public ExpiryScanCoordinator(ExpiryCheckHandler handler,
+                                 ExpiryScanLeaseRepository leaseRepo,
+                                 @Value("${HOSTNAME:compliance-service}") String hostname,
+                                 @Value("${asd.compliance.expiry.workers:4}") int workers,
+                                 @Value("${asd.compliance.expiry.lease-ttl:2m}") Duration leaseTtl,
+                                 @Value("${asd.compliance.expiry.poll-interval:30s}") Duration pollInterval,
+                                 @Value("${asd.compliance.expiry.max-run:3h}") Duration maxRun) {
+        this.handler = handler;
+        this.leaseRepo = leaseRepo;
+        this.owner = hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.workers = workers;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+        this.maxRun = maxRun;
+    }
+
+    /**
+     * Counts are what this replica flipped; the other replicas report their own share.
+     */
+    public ExpiryCheckResult run() {
+        var today = LocalDate.now();
+        var deadline = Instant.now().plus(maxRun);
+        var totals = new Totals();
+
+        while (true) {
+            runWorkers(today, totals);
+
+            int pending;
+            try {
+                pending = leaseRepo.pending(today);
+            } catch (RuntimeException ex) {
+                totals.failed("lease table unavailable: " + ex.getMessage());
+                break;
+            }
+            if (pending == 0) break;
+            if (!Instant.now().isBefore(deadline)) {
+                totals.failed(pending + " ranges still pending after " + maxRun);
+                break;
+            }
+            log.info("[EXPIRY_JOB] {} ranges held by other replicas, checking again in {}", pending, pollInterval);
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                totals.failed("interrupted");
+                break;
+            }
+        }
+        return totals.result();
+    }
+
+    private void runWorkers(LocalDate today, Totals totals) {
+        try (var executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("expiry-scan-", 0).factory())) {
+            for (int i = 0; i < workers; i++)
+                executor.submit(() -> {
+                    try {
+                        claimAndScan(today, totals);
+                    } catch (RuntimeException ex) {
+                        log.error("[EXPIRY_JOB] Worker stopped: {}", ex.getMessage(), ex);
+                        totals.failed("lease table unavailable: " + ex.getMessage());
+                    }
+                });
+        }
+    }
+
+    private void claimAndScan(LocalDate today, Totals totals) {
+        while (true) {
+            var claimed = leaseRepo.claim(today, owner, leaseTtl);
+            if (claimed.isEmpty()) return;
+            int range = claimed.get();
+
+            log.info("[EXPIRY_JOB] {} claimed range {}", owner, range);
+            var result = handler.handle(range, today, () -> {
+                if (!leaseRepo.renew(range, owner, leaseTtl))
+                    throw new IllegalStateException("lease on range " + range + " taken over");
+            });
+
+            switch (result) {
+                case ExpiryCheckResult.Summary s -> {
+                    totals.add(s.expiredCount(), s.expiringSoonCount());
+                    if (!leaseRepo.complete(range, owner, today))
+                        log.warn("[EXPIRY_JOB] Range {} was taken over before completion; the new owner rescans it", range);
+                }
+                // The lease is left to expire: the range is retried by whoever claims it next
+                case ExpiryCheckResult.PartialFailure f -> {
+                    totals.add(f.expiredCount(), f.expiringSoonCount());
+                    totals.failed("range " + range + ": " + f.reason());
+                }
+            }
+        }
+    }
+
+    private static final class Totals {
+        private int expired;
+        private int expiringSoon;
+        private final List<String> failures = new ArrayList<>();
+
+        synchronized void add(int expiredCount, int expiringSoonCount) {
+            expired += expiredCount;
+            expiringSoon += expiringSoonCount;
+        }
+
+        synchronized void failed(String reason) {
+            failures.add(reason);
+        }
+
+        synchronized ExpiryCheckResult result() {
+            return failures.isEmpty()
+                    ? new ExpiryCheckResult.Summary(expired, expiringSoon)
+                    : new ExpiryCheckResult.PartialFailure(expired, expiringSoon, String.join("; ", failures));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package it.asd.compliance.features.renewdocument;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
 import it.asd.compliance.shared.entity.DocumentStatus;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
 import it.asd.compliance.shared.repository.DocumentRepository;
 import it.asd.events.KafkaTopics;
 import it.asd.events.compliance.DocumentRenewedEvent;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -16,11 +19,14 @@ public class RenewDocumentHandler {
 
     private final DocumentRepository repository;
     private final EventPublisher eventPublisher;
+    private final EligibilityProjector projector;
 
     public RenewDocumentHandler(DocumentRepository repository,
-                                EventPublisher eventPublisher) {
+                                EventPublisher eventPublisher,
+                                EligibilityProjector projector) {
         this.repository = repository;
         this.eventPublisher = eventPublisher;
+        this.projector = projector;
     }
 
     @Transactional
@@ -39,7 +45,8 @@ public class RenewDocumentHandler {
         doc.setStato(DocumentStatus.VALID);
         if (cmd.newNumero() != null) doc.setNumero(cmd.newNumero());
         if (cmd.newFileUrl() != null) doc.setFileUrl(cmd.newFileUrl());
-        repository.save(doc);
+        repository.saveAndFlush(doc);   // flushed for the JDBC eligibility refresh
+        projector.refresh(List.of(new PersonAsd(doc.getPersonId(), doc.getAsdId())));
 
         // DocumentRenewedEvent → competition-service updates eligibility cache
         eventPublisher.publish(
@@ -1,8 +1,10 @@
 package it.asd.compliance.features.uploaddocument;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
 import it.asd.compliance.shared.entity.DocumentEntity;
 import it.asd.compliance.shared.entity.DocumentStatus;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
 import it.asd.compliance.shared.repository.DocumentRepository;
 import it.asd.events.KafkaTopics;
 import it.asd.events.compliance.DocumentCreatedEvent;
@@ -12,12 +14,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Vertical slice handler: owns ALL business logic for UploadDocument.
  * No service class sitting between controller and repository.
- * Single responsibility: validate → persist → publish.
+ * Single responsibility: validate → persist → refresh eligibility → publish.
  */
 @Component
 public class UploadDocumentHandler {
@@ -26,11 +29,14 @@ public class UploadDocumentHandler {
 
     private final DocumentRepository repository;
     private final EventPublisher eventPublisher;
+    private final EligibilityProjector projector;
 
     public UploadDocumentHandler(DocumentRepository repository,
-                                 EventPublisher eventPublisher) {
+                                 EventPublisher eventPublisher,
+                                 EligibilityProjector projector) {
         this.repository = repository;
         this.eventPublisher = eventPublisher;
+        this.projector = projector;
     }
 
     @Transactional
@@ -56,10 +62,13 @@ public class UploadDocumentHandler {
                 .note(cmd.note())
                 .build();
 
-        var saved = repository.save(entity);
+        // Flushed so the eligibility refresh (plain JDBC) sees the new row
+        var saved = repository.saveAndFlush(entity);
         log.info("[UPLOAD_DOCUMENT] Saved documentId={} tipo={} personId={}",
                 saved.getId(), saved.getTipo(), saved.getPersonId());
 
+        projector.refresh(List.of(new PersonAsd(saved.getPersonId(), saved.getAsdId())));
+
         // Publish creation event (Finance and others may listen)
         eventPublisher.publish(
                 KafkaTopics.DOCUMENT_CREATED,
@@ -0,0 +1,194 @@
+package it.asd.compliance.shared.repository;
+
+import it.asd.compliance.shared.entity.DocumentEntity;
+import it.asd.compliance.shared.entity.DocumentStatus;
+import it.asd.compliance.shared.entity.DocumentType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based access to document, used by the person_eligibility projection and the expiry job.
+ * <p>
+ * findActive(): the active document per (person, asd, tipo) for every requested
+ * pair, in one query: stato VALID or EXPIRING_SOON (both still count — the job
+ * only flips the second as a warning), latest data_scadenza first
+ * (NULL = no expiry sorts first under DESC).
+ * DISTINCT ON keeps one row per key, and the predicate is covered by the
+ * partial index idx_doc_eligibility.
+ * <p>
+ * expire() / markExpiringSoon(): one chunk of the expiry job within one hash
+ * range of asd_id (scan_range, see V4). This is one UPDATE … RETURNING over
+ * the next {@code limit} rows of idx_doc_expiry_scan after the cursor, in
+ * (data_scadenza, id) order. Flipped rows no longer match, so re-running a
+ * chunk that rolled back is safe. The chunk rows are locked FOR UPDATE and the
+ * predicate is re-checked after the lock, so two replicas racing on the same
+ * range flip (and publish) each document once.
+ * <p>
+ * findExpiringSoon(): every EXPIRING_SOON document of the given pairs, for the
+ * per-person digest. Same unnest join as findActive, on idx_doc_eligibility.
+ */
+@Repository
+public class DocumentBatchRepository {
+
+    public record PersonAsd(UUID personId, UUID asdId) {
+    }
+
+    /**
+     * The two columns eligibility rules look at. dataScadenza null = never expires.
+     */
+    public record ActiveDocument(PersonAsd key, DocumentType tipo, LocalDate dataScadenza) {
+        public static ActiveDocument of(DocumentEntity doc) {
+            return new ActiveDocument(new PersonAsd(doc.getPersonId(), doc.getAsdId()),
+                    doc.getTipo(), doc.getDataScadenza());
+        }
+    }
+
+    private static final String FIND_ACTIVE_SQL = """
+            SELECT DISTINCT ON (d.person_id, d.asd_id, d.tipo)
+                   d.person_id, d.asd_id, d.tipo, d.data_scadenza
+            FROM document d
+            JOIN unnest(?::uuid[], ?::uuid[]) AS k(person_id, asd_id)
+                ON d.person_id = k.person_id AND d.asd_id = k.asd_id
+            WHERE d.stato IN ('VALID', 'EXPIRING_SOON') AND d.tipo = ANY(?)
+            ORDER BY d.person_id, d.asd_id, d.tipo, d.data_scadenza DESC
+            """;
+
+    /**
+     * Keyset position inside one range of idx_doc_expiry_scan; null = start of the range.
+     */
+    public record ScanCursor(LocalDate dataScadenza, UUID id) {
+    }
+
+    /**
+     * A document as the expiry job sees it — after the flip, for the rows it just updated.
+     */
+    public record ScannedDocument(UUID id, UUID personId, UUID asdId, DocumentType tipo, LocalDate dataScadenza) {
+        public ScanCursor cursor() {
+            return new ScanCursor(dataScadenza, id);
+        }
+    }
+
+    private static final String FLIP_SQL = """
+            WITH chunk AS (
+                SELECT id FROM document
+                WHERE scan_range = ? AND %s
+                  %s
+                ORDER BY data_scadenza, id
+                LIMIT ?
+                FOR UPDATE
+            )
+            UPDATE document d SET stato = ?
+            FROM chunk WHERE d.id = chunk.id
+            RETURNING d.id, d.person_id, d.asd_id, d.tipo, d.data_scadenza
+            """;
+
+    private static final String EXPIRED_WHERE =
+            "stato IN ('VALID', 'EXPIRING_SOON') AND data_scadenza < ?";
+
+    private static final String EXPIRING_SOON_WHERE =
+            "stato = 'VALID' AND data_scadenza >= ? AND data_scadenza < ?";
+
+    private static final String AFTER = "AND (data_scadenza, id) > (?, ?)";
+
+    private static final String FIND_EXPIRING_SOON_SQL = """
+            SELECT d.id, d.person_id, d.asd_id, d.tipo, d.data_scadenza
+            FROM document d
+            JOIN unnest(?::uuid[], ?::uuid[]) AS k(person_id, asd_id)
+                ON d.person_id = k.person_id AND d.asd_id = k.asd_id
+            WHERE d.stato = 'EXPIRING_SOON'
+            ORDER BY d.person_id, d.asd_id, d.data_scadenza, d.id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public DocumentBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param keys  distinct (person, asd) pairs
+     * @param types document types of interest
+     */
+    public List<ActiveDocument> findActive(Collection<PersonAsd> keys, Collection<DocumentType> types) {
+        var docs = new ArrayList<ActiveDocument>();
+        if (keys.isEmpty() || types.isEmpty()) return docs;
+
+        var personIds = keys.stream().map(PersonAsd::personId).toArray(UUID[]::new);
+        var asdIds = keys.stream().map(PersonAsd::asdId).toArray(UUID[]::new);
+        var tipi = types.stream().map(DocumentType::name).toArray(String[]::new);
+
+        jdbc.query(FIND_ACTIVE_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", asdIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("varchar", tipi));
+        }, rs -> {
+            docs.add(new ActiveDocument(
+                    new PersonAsd(rs.getObject("person_id", UUID.class), rs.getObject("asd_id", UUID.class)),
+                    DocumentType.valueOf(rs.getString("tipo")),
+                    rs.getObject("data_scadenza", LocalDate.class)));
+        });
+        return docs;
+    }
+
+    /**
+     * Ordered by pair, then soonest expiry first.
+     */
+    public List<ScannedDocument> findExpiringSoon(Collection<PersonAsd> keys) {
+        if (keys.isEmpty()) return List.of();
+
+        var personIds = keys.stream().map(PersonAsd::personId).toArray(UUID[]::new);
+        var asdIds = keys.stream().map(PersonAsd::asdId).toArray(UUID[]::new);
+
+        return jdbc.query(FIND_EXPIRING_SOON_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", asdIds));
+        }, (rs, _) -> scanned(rs));
+    }
+
+    /**
+     * VALID / EXPIRING_SOON → EXPIRED for documents with data_scadenza before {@code today}.
+     */
+    public List<ScannedDocument> expire(int scanRange, LocalDate today, ScanCursor after, int limit) {
+        return flip(EXPIRED_WHERE, List.of(scanRange, today), after, limit, DocumentStatus.EXPIRED);
+    }
+
+    /**
+     * VALID → EXPIRING_SOON for documents with data_scadenza in [today, horizon).
+     */
+    public List<ScannedDocument> markExpiringSoon(int scanRange, LocalDate today, LocalDate horizon,
+                                                  ScanCursor after, int limit) {
+        return flip(EXPIRING_SOON_WHERE, List.of(scanRange, today, horizon), after, limit,
+                DocumentStatus.EXPIRING_SOON);
+    }
+
+    private List<ScannedDocument> flip(String where, List<Object> whereArgs, ScanCursor after, int limit,
+                                       DocumentStatus target) {
+        var args = new ArrayList<>(whereArgs);
+        if (after != null) {
+            args.add(after.dataScadenza());
+            args.add(after.id());
+        }
+        args.add(limit);
+        args.add(target.name());
+
+        var sql = FLIP_SQL.formatted(where, after != null ? AFTER : "");
+        return jdbc.query(sql, (rs, _) -> scanned(rs), args.toArray());
+    }
+
+    private static ScannedDocument scanned(ResultSet rs) throws SQLException {
+        return new ScannedDocument(
+                rs.getObject("id", UUID.class),
+                rs.getObject("person_id", UUID.class),
+                rs.getObject("asd_id", UUID.class),
+                DocumentType.valueOf(rs.getString("tipo")),
+                rs.getObject("data_scadenza", LocalDate.class));
+    }
+}
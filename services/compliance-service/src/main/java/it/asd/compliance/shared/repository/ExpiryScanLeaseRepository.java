@@ -0,0 +1,82 @@
+package it.asd.compliance.shared.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Leases over the hash ranges of the expiry scan (expiry_scan_lease, one row per range).
+ * <p>
+ * claim():    takes the first range not yet completed for the run date whose lease
+ * is free or expired. FOR UPDATE SKIP LOCKED lets replicas claim
+ * concurrently without waiting on each other's candidate row.
+ * renew():    pushes leased_until forward; false once another replica took the range over
+ * complete(): marks the range done for the run date and frees it
+ * pending():  ranges not yet completed for the run date, whoever holds them
+ * <p>
+ * An owner that stops renewing (crash, network partition) loses its ranges to
+ * the next claim after leased_until. renew() and complete() check the owner,
+ * so a replica that comes back late cannot overwrite the takeover.
+ */
+@Repository
+public class ExpiryScanLeaseRepository {
+
+    private static final String CLAIM_SQL = """
+            UPDATE expiry_scan_lease l
+            SET owner = ?, leased_until = NOW() + ?::interval
+            FROM (
+                SELECT scan_range FROM expiry_scan_lease
+                WHERE completed_on IS DISTINCT FROM ?
+                  AND (leased_until IS NULL OR leased_until < NOW())
+                ORDER BY scan_range
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            ) free
+            WHERE l.scan_range = free.scan_range
+            RETURNING l.scan_range
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE expiry_scan_lease SET leased_until = NOW() + ?::interval
+            WHERE scan_range = ? AND owner = ?
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE expiry_scan_lease SET completed_on = ?, owner = NULL, leased_until = NULL
+            WHERE scan_range = ? AND owner = ?
+            """;
+
+    private static final String PENDING_SQL =
+            "SELECT count(*) FROM expiry_scan_lease WHERE completed_on IS DISTINCT FROM ?";
+
+    private final JdbcTemplate jdbc;
+
+    public ExpiryScanLeaseRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<Integer> claim(LocalDate runDate, String owner, Duration ttl) {
+        return jdbc.queryForList(CLAIM_SQL, Integer.class, owner, interval(ttl), runDate)
+                .stream().findFirst();
+    }
+
+    public boolean renew(int scanRange, String owner, Duration ttl) {
+        return jdbc.update(RENEW_SQL, interval(ttl), scanRange, owner) == 1;
+    }
+
+    public boolean complete(int scanRange, String owner, LocalDate runDate) {
+        return jdbc.update(COMPLETE_SQL, runDate, scanRange, owner) == 1;
+    }
+
+    public int pending(LocalDate runDate) {
+        var count = jdbc.queryForObject(PENDING_SQL, Integer.class, runDate);
+        return count == null ? 0 : count;
+    }
+
+    private static String interval(Duration ttl) {
+        return ttl.toMillis() + " milliseconds";
+    }
+}
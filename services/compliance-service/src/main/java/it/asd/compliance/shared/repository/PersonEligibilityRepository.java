@@ -0,0 +1,184 @@
+package it.asd.compliance.shared.repository;
+
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Access to person_eligibility, the per-(person, asd) eligibility projection.
+ * <p>
+ * find():      primary-key lookup — the whole single eligibility check
+ * findAll():   one query for every pair of a batch check (unnest of two arrays)
+ * lock():      transaction-scoped advisory lock per pair, taken in key order
+ * saveAll():   one batch upsert
+ * <p>
+ * Writers lock the pairs before reading documents: under READ COMMITTED the
+ * reads that follow see every write committed by the previous holder, so two
+ * concurrent uploads for one person cannot store an answer missing the other's document.
+ */
+@Repository
+public class PersonEligibilityRepository {
+
+    /**
+     * Answer for one flavour (agonistic or recreational). Eligible when nothing blocks.
+     *
+     * @param validUntil earliest upcoming scadenza among the flavour's documents: last day
+     *                   the answer holds without a document write; null = no horizon
+     */
+    public record Answer(List<String> blocking, List<String> expiring, LocalDate validUntil) {
+        public boolean eligible() {
+            return blocking.isEmpty();
+        }
+    }
+
+    /**
+     * @param recheckOn first day an answer may change without a document write; null = never
+     */
+    public record Row(PersonAsd key, Answer agonistic, Answer recreational,
+                      LocalDate evaluatedOn, LocalDate recheckOn) {
+
+        public Answer answer(boolean agonistic) {
+            return agonistic ? this.agonistic : recreational;
+        }
+
+        public boolean isCurrent(LocalDate today) {
+            return !today.isBefore(evaluatedOn) && (recheckOn == null || today.isBefore(recheckOn));
+        }
+    }
+
+    private static final String FIND_SQL = """
+            SELECT person_id, asd_id, agonistic_blocking, agonistic_expiring, agonistic_valid_until,
+                   recreational_blocking, recreational_expiring, recreational_valid_until,
+                   evaluated_on, recheck_on
+            FROM person_eligibility
+            WHERE person_id = ? AND asd_id = ?
+            """;
+
+    private static final String FIND_ALL_SQL = """
+            SELECT e.person_id, e.asd_id, e.agonistic_blocking, e.agonistic_expiring, e.agonistic_valid_until,
+                   e.recreational_blocking, e.recreational_expiring, e.recreational_valid_until,
+                   e.evaluated_on, e.recheck_on
+            FROM person_eligibility e
+            JOIN unnest(?::uuid[], ?::uuid[]) AS k(person_id, asd_id)
+                ON e.person_id = k.person_id AND e.asd_id = k.asd_id
+            """;
+
+    private static final String LOCK_SQL = """
+            SELECT count(pg_advisory_xact_lock(lock_key)) FROM (
+                SELECT DISTINCT hashtextextended(k.person_id::text || k.asd_id::text, 0) AS lock_key
+                FROM unnest(?::uuid[], ?::uuid[]) AS k(person_id, asd_id)
+                ORDER BY lock_key
+            ) keys
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO person_eligibility (person_id, asd_id,
+                agonistic_eligible, agonistic_blocking, agonistic_expiring, agonistic_valid_until,
+                recreational_eligible, recreational_blocking, recreational_expiring, recreational_valid_until,
+                evaluated_on, recheck_on, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (person_id, asd_id) DO UPDATE SET
+                agonistic_eligible       = EXCLUDED.agonistic_eligible,
+                agonistic_blocking       = EXCLUDED.agonistic_blocking,
+                agonistic_expiring       = EXCLUDED.agonistic_expiring,
+                agonistic_valid_until    = EXCLUDED.agonistic_valid_until,
+                recreational_eligible    = EXCLUDED.recreational_eligible,
+                recreational_blocking    = EXCLUDED.recreational_blocking,
+                recreational_expiring    = EXCLUDED.recreational_expiring,
+                recreational_valid_until = EXCLUDED.recreational_valid_until,
+                evaluated_on             = EXCLUDED.evaluated_on,
+                recheck_on               = EXCLUDED.recheck_on,
+                updated_at               = NOW()
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public PersonEligibilityRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<Row> find(PersonAsd key) {
+        return jdbc.query(FIND_SQL, (rs, _) -> map(rs), key.personId(), key.asdId()).stream().findFirst();
+    }
+
+    public Map<PersonAsd, Row> findAll(Collection<PersonAsd> keys) {
+        var rows = new HashMap<PersonAsd, Row>();
+        if (keys.isEmpty()) return rows;
+
+        var personIds = keys.stream().map(PersonAsd::personId).toArray(UUID[]::new);
+        var asdIds = keys.stream().map(PersonAsd::asdId).toArray(UUID[]::new);
+
+        jdbc.query(FIND_ALL_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", asdIds));
+        }, rs -> {
+            var row = map(rs);
+            rows.put(row.key(), row);
+        });
+        return rows;
+    }
+
+    /**
+     * Blocks until this transaction holds every pair. Must run inside a transaction.
+     */
+    public void lock(Collection<PersonAsd> keys) {
+        if (keys.isEmpty()) return;
+
+        var personIds = keys.stream().map(PersonAsd::personId).toArray(UUID[]::new);
+        var asdIds = keys.stream().map(PersonAsd::asdId).toArray(UUID[]::new);
+
+        jdbc.query(LOCK_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", personIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", asdIds));
+        }, rs -> {
+        });
+    }
+
+    public void saveAll(List<Row> rows) {
+        if (rows.isEmpty()) return;
+
+        jdbc.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            var conn = ps.getConnection();
+            ps.setObject(1, row.key().personId());
+            ps.setObject(2, row.key().asdId());
+            ps.setBoolean(3, row.agonistic().eligible());
+            ps.setArray(4, conn.createArrayOf("text", row.agonistic().blocking().toArray()));
+            ps.setArray(5, conn.createArrayOf("text", row.agonistic().expiring().toArray()));
+            ps.setObject(6, row.agonistic().validUntil(), Types.DATE);
+            ps.setBoolean(7, row.recreational().eligible());
+            ps.setArray(8, conn.createArrayOf("text", row.recreational().blocking().toArray()));
+            ps.setArray(9, conn.createArrayOf("text", row.recreational().expiring().toArray()));
+            ps.setObject(10, row.recreational().validUntil(), Types.DATE);
+            ps.setObject(11, row.evaluatedOn());
+            ps.setObject(12, row.recheckOn(), Types.DATE);
+        });
+    }
+
+    private static Row map(ResultSet rs) throws SQLException {
+        return new Row(
+                new PersonAsd(rs.getObject("person_id", UUID.class), rs.getObject("asd_id", UUID.class)),
+                new Answer(strings(rs.getArray("agonistic_blocking")), strings(rs.getArray("agonistic_expiring")),
+                        rs.getObject("agonistic_valid_until", LocalDate.class)),
+                new Answer(strings(rs.getArray("recreational_blocking")), strings(rs.getArray("recreational_expiring")),
+                        rs.getObject("recreational_valid_until", LocalDate.class)),
+                rs.getObject("evaluated_on", LocalDate.class),
+                rs.getObject("recheck_on", LocalDate.class));
+    }
+
+    private static List<String> strings(Array array) throws SQLException {
+        return array == null ? List.of() : Arrays.asList((String[]) array.getArray());
+    }
+}
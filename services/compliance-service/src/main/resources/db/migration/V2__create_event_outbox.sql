@@ -0,0 +1,13 @@
+-- Transactional outbox (asd-common OutboxWriter / OutboxRelay)
+-- Flyway migration V2
+-- Rows ride in the business transaction; the relay deletes them once Kafka acks.
+
+CREATE TABLE event_outbox
+(
+    id          BIGSERIAL PRIMARY KEY,            -- relay order = insertion order
+    envelope_id UUID         NOT NULL,
+    topic       VARCHAR(200) NOT NULL,
+    record_key  VARCHAR(200),                     -- aggregateId → partition key
+    envelope    JSONB        NOT NULL,
+    created_at  TIMESTAMPTZ  NOT NULL DEFAULT NOW()
+);
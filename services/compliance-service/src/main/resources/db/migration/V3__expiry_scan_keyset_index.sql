@@ -0,0 +1,8 @@
+-- The expiry job walks the scan index in chunks by keyset (data_scadenza, id).
+-- With id in the key, each chunk starts where the previous one stopped
+-- instead of re-reading the entries already flipped out of the partial index.
+
+DROP INDEX idx_doc_expiry_scan;
+
+CREATE INDEX idx_doc_expiry_scan
+    ON document (data_scadenza, id) WHERE stato IN ('VALID', 'EXPIRING_SOON');
@@ -0,0 +1,26 @@
+-- Distributed expiry scan (ExpiryScanCoordinator)
+-- Flyway migration V4
+-- Documents are split into hash ranges of asd_id; each replica claims ranges
+-- through expiry_scan_lease and scans only the documents of those ranges.
+
+-- Range of a document = hash of its asd_id modulo the number of lease rows below.
+-- Changing the number of ranges means a new migration touching both.
+ALTER TABLE document
+    ADD COLUMN scan_range SMALLINT GENERATED ALWAYS AS (abs(hashtext(asd_id::text) % 32)) STORED;
+
+-- The keyset walk now runs inside one range: (scan_range, data_scadenza, id)
+DROP INDEX idx_doc_expiry_scan;
+
+CREATE INDEX idx_doc_expiry_scan
+    ON document (scan_range, data_scadenza, id) WHERE stato IN ('VALID', 'EXPIRING_SOON');
+
+CREATE TABLE expiry_scan_lease
+(
+    scan_range   SMALLINT PRIMARY KEY,
+    owner        VARCHAR(100),                    -- replica holding the lease, NULL = free
+    leased_until TIMESTAMPTZ,                     -- renewed by every chunk; past = owner presumed dead
+    completed_on DATE                             -- run date the range was last fully scanned
+);
+
+INSERT INTO expiry_scan_lease (scan_range)
+SELECT generate_series(0, 31);
@@ -0,0 +1,22 @@
+-- Materialized eligibility per (person, asd) — EligibilityProjector
+-- Flyway migration V5
+-- Rewritten in the same transaction as every document write (upload, renew,
+-- expiry job), so an eligibility check is one primary-key lookup.
+
+CREATE TABLE person_eligibility
+(
+    person_id             UUID        NOT NULL,
+    asd_id                UUID        NOT NULL,
+    agonistic_eligible    BOOLEAN     NOT NULL,
+    agonistic_blocking    TEXT[]      NOT NULL DEFAULT '{}',
+    agonistic_expiring    TEXT[]      NOT NULL DEFAULT '{}',
+    recreational_eligible BOOLEAN     NOT NULL,
+    recreational_blocking TEXT[]      NOT NULL DEFAULT '{}',
+    recreational_expiring TEXT[]      NOT NULL DEFAULT '{}',
+    evaluated_on          DATE        NOT NULL,
+    recheck_on            DATE,                   -- first day an answer changes by date alone; NULL = never
+    updated_at            TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (person_id, asd_id)
+);
+
+-- No backfill: a pair without a row is computed and stored by its first check.
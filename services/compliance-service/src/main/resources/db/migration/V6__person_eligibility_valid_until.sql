@@ -0,0 +1,11 @@
+-- Validity horizon of each stored answer — returned to callers as validUntil
+-- Flyway migration V6
+-- Earliest upcoming scadenza among the flavour's documents: the last day the
+-- answer holds by date alone. Callers use it as the TTL of their cached copy.
+
+ALTER TABLE person_eligibility
+    ADD COLUMN agonistic_valid_until    DATE,   -- NULL = no upcoming scadenza
+    ADD COLUMN recreational_valid_until DATE;
+
+-- Existing rows have no horizon yet: drop them, each pair is recomputed by its next check.
+DELETE FROM person_eligibility;
@@ -0,0 +1,73 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.common.exception.GlobalExceptionHandler;
+import it.asd.common.exception.ValidatorExceptionHandler;
+import it.asd.compliance.shared.TestFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CheckEligibilityBatchController.class)
+@Import({GlobalExceptionHandler.class, ValidatorExceptionHandler.class})
+@DisplayName("CheckEligibilityBatchController")
+@Tag("unit")
+class CheckEligibilityBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CheckEligibilityBatchHandler handler;
+
+    @Test
+    @DisplayName("POST returns 200 with one result per item, in request order")
+    void returnsResultsInOrder() throws Exception {
+        when(handler.handle(any())).thenReturn(List.of(
+                new EligibilityResult.Ineligible(List.of("ASSICURAZIONE [MISSING]"), null),
+                new EligibilityResult.Eligible(LocalDate.of(2026, 3, 31))));
+
+        mockMvc.perform(post("/compliance/eligibility:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"items": [
+                                  {"personId": "%1$s", "asdId": "%2$s", "agonistic": false},
+                                  {"personId": "%1$s", "asdId": "%2$s"}
+                                ]}
+                                """.formatted(TestFixtures.PERSON_ID, TestFixtures.ASD_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].eligible").value(false))
+                .andExpect(jsonPath("$.results[0].blockingDocuments[0]").value("ASSICURAZIONE [MISSING]"))
+                .andExpect(jsonPath("$.results[1].eligible").value(true))
+                .andExpect(jsonPath("$.results[1].validUntil").value("2026-03-31"))
+                .andExpect(jsonPath("$.results[1].personId").value(TestFixtures.PERSON_ID.toString()));
+    }
+
+    @Test
+    @DisplayName("POST returns 400 when an item has no personId")
+    void returns400OnInvalidItem() throws Exception {
+        mockMvc.perform(post("/compliance/eligibility:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"items": [{"asdId": "%s"}]}
+                                """.formatted(TestFixtures.ASD_ID)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(handler);
+    }
+}
@@ -0,0 +1,101 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Answer;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Row;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static it.asd.compliance.shared.TestFixtures.ASD_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CheckEligibilityBatchHandler")
+@Tag("unit")
+class CheckEligibilityBatchHandlerTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final Answer OK = new Answer(List.of(), List.of(), TODAY.plusYears(1));
+
+    @Mock
+    private PersonEligibilityRepository eligibilityRepo;
+
+    @Mock
+    private EligibilityProjector projector;
+
+    @InjectMocks
+    private CheckEligibilityBatchHandler handler;
+
+    private static Row row(PersonAsd key, Answer answer, LocalDate recheckOn) {
+        return new Row(key, answer, answer, TODAY, recheckOn);
+    }
+
+    @Test
+    @DisplayName("answers in request order and recomputes only the pairs without a current row")
+    @SuppressWarnings("unchecked")
+    void answersInRequestOrder() {
+        var current = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var stale = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var missing = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var expired = new Answer(List.of("ASSICURAZIONE [EXPIRED on 2024-01-01]"), List.of(), null);
+        var missingDocs = new Answer(List.of("ASSICURAZIONE [MISSING]"), List.of(), null);
+
+        when(eligibilityRepo.findAll(any())).thenReturn(new HashMap<>(Map.of(
+                current, row(current, OK, null),
+                stale, row(stale, OK, TODAY))));
+        when(projector.refresh(any())).thenReturn(Map.of(
+                stale, row(stale, expired, null),
+                missing, row(missing, missingDocs, null)));
+
+        var results = handler.handle(new CheckEligibilityBatchQuery(List.of(
+                new CheckEligibilityBatchQuery.Item(missing.personId(), ASD_ID, false),
+                new CheckEligibilityBatchQuery.Item(current.personId(), ASD_ID, false),
+                new CheckEligibilityBatchQuery.Item(stale.personId(), ASD_ID, false),
+                new CheckEligibilityBatchQuery.Item(current.personId(), ASD_ID, false))));
+
+        assertThat(results).containsExactly(
+                new EligibilityResult.Ineligible(missingDocs.blocking(), null),
+                new EligibilityResult.Eligible(TODAY.plusYears(1)),
+                new EligibilityResult.Ineligible(expired.blocking(), null),
+                new EligibilityResult.Eligible(TODAY.plusYears(1)));
+
+        var keys = ArgumentCaptor.forClass(Collection.class);
+        verify(eligibilityRepo).findAll(keys.capture());
+        assertThat(keys.getValue()).hasSize(3);   // duplicates collapse to one key
+        verify(projector).refresh(List.of(missing, stale));
+    }
+
+    @Test
+    @DisplayName("skips the refresh when every row is current")
+    void noRefreshWhenCurrent() {
+        var key = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var agonisticMissing = new Answer(List.of("CERTIFICATO_MEDICO_AGONISTICO [MISSING]"), List.of(), null);
+        when(eligibilityRepo.findAll(any())).thenReturn(new HashMap<>(Map.of(
+                key, new Row(key, agonisticMissing, OK, TODAY, null))));
+
+        var results = handler.handle(new CheckEligibilityBatchQuery(List.of(
+                new CheckEligibilityBatchQuery.Item(key.personId(), ASD_ID, null))));
+
+        // agonistic defaults to true
+        assertThat(results).containsExactly(new EligibilityResult.Ineligible(agonisticMissing.blocking(), null));
+        verify(projector, never()).refresh(any());
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -35,21 +36,22 @@ class CheckEligibilityControllerTest {
     @Test
     @DisplayName("GET returns 200 with eligible=true when handler returns Eligible")
     void returns200WhenEligible() throws Exception {
-        when(handler.handle(any())).thenReturn(new EligibilityResult.Eligible());
+        when(handler.handle(any())).thenReturn(new EligibilityResult.Eligible(LocalDate.of(2026, 3, 31)));
 
         mockMvc.perform(get("/compliance/persons/{personId}/eligibility", TestFixtures.PERSON_ID)
                         .param("asdId", TestFixtures.ASD_ID.toString()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.eligible").value(true))
                 .andExpect(jsonPath("$.blockingDocuments").isArray())
-                .andExpect(jsonPath("$.warnings").isArray());
+                .andExpect(jsonPath("$.warnings").isArray())
+                .andExpect(jsonPath("$.validUntil").value("2026-03-31"));
     }
 
     @Test
     @DisplayName("GET returns 200 with eligible=false when handler returns Ineligible")
     void returns200WhenIneligible() throws Exception {
         when(handler.handle(any()))
-                .thenReturn(new EligibilityResult.Ineligible(List.of("CERTIFICATO_MEDICO_AGONISTICO [MISSING]")));
+                .thenReturn(new EligibilityResult.Ineligible(List.of("CERTIFICATO_MEDICO_AGONISTICO [MISSING]"), null));
 
         mockMvc.perform(get("/compliance/persons/{personId}/eligibility", TestFixtures.PERSON_ID)
                         .param("asdId", TestFixtures.ASD_ID.toString()))
@@ -62,7 +64,8 @@ class CheckEligibilityControllerTest {
     @DisplayName("GET returns 200 with eligible=true and warnings when handler returns ExpiringSoon")
     void returns200WhenExpiringSoon() throws Exception {
         when(handler.handle(any()))
-                .thenReturn(new EligibilityResult.ExpiringSoon(List.of("ASSICURAZIONE [EXPIRING on 2025-02-28]")));
+                .thenReturn(new EligibilityResult.ExpiringSoon(List.of("ASSICURAZIONE [EXPIRING on 2025-02-28]"),
+                        LocalDate.of(2025, 2, 28)));
 
         mockMvc.perform(get("/compliance/persons/{personId}/eligibility", TestFixtures.PERSON_ID)
                         .param("asdId", TestFixtures.ASD_ID.toString()))
@@ -1,7 +1,10 @@
 package it.asd.compliance.features.checkeligibility;
 
 import it.asd.compliance.shared.TestFixtures;
-import it.asd.compliance.shared.repository.DocumentRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Answer;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Row;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
@@ -11,12 +14,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,67 +29,77 @@ import static org.mockito.Mockito.when;
 @Tag("unit")
 class CheckEligibilityHandlerTest {
 
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final PersonAsd KEY = new PersonAsd(TestFixtures.PERSON_ID, TestFixtures.ASD_ID);
+    private static final Answer OK = new Answer(List.of(), List.of(), TODAY.plusYears(1));
+
+    @Mock
+    private PersonEligibilityRepository eligibilityRepo;
+
     @Mock
-    private DocumentRepository repository;
+    private EligibilityProjector projector;
 
     @InjectMocks
     private CheckEligibilityHandler handler;
 
-    private final UUID personId = TestFixtures.PERSON_ID;
-    private final UUID asdId = TestFixtures.ASD_ID;
+    private static Row row(Answer agonistic, Answer recreational, LocalDate recheckOn) {
+        return new Row(KEY, agonistic, recreational, TODAY, recheckOn);
+    }
+
+    private EligibilityResult check(boolean agonistic) {
+        return handler.handle(new CheckEligibilityQuery(KEY.personId(), KEY.asdId(), agonistic));
+    }
 
     @Nested
-    @DisplayName("when all required documents are valid")
-    class WhenEligible {
+    @DisplayName("when the stored row is current")
+    class WhenCurrent {
 
         @Test
-        @DisplayName("returns Eligible")
-        void returnsEligible() {
-            // All recreational required docs present and valid
-            when(repository.findActiveByPersonAsdAndType(eq(personId), eq(asdId), any()))
-                    .thenReturn(Optional.of(TestFixtures.validDocument()));
+        @DisplayName("answers from the row, validUntil included, without recomputing")
+        void answersFromRow() {
+            when(eligibilityRepo.find(KEY)).thenReturn(Optional.of(row(
+                    new Answer(List.of("CERTIFICATO_MEDICO_AGONISTICO [MISSING]"), List.of(), null), OK, null)));
+
+            assertThat(check(false)).isEqualTo(new EligibilityResult.Eligible(TODAY.plusYears(1)));
+            assertThat(check(true)).isEqualTo(new EligibilityResult.Ineligible(
+                    List.of("CERTIFICATO_MEDICO_AGONISTICO [MISSING]"), null));
+            verifyNoInteractions(projector);
+        }
 
-            var result = handler.handle(new CheckEligibilityQuery(personId, asdId, false));
+        @Test
+        @DisplayName("returns ExpiringSoon when only warnings are stored")
+        void returnsExpiringSoon() {
+            var warning = new Answer(List.of(),
+                    List.of("ASSICURAZIONE [EXPIRING on " + TODAY.plusDays(5) + "]"), TODAY.plusDays(5));
+            when(eligibilityRepo.find(KEY)).thenReturn(Optional.of(row(OK, warning, TODAY.plusDays(6))));
 
-            assertThat(result).isInstanceOf(EligibilityResult.Eligible.class);
+            assertThat(check(false)).isEqualTo(new EligibilityResult.ExpiringSoon(warning.expiring(), TODAY.plusDays(5)));
+            verifyNoInteractions(projector);
         }
     }
 
     @Nested
-    @DisplayName("when a required document is missing")
-    class WhenIneligible {
+    @DisplayName("when the row is missing or stale")
+    class WhenNotCurrent {
 
         @Test
-        @DisplayName("returns Ineligible with blocking documents listed")
-        void returnsIneligible() {
-            // No documents found for any type
-            when(repository.findActiveByPersonAsdAndType(any(), any(), any()))
-                    .thenReturn(Optional.empty());
-
-            var result = handler.handle(new CheckEligibilityQuery(personId, asdId, false));
+        @DisplayName("recomputes a pair never checked before")
+        void refreshesMissingRow() {
+            when(eligibilityRepo.find(KEY)).thenReturn(Optional.empty());
+            when(projector.refresh(List.of(KEY))).thenReturn(Map.of(KEY, row(OK, OK, null)));
 
-            assertThat(result).isInstanceOf(EligibilityResult.Ineligible.class);
-            var ineligible = (EligibilityResult.Ineligible) result;
-            assertThat(ineligible.blockingDocuments()).isNotEmpty();
+            assertThat(check(true)).isInstanceOf(EligibilityResult.Eligible.class);
+            verify(projector).refresh(List.of(KEY));
         }
-    }
-
-    @Nested
-    @DisplayName("when a document is expiring soon")
-    class WhenExpiringSoon {
 
         @Test
-        @DisplayName("returns ExpiringSoon with warning")
-        void returnsExpiringSoon() {
-            var expiringSoon = TestFixtures.expiringSoonDocument(UUID.randomUUID());
-            when(repository.findActiveByPersonAsdAndType(any(), any(), any()))
-                    .thenReturn(Optional.of(expiringSoon));
-
-            var result = handler.handle(new CheckEligibilityQuery(personId, asdId, false));
+        @DisplayName("recomputes a row whose recheck_on has come")
+        void refreshesStaleRow() {
+            var blocked = new Answer(List.of("ASSICURAZIONE [EXPIRED on " + TODAY.minusDays(1) + "]"), List.of(), null);
+            when(eligibilityRepo.find(KEY)).thenReturn(Optional.of(row(OK, OK, TODAY)));
+            when(projector.refresh(List.of(KEY))).thenReturn(Map.of(KEY, row(blocked, blocked, null)));
 
-            assertThat(result).isInstanceOf(EligibilityResult.ExpiringSoon.class);
-            var warning = (EligibilityResult.ExpiringSoon) result;
-            assertThat(warning.expiringDocuments()).isNotEmpty();
+            assertThat(check(false)).isEqualTo(new EligibilityResult.Ineligible(blocked.blocking(), null));
         }
     }
 }
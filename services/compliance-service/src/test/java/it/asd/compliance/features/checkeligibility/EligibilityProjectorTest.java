@@ -0,0 +1,139 @@
+package it.asd.compliance.features.checkeligibility;
+
+import it.asd.compliance.shared.entity.DocumentType;
+import it.asd.compliance.shared.repository.DocumentBatchRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ActiveDocument;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository;
+import it.asd.compliance.shared.repository.PersonEligibilityRepository.Row;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static it.asd.compliance.shared.TestFixtures.ASD_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EligibilityProjector")
+@Tag("unit")
+class EligibilityProjectorTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private DocumentBatchRepository documentRepo;
+
+    @Mock
+    private PersonEligibilityRepository eligibilityRepo;
+
+    @InjectMocks
+    private EligibilityProjector projector;
+
+    private static ActiveDocument doc(PersonAsd key, DocumentType type, LocalDate scadenza) {
+        return new ActiveDocument(key, type, scadenza);
+    }
+
+    @Test
+    @DisplayName("locks, reads both flavours' documents once, stores both answers")
+    @SuppressWarnings("unchecked")
+    void refreshesBothFlavours() {
+        var complete = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var warningIn = TODAY.plusDays(15);
+        var nextYear = TODAY.plusYears(1);
+        var docs = List.of(
+                doc(complete, DocumentType.CERTIFICATO_MEDICO_AGONISTICO, nextYear),
+                doc(complete, DocumentType.CERTIFICATO_MEDICO_NON_AGONISTICO, nextYear),
+                doc(complete, DocumentType.TESSERA_FEDERALE, null),
+                doc(complete, DocumentType.ASSICURAZIONE, warningIn));
+        when(documentRepo.findActive(any(), any())).thenReturn(docs);
+
+        var rows = projector.refresh(List.of(complete));
+
+        var row = rows.get(complete);
+        assertThat(row.agonistic().eligible()).isTrue();
+        assertThat(row.recreational().expiring()).containsExactly("ASSICURAZIONE [EXPIRING on " + warningIn + "]");
+        assertThat(row.evaluatedOn()).isEqualTo(TODAY);
+        assertThat(row.recheckOn()).isEqualTo(warningIn.plusDays(1));   // the day it expires
+        assertThat(row.agonistic().validUntil()).isEqualTo(warningIn);
+        assertThat(row.recreational().validUntil()).isEqualTo(warningIn);
+
+        InOrder order = inOrder(eligibilityRepo, documentRepo);
+        order.verify(eligibilityRepo).lock(List.of(complete));
+        var types = ArgumentCaptor.forClass(Collection.class);
+        order.verify(documentRepo).findActive(any(), types.capture());
+        order.verify(eligibilityRepo).saveAll(List.copyOf(rows.values()));
+        assertThat(types.getValue())
+                .containsAll(DocumentType.AGONISTIC_REQUIRED)
+                .containsAll(DocumentType.RECREATIONAL_REQUIRED);
+    }
+
+    @Test
+    @DisplayName("rechecks on the day a document enters the warning window")
+    void recheckOnWarningWindow() {
+        var key = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var scadenza = TODAY.plusYears(1);
+        when(documentRepo.findActive(any(), any()))
+                .thenReturn(List.of(doc(key, DocumentType.ASSICURAZIONE, scadenza)));
+
+        Row row = projector.refresh(List.of(key)).get(key);
+
+        assertThat(row.recheckOn()).isEqualTo(scadenza.minusDays(EligibilityRules.EXPIRY_WARNING_DAYS - 1));
+        assertThat(row.isCurrent(row.recheckOn().minusDays(1))).isTrue();
+        assertThat(row.isCurrent(row.recheckOn())).isFalse();
+    }
+
+    @Test
+    @DisplayName("a pair without documents is stored as all MISSING, never rechecked by date")
+    void noDocuments() {
+        var key = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        when(documentRepo.findActive(any(), any())).thenReturn(List.of());
+
+        Row row = projector.refresh(List.of(key)).get(key);
+
+        assertThat(row.agonistic().blocking()).hasSize(DocumentType.AGONISTIC_REQUIRED.size())
+                .allMatch(s -> s.endsWith("[MISSING]"));
+        assertThat(row.recreational().blocking()).hasSize(DocumentType.RECREATIONAL_REQUIRED.size());
+        assertThat(row.recheckOn()).isNull();
+        assertThat(row.agonistic().validUntil()).isNull();
+    }
+
+    @Test
+    @DisplayName("validUntil is the earliest upcoming scadenza of the flavour's own documents")
+    void validUntilPerFlavour() {
+        var key = new PersonAsd(UUID.randomUUID(), ASD_ID);
+        var agonisticCert = TODAY.plusMonths(3);
+        var assicurazione = TODAY.plusMonths(8);
+        when(documentRepo.findActive(any(), any())).thenReturn(List.of(
+                doc(key, DocumentType.CERTIFICATO_MEDICO_AGONISTICO, agonisticCert),
+                doc(key, DocumentType.CERTIFICATO_MEDICO_NON_AGONISTICO, TODAY.minusDays(2)),
+                doc(key, DocumentType.ASSICURAZIONE, assicurazione)));
+
+        Row row = projector.refresh(List.of(key)).get(key);
+
+        assertThat(row.agonistic().validUntil()).isEqualTo(agonisticCert);
+        assertThat(row.recreational().eligible()).isFalse();
+        assertThat(row.recreational().validUntil()).isEqualTo(assicurazione);   // the expired one does not count
+    }
+
+    @Test
+    @DisplayName("does nothing for an empty set of pairs")
+    void emptyPairs() {
+        assertThat(projector.refresh(List.of())).isEmpty();
+        verifyNoInteractions(documentRepo, eligibilityRepo);
+    }
+}
@@ -1,24 +1,38 @@
 package it.asd.compliance.features.expirycheck;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
 import it.asd.compliance.shared.TestFixtures;
-import it.asd.compliance.shared.repository.DocumentRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ScanCursor;
 import it.asd.events.KafkaTopics;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent.ExpiringDocument;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static it.asd.compliance.shared.TestFixtures.ASD_ID;
+import static it.asd.compliance.shared.TestFixtures.PERSON_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,15 +40,30 @@ import static org.mockito.Mockito.*;
 @Tag("unit")
 class ExpiryCheckHandlerTest {
 
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final int RANGE = 7;
+    private static final Runnable NO_FENCE = () -> {
+    };
+
     @Mock
-    private DocumentRepository repository;
+    private DocumentBatchRepository batchRepo;
 
     @Mock
     private EventPublisher eventPublisher;
 
-    @InjectMocks
+    @Mock
+    private EligibilityProjector projector;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private ExpiryCheckHandler handler;
 
+    @BeforeEach
+    void setUp() {
+        handler = new ExpiryCheckHandler(batchRepo, eventPublisher, projector, transactionManager, 2);
+    }
+
     @Nested
     @DisplayName("when no documents need processing")
     class WhenEmpty {
@@ -42,16 +71,13 @@ class ExpiryCheckHandlerTest {
         @Test
         @DisplayName("returns Summary with zero counts")
         void returnsSummaryWithZeroCounts() {
-            when(repository.findExpiringOrExpired(any())).thenReturn(List.of());
+            when(batchRepo.expire(anyInt(), any(), any(), anyInt())).thenReturn(List.of());
+            when(batchRepo.markExpiringSoon(anyInt(), any(), any(), any(), anyInt())).thenReturn(List.of());
 
-            var result = handler.handle();
+            var result = handler.handle(RANGE, TODAY, NO_FENCE);
 
-            assertThat(result).isInstanceOf(ExpiryCheckResult.Summary.class);
-            var summary = (ExpiryCheckResult.Summary) result;
-            assertThat(summary.expiredCount()).isZero();
-            assertThat(summary.expiringSoonCount()).isZero();
-            assertThat(summary.failedDocumentIds()).isEmpty();
-            verifyNoInteractions(eventPublisher);
+            assertThat(result).isEqualTo(new ExpiryCheckResult.Summary(0, 0));
+            verifyNoInteractions(eventPublisher, projector);
         }
     }
 
@@ -60,19 +86,30 @@ class ExpiryCheckHandlerTest {
     class WhenExpiredDocuments {
 
         @Test
-        @DisplayName("marks them EXPIRED, saves, and publishes DOCUMENT_EXPIRED event")
-        void processesExpiredDocuments() {
-            var expiredDoc = TestFixtures.expiredDocument(UUID.randomUUID());
-            when(repository.findExpiringOrExpired(any())).thenReturn(List.of(expiredDoc));
-            when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-
-            var result = handler.handle();
-
-            var summary = (ExpiryCheckResult.Summary) result;
-            assertThat(summary.expiredCount()).isEqualTo(1);
-            assertThat(summary.expiringSoonCount()).isZero();
-            verify(repository).save(expiredDoc);
-            verify(eventPublisher).publish(eq(KafkaTopics.DOCUMENT_EXPIRED), any(), any(), any());
+        @DisplayName("walks chunks by keyset and publishes each chunk's events once per asd")
+        @SuppressWarnings("unchecked")
+        void processesExpiredChunks() {
+            var otherAsd = UUID.randomUUID();
+            var first = TestFixtures.scannedDocument(ASD_ID, TODAY.minusDays(3));
+            var second = TestFixtures.scannedDocument(otherAsd, TODAY.minusDays(2));
+            var third = TestFixtures.scannedDocument(ASD_ID, TODAY.minusDays(1));
+            when(batchRepo.expire(RANGE, TODAY, null, 2)).thenReturn(List.of(second, first));
+            when(batchRepo.expire(RANGE, TODAY, second.cursor(), 2)).thenReturn(List.of(third));
+            when(batchRepo.expire(RANGE, TODAY, third.cursor(), 2)).thenReturn(List.of());
+            when(batchRepo.markExpiringSoon(anyInt(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+            var result = handler.handle(RANGE, TODAY, NO_FENCE);
+
+            assertThat(result).isEqualTo(new ExpiryCheckResult.Summary(3, 0));
+            verify(transactionManager, times(4)).commit(any());
+            verify(projector).refresh(Set.of(new PersonAsd(PERSON_ID, otherAsd), new PersonAsd(PERSON_ID, ASD_ID)));
+            verify(projector).refresh(Set.of(new PersonAsd(PERSON_ID, ASD_ID)));
+            var events = ArgumentCaptor.forClass(List.class);
+            verify(eventPublisher).publishAll(eq(KafkaTopics.DOCUMENT_EXPIRED), events.capture(), eq(otherAsd), isNull());
+            verify(eventPublisher, times(2)).publishAll(eq(KafkaTopics.DOCUMENT_EXPIRED), events.capture(), eq(ASD_ID), isNull());
+            assertThat(events.getAllValues().stream().flatMap(List::stream)
+                    .map(e -> ((DocumentExpiredEvent) e).documentId()))
+                    .containsExactlyInAnyOrder(first.id(), second.id(), third.id());
         }
     }
 
@@ -81,19 +118,72 @@ class ExpiryCheckHandlerTest {
     class WhenExpiringSoonDocuments {
 
         @Test
-        @DisplayName("marks them EXPIRING_SOON, saves, and does not publish DOCUMENT_EXPIRED")
+        @DisplayName("marks them EXPIRING_SOON within the 30-day window and publishes one digest per person")
+        @SuppressWarnings("unchecked")
         void processesExpiringSoonDocuments() {
-            var expiringSoon = TestFixtures.expiringSoonDocument(UUID.randomUUID());
-            when(repository.findExpiringOrExpired(any())).thenReturn(List.of(expiringSoon));
-            when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+            var flippedBefore = TestFixtures.scannedDocument(ASD_ID, TODAY.plusDays(5));
+            var expiringSoon = TestFixtures.scannedDocument(ASD_ID, TODAY.plusDays(15));
+            when(batchRepo.expire(anyInt(), any(), any(), anyInt())).thenReturn(List.of());
+            when(batchRepo.markExpiringSoon(RANGE, TODAY, TODAY.plusDays(30), null, 2)).thenReturn(List.of(expiringSoon));
+            when(batchRepo.markExpiringSoon(RANGE, TODAY, TODAY.plusDays(30), expiringSoon.cursor(), 2)).thenReturn(List.of());
+            when(batchRepo.findExpiringSoon(Set.of(new PersonAsd(PERSON_ID, ASD_ID))))
+                    .thenReturn(List.of(flippedBefore, expiringSoon));
+
+            var result = handler.handle(RANGE, TODAY, NO_FENCE);
+
+            assertThat(result).isEqualTo(new ExpiryCheckResult.Summary(0, 1));
+            verify(projector).refresh(Set.of(new PersonAsd(PERSON_ID, ASD_ID)));
+            var events = ArgumentCaptor.forClass(List.class);
+            verify(eventPublisher).publishAll(eq(KafkaTopics.DOCUMENT_EXPIRING), events.capture(), eq(ASD_ID), isNull());
+            verify(eventPublisher, never()).publishAll(eq(KafkaTopics.DOCUMENT_EXPIRED), any(), any(), any());
+            assertThat((List<DocumentsExpiringSoonEvent>) events.getValue()).singleElement().satisfies(digest -> {
+                assertThat(digest.personId()).isEqualTo(PERSON_ID);
+                assertThat(digest.earliestExpiry()).isEqualTo(TODAY.plusDays(5));
+                assertThat(digest.documents()).extracting(ExpiringDocument::documentId)
+                        .containsExactly(flippedBefore.id(), expiringSoon.id());
+            });
+        }
+    }
 
-            var result = handler.handle();
+    @Nested
+    @DisplayName("when a chunk fails")
+    class WhenChunkFails {
+
+        @Test
+        @DisplayName("rolls back that chunk only and returns PartialFailure with the committed counts")
+        void stopsAtFailedChunk() {
+            var first = TestFixtures.scannedDocument(ASD_ID, TODAY.minusDays(1));
+            when(batchRepo.expire(RANGE, TODAY, null, 2)).thenReturn(List.of(first));
+            when(batchRepo.expire(eq(RANGE), eq(TODAY), any(ScanCursor.class), eq(2)))
+                    .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+            var result = handler.handle(RANGE, TODAY, NO_FENCE);
+
+            assertThat(result).isInstanceOf(ExpiryCheckResult.PartialFailure.class);
+            var failure = (ExpiryCheckResult.PartialFailure) result;
+            assertThat(failure.expiredCount()).isEqualTo(1);
+            assertThat(failure.expiringSoonCount()).isZero();
+            verify(transactionManager).commit(any());
+            verify(transactionManager).rollback(any());
+            verify(batchRepo, never()).markExpiringSoon(anyInt(), any(), any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("when the lease is taken over")
+    class WhenFenceFails {
 
-            var summary = (ExpiryCheckResult.Summary) result;
-            assertThat(summary.expiringSoonCount()).isEqualTo(1);
-            assertThat(summary.expiredCount()).isZero();
-            verify(repository).save(expiringSoon);
-            verify(eventPublisher, never()).publish(eq(KafkaTopics.DOCUMENT_EXPIRED), any(), any(), any());
+        @Test
+        @DisplayName("the fence aborts the chunk before anything is flipped")
+        void fenceStopsTheRange() {
+            var result = handler.handle(RANGE, TODAY, () -> {
+                throw new IllegalStateException("lease on range 7 taken over");
+            });
+
+            assertThat(result).isEqualTo(
+                    new ExpiryCheckResult.PartialFailure(0, 0, "lease on range 7 taken over"));
+            verify(transactionManager).rollback(any());
+            verifyNoInteractions(batchRepo, eventPublisher, projector);
         }
     }
 }
@@ -0,0 +1,106 @@
+package it.asd.compliance.features.expirycheck;
+
+import it.asd.compliance.shared.repository.ExpiryScanLeaseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpiryScanCoordinator")
+@Tag("unit")
+class ExpiryScanCoordinatorTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final Duration TTL = Duration.ofMinutes(2);
+
+    @Mock
+    private ExpiryCheckHandler handler;
+    @Mock
+    private ExpiryScanLeaseRepository leaseRepo;
+
+    private ExpiryScanCoordinator coordinator(Duration maxRun) {
+        return new ExpiryScanCoordinator(handler, leaseRepo, "replica-a", 1, TTL, Duration.ofMillis(1), maxRun);
+    }
+
+    @Test
+    @DisplayName("scans every claimable range, completes it, and sums the counts")
+    void scansClaimedRanges() {
+        when(leaseRepo.claim(eq(TODAY), anyString(), eq(TTL)))
+                .thenReturn(Optional.of(0), Optional.of(1), Optional.empty());
+        when(handler.handle(eq(0), eq(TODAY), any())).thenReturn(new ExpiryCheckResult.Summary(3, 1));
+        when(handler.handle(eq(1), eq(TODAY), any())).thenReturn(new ExpiryCheckResult.Summary(2, 0));
+        when(leaseRepo.complete(anyInt(), anyString(), eq(TODAY))).thenReturn(true);
+        when(leaseRepo.pending(TODAY)).thenReturn(0);
+
+        var result = coordinator(Duration.ofMinutes(1)).run();
+
+        assertThat(result).isEqualTo(new ExpiryCheckResult.Summary(5, 1));
+        verify(leaseRepo).complete(eq(0), anyString(), eq(TODAY));
+        verify(leaseRepo).complete(eq(1), anyString(), eq(TODAY));
+    }
+
+    @Test
+    @DisplayName("waits while other replicas hold ranges and takes over one whose lease expired")
+    void takesOverExpiredLease() {
+        when(leaseRepo.claim(eq(TODAY), anyString(), eq(TTL)))
+                .thenReturn(Optional.empty(), Optional.of(5), Optional.empty());
+        when(leaseRepo.pending(TODAY)).thenReturn(1, 0);
+        when(handler.handle(eq(5), eq(TODAY), any())).thenReturn(new ExpiryCheckResult.Summary(4, 0));
+        when(leaseRepo.complete(eq(5), anyString(), eq(TODAY))).thenReturn(true);
+
+        var result = coordinator(Duration.ofMinutes(1)).run();
+
+        assertThat(result).isEqualTo(new ExpiryCheckResult.Summary(4, 0));
+        verify(leaseRepo, times(2)).pending(TODAY);
+    }
+
+    @Test
+    @DisplayName("the chunk fence renews the lease and throws once it was taken over")
+    void fenceRenewsLease() {
+        when(leaseRepo.claim(eq(TODAY), anyString(), eq(TTL))).thenReturn(Optional.of(2), Optional.empty());
+        var fence = ArgumentCaptor.forClass(Runnable.class);
+        when(handler.handle(eq(2), eq(TODAY), fence.capture())).thenReturn(new ExpiryCheckResult.Summary(0, 0));
+        when(leaseRepo.complete(eq(2), anyString(), eq(TODAY))).thenReturn(true);
+        when(leaseRepo.pending(TODAY)).thenReturn(0);
+
+        coordinator(Duration.ofMinutes(1)).run();
+
+        when(leaseRepo.renew(eq(2), anyString(), eq(TTL))).thenReturn(true, false);
+        fence.getValue().run();
+        assertThatThrownBy(() -> fence.getValue().run())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("taken over");
+    }
+
+    @Test
+    @DisplayName("a failed range is not completed and the run gives up at max-run")
+    void failedRangeStaysPending() {
+        when(leaseRepo.claim(eq(TODAY), anyString(), eq(TTL))).thenReturn(Optional.of(9), Optional.empty());
+        when(handler.handle(eq(9), eq(TODAY), any()))
+                .thenReturn(new ExpiryCheckResult.PartialFailure(10, 0, "statement timeout"));
+        when(leaseRepo.pending(TODAY)).thenReturn(1);
+
+        var result = coordinator(Duration.ZERO).run();
+
+        assertThat(result).isInstanceOf(ExpiryCheckResult.PartialFailure.class);
+        var failure = (ExpiryCheckResult.PartialFailure) result;
+        assertThat(failure.expiredCount()).isEqualTo(10);
+        assertThat(failure.reason()).contains("range 9: statement timeout", "1 ranges still pending");
+        verify(leaseRepo, never()).complete(anyInt(), anyString(), any());
+    }
+}
@@ -1,7 +1,9 @@
 package it.asd.compliance.features.renewdocument;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
 import it.asd.compliance.shared.TestFixtures;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
 import it.asd.compliance.shared.repository.DocumentRepository;
 import it.asd.events.KafkaTopics;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,6 +36,9 @@ class RenewDocumentHandlerTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private EligibilityProjector projector;
+
     @InjectMocks
     private RenewDocumentHandler handler;
 
@@ -51,12 +57,13 @@ class RenewDocumentHandlerTest {
                     LocalDate.now().plusYears(1),
                     "NEW-NUM-001", null);
             when(repository.findById(documentId)).thenReturn(Optional.of(doc));
-            when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+            when(repository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
 
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RenewDocumentResult.Renewed.class);
-            verify(repository).save(any());
+            verify(repository).saveAndFlush(any());
+            verify(projector).refresh(List.of(new PersonAsd(TestFixtures.PERSON_ID, TestFixtures.ASD_ID)));
             verify(eventPublisher).publish(eq(KafkaTopics.DOCUMENT_RENEWED), any(), any(), any());
         }
     }
@@ -76,8 +83,8 @@ class RenewDocumentHandlerTest {
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RenewDocumentResult.NotFound.class);
-            verify(repository, never()).save(any());
-            verifyNoInteractions(eventPublisher);
+            verify(repository, never()).saveAndFlush(any());
+            verifyNoInteractions(eventPublisher, projector);
         }
     }
 
@@ -100,8 +107,8 @@ class RenewDocumentHandlerTest {
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(RenewDocumentResult.InvalidDateRange.class);
-            verify(repository, never()).save(any());
-            verifyNoInteractions(eventPublisher);
+            verify(repository, never()).saveAndFlush(any());
+            verifyNoInteractions(eventPublisher, projector);
         }
     }
 }
@@ -1,8 +1,10 @@
 package it.asd.compliance.features.uploaddocument;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.compliance.features.checkeligibility.EligibilityProjector;
 import it.asd.compliance.shared.TestFixtures;
 import it.asd.compliance.shared.entity.DocumentEntity;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.PersonAsd;
 import it.asd.compliance.shared.repository.DocumentRepository;
 import it.asd.events.KafkaTopics;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +35,9 @@ class UploadDocumentHandlerTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private EligibilityProjector projector;
+
     @InjectMocks
     private UploadDocumentHandler handler;
 
@@ -43,7 +49,7 @@ class UploadDocumentHandlerTest {
         @DisplayName("returns Success, saves document, and publishes event")
         void returnsSuccess() {
             var cmd = TestFixtures.validUploadDocumentCommand();
-            when(repository.save(any())).thenAnswer(inv -> {
+            when(repository.saveAndFlush(any())).thenAnswer(inv -> {
                 DocumentEntity e = inv.getArgument(0);
                 e.setId(UUID.randomUUID());
                 return e;
@@ -52,7 +58,8 @@ class UploadDocumentHandlerTest {
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(UploadDocumentResult.Success.class);
-            verify(repository).save(any());
+            verify(repository).saveAndFlush(any());
+            verify(projector).refresh(List.of(new PersonAsd(TestFixtures.PERSON_ID, TestFixtures.ASD_ID)));
             verify(eventPublisher).publish(eq(KafkaTopics.DOCUMENT_CREATED), any(), any(), any());
         }
     }
@@ -69,8 +76,8 @@ class UploadDocumentHandlerTest {
             var result = handler.handle(cmd);
 
             assertThat(result).isInstanceOf(UploadDocumentResult.InvalidDateRange.class);
-            verify(repository, never()).save(any());
-            verifyNoInteractions(eventPublisher);
+            verify(repository, never()).saveAndFlush(any());
+            verifyNoInteractions(eventPublisher, projector);
         }
     }
 }
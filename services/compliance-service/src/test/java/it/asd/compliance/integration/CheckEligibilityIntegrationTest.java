@@ -9,6 +9,7 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 
@@ -24,9 +25,13 @@ class CheckEligibilityIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         documentRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM person_eligibility");
     }
 
     @Test
@@ -42,6 +47,7 @@ class CheckEligibilityIntegrationTest extends BaseIntegrationTest {
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().eligible()).isTrue();
         assertThat(response.getBody().blockingDocuments()).isEmpty();
+        assertThat(response.getBody().validUntil()).isEqualTo(LocalDate.now().plusYears(1));
     }
 
     @Test
@@ -70,6 +76,17 @@ class CheckEligibilityIntegrationTest extends BaseIntegrationTest {
         assertThat(response.getBody().eligible()).isFalse();
     }
 
+    @Test
+    @DisplayName("an upload after a check replaces the stored answer")
+    void uploadRefreshesStoredAnswer() {
+        assertThat(checkEligibility(false).getBody().eligible()).isFalse();
+
+        uploadDocument(DocumentType.CERTIFICATO_MEDICO_NON_AGONISTICO, LocalDate.now().plusYears(1));
+        uploadDocument(DocumentType.ASSICURAZIONE, LocalDate.now().plusYears(1));
+
+        assertThat(checkEligibility(false).getBody().eligible()).isTrue();
+    }
+
     // ── Helpers ───────────────────────────────────────────────────────────────
 
     private void uploadDocument(DocumentType tipo, LocalDate scadenza) {
@@ -4,6 +4,7 @@ import it.asd.compliance.features.uploaddocument.UploadDocumentCommand;
 import it.asd.compliance.shared.entity.DocumentEntity;
 import it.asd.compliance.shared.entity.DocumentStatus;
 import it.asd.compliance.shared.entity.DocumentType;
+import it.asd.compliance.shared.repository.DocumentBatchRepository.ScannedDocument;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -88,4 +89,12 @@ public final class TestFixtures {
                 .stato(DocumentStatus.VALID)
                 .build();
     }
+
+    /**
+     * A row as returned by one expiry-job chunk (UPDATE … RETURNING).
+     */
+    public static ScannedDocument scannedDocument(UUID asdId, LocalDate dataScadenza) {
+        return new ScannedDocument(UUID.randomUUID(), PERSON_ID, asdId,
+                DocumentType.CERTIFICATO_MEDICO_AGONISTICO, dataScadenza);
+    }
 }
@@ -0,0 +1,89 @@
+package it.asd.finance.features.groupenrollmentaddedconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.membership.GroupEnrollmentAddedEvent;
+import it.asd.finance.features.pendingpayments.PendingPaymentBatchService;
+import it.asd.finance.features.pendingpayments.PendingPaymentBatchService.PaymentTrigger;
+import it.asd.finance.shared.entity.PaymentType;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Batch variant of {@link GroupEnrollmentAddedConsumer} — active when asd.kafka.batch.enabled=true.
+ * <p>
+ * One poll = one transaction = one ack. Envelopes this consumer already
+ * processed are dropped with one IdempotencyStore check per poll (same consumer
+ * name as the record mode, so switching modes keeps the history); the rest are
+ * deduplicated by enrollmentId, written through {@link PendingPaymentBatchService}
+ * and marked processed in the same transaction.
+ * On failure the poll is rolled back and the exception goes to the batch error
+ * handler: the poll is retried with backoff, then dead-lettered (asd.kafka.errors).
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "true")
+public class GroupEnrollmentAddedBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupEnrollmentAddedBatchConsumer.class);
+
+    private static final String CONSUMER = "finance.group-enrollment-added";
+
+    private final PendingPaymentBatchService batchService;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
+    private final TransactionTemplate tx;
+    private final BigDecimal defaultQuotaCorso;
+
+    public GroupEnrollmentAddedBatchConsumer(
+            PendingPaymentBatchService batchService,
+            ObjectProvider<IdempotencyStore> idempotency,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.defaults.quota-corso}") BigDecimal defaultQuotaCorso) {
+        this.batchService = batchService;
+        this.idempotency = idempotency.getIfAvailable();
+        this.tx = new TransactionTemplate(transactionManager);
+        this.defaultQuotaCorso = defaultQuotaCorso;
+    }
+
+    @KafkaListener(topics = KafkaTopics.GROUP_ENROLLMENT_ADDED,
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        try {
+            var fresh = EventBatches.unprocessed(records, idempotency, CONSUMER);
+            var triggers = EventBatches.traced(fresh, GroupEnrollmentAddedEvent.class).stream()
+                    .map(traced -> {
+                        var evt = traced.payload();
+                        return new PaymentTrigger(evt.enrollmentId(), evt.personId(), evt.asdId(), evt.seasonId(),
+                                evt.dataIngresso(), traced.correlationId());
+                    })
+                    .toList();
+
+            var created = tx.execute(_ -> {
+                var payments = batchService.createPending(
+                        triggers, PaymentType.QUOTA_CORSO, "group.enrollment.added", defaultQuotaCorso);
+                if (idempotency != null) idempotency.markProcessed(CONSUMER, EventBatches.envelopeIds(fresh));
+                return payments;
+            });
+
+            log.info("[GROUP_ENROLLMENT_ADDED_CONSUMER] Created {} payments from {} records ({} already processed)",
+                    created.size(), records.size(), records.size() - fresh.size());
+            ack.acknowledge();
+        } catch (Exception ex) {
+            log.error("[GROUP_ENROLLMENT_ADDED_CONSUMER] Batch of {} failed, handing off to the error handler: {}", records.size(), ex.getMessage());
+            throw ex;   // rolls back; retried, then dead-lettered (asd.kafka.errors)
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package it.asd.finance.features.participantregisteredconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.competition.ParticipantRegisteredEvent;
+import it.asd.finance.features.pendingpayments.PendingPaymentBatchService;
+import it.asd.finance.features.pendingpayments.PendingPaymentBatchService.PaymentTrigger;
+import it.asd.finance.shared.entity.PaymentType;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Batch variant of {@link ParticipantRegisteredConsumer} — active when asd.kafka.batch.enabled=true.
+ * <p>
+ * One poll = one transaction = one ack. Envelopes this consumer already
+ * processed are dropped with one IdempotencyStore check per poll (same consumer
+ * name as the record mode, so switching modes keeps the history); the rest are
+ * deduplicated by participationId, written through {@link PendingPaymentBatchService}
+ * and marked processed in the same transaction.
+ * On failure the poll is rolled back and the exception goes to the batch error
+ * handler: the poll is retried with backoff, then dead-lettered (asd.kafka.errors).
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "true")
+public class ParticipantRegisteredBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipantRegisteredBatchConsumer.class);
+
+    private static final String CONSUMER = "finance.participant-registered";
+
+    private final PendingPaymentBatchService batchService;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
+    private final TransactionTemplate tx;
+    private final BigDecimal defaultIscrizioneGara;
+
+    public ParticipantRegisteredBatchConsumer(
+            PendingPaymentBatchService batchService,
+            ObjectProvider<IdempotencyStore> idempotency,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.defaults.iscrizione-gara}") BigDecimal defaultIscrizioneGara) {
+        this.batchService = batchService;
+        this.idempotency = idempotency.getIfAvailable();
+        this.tx = new TransactionTemplate(transactionManager);
+        this.defaultIscrizioneGara = defaultIscrizioneGara;
+    }
+
+    @KafkaListener(topics = KafkaTopics.PARTICIPANT_REGISTERED,
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        try {
+            var fresh = EventBatches.unprocessed(records, idempotency, CONSUMER);
+            var triggers = EventBatches.traced(fresh, ParticipantRegisteredEvent.class).stream()
+                    .map(traced -> {
+                        var evt = traced.payload();
+                        return new PaymentTrigger(evt.participationId(), evt.personId(), evt.asdId(), evt.seasonId(),
+                                LocalDate.now(), traced.correlationId());
+                    })
+                    .toList();
+
+            var created = tx.execute(_ -> {
+                var payments = batchService.createPending(
+                        triggers, PaymentType.ISCRIZIONE_GARA, "competition.participant.registered", defaultIscrizioneGara);
+                if (idempotency != null) idempotency.markProcessed(CONSUMER, EventBatches.envelopeIds(fresh));
+                return payments;
+            });
+
+            log.info("[PARTICIPANT_REGISTERED_CONSUMER] Created {} payments from {} records ({} already processed)",
+                    created.size(), records.size(), records.size() - fresh.size());
+            ack.acknowledge();
+        } catch (Exception ex) {
+            log.error("[PARTICIPANT_REGISTERED_CONSUMER] Batch of {} failed, handing off to the error handler: {}", records.size(), ex.getMessage());
+            throw ex;   // rolls back; retried, then dead-lettered (asd.kafka.errors)
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package it.asd.finance.features.participantregisteredconsumer;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.events.competition.ParticipantRegisteredEvent;
@@ -14,7 +15,9 @@ import it.asd.finance.shared.repository.PaymentRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
@@ -25,24 +28,33 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
+/**
+ * Record-at-a-time mode; see ParticipantRegisteredBatchConsumer for asd.kafka.batch.enabled=true.
+ */
 @Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class ParticipantRegisteredConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(ParticipantRegisteredConsumer.class);
 
+    private static final String CONSUMER = "finance.participant-registered";
+
     private final PaymentRepository paymentRepository;
     private final FeeRuleRepository feeRuleRepository;
     private final EventPublisher eventPublisher;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
     private final BigDecimal defaultIscrizioneGara;
 
     public ParticipantRegisteredConsumer(
             PaymentRepository paymentRepository,
             FeeRuleRepository feeRuleRepository,
             EventPublisher eventPublisher,
+            ObjectProvider<IdempotencyStore> idempotency,
             @Value("${finance.defaults.iscrizione-gara}") BigDecimal defaultIscrizioneGara) {
         this.paymentRepository = paymentRepository;
         this.feeRuleRepository = feeRuleRepository;
         this.eventPublisher = eventPublisher;
+        this.idempotency = idempotency.getIfAvailable();
         this.defaultIscrizioneGara = defaultIscrizioneGara;
     }
 
@@ -56,10 +68,20 @@ public class ParticipantRegisteredConsumer {
                 return;
             }
 
-            // Idempotency check: use participationId as trigger key
+            // Idempotency check by envelopeId — a new record is answered from memory
+            var envelopeId = record.value().envelopeId();
+            if (idempotency != null && !idempotency.isNew(CONSUMER, envelopeId)) {
+                log.info("[PARTICIPANT_REGISTERED_CONSUMER] Already processed envelopeId={} participationId={}, skipping",
+                        envelopeId, evt.participationId());
+                ack.acknowledge();
+                return;
+            }
+
+            // Business-level guard: the same trigger can come back in a new envelope
+            // (upstream republish, or after the processed_envelope TTL)
             if (paymentRepository.existsByTriggerEventId(evt.participationId())) {
-                log.info("[PARTICIPANT_REGISTERED_CONSUMER] Already processed participationId={}, skipping",
-                        evt.participationId());
+                log.info("[PARTICIPANT_REGISTERED_CONSUMER] Payment already exists for participationId={}, skipping", evt.participationId());
+                if (idempotency != null) idempotency.markProcessed(CONSUMER, envelopeId);
                 ack.acknowledge();
                 return;
             }
@@ -95,9 +117,11 @@ public class ParticipantRegisteredConsumer {
                             saved.getDataScadenza(), Instant.now()),
                     saved.getAsdId(), saved.getSeasonId());
 
+            if (idempotency != null) idempotency.markProcessed(CONSUMER, envelopeId);
             ack.acknowledge();
         } catch (Exception ex) {
-            log.error("[PARTICIPANT_REGISTERED_CONSUMER] Error processing event, not acking: {}", ex.getMessage());
+            log.error("[PARTICIPANT_REGISTERED_CONSUMER] Error processing event, handing off to the error handler: {}", ex.getMessage());
+            throw ex;   // rolls back; retried via the retry tiers / DLT (asd.kafka.errors)
         }
     }
 }
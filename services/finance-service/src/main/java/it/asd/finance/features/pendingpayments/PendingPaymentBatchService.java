@@ -0,0 +1,112 @@
+package it.asd.finance.features.pendingpayments;
+
+import it.asd.common.kafka.EventPublisher;
+import it.asd.common.tracing.Correlation;
+import it.asd.events.KafkaTopics;
+import it.asd.events.finance.PaymentCreatedEvent;
+import it.asd.finance.shared.entity.FeeRuleEntity;
+import it.asd.finance.shared.entity.PaymentEntity;
+import it.asd.finance.shared.entity.PaymentStatus;
+import it.asd.finance.shared.entity.PaymentType;
+import it.asd.finance.shared.repository.FeeRuleRepository;
+import it.asd.finance.shared.repository.PaymentBatchRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Shared write path of the three batch consumers that turn upstream events
+ * into PENDING payments (membership, group enrollment, competition registration).
+ * <p>
+ * Per poll: dedupe by trigger id → one IN query for already-processed triggers
+ * → one query for the fee rules of the involved ASDs → one JDBC batch insert
+ * → one PaymentCreatedEvent per inserted row (staged in the outbox, same transaction),
+ * published under its trigger's correlation id.
+ */
+@Component
+public class PendingPaymentBatchService {
+
+    /**
+     * What a single upstream event contributes to a pending payment.
+     *
+     * @param baseDate      date the due date is counted from
+     * @param correlationId of the upstream record; its PaymentCreatedEvent continues that chain
+     */
+    public record PaymentTrigger(UUID triggerEventId, UUID personId, UUID asdId, UUID seasonId,
+                                 LocalDate baseDate, String correlationId) {
+    }
+
+    private record FeeRuleKey(UUID asdId, UUID seasonId) {
+    }
+
+    private final PaymentBatchRepository batchRepository;
+    private final FeeRuleRepository feeRuleRepository;
+    private final EventPublisher eventPublisher;
+
+    public PendingPaymentBatchService(PaymentBatchRepository batchRepository,
+                                      FeeRuleRepository feeRuleRepository,
+                                      EventPublisher eventPublisher) {
+        this.batchRepository = batchRepository;
+        this.feeRuleRepository = feeRuleRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return payments created (already-processed triggers are skipped)
+     */
+    @Transactional
+    public List<PaymentEntity> createPending(List<PaymentTrigger> triggers, PaymentType type,
+                                             String triggerType, BigDecimal defaultImporto) {
+        var byTrigger = new LinkedHashMap<UUID, PaymentTrigger>();
+        for (var t : triggers) byTrigger.putIfAbsent(t.triggerEventId(), t);
+
+        var existing = batchRepository.findExistingTriggerEventIds(byTrigger.keySet());
+        var fresh = byTrigger.values().stream()
+                .filter(t -> !existing.contains(t.triggerEventId()))
+                .toList();
+        if (fresh.isEmpty()) return List.of();
+
+        var asdIds = fresh.stream().map(PaymentTrigger::asdId).collect(Collectors.toSet());
+        var feeRules = feeRuleRepository.findByAsdIdInAndPaymentTypeAndAttivo(asdIds, type, true).stream()
+                .collect(Collectors.toMap(r -> new FeeRuleKey(r.getAsdId(), r.getSeasonId()), r -> r));
+
+        var payments = new ArrayList<PaymentEntity>(fresh.size());
+        for (var t : fresh) {
+            var rule = Optional.ofNullable(feeRules.get(new FeeRuleKey(t.asdId(), t.seasonId())));
+            BigDecimal importo = rule.map(FeeRuleEntity::getImporto).orElse(defaultImporto);
+            int giorniScadenza = rule.map(FeeRuleEntity::getGiorniScadenza).orElse(30);
+
+            payments.add(PaymentEntity.builder()
+                    .id(UUID.randomUUID())
+                    .personId(t.personId())
+                    .asdId(t.asdId())
+                    .seasonId(t.seasonId())
+                    .triggerEventId(t.triggerEventId())
+                    .triggerType(triggerType)
+                    .paymentType(type)
+                    .importo(importo)
+                    .dataScadenza(t.baseDate().plusDays(giorniScadenza))
+                    .stato(PaymentStatus.PENDING)
+                    .build());
+        }
+
+        var inserted = batchRepository.insertAll(payments);
+        for (var saved : inserted) {
+            try (var _ = Correlation.open(byTrigger.get(saved.getTriggerEventId()).correlationId())) {
+                eventPublisher.publish(
+                        KafkaTopics.PAYMENT_CREATED,
+                        new PaymentCreatedEvent(
+                                UUID.randomUUID(), saved.getId(), saved.getPersonId(), saved.getAsdId(),
+                                saved.getSeasonId(), saved.getPaymentType().name(), saved.getImporto(),
+                                saved.getDataScadenza(), Instant.now()),
+                        saved.getAsdId(), saved.getSeasonId());
+            }
+        }
+        return inserted;
+    }
+}
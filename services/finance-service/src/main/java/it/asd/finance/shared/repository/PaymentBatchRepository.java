@@ -0,0 +1,71 @@
+package it.asd.finance.shared.repository;
+
+import it.asd.finance.shared.entity.PaymentEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Set-based payment access for the batch consumers.
+ * <p>
+ * findExistingTriggerEventIds(): the batch idempotency check — one IN query per poll
+ * insertAll(): one JDBC batch; ON CONFLICT covers a concurrent writer that
+ * won the race on trigger_event_id after the check.
+ */
+@Repository
+public class PaymentBatchRepository {
+
+    private static final String EXISTING_SQL =
+            "SELECT trigger_event_id FROM payment WHERE trigger_event_id = ANY(?)";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO payment (id, person_id, asd_id, season_id, trigger_event_id, trigger_type,
+                                 payment_type, importo, data_scadenza, stato)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (trigger_event_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public PaymentBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Set<UUID> findExistingTriggerEventIds(Collection<UUID> triggerEventIds) {
+        if (triggerEventIds.isEmpty()) return Set.of();
+        var ids = triggerEventIds.toArray(UUID[]::new);
+        var existing = new HashSet<UUID>();
+        jdbc.query(EXISTING_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)),
+                rs -> {
+                    existing.add(rs.getObject(1, UUID.class));
+                });
+        return existing;
+    }
+
+    /**
+     * @return the payments actually inserted (conflicting rows are dropped)
+     */
+    public List<PaymentEntity> insertAll(List<PaymentEntity> payments) {
+        if (payments.isEmpty()) return List.of();
+
+        int[][] counts = jdbc.batchUpdate(INSERT_SQL, payments, payments.size(), (ps, p) -> {
+            ps.setObject(1, p.getId());
+            ps.setObject(2, p.getPersonId());
+            ps.setObject(3, p.getAsdId());
+            ps.setObject(4, p.getSeasonId());
+            ps.setObject(5, p.getTriggerEventId());
+            ps.setString(6, p.getTriggerType());
+            ps.setString(7, p.getPaymentType().name());
+            ps.setBigDecimal(8, p.getImporto());
+            ps.setObject(9, p.getDataScadenza());
+            ps.setString(10, p.getStato().name());
+        });
+
+        var inserted = new ArrayList<PaymentEntity>(payments.size());
+        for (int i = 0; i < payments.size(); i++)
+            if (counts[0][i] != 0) inserted.add(payments.get(i));
+        return inserted;
+    }
+}
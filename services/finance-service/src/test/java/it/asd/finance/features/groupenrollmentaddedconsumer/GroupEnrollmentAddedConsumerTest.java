@@ -1,6 +1,7 @@
 package it.asd.finance.features.groupenrollmentaddedconsumer;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.finance.shared.TestFixtures;
@@ -18,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
@@ -41,14 +43,25 @@ class GroupEnrollmentAddedConsumerTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private IdempotencyStore idempotency;
+
+    @Mock
+    private ObjectProvider<IdempotencyStore> idempotencyProvider;
+
     @Mock
     private Acknowledgment ack;
 
     private static final BigDecimal DEFAULT_QUOTA_CORSO = new BigDecimal("30.00");
 
     private GroupEnrollmentAddedConsumer buildConsumer() {
+        return buildConsumer(idempotency);
+    }
+
+    private GroupEnrollmentAddedConsumer buildConsumer(IdempotencyStore store) {
+        when(idempotencyProvider.getIfAvailable()).thenReturn(store);
         return new GroupEnrollmentAddedConsumer(
-                paymentRepository, feeRuleRepository, eventPublisher, DEFAULT_QUOTA_CORSO);
+                paymentRepository, feeRuleRepository, eventPublisher, idempotencyProvider, DEFAULT_QUOTA_CORSO);
     }
 
     @Nested
@@ -66,7 +79,7 @@ class GroupEnrollmentAddedConsumerTest {
 
             var feeRule = TestFixtures.activeFeeRule(PaymentType.QUOTA_CORSO, new BigDecimal("60.00"), 20);
 
-            when(paymentRepository.existsByTriggerEventId(evt.enrollmentId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(
                     evt.asdId(), evt.seasonId(), PaymentType.QUOTA_CORSO, true))
                     .thenReturn(Optional.of(feeRule));
@@ -90,6 +103,7 @@ class GroupEnrollmentAddedConsumerTest {
             assertThat(saved.getStato()).isEqualTo(PaymentStatus.PENDING);
 
             verify(eventPublisher).publish(eq(KafkaTopics.PAYMENT_CREATED), any(), any(), any());
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
             verify(ack).acknowledge();
         }
 
@@ -102,7 +116,7 @@ class GroupEnrollmentAddedConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.GROUP_ENROLLMENT_ADDED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.enrollmentId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(any(), any(), any(), anyBoolean()))
                     .thenReturn(Optional.empty());
             when(paymentRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -123,7 +137,7 @@ class GroupEnrollmentAddedConsumerTest {
     }
 
     @Nested
-    @DisplayName("idempotency — enrollmentId already processed")
+    @DisplayName("idempotency — envelope already processed")
     class WhenAlreadyProcessed {
 
         @Test
@@ -135,7 +149,7 @@ class GroupEnrollmentAddedConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.GROUP_ENROLLMENT_ADDED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.enrollmentId())).thenReturn(true);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(false);
 
             // act
             buildConsumer().consume(record, ack);
@@ -146,6 +160,45 @@ class GroupEnrollmentAddedConsumerTest {
             verifyNoInteractions(eventPublisher);
             verify(ack).acknowledge();
         }
+
+        @Test
+        @DisplayName("skips a trigger that already has a payment, even in a new envelope")
+        void skipsWhenTriggerAlreadyHasPayment() {
+            // arrange
+            var evt = TestFixtures.groupEnrollmentAddedEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.GROUP_ENROLLMENT_ADDED, 0, 0L, null, envelope);
+
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
+            when(paymentRepository.existsByTriggerEventId(evt.enrollmentId())).thenReturn(true);
+
+            // act
+            buildConsumer().consume(record, ack);
+
+            // assert
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher);
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
+            verify(ack).acknowledge();
+        }
+
+        @Test
+        @DisplayName("without an IdempotencyStore the trigger guard still skips a redelivered record")
+        void skipsOnTriggerGuardWhenIdempotencyDisabled() {
+            var evt = TestFixtures.groupEnrollmentAddedEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.GROUP_ENROLLMENT_ADDED, 0, 0L, null, envelope);
+
+            when(paymentRepository.existsByTriggerEventId(evt.enrollmentId())).thenReturn(true);
+
+            buildConsumer(null).consume(record, ack);
+
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher, idempotency);
+            verify(ack).acknowledge();
+        }
     }
 
     @Nested
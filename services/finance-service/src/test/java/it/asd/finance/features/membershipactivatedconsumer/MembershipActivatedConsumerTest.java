@@ -1,6 +1,7 @@
 package it.asd.finance.features.membershipactivatedconsumer;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.finance.shared.TestFixtures;
@@ -18,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
@@ -25,6 +27,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -42,21 +45,26 @@ class MembershipActivatedConsumerTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private IdempotencyStore idempotency;
+
+    @Mock
+    private ObjectProvider<IdempotencyStore> idempotencyProvider;
+
     @Mock
     private Acknowledgment ack;
 
     // Inject @Value field via constructor — the consumer requires the default amount
     private static final BigDecimal DEFAULT_QUOTA = new BigDecimal("50.00");
 
-    // We construct the consumer manually so we can inject the @Value field
-    private final MembershipActivatedConsumer consumer =
-            new MembershipActivatedConsumer(
-                    null, null, null, DEFAULT_QUOTA);  // placeholders — replaced below
-
-    // Re-instantiate with real mocks
     private MembershipActivatedConsumer buildConsumer() {
+        return buildConsumer(idempotency);
+    }
+
+    private MembershipActivatedConsumer buildConsumer(IdempotencyStore store) {
+        when(idempotencyProvider.getIfAvailable()).thenReturn(store);
         return new MembershipActivatedConsumer(
-                paymentRepository, feeRuleRepository, eventPublisher, DEFAULT_QUOTA);
+                paymentRepository, feeRuleRepository, eventPublisher, idempotencyProvider, DEFAULT_QUOTA);
     }
 
     @Nested
@@ -74,7 +82,7 @@ class MembershipActivatedConsumerTest {
 
             var feeRule = TestFixtures.activeFeeRule(PaymentType.QUOTA_ASSOCIATIVA, new BigDecimal("75.00"), 45);
 
-            when(paymentRepository.existsByTriggerEventId(evt.membershipId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(
                     evt.asdId(), evt.seasonId(), PaymentType.QUOTA_ASSOCIATIVA, true))
                     .thenReturn(Optional.of(feeRule));
@@ -98,6 +106,7 @@ class MembershipActivatedConsumerTest {
             assertThat(saved.getStato()).isEqualTo(PaymentStatus.PENDING);
 
             verify(eventPublisher).publish(eq(KafkaTopics.PAYMENT_CREATED), any(), any(), any());
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
             verify(ack).acknowledge();
         }
 
@@ -110,7 +119,7 @@ class MembershipActivatedConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.MEMBERSHIP_ACTIVATED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.membershipId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(any(), any(), any(), anyBoolean()))
                     .thenReturn(Optional.empty());
             when(paymentRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -131,7 +140,7 @@ class MembershipActivatedConsumerTest {
     }
 
     @Nested
-    @DisplayName("idempotency — membershipId already processed")
+    @DisplayName("idempotency — envelope already processed")
     class WhenAlreadyProcessed {
 
         @Test
@@ -143,7 +152,7 @@ class MembershipActivatedConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.MEMBERSHIP_ACTIVATED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.membershipId())).thenReturn(true);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(false);
 
             // act
             buildConsumer().consume(record, ack);
@@ -154,6 +163,45 @@ class MembershipActivatedConsumerTest {
             verifyNoInteractions(eventPublisher);
             verify(ack).acknowledge();
         }
+
+        @Test
+        @DisplayName("skips a trigger that already has a payment, even in a new envelope")
+        void skipsWhenTriggerAlreadyHasPayment() {
+            // arrange
+            var evt = TestFixtures.membershipActivatedEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.MEMBERSHIP_ACTIVATED, 0, 0L, null, envelope);
+
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
+            when(paymentRepository.existsByTriggerEventId(evt.membershipId())).thenReturn(true);
+
+            // act
+            buildConsumer().consume(record, ack);
+
+            // assert
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher);
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
+            verify(ack).acknowledge();
+        }
+
+        @Test
+        @DisplayName("without an IdempotencyStore the trigger guard still skips a redelivered record")
+        void skipsOnTriggerGuardWhenIdempotencyDisabled() {
+            var evt = TestFixtures.membershipActivatedEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.MEMBERSHIP_ACTIVATED, 0, 0L, null, envelope);
+
+            when(paymentRepository.existsByTriggerEventId(evt.membershipId())).thenReturn(true);
+
+            buildConsumer(null).consume(record, ack);
+
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher, idempotency);
+            verify(ack).acknowledge();
+        }
     }
 
     @Nested
@@ -1,6 +1,7 @@
 package it.asd.finance.features.participantregisteredconsumer;
 
 import it.asd.common.kafka.EventPublisher;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.finance.shared.TestFixtures;
@@ -18,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
@@ -41,14 +43,25 @@ class ParticipantRegisteredConsumerTest {
     @Mock
     private EventPublisher eventPublisher;
 
+    @Mock
+    private IdempotencyStore idempotency;
+
+    @Mock
+    private ObjectProvider<IdempotencyStore> idempotencyProvider;
+
     @Mock
     private Acknowledgment ack;
 
     private static final BigDecimal DEFAULT_ISCRIZIONE = new BigDecimal("15.00");
 
     private ParticipantRegisteredConsumer buildConsumer() {
+        return buildConsumer(idempotency);
+    }
+
+    private ParticipantRegisteredConsumer buildConsumer(IdempotencyStore store) {
+        when(idempotencyProvider.getIfAvailable()).thenReturn(store);
         return new ParticipantRegisteredConsumer(
-                paymentRepository, feeRuleRepository, eventPublisher, DEFAULT_ISCRIZIONE);
+                paymentRepository, feeRuleRepository, eventPublisher, idempotencyProvider, DEFAULT_ISCRIZIONE);
     }
 
     @Nested
@@ -65,7 +78,7 @@ class ParticipantRegisteredConsumerTest {
 
             var feeRule = TestFixtures.activeFeeRule(PaymentType.ISCRIZIONE_GARA, new BigDecimal("20.00"), 14);
 
-            when(paymentRepository.existsByTriggerEventId(evt.participationId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(
                     evt.asdId(), evt.seasonId(), PaymentType.ISCRIZIONE_GARA, true))
                     .thenReturn(Optional.of(feeRule));
@@ -86,6 +99,7 @@ class ParticipantRegisteredConsumerTest {
             assertThat(saved.getStato()).isEqualTo(PaymentStatus.PENDING);
 
             verify(eventPublisher).publish(eq(KafkaTopics.PAYMENT_CREATED), any(), any(), any());
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
             verify(ack).acknowledge();
         }
 
@@ -97,7 +111,7 @@ class ParticipantRegisteredConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.PARTICIPANT_REGISTERED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.participationId())).thenReturn(false);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
             when(feeRuleRepository.findByAsdIdAndSeasonIdAndPaymentTypeAndAttivo(any(), any(), any(), anyBoolean()))
                     .thenReturn(Optional.empty());
             when(paymentRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
@@ -114,7 +128,7 @@ class ParticipantRegisteredConsumerTest {
     }
 
     @Nested
-    @DisplayName("idempotency — participationId already processed")
+    @DisplayName("idempotency — envelope already processed")
     class WhenAlreadyProcessed {
 
         @Test
@@ -125,7 +139,7 @@ class ParticipantRegisteredConsumerTest {
             var record = new ConsumerRecord<String, EventEnvelope>(
                     KafkaTopics.PARTICIPANT_REGISTERED, 0, 0L, null, envelope);
 
-            when(paymentRepository.existsByTriggerEventId(evt.participationId())).thenReturn(true);
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(false);
 
             buildConsumer().consume(record, ack);
 
@@ -134,6 +148,42 @@ class ParticipantRegisteredConsumerTest {
             verifyNoInteractions(eventPublisher);
             verify(ack).acknowledge();
         }
+
+        @Test
+        @DisplayName("skips a trigger that already has a payment, even in a new envelope")
+        void skipsWhenTriggerAlreadyHasPayment() {
+            var evt = TestFixtures.participantRegisteredEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.PARTICIPANT_REGISTERED, 0, 0L, null, envelope);
+
+            when(idempotency.isNew(anyString(), eq(envelope.envelopeId()))).thenReturn(true);
+            when(paymentRepository.existsByTriggerEventId(evt.participationId())).thenReturn(true);
+
+            buildConsumer().consume(record, ack);
+
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher);
+            verify(idempotency).markProcessed(anyString(), eq(envelope.envelopeId()));
+            verify(ack).acknowledge();
+        }
+
+        @Test
+        @DisplayName("without an IdempotencyStore the trigger guard still skips a redelivered record")
+        void skipsOnTriggerGuardWhenIdempotencyDisabled() {
+            var evt = TestFixtures.participantRegisteredEvent();
+            var envelope = TestFixtures.envelopeOf(evt);
+            var record = new ConsumerRecord<String, EventEnvelope>(
+                    KafkaTopics.PARTICIPANT_REGISTERED, 0, 0L, null, envelope);
+
+            when(paymentRepository.existsByTriggerEventId(evt.participationId())).thenReturn(true);
+
+            buildConsumer(null).consume(record, ack);
+
+            verify(paymentRepository, never()).save(any());
+            verifyNoInteractions(eventPublisher, idempotency);
+            verify(ack).acknowledge();
+        }
     }
 
     @Nested
@@ -0,0 +1,142 @@
+package it.asd.finance.features.pendingpayments;
+
+import it.asd.common.kafka.EventPublisher;
+import it.asd.common.tracing.Correlation;
+import it.asd.events.KafkaTopics;
+import it.asd.finance.features.pendingpayments.PendingPaymentBatchService.PaymentTrigger;
+import it.asd.finance.shared.TestFixtures;
+import it.asd.finance.shared.entity.PaymentEntity;
+import it.asd.finance.shared.entity.PaymentStatus;
+import it.asd.finance.shared.entity.PaymentType;
+import it.asd.finance.shared.repository.FeeRuleRepository;
+import it.asd.finance.shared.repository.PaymentBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static it.asd.finance.shared.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PendingPaymentBatchService")
+@Tag("unit")
+class PendingPaymentBatchServiceTest {
+
+    private static final BigDecimal DEFAULT_QUOTA = new BigDecimal("50.00");
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 9, 1);
+
+    @Mock
+    PaymentBatchRepository batchRepository;
+    @Mock
+    FeeRuleRepository feeRuleRepository;
+    @Mock
+    EventPublisher eventPublisher;
+
+    private PendingPaymentBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PendingPaymentBatchService(batchRepository, feeRuleRepository, eventPublisher);
+    }
+
+    private static PaymentTrigger trigger(UUID triggerId) {
+        return trigger(triggerId, null);
+    }
+
+    private static PaymentTrigger trigger(UUID triggerId, String correlationId) {
+        return new PaymentTrigger(triggerId, PERSON_ID, ASD_ID, SEASON_ID, BASE_DATE, correlationId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PaymentEntity> insertedBatch() {
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository).insertAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    @DisplayName("dedupes triggers, skips processed ones, applies fee rule, publishes per insert")
+    void createsPendingPayments() {
+        var fresh = UUID.randomUUID();
+        var processed = UUID.randomUUID();
+        when(batchRepository.findExistingTriggerEventIds(any())).thenReturn(Set.of(processed));
+        when(feeRuleRepository.findByAsdIdInAndPaymentTypeAndAttivo(any(), eq(PaymentType.QUOTA_ASSOCIATIVA), eq(true)))
+                .thenReturn(List.of(TestFixtures.activeFeeRule(PaymentType.QUOTA_ASSOCIATIVA, new BigDecimal("75.00"), 45)));
+        when(batchRepository.insertAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        var created = service.createPending(
+                List.of(trigger(fresh), trigger(fresh), trigger(processed)),
+                PaymentType.QUOTA_ASSOCIATIVA, "membership.activated", DEFAULT_QUOTA);
+
+        assertThat(created).hasSize(1);
+        var payment = insertedBatch().getFirst();
+        assertThat(payment.getId()).isNotNull();
+        assertThat(payment.getTriggerEventId()).isEqualTo(fresh);
+        assertThat(payment.getImporto()).isEqualByComparingTo("75.00");
+        assertThat(payment.getDataScadenza()).isEqualTo(BASE_DATE.plusDays(45));
+        assertThat(payment.getStato()).isEqualTo(PaymentStatus.PENDING);
+        verify(eventPublisher, times(1)).publish(eq(KafkaTopics.PAYMENT_CREATED), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("falls back to the default amount and 30 days without a fee rule")
+    void usesDefaults() {
+        when(batchRepository.findExistingTriggerEventIds(any())).thenReturn(Set.of());
+        when(feeRuleRepository.findByAsdIdInAndPaymentTypeAndAttivo(any(), any(), anyBoolean())).thenReturn(List.of());
+        when(batchRepository.insertAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.createPending(List.of(trigger(UUID.randomUUID())),
+                PaymentType.QUOTA_ASSOCIATIVA, "membership.activated", DEFAULT_QUOTA);
+
+        var payment = insertedBatch().getFirst();
+        assertThat(payment.getImporto()).isEqualByComparingTo("50.00");
+        assertThat(payment.getDataScadenza()).isEqualTo(BASE_DATE.plusDays(30));
+    }
+
+    @Test
+    @DisplayName("publishes each PaymentCreatedEvent under its trigger's correlation id")
+    void publishesUnderTriggerCorrelation() {
+        when(batchRepository.findExistingTriggerEventIds(any())).thenReturn(Set.of());
+        when(feeRuleRepository.findByAsdIdInAndPaymentTypeAndAttivo(any(), any(), anyBoolean())).thenReturn(List.of());
+        when(batchRepository.insertAll(any())).thenAnswer(inv -> inv.getArgument(0));
+        var seen = new ArrayList<String>();
+        when(eventPublisher.publish(any(), any(), any(), any())).thenAnswer(_ -> {
+            seen.add(Correlation.current());
+            return null;
+        });
+
+        service.createPending(List.of(trigger(UUID.randomUUID(), "req-1"), trigger(UUID.randomUUID(), "req-2")),
+                PaymentType.QUOTA_ASSOCIATIVA, "membership.activated", DEFAULT_QUOTA);
+
+        assertThat(seen).containsExactly("req-1", "req-2");
+        assertThat(Correlation.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("all triggers already processed → no insert, no publish")
+    void allProcessed() {
+        var processed = UUID.randomUUID();
+        when(batchRepository.findExistingTriggerEventIds(any())).thenReturn(Set.of(processed));
+
+        var created = service.createPending(List.of(trigger(processed)),
+                PaymentType.QUOTA_ASSOCIATIVA, "membership.activated", DEFAULT_QUOTA);
+
+        assertThat(created).isEmpty();
+        verify(batchRepository, never()).insertAll(any());
+        verifyNoInteractions(feeRuleRepository, eventPublisher);
+    }
+}
@@ -0,0 +1,52 @@
+package it.asd.membership.features.personupdatedconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.replay.ReadModelProjection;
+import it.asd.common.kafka.replay.ShadowTables;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.identity.PersonUpdatedEvent;
+import it.asd.membership.shared.repository.PersonCacheBatchRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * person_cache as a replayable read model: same fold and same upsert as
+ * {@link PersonUpdatedBatchConsumer}, aimed at the rebuild shadow table.
+ */
+@Component
+public class PersonCacheProjection implements ReadModelProjection {
+
+    private final PersonCacheBatchRepository batchRepository;
+
+    public PersonCacheProjection(PersonCacheBatchRepository batchRepository) {
+        this.batchRepository = batchRepository;
+    }
+
+    @Override
+    public String name() {
+        return PersonCacheBatchRepository.TABLE;
+    }
+
+    @Override
+    public List<String> topics() {
+        return List.of(KafkaTopics.PERSON_UPDATED);
+    }
+
+    @Override
+    public List<String> tables() {
+        return List.of(PersonCacheBatchRepository.TABLE);
+    }
+
+    @Override
+    public void apply(List<ConsumerRecord<String, EventEnvelope>> records, ShadowTables shadow) {
+        var events = EventBatches.mergeByKey(
+                EventBatches.payloads(records, PersonUpdatedEvent.class),
+                PersonUpdatedEvent::personId,
+                PersonUpdatedBatchConsumer::merge);
+        if (!events.isEmpty())
+            batchRepository.upsertAll(shadow.of(PersonCacheBatchRepository.TABLE), events);
+    }
+}
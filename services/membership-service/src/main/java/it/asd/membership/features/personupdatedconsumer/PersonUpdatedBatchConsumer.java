@@ -0,0 +1,87 @@
+package it.asd.membership.features.personupdatedconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.identity.PersonUpdatedEvent;
+import it.asd.membership.shared.repository.PersonCacheBatchRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Batch variant of {@link PersonUpdatedEventConsumer} — active when asd.kafka.batch.enabled=true.
+ * <p>
+ * One poll = one transaction = one ack:
+ * 1. drop envelopes already processed (one IdempotencyStore check per poll)
+ * 2. keep PersonUpdatedEvent payloads
+ * 3. fold events per personId (oldest first, non-null fields win)
+ * 4. one JDBC batch upsert into person_cache, envelopes marked processed
+ * On failure the poll is rolled back and the exception goes to the batch error
+ * handler: the poll is retried with backoff, then dead-lettered (asd.kafka.errors).
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "true")
+public class PersonUpdatedBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonUpdatedBatchConsumer.class);
+
+    private static final String CONSUMER = "membership.person-updated";
+
+    private final PersonCacheBatchRepository batchRepository;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
+    private final TransactionTemplate tx;
+
+    public PersonUpdatedBatchConsumer(PersonCacheBatchRepository batchRepository,
+                                      ObjectProvider<IdempotencyStore> idempotency,
+                                      PlatformTransactionManager transactionManager) {
+        this.batchRepository = batchRepository;
+        this.idempotency = idempotency.getIfAvailable();
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @KafkaListener(topics = KafkaTopics.PERSON_UPDATED,
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        try {
+            var fresh = EventBatches.unprocessed(records, idempotency, CONSUMER);
+            var events = EventBatches.mergeByKey(
+                    EventBatches.payloads(fresh, PersonUpdatedEvent.class),
+                    PersonUpdatedEvent::personId,
+                    PersonUpdatedBatchConsumer::merge);
+
+            tx.executeWithoutResult(_ -> {
+                if (!events.isEmpty()) batchRepository.upsertAll(events);
+                if (idempotency != null) idempotency.markProcessed(CONSUMER, EventBatches.envelopeIds(fresh));
+            });
+
+            log.info("[PERSON_UPDATED_CONSUMER] Upserted {} persons from {} records ({} already processed)",
+                    events.size(), records.size(), records.size() - fresh.size());
+            ack.acknowledge();
+        } catch (Exception ex) {
+            log.error("[PERSON_UPDATED_CONSUMER] Batch of {} failed, handing off to the error handler: {}",
+                    records.size(), ex.getMessage());
+            throw ex;   // rolls back; retried, then dead-lettered (asd.kafka.errors)
+        }
+    }
+
+    static PersonUpdatedEvent merge(PersonUpdatedEvent older, PersonUpdatedEvent newer) {
+        return new PersonUpdatedEvent(
+                newer.eventId(),
+                newer.personId(),
+                newer.nome() != null ? newer.nome() : older.nome(),
+                newer.cognome() != null ? newer.cognome() : older.cognome(),
+                newer.email() != null ? newer.email() : older.email(),
+                newer.occurredAt());
+    }
+}
@@ -1,5 +1,6 @@
 package it.asd.membership.features.personupdatedconsumer;
 
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.events.identity.PersonUpdatedEvent;
@@ -8,6 +9,8 @@ import it.asd.membership.shared.repository.PersonCacheRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
@@ -15,15 +18,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
+/**
+ * Record-at-a-time mode; see PersonUpdatedBatchConsumer for asd.kafka.batch.enabled=true.
+ */
 @Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class PersonUpdatedEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(PersonUpdatedEventConsumer.class);
 
+    private static final String CONSUMER = "membership.person-updated";
+
     private final PersonCacheRepository personCacheRepository;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
 
-    public PersonUpdatedEventConsumer(PersonCacheRepository personCacheRepository) {
+    public PersonUpdatedEventConsumer(PersonCacheRepository personCacheRepository, ObjectProvider<IdempotencyStore> idempotency) {
         this.personCacheRepository = personCacheRepository;
+        this.idempotency = idempotency.getIfAvailable();
     }
 
     @KafkaListener(topics = KafkaTopics.PERSON_UPDATED)
@@ -36,6 +47,14 @@ public class PersonUpdatedEventConsumer {
                 return;
             }
 
+            // Redelivery after a rebalance: answered from the Bloom filter for new records
+            var envelopeId = record.value().envelopeId();
+            if (idempotency != null && !idempotency.isNew(CONSUMER, envelopeId)) {
+                log.info("[PERSON_UPDATED_CONSUMER] Already processed envelopeId={}, skipping", envelopeId);
+                ack.acknowledge();
+                return;
+            }
+
             var cacheOpt = personCacheRepository.findByPersonId(evt.personId());
             if (cacheOpt.isPresent()) {
                 var cache = cacheOpt.get();
@@ -57,9 +76,11 @@ public class PersonUpdatedEventConsumer {
             }
 
             log.info("[PERSON_UPDATED_CONSUMER] Upserted cache for personId={}", evt.personId());
+            if (idempotency != null) idempotency.markProcessed(CONSUMER, envelopeId);
             ack.acknowledge();
         } catch (Exception ex) {
-            log.error("[PERSON_UPDATED_CONSUMER] Error processing event, not acking: {}", ex.getMessage());
+            log.error("[PERSON_UPDATED_CONSUMER] Error processing event, handing off to the error handler: {}", ex.getMessage());
+            throw ex;   // rolls back; retried via the retry tiers / DLT (asd.kafka.errors)
         }
     }
 }
@@ -27,7 +27,8 @@ public class SeasonActivatedEventConsumer {
                     evt.asdId(), evt.seasonId(), evt.codice());
             ack.acknowledge();
         } catch (Exception ex) {
-            log.error("[SEASON_ACTIVATED_CONSUMER] Error processing event, not acking: {}", ex.getMessage());
+            log.error("[SEASON_ACTIVATED_CONSUMER] Error processing event, handing off to the error handler: {}", ex.getMessage());
+            throw ex;   // rolls back; retried via the retry tiers / DLT (asd.kafka.errors)
         }
     }
 }
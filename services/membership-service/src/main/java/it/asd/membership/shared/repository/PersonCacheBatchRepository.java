@@ -0,0 +1,60 @@
+package it.asd.membership.shared.repository;
+
+import it.asd.events.identity.PersonUpdatedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Set-based writes to person_cache for the batch consumer.
+ * <p>
+ * One JDBC batch of INSERT … ON CONFLICT per poll: the database resolves
+ * insert-vs-update, so there is no read-before-write and no race with a
+ * concurrent writer. COALESCE keeps the single-record semantics of
+ * PersonUpdatedEventConsumer (null = "field not changed").
+ * <p>
+ * The table name is a parameter so PersonCacheProjection can fill the
+ * rebuild shadow table with the very same statement.
+ */
+@Repository
+public class PersonCacheBatchRepository {
+
+    public static final String TABLE = "person_cache";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO %1$s AS t (person_id, nome, cognome, email, last_synced_at, source)
+            VALUES (?, ?, ?, ?, NOW(), 'person.updated')
+            ON CONFLICT (person_id) DO UPDATE SET
+                nome           = COALESCE(EXCLUDED.nome, t.nome),
+                cognome        = COALESCE(EXCLUDED.cognome, t.cognome),
+                email          = COALESCE(EXCLUDED.email, t.email),
+                last_synced_at = NOW(),
+                source         = 'person.updated'
+            """;
+
+    private static final String UPSERT_LIVE_SQL = UPSERT_SQL.formatted(TABLE);
+
+    private final JdbcTemplate jdbc;
+
+    public PersonCacheBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void upsertAll(List<PersonUpdatedEvent> events) {
+        upsert(UPSERT_LIVE_SQL, events);
+    }
+
+    public void upsertAll(String table, List<PersonUpdatedEvent> events) {
+        upsert(UPSERT_SQL.formatted(table), events);
+    }
+
+    private void upsert(String sql, List<PersonUpdatedEvent> events) {
+        jdbc.batchUpdate(sql, events, events.size(), (ps, evt) -> {
+            ps.setObject(1, evt.personId());
+            ps.setString(2, evt.nome());
+            ps.setString(3, evt.cognome());
+            ps.setString(4, evt.email());
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package it.asd.scheduling.features.groupcreatedconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.replay.ReadModelProjection;
+import it.asd.common.kafka.replay.ShadowTables;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.membership.GroupCreatedEvent;
+import it.asd.scheduling.shared.repository.GroupCacheBatchRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * group_cache as a replayable read model: same latest-per-group fold and
+ * upsert as {@link GroupCreatedBatchConsumer}, aimed at the rebuild shadow table.
+ */
+@Component
+public class GroupCacheProjection implements ReadModelProjection {
+
+    private final GroupCacheBatchRepository batchRepository;
+
+    public GroupCacheProjection(GroupCacheBatchRepository batchRepository) {
+        this.batchRepository = batchRepository;
+    }
+
+    @Override
+    public String name() {
+        return GroupCacheBatchRepository.TABLE;
+    }
+
+    @Override
+    public List<String> topics() {
+        return List.of(KafkaTopics.GROUP_CREATED);
+    }
+
+    @Override
+    public List<String> tables() {
+        return List.of(GroupCacheBatchRepository.TABLE);
+    }
+
+    @Override
+    public void apply(List<ConsumerRecord<String, EventEnvelope>> records, ShadowTables shadow) {
+        var events = EventBatches.latestByKey(
+                EventBatches.payloads(records, GroupCreatedEvent.class),
+                GroupCreatedEvent::groupId);
+        if (!events.isEmpty())
+            batchRepository.upsertAll(shadow.of(GroupCacheBatchRepository.TABLE), events);
+    }
+}
@@ -0,0 +1,75 @@
+package it.asd.scheduling.features.groupcreatedconsumer;
+
+import it.asd.common.kafka.batch.EventBatches;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.membership.GroupCreatedEvent;
+import it.asd.scheduling.shared.repository.GroupCacheBatchRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Batch variant of {@link GroupCreatedEventConsumer} — active when asd.kafka.batch.enabled=true.
+ * <p>
+ * One poll = one transaction = one ack: envelopes already processed are
+ * dropped (one IdempotencyStore check per poll), newest event per groupId
+ * wins, then one JDBC batch upsert into group_cache and the envelopes are
+ * marked processed.
+ * On failure the poll is rolled back and the exception goes to the batch error
+ * handler: the poll is retried with backoff, then dead-lettered (asd.kafka.errors).
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "true")
+public class GroupCreatedBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCreatedBatchConsumer.class);
+
+    private static final String CONSUMER = "scheduling.group-created";
+
+    private final GroupCacheBatchRepository batchRepository;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
+    private final TransactionTemplate tx;
+
+    public GroupCreatedBatchConsumer(GroupCacheBatchRepository batchRepository,
+                                     ObjectProvider<IdempotencyStore> idempotency,
+                                     PlatformTransactionManager transactionManager) {
+        this.batchRepository = batchRepository;
+        this.idempotency = idempotency.getIfAvailable();
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @KafkaListener(topics = KafkaTopics.GROUP_CREATED,
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, EventEnvelope>> records, Acknowledgment ack) {
+        try {
+            var fresh = EventBatches.unprocessed(records, idempotency, CONSUMER);
+            var events = EventBatches.latestByKey(
+                    EventBatches.payloads(fresh, GroupCreatedEvent.class),
+                    GroupCreatedEvent::groupId);
+
+            tx.executeWithoutResult(_ -> {
+                if (!events.isEmpty()) batchRepository.upsertAll(events);
+                if (idempotency != null) idempotency.markProcessed(CONSUMER, EventBatches.envelopeIds(fresh));
+            });
+
+            log.info("[GROUP_CREATED_CONSUMER] Upserted {} groups from {} records ({} already processed)",
+                    events.size(), records.size(), records.size() - fresh.size());
+            ack.acknowledge();
+        } catch (Exception ex) {
+            log.error("[GROUP_CREATED_CONSUMER] Batch of {} failed, handing off to the error handler: {}",
+                    records.size(), ex.getMessage());
+            throw ex;   // rolls back; retried, then dead-lettered (asd.kafka.errors)
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package it.asd.scheduling.features.groupcreatedconsumer;
 
+import it.asd.common.kafka.idempotency.IdempotencyStore;
 import it.asd.events.EventEnvelope;
 import it.asd.events.KafkaTopics;
 import it.asd.events.membership.GroupCreatedEvent;
@@ -8,6 +9,8 @@ import it.asd.scheduling.shared.repository.GroupCacheRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
@@ -15,15 +18,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
+/**
+ * Record-at-a-time mode; see GroupCreatedBatchConsumer for asd.kafka.batch.enabled=true.
+ */
 @Component
+@ConditionalOnProperty(prefix = "asd.kafka.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class GroupCreatedEventConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(GroupCreatedEventConsumer.class);
 
+    private static final String CONSUMER = "scheduling.group-created";
+
     private final GroupCacheRepository groupCacheRepository;
+    private final IdempotencyStore idempotency;   // null when asd.kafka.idempotency.enabled=false
 
-    public GroupCreatedEventConsumer(GroupCacheRepository groupCacheRepository) {
+    public GroupCreatedEventConsumer(GroupCacheRepository groupCacheRepository, ObjectProvider<IdempotencyStore> idempotency) {
         this.groupCacheRepository = groupCacheRepository;
+        this.idempotency = idempotency.getIfAvailable();
     }
 
     @KafkaListener(topics = KafkaTopics.GROUP_CREATED)
@@ -36,6 +47,14 @@ public class GroupCreatedEventConsumer {
                 return;
             }
 
+            // Redelivery after a rebalance: answered from the Bloom filter for new records
+            var envelopeId = record.value().envelopeId();
+            if (idempotency != null && !idempotency.isNew(CONSUMER, envelopeId)) {
+                log.info("[GROUP_CREATED_CONSUMER] Already processed envelopeId={}, skipping", envelopeId);
+                ack.acknowledge();
+                return;
+            }
+
             var cacheOpt = groupCacheRepository.findByGroupId(evt.groupId());
             if (cacheOpt.isPresent()) {
                 var cache = cacheOpt.get();
@@ -57,9 +76,11 @@ public class GroupCreatedEventConsumer {
             }
 
             log.info("[GROUP_CREATED_CONSUMER] Upserted cache for groupId={}", evt.groupId());
+            if (idempotency != null) idempotency.markProcessed(CONSUMER, envelopeId);
             ack.acknowledge();
         } catch (Exception ex) {
-            log.error("[GROUP_CREATED_CONSUMER] Error processing event, not acking: {}", ex.getMessage());
+            log.error("[GROUP_CREATED_CONSUMER] Error processing event, handing off to the error handler: {}", ex.getMessage());
+            throw ex;   // rolls back; retried via the retry tiers / DLT (asd.kafka.errors)
         }
     }
 }
@@ -0,0 +1,57 @@
+package it.asd.scheduling.shared.repository;
+
+import it.asd.events.membership.GroupCreatedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Set-based writes to group_cache for the batch consumer.
+ * One JDBC batch of INSERT … ON CONFLICT per poll — same column semantics
+ * as GroupCreatedEventConsumer (asd/season are fixed at creation).
+ * The table name is a parameter so GroupCacheProjection can fill the
+ * rebuild shadow table with the same statement.
+ */
+@Repository
+public class GroupCacheBatchRepository {
+
+    public static final String TABLE = "group_cache";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO %s (group_id, asd_id, season_id, nome, disciplina, tipo, last_synced_at)
+            VALUES (?, ?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (group_id) DO UPDATE SET
+                nome           = EXCLUDED.nome,
+                disciplina     = EXCLUDED.disciplina,
+                tipo           = EXCLUDED.tipo,
+                last_synced_at = NOW()
+            """;
+
+    private static final String UPSERT_LIVE_SQL = UPSERT_SQL.formatted(TABLE);
+
+    private final JdbcTemplate jdbc;
+
+    public GroupCacheBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void upsertAll(List<GroupCreatedEvent> events) {
+        upsert(UPSERT_LIVE_SQL, events);
+    }
+
+    public void upsertAll(String table, List<GroupCreatedEvent> events) {
+        upsert(UPSERT_SQL.formatted(table), events);
+    }
+
+    private void upsert(String sql, List<GroupCreatedEvent> events) {
+        jdbc.batchUpdate(sql, events, events.size(), (ps, evt) -> {
+            ps.setObject(1, evt.groupId());
+            ps.setObject(2, evt.asdId());
+            ps.setObject(3, evt.seasonId());
+            ps.setString(4, evt.nome());
+            ps.setString(5, evt.disciplina());
+            ps.setString(6, evt.tipo());
+        });
+    }
+}
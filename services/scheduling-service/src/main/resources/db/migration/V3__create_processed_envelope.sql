@@ -0,0 +1,14 @@
+-- Idempotent consumers (asd-common IdempotencyStore)
+-- Flyway migration V3
+-- One row per (consumer, envelope) processed; pruned after asd.kafka.idempotency.ttl.
+
+CREATE TABLE processed_envelope
+(
+    consumer     VARCHAR(100) NOT NULL,
+    envelope_id  UUID         NOT NULL,
+    processed_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (consumer, envelope_id)
+);
+
+-- TTL prune and the incremental Bloom filter refresh both scan by time
+CREATE INDEX idx_processed_envelope_time ON processed_envelope (processed_at);
@@ -107,6 +107,11 @@ public final class ApiErrors {
     public static final String PAYMENT_ALREADY_CONFIRMED = "PAYMENT_ALREADY_CONFIRMED";
     public static final String PAYMENT_ALREADY_CANCELLED = "PAYMENT_ALREADY_CANCELLED";
 
+    // Kafka
+    public static final String DLT_NOT_FOUND = "DLT_NOT_FOUND";
+    public static final String READ_MODEL_NOT_FOUND = "READ_MODEL_NOT_FOUND";
+    public static final String REBUILD_IN_PROGRESS = "REBUILD_IN_PROGRESS";
+
     // ── Internal helpers ──────────────────────────────────────────────────────
 
     private static String toKebabCase(String screamingSnakeCase) {
@@ -1,14 +1,19 @@
 package it.asd.common.kafka;
 
+import it.asd.common.kafka.outbox.OutboxWriter;
+import it.asd.common.kafka.producer.ProducerProfiles;
+import it.asd.common.kafka.tracing.EventMetrics;
+import it.asd.common.tracing.Correlation;
 import it.asd.events.DomainEvent;
 import it.asd.events.EventEnvelope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -16,6 +21,18 @@ import java.util.concurrent.CompletableFuture;
  * Single publishing entry point. Partition key = aggregateId
  * to preserve ordering per aggregate across topic partitions.
  * <p>
+ * Two modes, chosen by asd.kafka.outbox.enabled:
+ * - direct (default): send to Kafka immediately
+ * - outbox: stage the envelope in event_outbox inside the caller's transaction;
+ * OutboxRelay delivers it after commit. The returned future then completes
+ * immediately with a null SendResult — delivery is confirmed by the relay.
+ * <p>
+ * Direct sends go through the producer profile configured for the topic
+ * (see ProducerProfileProperties).
+ * <p>
+ * The envelope inherits the correlation id of the current HTTP request or
+ * consumed record (see Correlation); outside either, the event starts a new chain.
+ * <p>
  * No Lombok — Logger via LoggerFactory, fields via constructor injection.
  */
 @Component
@@ -23,13 +40,19 @@ public final class EventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(EventPublisher.class);
 
-    private final KafkaTemplate<String, EventEnvelope> kafkaTemplate;
+    private final ProducerProfiles producers;
+    private final OutboxWriter outbox;   // null in direct mode
+    private final EventMetrics metrics;
     private final String serviceName;
 
     public EventPublisher(
-            KafkaTemplate<String, EventEnvelope> kafkaTemplate,
+            ProducerProfiles producers,
+            ObjectProvider<OutboxWriter> outboxWriter,
+            EventMetrics metrics,
             @Value("${spring.application.name}") String serviceName) {
-        this.kafkaTemplate = kafkaTemplate;
+        this.producers = producers;
+        this.outbox = outboxWriter.getIfAvailable();
+        this.metrics = metrics;
         this.serviceName = serviceName;
     }
 
@@ -40,14 +63,24 @@ public final class EventPublisher {
 
     public CompletableFuture<SendResult<String, EventEnvelope>> publish(
             String topic, DomainEvent event, UUID asdId, UUID seasonId) {
-        var envelope = EventEnvelope.of(event, serviceName)
-                .withAsdContext(asdId, seasonId);
+        var envelope = envelope(event, asdId, seasonId);
 
-        log.info("[EVENT] {} → {} (key={})",
-                event.getClass().getSimpleName(), topic, event.aggregateId());
+        if (outbox != null) {
+            outbox.append(topic, event.aggregateId(), envelope);
+            metrics.published(topic, true);
+            log.info("[EVENT] {} → {} (key={}, outbox)",
+                    event.getClass().getSimpleName(), topic, event.aggregateId());
+            return CompletableFuture.completedFuture(null);
+        }
 
-        return kafkaTemplate.send(topic, event.aggregateId(), envelope)
+        log.info("[EVENT] {} → {} (key={}, correlationId={})",
+                event.getClass().getSimpleName(), topic, event.aggregateId(), envelope.correlationId());
+
+        metrics.published(topic, false);
+        long start = System.nanoTime();
+        return producers.templateFor(topic).send(topic, event.aggregateId(), envelope)
                 .whenComplete((r, ex) -> {
+                    metrics.publishLatency(topic, start, ex == null);
                     if (ex != null)
                         log.error("[EVENT] Publish failed topic={} error={}", topic, ex.getMessage());
                     else
@@ -55,4 +88,52 @@ public final class EventPublisher {
                                 r.getRecordMetadata().offset());
                 });
     }
+
+    /**
+     * Pipelined burst of events on one topic, all in the same asd/season context.
+     * <p>
+     * Outbox mode: one JDBC batch into event_outbox.
+     * Direct mode: every send is issued before any ack is awaited, so the
+     * producer packs them into as few requests as linger/batch.size allow.
+     * The returned future completes once all are acknowledged, and fails if any send does.
+     */
+    public CompletableFuture<Void> publishAll(
+            String topic, List<? extends DomainEvent> events, UUID asdId, UUID seasonId) {
+        if (events.isEmpty()) return CompletableFuture.completedFuture(null);
+        var envelopes = events.stream().map(e -> envelope(e, asdId, seasonId)).toList();
+
+        if (outbox != null) {
+            outbox.appendAll(topic, envelopes);
+            envelopes.forEach(_ -> metrics.published(topic, true));
+            log.info("[EVENT] {} x {} → {} (outbox)",
+                    events.getFirst().getClass().getSimpleName(), events.size(), topic);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.info("[EVENT] {} x {} → {} (correlationId={})",
+                events.getFirst().getClass().getSimpleName(), events.size(), topic,
+                envelopes.getFirst().correlationId());
+
+        var template = producers.templateFor(topic);
+        var sends = new CompletableFuture<?>[envelopes.size()];
+        for (int i = 0; i < sends.length; i++) {
+            var envelope = envelopes.get(i);
+            metrics.published(topic, false);
+            long start = System.nanoTime();
+            sends[i] = template.send(topic, envelope.payload().aggregateId(), envelope)
+                    .whenComplete((_, ex) -> {
+                        metrics.publishLatency(topic, start, ex == null);
+                        if (ex != null)
+                            log.error("[EVENT] Publish failed topic={} key={} error={}",
+                                    topic, envelope.payload().aggregateId(), ex.getMessage());
+                    });
+        }
+        return CompletableFuture.allOf(sends);
+    }
+
+    private EventEnvelope envelope(DomainEvent event, UUID asdId, UUID seasonId) {
+        return EventEnvelope.of(event, serviceName)
+                .withAsdContext(asdId, seasonId)
+                .withCorrelationId(Correlation.currentOrNew());
+    }
 }
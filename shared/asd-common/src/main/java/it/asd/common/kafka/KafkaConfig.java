@@ -3,25 +3,59 @@ package it.asd.common.kafka;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.asd.common.kafka.codec.*;
+import it.asd.common.kafka.error.DeadLetterTopics;
+import it.asd.common.kafka.error.ErrorHandlingProperties;
+import it.asd.common.kafka.error.UndecodableRecords;
+import it.asd.common.kafka.idempotency.IdempotencyProperties;
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.common.kafka.listener.KeyOrderedDispatcher;
+import it.asd.common.kafka.listener.ListenerProperties;
+import it.asd.common.kafka.outbox.OutboxProperties;
+import it.asd.common.kafka.producer.ProducerProfileProperties;
+import it.asd.common.kafka.producer.ProducerProfiles;
+import it.asd.common.kafka.replay.ReplayProperties;
+import it.asd.common.kafka.tracing.EnvelopeTracingInterceptor;
+import it.asd.common.kafka.tracing.EventMetrics;
 import it.asd.events.EventEnvelope;
+import it.asd.events.schema.EventSchemaRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 @Configuration
+@EnableConfigurationProperties({OutboxProperties.class, CodecProperties.class, ProducerProfileProperties.class,
+        ListenerProperties.class, ErrorHandlingProperties.class, IdempotencyProperties.class,
+        ReplayProperties.class})
 public class KafkaConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(KafkaConfig.class);
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -36,16 +70,26 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ProducerFactory<String, EventEnvelope> producerFactory(ObjectMapper kafkaObjectMapper) {
-        var props = Map.<String, Object>of(
-                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
-                ProducerConfig.ACKS_CONFIG, "all",
-                ProducerConfig.RETRIES_CONFIG, 3
-        );
-        return new DefaultKafkaProducerFactory<>(props,
-                new StringSerializer(),
-                new JsonSerializer<>(kafkaObjectMapper));
+    public BinaryEnvelopeCodec binaryEnvelopeCodec(ObjectMapper kafkaObjectMapper) {
+        return new BinaryEnvelopeCodec(new EventTypeRegistry(), kafkaObjectMapper);
+    }
+
+    /**
+     * Schema histories of every tagged event, loaded once from asd-events.
+     */
+    @Bean
+    public EventSchemaRegistry eventSchemaRegistry() {
+        return EventSchemaRegistry.load(EventTypeRegistry.types());
+    }
+
+    @Bean
+    public ProducerFactory<String, EventEnvelope> producerFactory(ObjectMapper kafkaObjectMapper,
+                                                                  BinaryEnvelopeCodec codec,
+                                                                  CodecProperties codecProperties,
+                                                                  ProducerProfileProperties profileProperties,
+                                                                  EventSchemaRegistry schemas) {
+        var defaultProfile = profileProperties.profiles().get(profileProperties.defaultProfile());
+        return newProducerFactory(defaultProfile, kafkaObjectMapper, codec, codecProperties, schemas);
     }
 
     @Bean
@@ -54,8 +98,42 @@ public class KafkaConfig {
         return new KafkaTemplate<>(pf);
     }
 
+    /**
+     * Template per producer profile — EventPublisher and OutboxRelay route through this.
+     */
+    @Bean
+    public ProducerProfiles producerProfiles(ProducerProfileProperties profileProperties,
+                                             KafkaTemplate<String, EventEnvelope> kafkaTemplate,
+                                             ObjectMapper kafkaObjectMapper,
+                                             BinaryEnvelopeCodec codec,
+                                             CodecProperties codecProperties,
+                                             EventSchemaRegistry schemas) {
+        return new ProducerProfiles(profileProperties, kafkaTemplate,
+                profile -> newProducerFactory(profile, kafkaObjectMapper, codec, codecProperties, schemas));
+    }
+
+    private DefaultKafkaProducerFactory<String, EventEnvelope> newProducerFactory(
+            ProducerProfileProperties.Profile profile, ObjectMapper kafkaObjectMapper,
+            BinaryEnvelopeCodec codec, CodecProperties codecProperties, EventSchemaRegistry schemas) {
+        var props = new HashMap<String, Object>(profile.toProducerConfig());
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+        return new DefaultKafkaProducerFactory<>(props,
+                new StringSerializer(),
+                new EnvelopeSerializer(new JsonSerializer<>(kafkaObjectMapper), codec, codecProperties, schemas));
+    }
+
+    /**
+     * Values that fail to decode come through as a DeserializationException
+     * header with the raw bytes kept, instead of failing every poll of the
+     * partition — see UndecodableRecords.
+     */
     @Bean
-    public ConsumerFactory<String, EventEnvelope> consumerFactory(ObjectMapper kafkaObjectMapper) {
+    public ConsumerFactory<String, EventEnvelope> consumerFactory(ObjectMapper kafkaObjectMapper,
+                                                                  BinaryEnvelopeCodec codec,
+                                                                  EventSchemaRegistry schemas) {
         var props = Map.<String, Object>of(
                 ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
                 ConsumerConfig.GROUP_ID_CONFIG, applicationName,
@@ -64,15 +142,106 @@ public class KafkaConfig {
         );
         var deser = new JsonDeserializer<>(EventEnvelope.class, kafkaObjectMapper, false);
         deser.addTrustedPackages("it.asd.events.*");
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deser);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new EnvelopeDeserializer(deser, codec, kafkaObjectMapper, schemas)));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, EventEnvelope>
-    kafkaListenerContainerFactory(ConsumerFactory<String, EventEnvelope> cf) {
+    kafkaListenerContainerFactory(ConsumerFactory<String, EventEnvelope> cf,
+                                  ListenerProperties listenerProperties,
+                                  @Qualifier("recordErrorHandler") ObjectProvider<CommonErrorHandler> recordErrorHandler,
+                                  ObjectProvider<IdempotencyStore> idempotencyStore,
+                                  EventMetrics eventMetrics) {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, EventEnvelope>();
         factory.setConsumerFactory(cf);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setRecordInterceptor(new EnvelopeTracingInterceptor(eventMetrics));
+        applyConcurrency(factory, listenerProperties);
+        filterRecords(factory, null);
+        recordErrorHandler.ifAvailable(factory::setCommonErrorHandler);   // asd.kafka.errors.enabled
+        idempotencyStore.ifAvailable(store -> refreshOnAssignment(factory, store));
         return factory;
     }
+
+    /**
+     * Batch listeners receive a whole poll as List&lt;ConsumerRecord&gt; and ack once.
+     * Used by the read-model consumers when asd.kafka.batch.enabled=true.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EventEnvelope>
+    batchKafkaListenerContainerFactory(ConsumerFactory<String, EventEnvelope> cf,
+                                       ListenerProperties listenerProperties,
+                                       @Qualifier("batchErrorHandler") ObjectProvider<CommonErrorHandler> batchErrorHandler,
+                                       ObjectProvider<DeadLetterPublishingRecoverer> deadLetterRecoverer,
+                                       ObjectProvider<IdempotencyStore> idempotencyStore,
+                                       EventMetrics eventMetrics,
+                                       @Value("${asd.kafka.batch.max-poll-records:500}") int maxPollRecords) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, EventEnvelope>();
+        factory.setConsumerFactory(cf);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setBatchInterceptor(new EnvelopeTracingInterceptor(eventMetrics));
+
+        var overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(overrides);
+        applyConcurrency(factory, listenerProperties);
+        filterRecords(factory, deadLetterRecoverer.getIfAvailable());   // asd.kafka.errors.enabled
+        batchErrorHandler.ifAvailable(factory::setCommonErrorHandler);   // asd.kafka.errors.enabled
+        idempotencyStore.ifAvailable(store -> refreshOnAssignment(factory, store));
+        return factory;
+    }
+
+    /**
+     * Parallel per-key processing of a poll — see KeyOrderedDispatcher.
+     * Parallelism is capped by the connection pool the key groups share.
+     */
+    @Bean
+    public KeyOrderedDispatcher keyOrderedDispatcher(
+            ListenerProperties listenerProperties,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        int parallelism = listenerProperties.keyParallelismFor(poolSize);
+        if (parallelism < listenerProperties.keyParallelism())
+            log.warn("[BATCH] asd.kafka.listener.key-parallelism={} capped to {} by a pool of {} connections",
+                    listenerProperties.keyParallelism(), parallelism, poolSize);
+        return new KeyOrderedDispatcher(parallelism);
+    }
+
+    /**
+     * Concurrency per container from asd.kafka.listener, resolved on the container's topics.
+     */
+    private static void applyConcurrency(ConcurrentKafkaListenerContainerFactory<String, EventEnvelope> factory,
+                                         ListenerProperties listenerProperties) {
+        factory.setConcurrency(listenerProperties.concurrency());
+        factory.setContainerCustomizer(container -> container.setConcurrency(
+                listenerProperties.concurrencyFor(container.getContainerProperties().getTopics())));
+    }
+
+    /**
+     * Records replayed from another service's DLT are acked and dropped here,
+     * and undecodable ones diverted in batch containers, where they would
+     * otherwise reach the listener as null values. Record containers fail
+     * those before the filter and leave them to recordErrorHandler.
+     */
+    private void filterRecords(ConcurrentKafkaListenerContainerFactory<String, EventEnvelope> factory,
+                               DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        factory.setRecordFilterStrategy(rec -> DeadLetterTopics.isReplayForOtherGroup(rec, applicationName)
+                || UndecodableRecords.divert(rec, deadLetterRecoverer));
+        factory.setAckDiscarded(true);
+    }
+
+    /**
+     * Partitions moved here from another replica bring ids it marked processed;
+     * load them into the Bloom filter before the first poll.
+     */
+    private static void refreshOnAssignment(ConcurrentKafkaListenerContainerFactory<String, EventEnvelope> factory,
+                                            IdempotencyStore store) {
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                if (!partitions.isEmpty()) store.refresh();
+            }
+        });
+    }
 }
@@ -0,0 +1,25 @@
+package it.asd.common.kafka;
+
+import java.util.Collection;
+
+/**
+ * Topic selectors used in asd.kafka.* properties:
+ * an exact topic name, or a prefix ending in ".*" (e.g. "finance.*").
+ */
+public final class TopicPatterns {
+
+    private TopicPatterns() {
+    }
+
+    public static boolean matches(String pattern, String topic) {
+        return pattern.endsWith(".*")
+                ? topic.startsWith(pattern.substring(0, pattern.length() - 1))
+                : topic.equals(pattern);
+    }
+
+    public static boolean matchesAny(Collection<String> patterns, String topic) {
+        for (var pattern : patterns)
+            if (matches(pattern, topic)) return true;
+        return false;
+    }
+}
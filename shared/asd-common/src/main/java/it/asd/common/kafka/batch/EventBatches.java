@@ -0,0 +1,112 @@
+package it.asd.common.kafka.batch;
+
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.common.kafka.tracing.EnvelopeTracingInterceptor;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Helpers for batch listeners (containerFactory = "batchKafkaListenerContainerFactory").
+ * <p>
+ * A poll returns records in partition order, and the partition key is the
+ * aggregateId — so within one poll, later records for the same aggregate
+ * are always newer. That is what makes in-poll deduplication safe.
+ */
+public final class EventBatches {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBatches.class);
+
+    private EventBatches() {
+    }
+
+    /**
+     * A payload with the correlation id of the record that carried it, for
+     * set-based consumers that still do per-event work (publishing, logging).
+     */
+    public record Traced<T>(T payload, String correlationId) {
+    }
+
+    /**
+     * Extracts payloads of the expected type, in poll order.
+     * Null values and foreign payload types are dropped with a warning —
+     * same poison-pill policy as the single-record consumers.
+     */
+    public static <T extends DomainEvent> List<T> payloads(
+            List<ConsumerRecord<String, EventEnvelope>> records, Class<T> type) {
+        return traced(records, type).stream().map(Traced::payload).toList();
+    }
+
+    /**
+     * payloads() with each payload's correlation id, so the caller can bind it
+     * (Correlation.open) around the work done for that event.
+     */
+    public static <T extends DomainEvent> List<Traced<T>> traced(
+            List<ConsumerRecord<String, EventEnvelope>> records, Class<T> type) {
+        var out = new ArrayList<Traced<T>>(records.size());
+        int skipped = 0;
+        for (var record : records) {
+            var envelope = record.value();
+            if (envelope != null && type.isInstance(envelope.payload()))
+                out.add(new Traced<>(type.cast(envelope.payload()), EnvelopeTracingInterceptor.correlationId(record)));
+            else
+                skipped++;
+        }
+        if (skipped > 0)
+            log.warn("[BATCH] Skipped {} records with unexpected payload (expected {})",
+                    skipped, type.getSimpleName());
+        return out;
+    }
+
+    /**
+     * Records whose envelope {@code consumer} has not processed yet, in poll order —
+     * one IdempotencyStore.filterNew call for the whole poll. Records without an
+     * envelope are kept; payloads() drops them. A null store
+     * (asd.kafka.idempotency disabled) keeps every record, leaving duplicates
+     * to the consumer's own upsert or trigger guard.
+     */
+    public static List<ConsumerRecord<String, EventEnvelope>> unprocessed(
+            List<ConsumerRecord<String, EventEnvelope>> records, IdempotencyStore store, String consumer) {
+        if (store == null) return records;
+        var fresh = new HashSet<>(store.filterNew(consumer, envelopeIds(records)));
+        return records.stream()
+                .filter(record -> record.value() == null || fresh.contains(record.value().envelopeId()))
+                .toList();
+    }
+
+    /**
+     * Distinct envelope ids of a poll, for IdempotencyStore.markProcessed.
+     */
+    public static List<UUID> envelopeIds(List<ConsumerRecord<String, EventEnvelope>> records) {
+        return records.stream()
+                .map(ConsumerRecord::value)
+                .filter(Objects::nonNull)
+                .map(EventEnvelope::envelopeId)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Keeps only the newest event per key.
+     */
+    public static <T, K> List<T> latestByKey(List<T> events, Function<T, K> key) {
+        return mergeByKey(events, key, (_, newer) -> newer);
+    }
+
+    /**
+     * Folds all events of a key into one, oldest first — for partial updates
+     * where an older event may carry fields the newer one leaves null.
+     */
+    public static <T, K> List<T> mergeByKey(List<T> events, Function<T, K> key, BinaryOperator<T> merge) {
+        var byKey = new LinkedHashMap<K, T>();
+        for (var event : events)
+            byKey.merge(key.apply(event), event, merge);
+        return List.copyOf(byKey.values());
+    }
+}
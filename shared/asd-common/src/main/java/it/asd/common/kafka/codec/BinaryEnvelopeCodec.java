@@ -0,0 +1,199 @@
+package it.asd.common.kafka.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary form of an EventEnvelope.
+ * <p>
+ * Layout (format version 1):
+ * <pre>
+ * magic(0xA5) version(1)
+ * envelopeId occurredAt source asdId seasonId correlationId
+ * typeTag(varint) fieldCount(varint) field*
+ * </pre>
+ * Every value is prefixed by its one-byte {@link WireType}, which makes the
+ * record self-describing enough to skip fields appended by a newer producer.
+ * UUIDs are 16 raw bytes, instants are epoch micros (Postgres precision).
+ * <p>
+ * 0xA5 can never start a JSON document, so readers tell the two formats apart
+ * from the first byte — see {@link EnvelopeDeserializer}.
+ */
+public final class BinaryEnvelopeCodec {
+
+    public static final byte MAGIC = (byte) 0xA5;
+    public static final byte FORMAT_VERSION = 1;
+
+    private final EventTypeRegistry registry;
+    private final ObjectMapper objectMapper;   // only for WireType.JSON fields
+
+    public BinaryEnvelopeCodec(EventTypeRegistry registry, ObjectMapper objectMapper) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    // ── Encode ────────────────────────────────────────────────────────────────
+
+    public byte[] encode(EventEnvelope envelope) {
+        var layout = registry.layoutOf(envelope.payload().getClass());
+        var out = new WireWriter(256);
+
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        write(out, WireType.UUID, envelope.envelopeId());
+        write(out, WireType.INSTANT, envelope.occurredAt());
+        write(out, WireType.STRING, envelope.source());
+        write(out, WireType.UUID, envelope.asdId());
+        write(out, WireType.UUID, envelope.seasonId());
+        write(out, WireType.STRING, envelope.correlationId());
+
+        out.writeVarInt(layout.tag());
+        out.writeVarInt(layout.fields().size());
+        for (var field : layout.fields())
+            write(out, field.wireType(), field.get(envelope.payload()));
+
+        return out.toByteArray();
+    }
+
+    private void write(WireWriter out, WireType type, Object value) {
+        if (value == null) {
+            out.writeByte(WireType.NULL.code);
+            return;
+        }
+        out.writeByte(type.code);
+        switch (type) {
+            case UUID -> out.writeUuid((UUID) value);
+            case STRING -> out.writeString((String) value);
+            case INSTANT -> out.writeZigZag(ChronoUnit.MICROS.between(Instant.EPOCH, (Instant) value));
+            case LOCAL_DATE -> out.writeZigZag(((LocalDate) value).toEpochDay());
+            case LOCAL_TIME -> out.writeVarLong(((LocalTime) value).toNanoOfDay());
+            case INT -> out.writeZigZag((Integer) value);
+            case LONG -> out.writeZigZag((Long) value);
+            case DOUBLE -> out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+            case DECIMAL -> {
+                var d = (BigDecimal) value;
+                out.writeZigZag(d.scale());
+                out.writeBytes(d.unscaledValue().toByteArray());
+            }
+            case BOOLEAN -> out.writeByte((byte) ((Boolean) value ? 1 : 0));
+            case STRING_LIST -> {
+                var list = (List<?>) value;
+                out.writeVarInt(list.size());
+                for (var s : list) write(out, WireType.STRING, s);
+            }
+            case JSON -> out.writeBytes(toJson(value));
+            case NULL -> throw new IllegalStateException("NULL is not a value type");
+        }
+    }
+
+    // ── Decode ────────────────────────────────────────────────────────────────
+
+    public EventEnvelope decode(byte[] data) {
+        var in = new WireReader(data);
+        if (in.readByte() != MAGIC)
+            throw new IllegalArgumentException("Not a binary envelope");
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION)
+            throw new IllegalArgumentException("Unsupported envelope format version " + version);
+
+        var envelopeId = (UUID) read(in, null);
+        var occurredAt = (Instant) read(in, null);
+        var source = (String) read(in, null);
+        var asdId = (UUID) read(in, null);
+        var seasonId = (UUID) read(in, null);
+        var correlationId = (String) read(in, null);
+
+        var layout = registry.layoutOf(in.readVarInt());
+        int written = in.readVarInt();
+        var fields = layout.fields();
+        var args = new Object[fields.size()];
+
+        for (int i = 0; i < written; i++) {
+            if (i < args.length) args[i] = read(in, fields.get(i).genericType());
+            else read(in, null);   // appended by a newer producer — skip
+        }
+        for (int i = written; i < args.length; i++)
+            args[i] = defaultFor(fields.get(i).type());   // older producer — fill
+
+        var payload = (DomainEvent) layout.newInstance(args);
+        return new EventEnvelope(envelopeId, occurredAt, source, asdId, seasonId, correlationId, payload);
+    }
+
+    /**
+     * @param jsonTarget target type for JSON fields; null skips the JSON body
+     */
+    private Object read(WireReader in, Type jsonTarget) {
+        var type = WireType.ofCode(in.readByte());
+        return switch (type) {
+            case NULL -> null;
+            case UUID -> in.readUuid();
+            case STRING -> in.readString();
+            case INSTANT -> Instant.EPOCH.plus(in.readZigZag(), ChronoUnit.MICROS);
+            case LOCAL_DATE -> LocalDate.ofEpochDay(in.readZigZag());
+            case LOCAL_TIME -> LocalTime.ofNanoOfDay(in.readVarLong());
+            case INT -> (int) in.readZigZag();
+            case LONG -> in.readZigZag();
+            case DOUBLE -> Double.longBitsToDouble(in.readFixedLong());
+            case DECIMAL -> {
+                int scale = (int) in.readZigZag();
+                yield new BigDecimal(new BigInteger(in.readBytes()), scale);
+            }
+            case BOOLEAN -> in.readByte() != 0;
+            case STRING_LIST -> {
+                int size = in.readVarInt();
+                var list = new ArrayList<String>(size);
+                for (int i = 0; i < size; i++) list.add((String) read(in, null));
+                yield List.copyOf(list);
+            }
+            case JSON -> {
+                if (jsonTarget == null) {
+                    in.skipBytes();
+                    yield null;
+                }
+                yield fromJson(in.readBytes(), jsonTarget);
+            }
+        };
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot encode JSON field", ex);
+        }
+    }
+
+    private Object fromJson(byte[] bytes, Type target) {
+        try {
+            return objectMapper.readValue(bytes, objectMapper.constructType(target));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot decode JSON field", ex);
+        }
+    }
+
+    private static Object defaultFor(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        throw new IllegalStateException("Unsupported primitive component " + type);
+    }
+}
@@ -0,0 +1,26 @@
+package it.asd.common.kafka.codec;
+
+import it.asd.common.kafka.TopicPatterns;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Binds {@code asd.kafka.codec.*} from application.yml.
+ * <p>
+ * binary-topics lists the topics this service PRODUCES in the binary format.
+ * Entries are exact topic names or prefixes ending in ".*" (e.g. "finance.*").
+ * Everything else stays JSON. Consumers need no setting: they detect the
+ * format per record.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.codec")
+public record CodecProperties(List<String> binaryTopics) {
+
+    public CodecProperties {
+        binaryTopics = binaryTopics == null ? List.of() : List.copyOf(binaryTopics);
+    }
+
+    public boolean isBinary(String topic) {
+        return TopicPatterns.matchesAny(binaryTopics, topic);
+    }
+}
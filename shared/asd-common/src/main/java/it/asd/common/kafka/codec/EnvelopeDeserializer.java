@@ -0,0 +1,96 @@
+package it.asd.common.kafka.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import it.asd.events.EventEnvelope;
+import it.asd.events.schema.EventSchemaRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads both formats: the first byte decides (binary magic vs JSON).
+ * A topic can therefore switch producer format without a consumer redeploy,
+ * and old JSON records keep replaying after the switch.
+ * <p>
+ * JSON records that carry {@link EnvelopeSerializer#SCHEMA_ID_HEADER} are read
+ * with an ObjectReader resolved once per schema id:
+ * - current version of the local record  → strict reader
+ * - any other version (older or newer)    → reader that ignores unknown properties;
+ * the compatibility check in asd-events guarantees that is the only difference
+ * Records without the header (written before it existed) go through the wrapped
+ * JSON deserializer as before.
+ */
+public class EnvelopeDeserializer implements Deserializer<EventEnvelope> {
+
+    private static final Logger log = LoggerFactory.getLogger(EnvelopeDeserializer.class);
+
+    private final Deserializer<EventEnvelope> json;
+    private final BinaryEnvelopeCodec binary;
+    private final ObjectReader strict;
+    private final ObjectReader tolerant;
+    private final Map<String, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public EnvelopeDeserializer(Deserializer<EventEnvelope> json, BinaryEnvelopeCodec binary,
+                                ObjectMapper objectMapper, EventSchemaRegistry schemas) {
+        this.json = json;
+        this.binary = binary;
+        this.strict = objectMapper.readerFor(EventEnvelope.class);
+        this.tolerant = strict.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        schemas.all().forEach(s -> readers.put(s.id(), schemas.isCurrent(s.id()) ? strict : tolerant));
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public EventEnvelope deserialize(String topic, byte[] data) {
+        return BinaryEnvelopeCodec.isBinary(data) ? decode(topic, data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public EventEnvelope deserialize(String topic, Headers headers, byte[] data) {
+        if (BinaryEnvelopeCodec.isBinary(data)) return decode(topic, data);
+        var header = headers == null ? null : headers.lastHeader(EnvelopeSerializer.SCHEMA_ID_HEADER);
+        if (data == null || header == null) return json.deserialize(topic, headers, data);
+        return read(topic, readerFor(new String(header.value(), StandardCharsets.UTF_8)), data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    ObjectReader readerFor(String schemaId) {
+        return readers.computeIfAbsent(schemaId, id -> {
+            log.warn("[SCHEMA] Unknown event schema id={} — reading leniently; redeploy with the latest asd-events", id);
+            return tolerant;
+        });
+    }
+
+    private EventEnvelope read(String topic, ObjectReader reader, byte[] data) {
+        try {
+            return reader.readValue(data);
+        } catch (IOException ex) {
+            throw new SerializationException("Cannot read JSON envelope from topic " + topic, ex);
+        }
+    }
+
+    private EventEnvelope decode(String topic, byte[] data) {
+        try {
+            return binary.decode(data);
+        } catch (RuntimeException ex) {
+            throw new SerializationException("Cannot decode binary envelope from topic " + topic, ex);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package it.asd.common.kafka.codec;
+
+import it.asd.common.tracing.Correlation;
+import it.asd.events.EventEnvelope;
+import it.asd.events.schema.EventSchemaRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-topic format switch: binary for topics listed in {@link CodecProperties},
+ * the wrapped JSON serializer for everything else.
+ * <p>
+ * Every record also carries the payload's schema id in {@link #SCHEMA_ID_HEADER},
+ * so consumers pick a pre-resolved reader before touching the bytes, and the
+ * envelope's correlation id in {@link Correlation#KAFKA_HEADER} for tools that
+ * never decode the value (DLT browsing, kcat).
+ */
+public class EnvelopeSerializer implements Serializer<EventEnvelope> {
+
+    public static final String SCHEMA_ID_HEADER = "asd_schema-id";
+
+    private final Serializer<EventEnvelope> json;
+    private final BinaryEnvelopeCodec binary;
+    private final CodecProperties props;
+    private final EventSchemaRegistry schemas;
+    private final Map<Class<?>, byte[]> schemaIds = new ConcurrentHashMap<>();
+
+    public EnvelopeSerializer(Serializer<EventEnvelope> json, BinaryEnvelopeCodec binary,
+                              CodecProperties props, EventSchemaRegistry schemas) {
+        this.json = json;
+        this.binary = binary;
+        this.props = props;
+        this.schemas = schemas;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, EventEnvelope data) {
+        if (data == null) return null;
+        return props.isBinary(topic) ? encode(topic, data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, EventEnvelope data) {
+        if (data == null) return null;
+        if (data.payload() != null) {
+            headers.remove(SCHEMA_ID_HEADER);
+            headers.add(SCHEMA_ID_HEADER, schemaIdOf(data.payload().getClass()));
+        }
+        if (data.correlationId() != null && headers.lastHeader(Correlation.KAFKA_HEADER) == null)
+            headers.add(Correlation.KAFKA_HEADER, data.correlationId().getBytes(StandardCharsets.UTF_8));
+        return props.isBinary(topic) ? encode(topic, data) : json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private byte[] schemaIdOf(Class<?> type) {
+        return schemaIds.computeIfAbsent(type,
+                t -> schemas.current(t).id().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] encode(String topic, EventEnvelope data) {
+        try {
+            return binary.encode(data);
+        } catch (RuntimeException ex) {
+            throw new SerializationException("Cannot encode envelope for topic " + topic, ex);
+        }
+    }
+}
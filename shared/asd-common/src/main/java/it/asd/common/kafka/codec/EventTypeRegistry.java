@@ -0,0 +1,163 @@
+package it.asd.common.kafka.codec;
+
+import it.asd.events.DomainEvent;
+import it.asd.events.competition.ParticipantRegisteredEvent;
+import it.asd.events.competition.ParticipantResultSetEvent;
+import it.asd.events.compliance.DocumentCreatedEvent;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import it.asd.events.compliance.DocumentRenewedEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent;
+import it.asd.events.compliance.PersonIneligibleEvent;
+import it.asd.events.finance.PaymentConfirmedEvent;
+import it.asd.events.finance.PaymentCreatedEvent;
+import it.asd.events.finance.PaymentOverdueEvent;
+import it.asd.events.identity.PersonCreatedEvent;
+import it.asd.events.identity.PersonUpdatedEvent;
+import it.asd.events.identity.QualificationAddedEvent;
+import it.asd.events.membership.GroupCreatedEvent;
+import it.asd.events.membership.GroupEnrollmentAddedEvent;
+import it.asd.events.membership.MembershipActivatedEvent;
+import it.asd.events.registry.AsdCreatedEvent;
+import it.asd.events.registry.SeasonActivatedEvent;
+import it.asd.events.registry.SeasonClosedEvent;
+import it.asd.events.scheduling.SessionScheduledEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Numeric type tags for every DomainEvent record in it.asd.events.
+ * <p>
+ * The tag replaces the fully qualified class name that @JsonTypeInfo(CLASS)
+ * writes into every JSON record. Tags are part of the wire format:
+ * - append new events with the next free number
+ * - never reuse or renumber a tag, even after an event is deleted
+ * - record components may only be appended (the codec null-fills
+ * missing trailing fields and skips unknown ones)
+ * <p>
+ * Layouts (accessors, canonical constructor, wire types) are resolved once
+ * here, so encode/decode never does a class lookup by name.
+ */
+public final class EventTypeRegistry {
+
+    private static final Map<Integer, Class<? extends DomainEvent>> TAGS = Map.ofEntries(
+            // Registry 1–9
+            Map.entry(1, AsdCreatedEvent.class),
+            Map.entry(2, SeasonActivatedEvent.class),
+            Map.entry(3, SeasonClosedEvent.class),
+            // Identity 10–19
+            Map.entry(10, PersonCreatedEvent.class),
+            Map.entry(11, PersonUpdatedEvent.class),
+            Map.entry(12, QualificationAddedEvent.class),
+            // Membership 20–29
+            Map.entry(20, MembershipActivatedEvent.class),
+            Map.entry(21, GroupCreatedEvent.class),
+            Map.entry(22, GroupEnrollmentAddedEvent.class),
+            // Scheduling 30–39
+            Map.entry(30, SessionScheduledEvent.class),
+            // Compliance 40–49
+            Map.entry(40, DocumentCreatedEvent.class),
+            Map.entry(41, DocumentExpiredEvent.class),
+            Map.entry(42, DocumentRenewedEvent.class),
+            Map.entry(43, PersonIneligibleEvent.class),
+            Map.entry(44, DocumentsExpiringSoonEvent.class),
+            // Competition 50–59
+            Map.entry(50, ParticipantRegisteredEvent.class),
+            Map.entry(51, ParticipantResultSetEvent.class),
+            // Finance 60–69
+            Map.entry(60, PaymentCreatedEvent.class),
+            Map.entry(61, PaymentConfirmedEvent.class),
+            Map.entry(62, PaymentOverdueEvent.class)
+    );
+
+    private final Map<Integer, Layout> byTag = new HashMap<>();
+    private final Map<Class<?>, Layout> byType = new HashMap<>();
+
+    public EventTypeRegistry() {
+        TAGS.forEach((tag, type) -> {
+            var layout = Layout.of(tag, type);
+            byTag.put(tag, layout);
+            byType.put(type, layout);
+        });
+    }
+
+    /**
+     * Every tagged event type — also the set whose schemas are loaded at startup.
+     */
+    public static Collection<Class<? extends DomainEvent>> types() {
+        return TAGS.values();
+    }
+
+    public boolean isRegistered(Class<?> type) {
+        return byType.containsKey(type);
+    }
+
+    public Set<Class<?>> registeredTypes() {
+        return Collections.unmodifiableSet(byType.keySet());
+    }
+
+    Layout layoutOf(Class<?> type) {
+        var layout = byType.get(type);
+        if (layout == null)
+            throw new IllegalArgumentException("No type tag registered for " + type.getName());
+        return layout;
+    }
+
+    Layout layoutOf(int tag) {
+        var layout = byTag.get(tag);
+        if (layout == null)
+            throw new IllegalArgumentException("Unknown event type tag " + tag);
+        return layout;
+    }
+
+    // ── Layout ────────────────────────────────────────────────────────────────
+
+    record Field(String name, WireType wireType, Class<?> type, Type genericType, MethodHandle accessor) {
+        Object get(Object record) {
+            try {
+                return (Object) accessor.invokeExact(record);
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Cannot read component " + name, ex);
+            }
+        }
+    }
+
+    record Layout(int tag, Class<?> type, List<Field> fields, MethodHandle constructor) {
+
+        static Layout of(int tag, Class<?> type) {
+            var lookup = MethodHandles.publicLookup();
+            RecordComponent[] components = type.getRecordComponents();
+            if (components == null)
+                throw new IllegalArgumentException(type.getName() + " is not a record");
+            try {
+                var fields = new ArrayList<Field>(components.length);
+                var paramTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    var c = components[i];
+                    paramTypes[i] = c.getType();
+                    var accessor = lookup.unreflect(c.getAccessor())
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                    fields.add(new Field(c.getName(), WireType.of(c), c.getType(), c.getGenericType(), accessor));
+                }
+                var ctor = lookup.unreflectConstructor(type.getDeclaredConstructor(paramTypes))
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                return new Layout(tag, type, List.copyOf(fields), ctor);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot build codec layout for " + type.getName(), ex);
+            }
+        }
+
+        Object newInstance(Object[] args) {
+            try {
+                return (Object) constructor.invokeExact(args);
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Cannot instantiate " + type.getName(), ex);
+            }
+        }
+    }
+}
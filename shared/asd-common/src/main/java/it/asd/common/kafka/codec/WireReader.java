@@ -0,0 +1,85 @@
+package it.asd.common.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Cursor over an encoded record. Mirrors {@link WireWriter}.
+ */
+final class WireReader {
+
+    private final byte[] buf;
+    private int pos;
+
+    WireReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    byte readByte() {
+        require(1);
+        return buf[pos++];
+    }
+
+    byte[] readBytes() {
+        int len = readVarInt();
+        require(len);
+        var bytes = Arrays.copyOfRange(buf, pos, pos + len);
+        pos += len;
+        return bytes;
+    }
+
+    void skipBytes() {
+        int len = readVarInt();
+        require(len);
+        pos += len;
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("varint overflow at " + pos);
+        return (int) value;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Malformed varlong at " + pos);
+    }
+
+    long readZigZag() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    long readFixedLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++)
+            value = (value << 8) | (buf[pos++] & 0xFF);
+        return value;
+    }
+
+    UUID readUuid() {
+        return new UUID(readFixedLong(), readFixedLong());
+    }
+
+    String readString() {
+        int len = readVarInt();
+        require(len);
+        var s = new String(buf, pos, len, StandardCharsets.UTF_8);
+        pos += len;
+        return s;
+    }
+
+    private void require(int n) {
+        if (n < 0 || pos + n > buf.length)
+            throw new IllegalArgumentException("Truncated record: need " + n + " bytes at " + pos);
+    }
+}
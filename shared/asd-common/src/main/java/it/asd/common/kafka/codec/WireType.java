@@ -0,0 +1,69 @@
+package it.asd.common.kafka.codec;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * One-byte tag written in front of every value on the wire.
+ * NULL doubles as the null marker, so nullable fields cost nothing extra.
+ * <p>
+ * Codes are part of the wire format — append only, never renumber.
+ */
+enum WireType {
+    NULL(0),
+    UUID(1),          // 16 bytes, msb + lsb
+    STRING(2),        // varint length + UTF-8
+    INSTANT(3),       // zig-zag varlong epoch micros
+    LOCAL_DATE(4),    // zig-zag varlong epoch day
+    LOCAL_TIME(5),    // varlong nano of day
+    INT(6),           // zig-zag varint
+    LONG(7),          // zig-zag varlong
+    DOUBLE(8),        // 8 bytes IEEE 754
+    DECIMAL(9),       // varint scale + varint length + unscaled two's complement
+    BOOLEAN(10),      // 1 byte
+    STRING_LIST(11),  // varint count + STRING bodies
+    JSON(12);         // varint length + Jackson bytes (escape hatch for maps/nested types)
+
+    private static final WireType[] BY_CODE = values();
+
+    final byte code;
+
+    WireType(int code) {
+        this.code = (byte) code;
+    }
+
+    static WireType ofCode(byte code) {
+        if (code < 0 || code >= BY_CODE.length)
+            throw new IllegalArgumentException("Unknown wire type code " + code);
+        return BY_CODE[code];
+    }
+
+    /**
+     * Maps a record component to its wire representation once, at registry build time.
+     */
+    static WireType of(RecordComponent component) {
+        Class<?> type = component.getType();
+        if (type == java.util.UUID.class) return UUID;
+        if (type == String.class) return STRING;
+        if (type == Instant.class) return INSTANT;
+        if (type == LocalDate.class) return LOCAL_DATE;
+        if (type == LocalTime.class) return LOCAL_TIME;
+        if (type == Integer.class || type == int.class) return INT;
+        if (type == Long.class || type == long.class) return LONG;
+        if (type == Double.class || type == double.class) return DOUBLE;
+        if (type == BigDecimal.class) return DECIMAL;
+        if (type == Boolean.class || type == boolean.class) return BOOLEAN;
+        if (type == List.class && isListOfString(component)) return STRING_LIST;
+        return JSON;
+    }
+
+    private static boolean isListOfString(RecordComponent component) {
+        return component.getGenericType() instanceof ParameterizedType p
+                && p.getActualTypeArguments()[0] == String.class;
+    }
+}
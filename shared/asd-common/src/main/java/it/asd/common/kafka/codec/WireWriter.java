@@ -0,0 +1,74 @@
+package it.asd.common.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Growable little output buffer. Not thread-safe — one instance per encode call.
+ */
+final class WireWriter {
+
+    private byte[] buf;
+    private int pos;
+
+    WireWriter(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    void writeByte(byte b) {
+        ensure(1);
+        buf[pos++] = b;
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    /**
+     * Unsigned LEB128.
+     */
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeFixedLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8)
+            buf[pos++] = (byte) (value >>> shift);
+    }
+
+    void writeUuid(UUID value) {
+        writeFixedLong(value.getMostSignificantBits());
+        writeFixedLong(value.getLeastSignificantBits());
+    }
+
+    void writeString(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void ensure(int extra) {
+        if (pos + extra > buf.length)
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+    }
+}
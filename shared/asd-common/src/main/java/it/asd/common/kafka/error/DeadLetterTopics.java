@@ -0,0 +1,56 @@
+package it.asd.common.kafka.error;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Names and headers of the retry / dead-letter pipeline.
+ * <p>
+ * Retry tiers and DLTs are per consuming service, because every service
+ * reads the same source topics with its own consumer group:
+ * <pre>
+ * membership.activated                          source
+ * membership.activated.finance-service-retry-0  first retry tier
+ * membership.activated.finance-service-dlt      dead letters
+ * </pre>
+ * Replayed records go back to the source topic tagged with REPLAY_GROUP,
+ * so only the service that dead-lettered them processes them again.
+ */
+public final class DeadLetterTopics {
+
+    /**
+     * Consumer group a replayed record is meant for; every other group skips it.
+     */
+    public static final String REPLAY_GROUP = "asd_replay-group";
+
+    /**
+     * Deliveries of the record before it was dead-lettered (decimal string):
+     * 1 when it was not retryable or could not be decoded.
+     */
+    public static final String ATTEMPTS = "asd_dlt-attempts";
+
+    private DeadLetterTopics() {
+    }
+
+    public static String retrySuffix(String service) {
+        return "." + service + "-retry";
+    }
+
+    public static String dltSuffix(String service) {
+        return "." + service + "-dlt";
+    }
+
+    public static String dlt(String sourceTopic, String service) {
+        return sourceTopic + dltSuffix(service);
+    }
+
+    /**
+     * True for a replayed record addressed to another consumer group.
+     */
+    public static boolean isReplayForOtherGroup(ConsumerRecord<?, ?> record, String group) {
+        Header header = record.headers().lastHeader(REPLAY_GROUP);
+        return header != null && !group.equals(new String(header.value(), StandardCharsets.UTF_8));
+    }
+}
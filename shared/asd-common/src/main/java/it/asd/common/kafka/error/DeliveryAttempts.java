@@ -0,0 +1,79 @@
+package it.asd.common.kafka.error;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.RetryListener;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Delivery count of the record being dead-lettered, for the ATTEMPTS header.
+ * <p>
+ * The error handlers report each failed delivery here before they recover;
+ * recovery runs on the same consumer thread right after the last one, so the
+ * count is kept per thread and cleared once the record or batch is recovered.
+ * A record recovered without a reported failure — not retryable, or not
+ * decodable — was delivered once. A record that came through retry topics
+ * counts the attempts its retry_topic-attempts header carries.
+ */
+final class DeliveryAttempts implements RetryListener {
+
+    private final ThreadLocal<Failure> last = new ThreadLocal<>();
+
+    private record Failure(Map<TopicPartition, long[]> offsets, int attempts) {
+        boolean covers(ConsumerRecord<?, ?> rec) {
+            var range = offsets.get(new TopicPartition(rec.topic(), rec.partition()));
+            return range != null && rec.offset() >= range[0] && rec.offset() <= range[1];
+        }
+    }
+
+    @Override
+    public void failedDelivery(ConsumerRecord<?, ?> record, Exception ex, int deliveryAttempt) {
+        var offsets = Map.of(new TopicPartition(record.topic(), record.partition()),
+                new long[]{record.offset(), record.offset()});
+        last.set(new Failure(offsets, deliveryAttempt));
+    }
+
+    @Override
+    public void failedDelivery(ConsumerRecords<?, ?> records, Exception ex, int deliveryAttempt) {
+        var offsets = new HashMap<TopicPartition, long[]>();
+        for (var rec : records) {
+            offsets.merge(new TopicPartition(rec.topic(), rec.partition()),
+                    new long[]{rec.offset(), rec.offset()},
+                    (a, b) -> new long[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+        }
+        last.set(new Failure(offsets, deliveryAttempt));
+    }
+
+    @Override
+    public void recovered(ConsumerRecord<?, ?> record, Exception ex) {
+        last.remove();
+    }
+
+    @Override
+    public void recoveryFailed(ConsumerRecord<?, ?> record, Exception original, Exception failure) {
+        last.remove();
+    }
+
+    @Override
+    public void recovered(ConsumerRecords<?, ?> records, Exception ex) {
+        last.remove();
+    }
+
+    @Override
+    public void recoveryFailed(ConsumerRecords<?, ?> records, Exception original, Exception failure) {
+        last.remove();
+    }
+
+    int of(ConsumerRecord<?, ?> rec) {
+        var tiered = rec.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        if (tiered != null && tiered.value().length == Integer.BYTES)
+            return ByteBuffer.wrap(tiered.value()).getInt();
+        var failure = last.get();
+        return failure != null && failure.covers(rec) ? failure.attempts() : 1;
+    }
+}
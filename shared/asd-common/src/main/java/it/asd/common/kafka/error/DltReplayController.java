@@ -0,0 +1,42 @@
+package it.asd.common.kafka.error;
+
+import it.asd.common.exception.ApiErrors;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Operator endpoint: POST /internal/kafka/dlt/{topic}/replay?max=100
+ * re-injects up to max dead letters of {topic} (capped by asd.kafka.errors.replay-limit).
+ */
+@Validated
+@RestController
+@RequestMapping("/internal/kafka/dlt")
+@ConditionalOnProperty(prefix = "asd.kafka.errors", name = "enabled", havingValue = "true")
+public class DltReplayController {
+
+    private final DltReplayService replayService;
+    private final ErrorHandlingProperties props;
+
+    public DltReplayController(DltReplayService replayService, ErrorHandlingProperties props) {
+        this.replayService = replayService;
+        this.props = props;
+    }
+
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<?> replay(@PathVariable String topic,
+                                    @RequestParam(required = false) @Positive Integer max) {
+        int limit = max == null ? props.replayLimit() : Math.min(max, props.replayLimit());
+
+        return switch (replayService.replay(topic, limit)) {
+            case DltReplayResult.Replayed r -> ResponseEntity.ok(r);
+
+            case DltReplayResult.NotFound nf -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    ApiErrors.of(HttpStatus.NOT_FOUND, ApiErrors.DLT_NOT_FOUND,
+                            "Dead-letter topic not found: " + nf.dltTopic()));
+        };
+    }
+}
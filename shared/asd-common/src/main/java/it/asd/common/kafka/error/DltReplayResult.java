@@ -0,0 +1,13 @@
+package it.asd.common.kafka.error;
+
+public sealed interface DltReplayResult {
+
+    /**
+     * @param skipped DLT records without a readable envelope — committed, not re-sent
+     */
+    record Replayed(String sourceTopic, String dltTopic, int replayed, int skipped) implements DltReplayResult {
+    }
+
+    record NotFound(String dltTopic) implements DltReplayResult {
+    }
+}
@@ -0,0 +1,128 @@
+package it.asd.common.kafka.error;
+
+import it.asd.common.kafka.producer.ProducerProfiles;
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Re-injects dead letters of this service into their source topic.
+ * <p>
+ * Reads {@code <topic>.<service>-dlt} with its own consumer group
+ * ({@code <service>-dlt-replay}), so every record is replayed once: offsets
+ * are committed only after the re-sent batch is acknowledged by Kafka.
+ * Replayed records carry REPLAY_GROUP — other services' consumers skip them —
+ * and start again from attempt one (the dlt/retry headers are dropped).
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.errors", name = "enabled", havingValue = "true")
+public class DltReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DltReplayService.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ConsumerFactory<String, EventEnvelope> consumerFactory;
+    private final ProducerProfiles producers;
+    private final String serviceName;
+
+    public DltReplayService(ConsumerFactory<String, EventEnvelope> consumerFactory,
+                            ProducerProfiles producers,
+                            @Value("${spring.application.name}") String serviceName) {
+        this.consumerFactory = consumerFactory;
+        this.producers = producers;
+        this.serviceName = serviceName;
+    }
+
+    public DltReplayResult replay(String sourceTopic, int max) {
+        var dlt = DeadLetterTopics.dlt(sourceTopic, serviceName);
+
+        var overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(max));
+
+        try (var consumer = consumerFactory.createConsumer(serviceName + "-dlt-replay", null, "-replay", overrides)) {
+            var partitions = consumer.partitionsFor(dlt, Duration.ofSeconds(10));
+            if (partitions == null || partitions.isEmpty())
+                return new DltReplayResult.NotFound(dlt);
+            consumer.assign(partitions.stream().map(p -> new TopicPartition(dlt, p.partition())).toList());
+
+            var template = producers.templateFor(sourceTopic);
+            var futures = new ArrayList<CompletableFuture<?>>();
+            var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+            int replayed = 0;
+            int skipped = 0;
+
+            poll:
+            while (true) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) break;
+                for (var rec : records) {
+                    if (replayed + skipped == max) break poll;
+                    if (rec.value() == null) {
+                        skipped++;
+                    } else {
+                        futures.add(template.send(toReplay(sourceTopic, rec)));
+                        replayed++;
+                    }
+                    offsets.put(new TopicPartition(rec.topic(), rec.partition()),
+                            new OffsetAndMetadata(rec.offset() + 1));
+                }
+            }
+
+            template.flush();
+            awaitAll(futures);
+            if (!offsets.isEmpty()) consumer.commitSync(offsets);
+
+            log.info("[DLT] Replayed {} records from {} to {} (skipped {})", replayed, dlt, sourceTopic, skipped);
+            return new DltReplayResult.Replayed(sourceTopic, dlt, replayed, skipped);
+        }
+    }
+
+    private ProducerRecord<String, EventEnvelope> toReplay(String sourceTopic,
+                                                            ConsumerRecord<String, EventEnvelope> rec) {
+        var headers = new RecordHeaders();
+        for (var header : rec.headers()) {
+            var name = header.key();
+            if (name.startsWith("kafka_dlt-") || name.startsWith("retry_topic-")
+                    || name.equals(DeadLetterTopics.ATTEMPTS) || name.equals(DeadLetterTopics.REPLAY_GROUP))
+                continue;
+            headers.add(header);
+        }
+        headers.add(DeadLetterTopics.REPLAY_GROUP, serviceName.getBytes(StandardCharsets.UTF_8));
+        return new ProducerRecord<>(sourceTopic, null, rec.key(), rec.value(), headers);
+    }
+
+    private static void awaitAll(ArrayList<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(SEND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting replay acks", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Replay batch not acknowledged by Kafka", ex);
+        }
+    }
+}
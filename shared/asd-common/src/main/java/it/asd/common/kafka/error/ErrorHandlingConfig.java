@@ -0,0 +1,153 @@
+package it.asd.common.kafka.error;
+
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+
+/**
+ * Retry and dead-letter handling for every listener — active when asd.kafka.errors.enabled=true.
+ * <p>
+ * Listeners signal failure by throwing; they no longer swallow the exception
+ * and skip the ack, which redelivered the same record in a hot loop and
+ * blocked the partition behind it.
+ * <p>
+ * - record listeners on retry-topics: the failed record moves to the next
+ * retry tier and the partition carries on; each tier consumes after its delay
+ * - other record listeners: recordErrorHandler retries the record in place
+ * with backoff
+ * - batch listeners: BatchListenerFailedException pins the failed record;
+ * offsets before it are committed and it is retried in place with the same
+ * backoff. Set-based batch consumers that fail as a whole rethrow; the poll
+ * is retried with the same backoff and then every record of it is dead-lettered.
+ * <p>
+ * After the last attempt the record goes to {@code <topic>.<service>-dlt}
+ * with the kafka_dlt-exception-* and original-topic/offset headers.
+ * DltReplayController re-injects it. Records that fail to deserialize are not
+ * retried; their raw bytes go to the same DLT (see UndecodableRecords).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "asd.kafka.errors", name = "enabled", havingValue = "true")
+public class ErrorHandlingConfig {
+
+    /**
+     * Counts deliveries for the ATTEMPTS header; registered on both handlers.
+     */
+    @Bean
+    DeliveryAttempts deliveryAttempts() {
+        return new DeliveryAttempts();
+    }
+
+    /**
+     * Shared by both error handlers and by the batch factory's filter for
+     * undecodable records. Those carry the raw bytes as value, so byte[] goes
+     * out through a plain template instead of the envelope serializer.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, EventEnvelope> kafkaTemplate,
+                                                             DeliveryAttempts deliveryAttempts,
+                                                             @Value("${spring.application.name}") String serviceName) {
+        var templates = new LinkedHashMap<Class<?>, KafkaOperations<?, ?>>();
+        templates.put(byte[].class, new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                kafkaTemplate.getProducerFactory().getConfigurationProperties(),
+                new StringSerializer(), new ByteArraySerializer())));
+        templates.put(Object.class, kafkaTemplate);
+
+        var recoverer = new DeadLetterPublishingRecoverer(templates,
+                (rec, _) -> new TopicPartition(DeadLetterTopics.dlt(rec.topic(), serviceName), -1));
+        recoverer.setHeadersFunction((rec, _) -> new RecordHeaders().add(DeadLetterTopics.ATTEMPTS,
+                String.valueOf(deliveryAttempts.of(rec)).getBytes(StandardCharsets.UTF_8)));
+        return recoverer;
+    }
+
+    /**
+     * Picked up by KafkaConfig for the batch listener factory.
+     */
+    @Bean
+    public CommonErrorHandler batchErrorHandler(DeadLetterPublishingRecoverer deadLetterRecoverer,
+                                                DeliveryAttempts deliveryAttempts,
+                                                ErrorHandlingProperties props) {
+        return deadLettering(deadLetterRecoverer, deliveryAttempts, props);
+    }
+
+    /**
+     * Picked up by KafkaConfig for the record listener factory. Containers of
+     * retry-topics listeners get the retry-topic handler instead.
+     */
+    @Bean
+    public CommonErrorHandler recordErrorHandler(DeadLetterPublishingRecoverer deadLetterRecoverer,
+                                                 DeliveryAttempts deliveryAttempts,
+                                                 ErrorHandlingProperties props) {
+        return deadLettering(deadLetterRecoverer, deliveryAttempts, props);
+    }
+
+    private static DefaultErrorHandler deadLettering(DeadLetterPublishingRecoverer recoverer,
+                                                     DeliveryAttempts deliveryAttempts,
+                                                     ErrorHandlingProperties props) {
+        var backOff = new ExponentialBackOffWithMaxRetries(props.attempts() - 1);
+        backOff.setInitialInterval(props.initialDelay().toMillis());
+        backOff.setMultiplier(props.multiplier());
+        backOff.setMaxInterval(props.maxDelay().toMillis());
+        var handler = new DefaultErrorHandler(recoverer, backOff);
+        handler.setRetryListeners(deliveryAttempts);
+        return handler;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @Conditional(RetryTopicsConfigured.class)
+    static class RetryTopics {
+
+        @Bean
+        RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, EventEnvelope> kafkaTemplate,
+                                                        ErrorHandlingProperties props,
+                                                        @Value("${spring.application.name}") String serviceName) {
+            return RetryTopicConfigurationBuilder.newInstance()
+                    .includeTopics(props.retryTopics())
+                    .maxAttempts(props.attempts())
+                    .exponentialBackoff(props.initialDelay().toMillis(), props.multiplier(),
+                            props.maxDelay().toMillis())
+                    .suffixTopicsWithIndexValues()
+                    .retryTopicSuffix(DeadLetterTopics.retrySuffix(serviceName))
+                    .dltSuffix(DeadLetterTopics.dltSuffix(serviceName))
+                    .listenerFactory("kafkaListenerContainerFactory")
+                    .doNotRetryOnDltFailure()
+                    .create(kafkaTemplate);
+        }
+    }
+
+    /**
+     * An empty include list would put every listener — batch ones too — on retry topics.
+     */
+    static class RetryTopicsConfigured implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return Binder.get(context.getEnvironment())
+                    .bind("asd.kafka.errors.retry-topics", Bindable.listOf(String.class))
+                    .map(topics -> !topics.isEmpty())
+                    .orElse(false);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package it.asd.common.kafka.error;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Binds {@code asd.kafka.errors.*} from application.yml.
+ * <p>
+ * attempts counts the first delivery: attempts=4 means three retries, each
+ * delay = initial-delay × multiplier^n capped at max-delay (1s, 5s, 25s with
+ * the defaults).
+ * <p>
+ * retry-topics lists the record-listener topics that get non-blocking retry
+ * tiers (one Kafka topic per delay). Batch listeners retry in place with the
+ * same backoff. Either way the record finally lands in the per-source DLT.
+ * Exact topic names only — the retry tiers are created per name.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.errors")
+public record ErrorHandlingProperties(
+        boolean enabled,
+        @DefaultValue("4") int attempts,
+        @DefaultValue("1s") Duration initialDelay,
+        @DefaultValue("5.0") double multiplier,
+        @DefaultValue("5m") Duration maxDelay,
+        List<String> retryTopics,
+        @DefaultValue("500") int replayLimit
+) {
+
+    public ErrorHandlingProperties {
+        if (attempts < 1)
+            throw new IllegalArgumentException("asd.kafka.errors.attempts must be >= 1, got " + attempts);
+        if (multiplier < 1.0)
+            throw new IllegalArgumentException("asd.kafka.errors.multiplier must be >= 1.0, got " + multiplier);
+        retryTopics = retryTopics == null ? List.of() : List.copyOf(retryTopics);
+    }
+}
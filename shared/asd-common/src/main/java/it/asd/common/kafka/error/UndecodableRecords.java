@@ -0,0 +1,47 @@
+package it.asd.common.kafka.error;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+/**
+ * Records the ErrorHandlingDeserializer could not decode.
+ * <p>
+ * A record listener never sees them: the container raises the
+ * DeserializationException, which is not retryable, and recordErrorHandler
+ * dead-letters the raw bytes. A batch listener would get them as null values
+ * in the list, so the batch factory diverts them here before the listener
+ * runs — dead-lettered with the same recoverer, or dropped with an error log
+ * when asd.kafka.errors is off.
+ */
+public final class UndecodableRecords {
+
+    private static final Logger log = LoggerFactory.getLogger(UndecodableRecords.class);
+    private static final LogAccessor logAccessor = new LogAccessor(UndecodableRecords.class);
+
+    private UndecodableRecords() {
+    }
+
+    /**
+     * @param recoverer the DLT recoverer, or null when asd.kafka.errors is disabled
+     * @return true when the record was undecodable and has been handled here
+     */
+    public static boolean divert(ConsumerRecord<?, ?> rec, ConsumerRecordRecoverer recoverer) {
+        var error = SerializationUtils.getExceptionFromHeader(
+                rec, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor);
+        if (error == null) return false;
+
+        if (recoverer == null) {
+            log.error("[DLT] Dropping undecodable record {}-{}@{}: {}",
+                    rec.topic(), rec.partition(), rec.offset(), error.getMessage());
+        } else {
+            recoverer.accept(rec, error);
+            log.warn("[DLT] Dead-lettered undecodable record {}-{}@{}: {}",
+                    rec.topic(), rec.partition(), rec.offset(), error.getMessage());
+        }
+        return true;
+    }
+}
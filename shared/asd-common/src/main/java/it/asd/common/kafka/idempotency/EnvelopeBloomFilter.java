@@ -0,0 +1,72 @@
+package it.asd.common.kafka.idempotency;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over (consumer, envelopeId).
+ * <p>
+ * mightContain == false is definite: the pair was never put. true may be a
+ * false positive at roughly the configured rate. k probes come from double
+ * hashing the two mixed halves of the UUID (Kirsch–Mitzenmacher).
+ */
+final class EnvelopeBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int probes;
+
+    EnvelopeBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.numBits = wordCount * 64L;
+        this.probes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * ln2));
+    }
+
+    void put(String consumer, UUID envelopeId) {
+        long h1 = h1(consumer, envelopeId);
+        long h2 = h2(envelopeId);
+        for (int i = 0; i < probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    boolean mightContain(String consumer, UUID envelopeId) {
+        long h1 = h1(consumer, envelopeId);
+        long h2 = h2(envelopeId);
+        for (int i = 0; i < probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long h1(String consumer, UUID envelopeId) {
+        return mix(envelopeId.getMostSignificantBits() ^ (consumer.hashCode() * 0x9E3779B97F4A7C15L));
+    }
+
+    private static long h2(UUID envelopeId) {
+        return mix(envelopeId.getLeastSignificantBits()) | 1;   // odd → probes never collapse
+    }
+
+    /**
+     * MurmurHash3 fmix64 finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,31 @@
+package it.asd.common.kafka.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Binds {@code asd.kafka.idempotency.*} from application.yml.
+ * <p>
+ * ttl must exceed the longest realistic redelivery window (retention of the
+ * retry tiers and DLT replays included). expected-insertions sizes the Bloom
+ * filter for the ids kept within ttl; beyond it the false-positive rate — and
+ * with it the share of checks that reach Postgres — grows.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.idempotency")
+public record IdempotencyProperties(
+        boolean enabled,
+        @DefaultValue("7d") Duration ttl,
+        @DefaultValue("1000000") int expectedInsertions,
+        @DefaultValue("0.01") double falsePositiveRate,
+        @DefaultValue("1h") Duration pruneInterval
+) {
+
+    public IdempotencyProperties {
+        if (expectedInsertions < 1)
+            throw new IllegalArgumentException("asd.kafka.idempotency.expected-insertions must be >= 1");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("asd.kafka.idempotency.false-positive-rate must be in (0, 1)");
+    }
+}
@@ -0,0 +1,233 @@
+package it.asd.common.kafka.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotent-consumer support keyed by (consumer, EventEnvelope.envelopeId).
+ * <p>
+ * processed_envelope (V3 migration) is the source of truth; an in-memory
+ * Bloom filter in front of it answers "definitely new" without a query,
+ * which is the common case. Only a filter hit (a real duplicate or a ~1%
+ * false positive) reads the table. Usage inside the consumer's transaction:
+ * <pre>
+ * if (!idempotency.isNew(CONSUMER, envelope.envelopeId())) { ack; return; }
+ * ... process ...
+ * idempotency.markProcessed(CONSUMER, envelope.envelopeId());
+ * </pre>
+ * Batch listeners do the same per poll with EventBatches.unprocessed and
+ * markProcessed(CONSUMER, EventBatches.envelopeIds(fresh)).
+ * The filter must know every id the table knows, also those written by
+ * other replicas: it is loaded on start, topped up from the table on every
+ * partition assignment (KafkaConfig wires the rebalance listener) and rebuilt
+ * after each TTL prune. Until the first load every check goes to the table.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyStore implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    /**
+     * Rows are stamped with their transaction's start time, so a refresh
+     * re-reads this much before the previous one to catch late commits.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO processed_envelope (consumer, envelope_id)
+            VALUES (?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final IdempotencyProperties props;
+
+    private final Counter bloomMisses;
+    private final Counter tableHits;
+    private final Counter tableMisses;
+
+    private volatile EnvelopeBloomFilter filter;
+    private volatile EnvelopeBloomFilter rebuilding;   // receives puts while a rebuild loads
+    private volatile boolean loaded;
+    private volatile Instant lastRefresh = Instant.EPOCH;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    public IdempotencyStore(JdbcTemplate jdbc, IdempotencyProperties props, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.props = props;
+        this.filter = newFilter();
+
+        this.bloomMisses = checks(meterRegistry, "bloom_miss");
+        this.tableHits = checks(meterRegistry, "duplicate");
+        this.tableMisses = checks(meterRegistry, "false_positive");
+    }
+
+    private static Counter checks(MeterRegistry registry, String outcome) {
+        return Counter.builder("asd.idempotency.checks")
+                .description("Duplicate checks by outcome; only duplicate and false_positive query Postgres")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // ── Checks ────────────────────────────────────────────────────────────────
+
+    public boolean isNew(String consumer, UUID envelopeId) {
+        if (loaded && !filter.mightContain(consumer, envelopeId)) {
+            bloomMisses.increment();
+            return true;
+        }
+        boolean seen = Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM processed_envelope WHERE consumer = ? AND envelope_id = ?)",
+                Boolean.class, consumer, envelopeId));
+        (seen ? tableHits : tableMisses).increment();
+        return !seen;
+    }
+
+    /**
+     * Batch form of isNew — filter hits are resolved with one query. Keeps input order.
+     */
+    public List<UUID> filterNew(String consumer, Collection<UUID> envelopeIds) {
+        var maybeSeen = new ArrayList<UUID>();
+        for (var id : envelopeIds)
+            if (!loaded || filter.mightContain(consumer, id)) maybeSeen.add(id);
+        bloomMisses.increment(envelopeIds.size() - maybeSeen.size());
+        if (maybeSeen.isEmpty()) return List.copyOf(envelopeIds);
+
+        var seen = new HashSet<UUID>();
+        jdbc.query("SELECT envelope_id FROM processed_envelope WHERE consumer = ? AND envelope_id = ANY(?)",
+                (RowCallbackHandler) rs -> {
+                    seen.add(rs.getObject(1, UUID.class));
+                }, consumer, maybeSeen.toArray(UUID[]::new));
+        tableHits.increment(seen.size());
+        tableMisses.increment(maybeSeen.size() - seen.size());
+        return envelopeIds.stream().filter(id -> !seen.contains(id)).toList();
+    }
+
+    // ── Marks ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Joins the caller's transaction; a rollback leaves the id only in the
+     * filter, which costs one query on redelivery and nothing else.
+     */
+    public void markProcessed(String consumer, UUID envelopeId) {
+        jdbc.update(INSERT_SQL, consumer, envelopeId);
+        remember(consumer, envelopeId);
+    }
+
+    public void markProcessed(String consumer, Collection<UUID> envelopeIds) {
+        if (envelopeIds.isEmpty()) return;
+        var ids = List.copyOf(envelopeIds);
+        jdbc.batchUpdate(INSERT_SQL, ids, ids.size(), (ps, id) -> {
+            ps.setString(1, consumer);
+            ps.setObject(2, id);
+        });
+        ids.forEach(id -> remember(consumer, id));
+    }
+
+    private void remember(String consumer, UUID envelopeId) {
+        filter.put(consumer, envelopeId);
+        var next = rebuilding;
+        if (next != null) next.put(consumer, envelopeId);
+    }
+
+    // ── Filter maintenance ────────────────────────────────────────────────────
+
+    /**
+     * Loads ids written since the last refresh (by any replica).
+     * Called on partition assignment, before the first poll of the new partitions.
+     */
+    public synchronized void refresh() {
+        var since = lastRefresh.minus(REFRESH_OVERLAP);
+        lastRefresh = Instant.now();
+        int count = load(filter, since);
+        loaded = true;
+        log.debug("[IDEMPOTENCY] Refreshed filter with {} ids since {}", count, since);
+    }
+
+    /**
+     * Deletes ids older than ttl and rebuilds the filter without them
+     * (a Bloom filter cannot forget).
+     */
+    synchronized void pruneAndRebuild() {
+        int pruned = jdbc.update("DELETE FROM processed_envelope WHERE processed_at < ?",
+                Timestamp.from(Instant.now().minus(props.ttl())));
+
+        var next = newFilter();
+        rebuilding = next;
+        lastRefresh = Instant.now();
+        int count = load(next, Instant.EPOCH);
+        filter = next;
+        rebuilding = null;
+        loaded = true;
+        log.info("[IDEMPOTENCY] Pruned {} ids, filter rebuilt with {}", pruned, count);
+    }
+
+    private int load(EnvelopeBloomFilter target, Instant since) {
+        int[] count = {0};
+        jdbc.query("SELECT consumer, envelope_id FROM processed_envelope WHERE processed_at >= ?",
+                (RowCallbackHandler) rs -> {
+                    target.put(rs.getString(1), rs.getObject(2, UUID.class));
+                    count[0]++;
+                }, Timestamp.from(since));
+        return count[0];
+    }
+
+    private EnvelopeBloomFilter newFilter() {
+        return new EnvelopeBloomFilter(props.expectedInsertions(), props.falsePositiveRate());
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        pruneAndRebuild();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("idempotency-prune").daemon().factory());
+        long interval = props.pruneInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                pruneAndRebuild();
+            } catch (Exception ex) {
+                log.error("[IDEMPOTENCY] Prune failed, keeping current filter: {}", ex.getMessage(), ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the listener containers, so the first poll already sees a loaded filter.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+}
@@ -0,0 +1,176 @@
+package it.asd.common.kafka.listener;
+
+import it.asd.common.kafka.tracing.EnvelopeTracingInterceptor;
+import it.asd.common.tracing.Correlation;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs one poll in parallel across keys while keeping order within a key.
+ * <p>
+ * EventPublisher keys every record by aggregateId, so ordering only matters
+ * per key. The poll is grouped by key (poll order kept inside each group);
+ * each group runs sequentially on its own virtual thread, groups run
+ * concurrently — at most key-parallelism at a time across all listeners.
+ * This scales a hot topic past its partition count without repartitioning.
+ * <p>
+ * A failing record stops its group (later records of the same key are
+ * skipped, never reordered); other groups finish. The result carries the
+ * poll index of the earliest failure: every record before it succeeded, so
+ * a batch listener throws BatchListenerFailedException for it, the error
+ * handler commits up to it and the rest is redelivered. Handlers must
+ * therefore be idempotent.
+ * <p>
+ * dispatchGroups() hands each key's records to the handler in one call, for
+ * batch consumers that fold a key's events into one write. Consumers that
+ * write the whole poll with a single set-based statement (the read-model
+ * upserts, the finance pending payments) do not use the dispatcher: there is
+ * nothing to run in parallel, and EventBatches.latestByKey/mergeByKey already
+ * resolve the per-key order.
+ */
+public class KeyOrderedDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private static final Object NULL_KEY = new Object();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public KeyOrderedDispatcher(int keyParallelism) {
+        this.permits = new Semaphore(keyParallelism, true);
+    }
+
+    public <K, V> Result dispatch(List<ConsumerRecord<K, V>> records, RecordHandler<K, V> handler) {
+        return run(records, (indexes, failure) -> {
+            for (int index : indexes) {
+                var record = records.get(index);
+                try (var _ = Correlation.open(EnvelopeTracingInterceptor.correlationId(record))) {
+                    handler.handle(record);
+                } catch (Exception ex) {
+                    failure.record(index, ex);
+                    return;   // skip the rest of this key to keep its order
+                }
+            }
+        });
+    }
+
+    /**
+     * Same grouping, but the handler gets all records of one key at once (poll order).
+     * A group is all or nothing: its failure is reported at its first record.
+     * The correlation id is bound when the whole group shares one.
+     */
+    public <K, V> Result dispatchGroups(List<ConsumerRecord<K, V>> records, GroupHandler<K, V> handler) {
+        return run(records, (indexes, failure) -> {
+            var group = indexes.stream().map(records::get).toList();
+            try (var _ = Correlation.open(EnvelopeTracingInterceptor.sharedCorrelationId(group))) {
+                handler.handle(group);
+            } catch (Exception ex) {
+                failure.record(indexes.getFirst(), ex);
+            }
+        });
+    }
+
+    private <K, V> Result run(List<ConsumerRecord<K, V>> records, GroupTask task) {
+        var groups = new LinkedHashMap<Object, List<Integer>>();
+        for (int i = 0; i < records.size(); i++) {
+            var key = records.get(i).key();
+            groups.computeIfAbsent(key == null ? NULL_KEY : key, _ -> new ArrayList<>()).add(i);
+        }
+
+        var failure = new Failure();
+        Runnable[] tasks = groups.values().stream()
+                .map(indexes -> (Runnable) () -> runGroup(indexes, task, failure))
+                .toArray(Runnable[]::new);
+
+        if (tasks.length == 1) {
+            tasks[0].run();   // a single key gains nothing from a thread hop
+        } else {
+            var futures = new CompletableFuture<?>[tasks.length];
+            for (int i = 0; i < tasks.length; i++)
+                futures[i] = CompletableFuture.runAsync(tasks[i], executor);
+            CompletableFuture.allOf(futures).join();
+        }
+
+        var result = failure.result();
+        log.debug("[DISPATCH] {} records over {} keys, firstFailedIndex={}",
+                records.size(), groups.size(), result.firstFailedIndex());
+        return result;
+    }
+
+    private void runGroup(List<Integer> indexes, GroupTask task, Failure failure) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.record(indexes.getFirst(), ex);
+            return;
+        }
+        try {
+            task.run(indexes, failure);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * One key's work over its poll indexes; reports into the shared Failure.
+     */
+    private interface GroupTask {
+        void run(List<Integer> indexes, Failure failure);
+    }
+
+    /**
+     * Earliest failure of one dispatch, written by several virtual threads.
+     */
+    private static final class Failure {
+        private int index = -1;
+        private Exception error;
+
+        synchronized void record(int index, Exception error) {
+            if (this.index < 0 || index < this.index) {
+                this.index = index;
+                this.error = error;
+            }
+        }
+
+        synchronized Result result() {
+            return new Result(index, error);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface GroupHandler<K, V> {
+        void handle(List<ConsumerRecord<K, V>> records) throws Exception;
+    }
+
+    /**
+     * @param firstFailedIndex poll index of the earliest failed record, -1 when all succeeded
+     * @param error            the exception of that record
+     */
+    public record Result(int firstFailedIndex, Exception error) {
+        public boolean complete() {
+            return firstFailedIndex < 0;
+        }
+    }
+}
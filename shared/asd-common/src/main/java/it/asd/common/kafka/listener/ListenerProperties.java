@@ -0,0 +1,73 @@
+package it.asd.common.kafka.listener;
+
+import it.asd.common.kafka.TopicPatterns;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Binds {@code asd.kafka.listener.*} from application.yml.
+ * <p>
+ * concurrency is the number of consumer threads per listener container
+ * (default 1). Per-topic overrides claim topics by exact name or "prefix.*";
+ * a container listening to several topics takes the highest match:
+ * <pre>
+ * asd.kafka.listener:
+ *   concurrency: 1
+ *   topics:
+ *     - topics: [compliance.*]
+ *       concurrency: 3
+ * </pre>
+ * Threads beyond the partition count sit idle — when a topic has fewer
+ * partitions than needed, use KeyOrderedDispatcher instead.
+ * key-parallelism caps how many keys a KeyOrderedDispatcher runs at once.
+ * Each running key group holds a database connection for its transaction,
+ * so the effective value is also capped at the Hikari pool size minus
+ * DB_HEADROOM connections kept for HTTP requests and the outbox relay.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.listener")
+public record ListenerProperties(
+        @DefaultValue("1") int concurrency,
+        List<TopicConcurrency> topics,
+        @DefaultValue("16") int keyParallelism
+) {
+
+    public static final int DB_HEADROOM = 3;
+
+    public ListenerProperties {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("asd.kafka.listener.concurrency must be >= 1, got " + concurrency);
+        if (keyParallelism < 1)
+            throw new IllegalArgumentException("asd.kafka.listener.key-parallelism must be >= 1, got " + keyParallelism);
+        topics = topics == null ? List.of() : List.copyOf(topics);
+    }
+
+    /**
+     * Concurrency for a container subscribed to the given topics.
+     */
+    public int concurrencyFor(String... subscribed) {
+        if (subscribed == null) return concurrency;
+        int result = 0;
+        for (var override : topics)
+            for (var topic : subscribed)
+                if (TopicPatterns.matchesAny(override.topics(), topic))
+                    result = Math.max(result, override.concurrency());
+        return result > 0 ? result : concurrency;
+    }
+
+    /**
+     * key-parallelism, capped so dispatched groups cannot drain a pool of poolSize connections.
+     */
+    public int keyParallelismFor(int poolSize) {
+        return Math.max(1, Math.min(keyParallelism, poolSize - DB_HEADROOM));
+    }
+
+    public record TopicConcurrency(List<String> topics, int concurrency) {
+        public TopicConcurrency {
+            if (concurrency < 1)
+                throw new IllegalArgumentException("listener concurrency must be >= 1, got " + concurrency);
+            topics = topics == null ? List.of() : List.copyOf(topics);
+        }
+    }
+}
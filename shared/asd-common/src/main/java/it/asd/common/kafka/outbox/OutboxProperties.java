@@ -0,0 +1,23 @@
+package it.asd.common.kafka.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Binds {@code asd.kafka.outbox.*} from application.yml.
+ * <p>
+ * enabled=false (default) → EventPublisher sends straight to Kafka.
+ * enabled=true            → EventPublisher stages envelopes in event_outbox
+ * and OutboxRelay drains them in the background.
+ * The service must ship the event_outbox migration before enabling it.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.outbox")
+public record OutboxProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000") int batchSize,       // rows per drain transaction
+        @DefaultValue("200ms") Duration pollInterval,  // idle wait when the table is empty
+        @DefaultValue("30s") Duration sendTimeout     // max wait for broker acks per batch
+) {
+}
@@ -0,0 +1,238 @@
+package it.asd.common.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import it.asd.common.kafka.producer.ProducerProfiles;
+import it.asd.common.kafka.tracing.EventMetrics;
+import it.asd.events.EventEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background relay: drains event_outbox to Kafka in large, pipelined batches.
+ * <p>
+ * One drain = one DB transaction:
+ * 1. pg_try_advisory_xact_lock → only one relay per service drains at a time,
+ * so per-aggregate order (ORDER BY id) survives multiple replicas
+ * 2. read up to batchSize rows in insertion order
+ * 3. send them all without waiting, flush, then await every ack at once
+ * (the producer pipelines the whole batch instead of one round trip per event);
+ * each row goes through its topic's producer profile, every template used is flushed
+ * 4. delete exactly the rows that were acked, commit
+ * <p>
+ * Any send failure rolls the transaction back — rows stay and are retried on
+ * the next tick. Delivery is therefore at-least-once; consumers must be idempotent.
+ * <p>
+ * Metrics: asd.outbox.lag (age of the oldest relayed row), asd.outbox.batch.size,
+ * asd.outbox.relayed (rate() = drain throughput), asd.outbox.relay.failures,
+ * and asd.kafka.publish.latency per row, send → broker ack, as in direct mode.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    /**
+     * Advisory lock key shared by every replica of the same service database.
+     */
+    private static final long RELAY_LOCK_KEY = 0x6F7574626F78L;   // "outbox"
+
+    private static final String SELECT_SQL = """
+            SELECT id, topic, record_key, envelope::text AS envelope, created_at
+            FROM event_outbox
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM event_outbox WHERE id = ANY(?)";
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, _) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getString("topic"),
+            rs.getString("record_key"),
+            rs.getString("envelope"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProducerProfiles producers;
+    private final ObjectMapper kafkaObjectMapper;
+    private final OutboxProperties props;
+    private final EventMetrics metrics;
+
+    private final Counter relayed;
+    private final Counter failures;
+    private final DistributionSummary batchSizes;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    public OutboxRelay(JdbcTemplate jdbc,
+                       PlatformTransactionManager transactionManager,
+                       ProducerProfiles producers,
+                       ObjectMapper kafkaObjectMapper,
+                       OutboxProperties props,
+                       EventMetrics metrics,
+                       MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.producers = producers;
+        this.kafkaObjectMapper = kafkaObjectMapper;
+        this.props = props;
+        this.metrics = metrics;
+
+        this.relayed = Counter.builder("asd.outbox.relayed")
+                .description("Envelopes delivered from the outbox to Kafka")
+                .register(meterRegistry);
+        this.failures = Counter.builder("asd.outbox.relay.failures")
+                .description("Drain transactions rolled back because a send failed")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("asd.outbox.batch.size")
+                .description("Rows relayed per drain transaction")
+                .register(meterRegistry);
+        TimeGauge.builder("asd.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest envelope in the last relayed batch")
+                .register(meterRegistry);
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("outbox-relay").daemon().factory());
+        running = true;
+        long delay = props.pollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::drainUntilEmpty, delay, delay, TimeUnit.MILLISECONDS);
+        log.info("[OUTBOX] Relay started (batchSize={}, pollInterval={})",
+                props.batchSize(), props.pollInterval());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(props.sendTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                executor.shutdownNow();
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("[OUTBOX] Relay stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ── Drain ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Keeps draining while batches come back full — a backlog is emptied
+     * back-to-back instead of one batch per poll interval.
+     */
+    void drainUntilEmpty() {
+        try {
+            int drained;
+            do {
+                drained = drainOnce();
+            } while (running && drained == props.batchSize());
+        } catch (Exception ex) {
+            failures.increment();
+            log.error("[OUTBOX] Drain failed, rows kept for retry: {}", ex.getMessage(), ex);
+        }
+    }
+
+    int drainOnce() {
+        Integer drained = tx.execute(_ -> {
+            Boolean locked = jdbc.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked))
+                return 0;   // another replica is draining
+
+            var rows = jdbc.query(SELECT_SQL, ROW_MAPPER, props.batchSize());
+            if (rows.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+
+            sendPipelined(rows);
+            deleteRelayed(rows);
+
+            lagMillis.set(Duration.between(rows.getFirst().createdAt(), Instant.now()).toMillis());
+            return rows.size();
+        });
+
+        int count = drained == null ? 0 : drained;
+        if (count > 0) {
+            relayed.increment(count);
+            batchSizes.record(count);
+            log.debug("[OUTBOX] Relayed {} envelopes", count);
+        }
+        return count;
+    }
+
+    private void sendPipelined(List<OutboxRow> rows) {
+        var futures = new ArrayList<CompletableFuture<?>>(rows.size());
+        var used = Collections.newSetFromMap(new IdentityHashMap<KafkaTemplate<String, EventEnvelope>, Boolean>());
+        for (var row : rows) {
+            var template = producers.templateFor(row.topic());
+            used.add(template);
+            long start = System.nanoTime();
+            futures.add(template.send(row.topic(), row.key(), readEnvelope(row))
+                    .whenComplete((_, ex) -> metrics.publishLatency(row.topic(), start, ex == null)));
+        }
+        used.forEach(KafkaTemplate::flush);
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(props.sendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting outbox acks", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Outbox batch not acknowledged by Kafka", ex);
+        }
+    }
+
+    private void deleteRelayed(List<OutboxRow> rows) {
+        var ids = rows.stream().map(OutboxRow::id).toArray(Long[]::new);
+        jdbc.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+    }
+
+    private EventEnvelope readEnvelope(OutboxRow row) {
+        try {
+            return kafkaObjectMapper.readValue(row.envelope(), EventEnvelope.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupt outbox row id=" + row.id(), ex);
+        }
+    }
+
+    private record OutboxRow(long id, String topic, String key, String envelope, Instant createdAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package it.asd.common.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.asd.events.EventEnvelope;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Stages an envelope in the event_outbox table.
+ * <p>
+ * Propagation.MANDATORY: the row MUST ride in the caller's transaction —
+ * that is the whole point of the outbox. If the business write rolls back,
+ * the event disappears with it; if it commits, OutboxRelay will deliver it.
+ * Calling this outside a transaction is a programming error and fails fast.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.outbox", name = "enabled", havingValue = "true")
+public class OutboxWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO event_outbox (envelope_id, topic, record_key, envelope)
+            VALUES (?, ?, ?, CAST(? AS jsonb))
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper kafkaObjectMapper;
+
+    public OutboxWriter(JdbcTemplate jdbc, ObjectMapper kafkaObjectMapper) {
+        this.jdbc = jdbc;
+        this.kafkaObjectMapper = kafkaObjectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, String key, EventEnvelope envelope) {
+        jdbc.update(INSERT_SQL, envelope.envelopeId(), topic, key, toJson(envelope));
+    }
+
+    /**
+     * One JDBC batch for a burst of envelopes on the same topic, keyed by their aggregateId.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(String topic, List<EventEnvelope> envelopes) {
+        if (envelopes.isEmpty()) return;
+        jdbc.batchUpdate(INSERT_SQL, envelopes, envelopes.size(), (ps, envelope) -> {
+            ps.setObject(1, envelope.envelopeId());
+            ps.setString(2, topic);
+            ps.setString(3, envelope.payload().aggregateId());
+            ps.setString(4, toJson(envelope));
+        });
+    }
+
+    private String toJson(EventEnvelope envelope) {
+        try {
+            return kafkaObjectMapper.writeValueAsString(envelope);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(
+                    "Cannot serialize envelope " + envelope.envelopeId() + " for the outbox", ex);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package it.asd.common.kafka.producer;
+
+import it.asd.common.kafka.TopicPatterns;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Binds {@code asd.kafka.producer.*} from application.yml.
+ * <p>
+ * Two built-in profiles, overridable field by field:
+ * - latency    (default): linger 0, small batches, no compression — interactive handlers
+ * - throughput: linger 20ms, 256KB batches, lz4 — nightly jobs and bulk publishing
+ * <p>
+ * A profile claims topics through its topics list (exact name or "prefix.*");
+ * unclaimed topics use default-profile. When several profiles match, the most
+ * specific pattern wins: an exact name, then the longest prefix. The same
+ * pattern claimed by two profiles is rejected at startup. Example:
+ * <pre>
+ * asd.kafka.producer.profiles.throughput.topics: [finance.payment.overdue]
+ * </pre>
+ * Idempotence and acks=all are fixed for every profile, so max-in-flight is capped at 5.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.producer")
+public record ProducerProfileProperties(
+        @DefaultValue("latency") String defaultProfile,
+        Map<String, Profile> profiles
+) {
+
+    public static final String LATENCY = "latency";
+    public static final String THROUGHPUT = "throughput";
+
+    static final Map<String, Profile> BUILT_IN = Map.of(
+            LATENCY, new Profile(Duration.ZERO, DataSize.ofKilobytes(16), "none",
+                    DataSize.ofMegabytes(32), 5, List.of()),
+            THROUGHPUT, new Profile(Duration.ofMillis(20), DataSize.ofKilobytes(256), "lz4",
+                    DataSize.ofMegabytes(64), 5, List.of()));
+
+    public ProducerProfileProperties {
+        var merged = new LinkedHashMap<>(BUILT_IN);
+        if (profiles != null)
+            profiles.forEach((name, p) ->
+                    merged.put(name, p.orElse(BUILT_IN.getOrDefault(name, BUILT_IN.get(LATENCY)))));
+        if (!merged.containsKey(defaultProfile))
+            throw new IllegalArgumentException("asd.kafka.producer.default-profile '" + defaultProfile
+                    + "' is not a defined profile " + merged.keySet());
+        var claimedBy = new HashMap<String, String>();
+        merged.forEach((name, p) -> p.topics().forEach(pattern -> {
+            var other = claimedBy.putIfAbsent(pattern, name);
+            if (other != null && !other.equals(name))
+                throw new IllegalArgumentException("asd.kafka.producer: topic pattern '" + pattern
+                        + "' is claimed by both '" + other + "' and '" + name + "'");
+        }));
+        profiles = Collections.unmodifiableMap(merged);
+    }
+
+    /**
+     * Profile name for a topic: the profile with the most specific matching pattern, else default-profile.
+     */
+    public String profileFor(String topic) {
+        String best = null;
+        int bestRank = -1;
+        for (var entry : profiles.entrySet())
+            for (var pattern : entry.getValue().topics()) {
+                if (!TopicPatterns.matches(pattern, topic)) continue;
+                int rank = specificity(pattern);
+                if (rank > bestRank) {
+                    best = entry.getKey();
+                    bestRank = rank;
+                }
+            }
+        return best != null ? best : defaultProfile;
+    }
+
+    /**
+     * Exact names outrank every prefix; among prefixes the longer one wins.
+     */
+    private static int specificity(String pattern) {
+        return pattern.endsWith(".*") ? pattern.length() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Null fields inherit from the built-in profile of the same name (or latency).
+     */
+    public record Profile(
+            Duration linger,
+            DataSize batchSize,
+            String compressionType,
+            DataSize bufferMemory,
+            Integer maxInFlight,
+            List<String> topics
+    ) {
+        public Profile {
+            if (maxInFlight != null && (maxInFlight < 1 || maxInFlight > 5))
+                throw new IllegalArgumentException(
+                        "max-in-flight must be 1..5 with idempotence enabled, got " + maxInFlight);
+        }
+
+        Profile orElse(Profile base) {
+            return new Profile(
+                    linger != null ? linger : base.linger(),
+                    batchSize != null ? batchSize : base.batchSize(),
+                    compressionType != null ? compressionType : base.compressionType(),
+                    bufferMemory != null ? bufferMemory : base.bufferMemory(),
+                    maxInFlight != null ? maxInFlight : base.maxInFlight(),
+                    topics != null ? List.copyOf(topics) : base.topics());
+        }
+
+        public Map<String, Object> toProducerConfig() {
+            return Map.of(
+                    ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis(),
+                    ProducerConfig.BATCH_SIZE_CONFIG, (int) batchSize.toBytes(),
+                    ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                    ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory.toBytes(),
+                    ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION_CONFIG, maxInFlight);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package it.asd.common.kafka.producer;
+
+import it.asd.events.EventEnvelope;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One KafkaTemplate per producer profile; picks the template for a topic.
+ * <p>
+ * Each profile owns its own producer (and therefore its own batching buffer),
+ * so a nightly burst on a throughput topic never delays an interactive send.
+ * The default profile reuses the primary kafkaTemplate bean.
+ */
+public class ProducerProfiles implements DisposableBean {
+
+    private final ProducerProfileProperties props;
+    private final Map<String, KafkaTemplate<String, EventEnvelope>> templates;
+
+    public ProducerProfiles(ProducerProfileProperties props,
+                            KafkaTemplate<String, EventEnvelope> defaultTemplate,
+                            Function<ProducerProfileProperties.Profile, DefaultKafkaProducerFactory<String, EventEnvelope>> factories) {
+        this.props = props;
+        this.templates = props.profiles().entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e ->
+                        e.getKey().equals(props.defaultProfile())
+                                ? defaultTemplate
+                                : new KafkaTemplate<>(factories.apply(e.getValue()))));
+    }
+
+    public KafkaTemplate<String, EventEnvelope> templateFor(String topic) {
+        return templates.get(props.profileFor(topic));
+    }
+
+    public KafkaTemplate<String, EventEnvelope> template(String profile) {
+        var template = templates.get(profile);
+        if (template == null)
+            throw new IllegalArgumentException("Unknown producer profile " + profile);
+        return template;
+    }
+
+    @Override
+    public void destroy() {
+        var defaultTemplate = templates.get(props.defaultProfile());
+        templates.values().stream()
+                .filter(t -> t != defaultTemplate)   // the default factory is a bean, Spring closes it
+                .forEach(t -> ((DefaultKafkaProducerFactory<?, ?>) t.getProducerFactory()).destroy());
+    }
+}
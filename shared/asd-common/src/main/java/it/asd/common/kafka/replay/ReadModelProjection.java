@@ -0,0 +1,44 @@
+package it.asd.common.kafka.replay;
+
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * A read model that can be rebuilt from Kafka by {@link ReadModelRebuilder}.
+ * <p>
+ * Implementations are plain @Components in the owning service. apply() must
+ * write only to the shadow tables it is given, with set-based SQL (one JDBC
+ * batch per poll) — it runs inside the rebuild transaction.
+ */
+public interface ReadModelProjection {
+
+    /**
+     * Name used in the operator endpoint, e.g. "person_cache".
+     */
+    String name();
+
+    List<String> topics();
+
+    /**
+     * Live tables owned by this read model, parents first.
+     */
+    List<String> tables();
+
+    /**
+     * Called after the shadow tables are created with LIKE … INCLUDING ALL.
+     * LIKE does not copy foreign keys: add them here, pointing at the shadows.
+     */
+    default void prepareShadow(JdbcTemplate jdbc, ShadowTables shadow) {
+    }
+
+    void apply(List<ConsumerRecord<String, EventEnvelope>> records, ShadowTables shadow);
+
+    /**
+     * Called once the swap has committed. Drop in-process copies of the old tables here.
+     */
+    default void afterSwap() {
+    }
+}
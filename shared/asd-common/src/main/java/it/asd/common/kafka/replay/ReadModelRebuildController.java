@@ -0,0 +1,65 @@
+package it.asd.common.kafka.replay;
+
+import it.asd.common.exception.ApiErrors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Operator endpoints:
+ * POST /internal/read-models/{name}/rebuild?from=earliest|2025-09-01T00:00:00Z|0:1200,1:980
+ * starts a rebuild in the background (202); GET the same path reports its progress.
+ */
+@Validated
+@RestController
+@RequestMapping("/internal/read-models")
+@ConditionalOnProperty(prefix = "asd.kafka.replay", name = "enabled", havingValue = "true")
+public class ReadModelRebuildController {
+
+    private final ReadModelRebuilder rebuilder;
+
+    public ReadModelRebuildController(ReadModelRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @PostMapping("/{name}/rebuild")
+    public ResponseEntity<?> rebuild(@PathVariable String name,
+                                     @RequestParam(required = false) String from) {
+        ReplayStart start;
+        try {
+            start = ReplayStart.parse(from);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(
+                    ApiErrors.of(HttpStatus.BAD_REQUEST, ApiErrors.VALIDATION_FAILED, ex.getMessage()));
+        }
+
+        return switch (rebuilder.start(name, start)) {
+            case RebuildResult.Started s -> ResponseEntity.accepted().body(s.status());
+
+            case RebuildResult.AlreadyRunning r -> ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    ApiErrors.of(HttpStatus.CONFLICT, ApiErrors.REBUILD_IN_PROGRESS,
+                            "A rebuild of " + name + " is already running"));
+
+            case RebuildResult.NotFound nf -> notFound(nf.readModel());
+
+            case RebuildResult.Rejected r -> ResponseEntity.badRequest().body(
+                    ApiErrors.of(HttpStatus.BAD_REQUEST, ApiErrors.VALIDATION_FAILED, r.reason()));
+        };
+    }
+
+    @GetMapping("/{name}/rebuild")
+    public ResponseEntity<?> status(@PathVariable String name) {
+        if (!rebuilder.readModels().contains(name)) return notFound(name);
+        return rebuilder.status(name)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    private ResponseEntity<?> notFound(String name) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                ApiErrors.of(HttpStatus.NOT_FOUND, ApiErrors.READ_MODEL_NOT_FOUND,
+                        "Unknown read model " + name + ", expected one of " + rebuilder.readModels()));
+    }
+}
@@ -0,0 +1,356 @@
+package it.asd.common.kafka.replay;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.asd.common.kafka.error.DeadLetterTopics;
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds a read model from its Kafka topics without touching the live table
+ * until the very end.
+ * <p>
+ * 1. create the shadow tables (LIKE … INCLUDING ALL); seed them with the live
+ * rows unless the replay starts from the earliest offset
+ * 2. a dedicated consumer group ({@code <service>-rebuild-<read model>}) is
+ * assigned every partition and seeked to the requested start
+ * 3. bulk phase: large polls, one transaction of JDBC batches per poll, up to
+ * the end offsets taken at start; then one catch-up pass to the new end
+ * 4. swap: LOCK the live tables, apply the last records, rename live → __old
+ * and shadow → live, drop __old, then give the swapped-in indexes and
+ * constraints the names the live ones had — all in one transaction
+ * <p>
+ * The live consumer keeps running: while the lock is held it waits, and its
+ * next write lands in the swapped-in table. The upserts of every projection
+ * are idempotent, so records seen by both the rebuild and the live consumer
+ * are harmless.
+ */
+@Component
+@ConditionalOnProperty(prefix = "asd.kafka.replay", name = "enabled", havingValue = "true")
+public class ReadModelRebuilder implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelRebuilder.class);
+
+    private static final String OLD_SUFFIX = "__old";
+    private static final Duration METADATA_TIMEOUT = Duration.ofSeconds(10);
+
+    // Index definitions from USING on, constraint definitions whole: neither names the object itself
+    private static final String NAMED_OBJECTS_SQL = """
+            SELECT 'index:' || CASE WHEN x.indisunique THEN 'unique ' ELSE '' END
+                       || substring(pg_get_indexdef(x.indexrelid) FROM ' USING .*') AS signature,
+                   i.relname AS name, TRUE AS is_index
+            FROM pg_index x
+            JOIN pg_class i ON i.oid = x.indexrelid
+            WHERE x.indrelid = ?::regclass
+            UNION ALL
+            SELECT 'constraint:' || c.contype || ' ' || pg_get_constraintdef(c.oid), c.conname, FALSE
+            FROM pg_constraint c
+            WHERE c.conrelid = ?::regclass AND c.contype NOT IN ('p', 'u', 'x')
+            """;
+
+    private final Map<String, ReadModelProjection> projections;
+    private final ConsumerFactory<String, EventEnvelope> consumerFactory;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ReplayProperties props;
+    private final String serviceName;
+
+    private final Map<String, Progress> progress = new ConcurrentHashMap<>();
+    private final Map<String, Counter> applied = new HashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("read-model-rebuild-", 0).factory());
+
+    public ReadModelRebuilder(List<ReadModelProjection> projections,
+                              ConsumerFactory<String, EventEnvelope> consumerFactory,
+                              JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              ReplayProperties props,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.application.name}") String serviceName) {
+        this.projections = projections.stream()
+                .collect(Collectors.toUnmodifiableMap(ReadModelProjection::name, Function.identity()));
+        this.consumerFactory = consumerFactory;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.props = props;
+        this.serviceName = serviceName;
+
+        for (var name : this.projections.keySet()) {
+            applied.put(name, Counter.builder("asd.replay.records")
+                    .description("Records applied to a read-model shadow table (rate = rebuild speed)")
+                    .tag("read_model", name)
+                    .register(meterRegistry));
+            Gauge.builder("asd.replay.remaining", progress,
+                            m -> m.containsKey(name) ? m.get(name).remaining.get() : 0)
+                    .description("Offsets left before the running rebuild reaches its target")
+                    .tag("read_model", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    public Set<String> readModels() {
+        return projections.keySet();
+    }
+
+    public RebuildResult start(String name, ReplayStart from) {
+        var projection = projections.get(name);
+        if (projection == null) return new RebuildResult.NotFound(name);
+        if (from instanceof ReplayStart.AtOffsets && projection.topics().size() > 1)
+            return new RebuildResult.Rejected(name + " reads " + projection.topics()
+                    + "; partition offsets only apply to a single topic, use earliest or a timestamp");
+
+        var fresh = new Progress(name, from);
+        var current = progress.compute(name, (_, existing) ->
+                existing != null && existing.isActive() ? existing : fresh);
+        if (current != fresh) return new RebuildResult.AlreadyRunning(current.snapshot());
+
+        executor.submit(() -> run(projection, fresh));
+        return new RebuildResult.Started(fresh.snapshot());
+    }
+
+    public Optional<RebuildStatus> status(String name) {
+        return Optional.ofNullable(progress.get(name)).map(Progress::snapshot);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // ── Rebuild ───────────────────────────────────────────────────────────────
+
+    private void run(ReadModelProjection projection, Progress p) {
+        var shadow = ShadowTables.of(projection.tables());
+        log.info("[REPLAY] Rebuilding {} from {} ({})", projection.name(), projection.topics(), p.from);
+
+        var overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(props.maxPollRecords()));
+        overrides.setProperty(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        var group = serviceName + "-rebuild-" + projection.name();
+        try (var consumer = consumerFactory.createConsumer(group, null, "-rebuild", overrides)) {
+            var partitions = assign(consumer, projection.topics());
+            seek(consumer, partitions, p.from);   // rejects offsets that do not fit, before any DDL
+
+            createShadow(projection, shadow, !p.from.fromScratch());
+
+            drain(consumer, projection, shadow, p, consumer.endOffsets(partitions));   // bulk
+            drain(consumer, projection, shadow, p, consumer.endOffsets(partitions));   // catch-up
+
+            p.state = RebuildStatus.State.SWAPPING;
+            tx.executeWithoutResult(_ -> {
+                jdbc.execute("LOCK TABLE " + String.join(", ", projection.tables()) + " IN ACCESS EXCLUSIVE MODE");
+                drain(consumer, projection, shadow, p, consumer.endOffsets(partitions));
+                swap(shadow);
+            });
+            projection.afterSwap();
+            if (!partitions.isEmpty()) consumer.commitSync();   // where this rebuild ended, for operators
+
+            p.finish(RebuildStatus.State.COMPLETED, null);
+            log.info("[REPLAY] Rebuilt {}: {} records in {}s", projection.name(), p.applied.get(),
+                    Duration.between(p.startedAt, p.finishedAt).toSeconds());
+        } catch (Exception ex) {
+            p.finish(RebuildStatus.State.FAILED, ex.getMessage());
+            log.error("[REPLAY] Rebuild of {} failed: {}", projection.name(), ex.getMessage(), ex);
+            dropShadow(shadow);
+        }
+    }
+
+    private void createShadow(ReadModelProjection projection, ShadowTables shadow, boolean seed) {
+        dropShadow(shadow);
+        shadow.names().forEach((live, copy) -> {
+            jdbc.execute("CREATE TABLE " + copy + " (LIKE " + live + " INCLUDING ALL)");
+            if (seed) jdbc.execute("INSERT INTO " + copy + " SELECT * FROM " + live);
+        });
+        projection.prepareShadow(jdbc, shadow);
+    }
+
+    private void dropShadow(ShadowTables shadow) {
+        try {
+            shadow.names().values().forEach(copy -> jdbc.execute("DROP TABLE IF EXISTS " + copy + " CASCADE"));
+        } catch (RuntimeException ex) {
+            log.warn("[REPLAY] Could not drop shadow tables {}: {}", shadow.names().values(), ex.getMessage());
+        }
+    }
+
+    private void swap(ShadowTables shadow) {
+        var liveNames = new LinkedHashMap<String, Map<String, NamedObject>>();
+        shadow.names().keySet().forEach(live -> liveNames.put(live, namedObjects(live)));
+
+        shadow.names().forEach((live, copy) -> {
+            jdbc.execute("DROP TABLE IF EXISTS " + live + OLD_SUFFIX + " CASCADE");
+            jdbc.execute("ALTER TABLE " + live + " RENAME TO " + live + OLD_SUFFIX);
+            jdbc.execute("ALTER TABLE " + copy + " RENAME TO " + live);
+        });
+        shadow.names().keySet().forEach(live -> jdbc.execute("DROP TABLE " + live + OLD_SUFFIX + " CASCADE"));
+
+        liveNames.forEach(this::restoreNames);
+    }
+
+    /**
+     * LIKE … INCLUDING ALL names the shadow's indexes after the shadow table, and
+     * prepareShadow may add foreign keys with shadow names. Once the old table is
+     * gone its names are free: each swapped-in object takes the name of the old
+     * one with the same definition, so the next migration still finds it.
+     */
+    private void restoreNames(String live, Map<String, NamedObject> previous) {
+        namedObjects(live).forEach((signature, current) -> {
+            var old = previous.get(signature);
+            if (old == null || old.name().equals(current.name())) return;
+            if (current.index())
+                jdbc.execute("ALTER INDEX " + quote(current.name()) + " RENAME TO " + quote(old.name()));
+            else
+                jdbc.execute("ALTER TABLE " + live + " RENAME CONSTRAINT "
+                        + quote(current.name()) + " TO " + quote(old.name()));
+        });
+    }
+
+    /**
+     * Indexes and the constraints without one of their own, by definition. Renaming
+     * the index of a primary key or unique constraint renames the constraint too.
+     */
+    private Map<String, NamedObject> namedObjects(String table) {
+        var objects = new HashMap<String, NamedObject>();
+        jdbc.query(NAMED_OBJECTS_SQL, (RowCallbackHandler) rs -> objects.putIfAbsent(rs.getString("signature"),
+                new NamedObject(rs.getString("name"), rs.getBoolean("is_index"))), table, table);
+        return objects;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private record NamedObject(String name, boolean index) {
+    }
+
+    private static List<TopicPartition> assign(Consumer<String, EventEnvelope> consumer, List<String> topics) {
+        var partitions = new ArrayList<TopicPartition>();
+        for (var topic : topics) {
+            var infos = consumer.partitionsFor(topic, METADATA_TIMEOUT);
+            if (infos != null)
+                infos.forEach(i -> partitions.add(new TopicPartition(topic, i.partition())));
+        }
+        consumer.assign(partitions);
+        return partitions;
+    }
+
+    private static void seek(Consumer<String, EventEnvelope> consumer, List<TopicPartition> partitions,
+                             ReplayStart from) {
+        switch (from) {
+            case ReplayStart.Earliest _ -> consumer.seekToBeginning(partitions);
+            case ReplayStart.AtOffsets(var offsets) -> {
+                var numbers = partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet());
+                if (!numbers.equals(offsets.keySet()))
+                    throw new IllegalArgumentException("from names partitions " + new TreeSet<>(offsets.keySet())
+                            + " but the topic has " + new TreeSet<>(numbers));
+                partitions.forEach(tp -> consumer.seek(tp, offsets.get(tp.partition())));
+            }
+            case ReplayStart.AtTimestamp(Instant ts) -> {
+                var query = new HashMap<TopicPartition, Long>();
+                partitions.forEach(tp -> query.put(tp, ts.toEpochMilli()));
+                consumer.offsetsForTimes(query).forEach((tp, found) -> {
+                    if (found != null) consumer.seek(tp, found.offset());
+                    else consumer.seekToEnd(List.of(tp));   // nothing newer than ts
+                });
+            }
+        }
+    }
+
+    /**
+     * Applies every record below {@code end}; records past it are left for the next phase.
+     */
+    private void drain(Consumer<String, EventEnvelope> consumer, ReadModelProjection projection,
+                       ShadowTables shadow, Progress p, Map<TopicPartition, Long> end) {
+        p.remaining.set(remaining(consumer, end));
+        while (p.remaining.get() > 0) {
+            var records = consumer.poll(props.pollTimeout());
+            var batch = new ArrayList<ConsumerRecord<String, EventEnvelope>>(records.count());
+            for (var tp : records.partitions()) {
+                long limit = end.getOrDefault(tp, 0L);
+                for (var rec : records.records(tp)) {
+                    if (rec.offset() >= limit) {
+                        consumer.seek(tp, limit);
+                        break;
+                    }
+                    if (rec.value() != null && !DeadLetterTopics.isReplayForOtherGroup(rec, serviceName))
+                        batch.add(rec);
+                }
+            }
+            if (!batch.isEmpty()) {
+                tx.executeWithoutResult(_ -> projection.apply(batch, shadow));
+                p.applied.addAndGet(batch.size());
+                applied.get(projection.name()).increment(batch.size());
+            }
+            p.remaining.set(remaining(consumer, end));
+        }
+    }
+
+    private static long remaining(Consumer<String, EventEnvelope> consumer, Map<TopicPartition, Long> end) {
+        long left = 0;
+        for (var e : end.entrySet())
+            left += Math.max(0, e.getValue() - consumer.position(e.getKey()));
+        return left;
+    }
+
+    // ── Progress ──────────────────────────────────────────────────────────────
+
+    private static final class Progress {
+        final String readModel;
+        final ReplayStart from;
+        final Instant startedAt = Instant.now();
+        final AtomicLong applied = new AtomicLong();
+        final AtomicLong remaining = new AtomicLong();
+        volatile RebuildStatus.State state = RebuildStatus.State.RUNNING;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Progress(String readModel, ReplayStart from) {
+            this.readModel = readModel;
+            this.from = from;
+        }
+
+        boolean isActive() {
+            return state == RebuildStatus.State.RUNNING || state == RebuildStatus.State.SWAPPING;
+        }
+
+        void finish(RebuildStatus.State outcome, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.remaining.set(0);
+            this.state = outcome;
+        }
+
+        RebuildStatus snapshot() {
+            var end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            return new RebuildStatus(readModel, state, from.toString(), startedAt, finishedAt,
+                    applied.get(), remaining.get(), applied.get() / seconds, error);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package it.asd.common.kafka.replay;
+
+public sealed interface RebuildResult {
+
+    record Started(RebuildStatus status) implements RebuildResult {
+    }
+
+    record AlreadyRunning(RebuildStatus status) implements RebuildResult {
+    }
+
+    record NotFound(String readModel) implements RebuildResult {
+    }
+
+    /**
+     * The start position does not fit the read model's topics.
+     */
+    record Rejected(String reason) implements RebuildResult {
+    }
+}
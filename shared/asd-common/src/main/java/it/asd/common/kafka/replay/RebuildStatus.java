@@ -0,0 +1,21 @@
+package it.asd.common.kafka.replay;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of one rebuild, as returned by the operator endpoint.
+ * remaining is the offset distance to the target end offsets of the current phase.
+ */
+public record RebuildStatus(
+        String readModel,
+        State state,
+        String from,
+        Instant startedAt,
+        Instant finishedAt,
+        long applied,
+        long remaining,
+        double recordsPerSecond,
+        String error
+) {
+    public enum State {RUNNING, SWAPPING, COMPLETED, FAILED}
+}
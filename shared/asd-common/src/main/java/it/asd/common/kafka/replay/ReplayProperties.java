@@ -0,0 +1,25 @@
+package it.asd.common.kafka.replay;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Binds {@code asd.kafka.replay.*} from application.yml.
+ * <p>
+ * The rebuild consumer reads much larger polls than the live listeners:
+ * every poll becomes one transaction of JDBC batches against the shadow table.
+ */
+@ConfigurationProperties(prefix = "asd.kafka.replay")
+public record ReplayProperties(
+        boolean enabled,
+        @DefaultValue("5000") int maxPollRecords,
+        @DefaultValue("2s") Duration pollTimeout
+) {
+
+    public ReplayProperties {
+        if (maxPollRecords < 1)
+            throw new IllegalArgumentException("asd.kafka.replay.max-poll-records must be >= 1, got " + maxPollRecords);
+    }
+}
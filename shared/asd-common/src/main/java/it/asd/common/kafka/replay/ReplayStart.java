@@ -0,0 +1,72 @@
+package it.asd.common.kafka.replay;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where the rebuild consumer starts on every partition.
+ * Anything but Earliest seeds the shadow with the current rows first.
+ */
+public sealed interface ReplayStart {
+
+    record Earliest() implements ReplayStart {
+    }
+
+    record AtTimestamp(Instant timestamp) implements ReplayStart {
+    }
+
+    /**
+     * One offset per partition number — offsets of different partitions are unrelated.
+     * Only valid for a read model fed by a single topic, and it must name every partition;
+     * ReadModelRebuilder rejects anything else before touching the shadow.
+     */
+    record AtOffsets(Map<Integer, Long> offsets) implements ReplayStart {
+        public AtOffsets {
+            offsets = Map.copyOf(offsets);
+        }
+    }
+
+    /**
+     * "earliest" (or blank), an ISO-8601 instant, or per-partition offsets
+     * "0:1200,1:980". A bare offset ("1200") is partition 0, so it only fits
+     * a single-partition topic.
+     *
+     * @throws IllegalArgumentException for anything else
+     */
+    static ReplayStart parse(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("earliest"))
+            return new Earliest();
+        if (isDigits(value))
+            return new AtOffsets(Map.of(0, Long.parseLong(value)));
+        if (value.contains(":") && !value.contains("T"))
+            return new AtOffsets(parseOffsets(value));
+        try {
+            return new AtTimestamp(Instant.parse(value));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(
+                    "from must be 'earliest', an ISO-8601 instant or partition:offset pairs: " + value);
+        }
+    }
+
+    private static Map<Integer, Long> parseOffsets(String value) {
+        var offsets = new HashMap<Integer, Long>();
+        for (var pair : value.split(",")) {
+            var parts = pair.trim().split(":");
+            if (parts.length != 2 || !isDigits(parts[0]) || !isDigits(parts[1]))
+                throw new IllegalArgumentException("from offsets must be partition:offset pairs: " + value);
+            if (offsets.put(Integer.parseInt(parts[0]), Long.parseLong(parts[1])) != null)
+                throw new IllegalArgumentException("from names partition " + parts[0] + " twice: " + value);
+        }
+        return offsets;
+    }
+
+    private static boolean isDigits(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    default boolean fromScratch() {
+        return this instanceof Earliest;
+    }
+}
@@ -0,0 +1,29 @@
+package it.asd.common.kafka.replay;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live table → shadow table names for one rebuild, parents first.
+ */
+public record ShadowTables(Map<String, String> names) {
+
+    public static final String SUFFIX = "__rebuild";
+
+    public static ShadowTables of(List<String> liveTables) {
+        var names = new LinkedHashMap<String, String>();
+        liveTables.forEach(t -> names.put(t, t + SUFFIX));
+        return new ShadowTables(names);
+    }
+
+    /**
+     * Shadow name of a live table; projections write only through this.
+     */
+    public String of(String liveTable) {
+        var shadow = names.get(liveTable);
+        if (shadow == null)
+            throw new IllegalArgumentException(liveTable + " is not part of this rebuild");
+        return shadow;
+    }
+}
@@ -0,0 +1,95 @@
+package it.asd.common.kafka.tracing;
+
+import it.asd.common.tracing.Correlation;
+import it.asd.events.EventEnvelope;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.slf4j.MDC;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Consumer side of correlation propagation, installed on both listener factories.
+ * <p>
+ * Record listeners: the envelope's correlation id is put in the MDC for the
+ * duration of the listener call, so the consumer's logs — and any event it
+ * publishes in turn — continue the producer's chain.
+ * Batch listeners: when every record of the poll carries the same id (one
+ * upstream burst, a single-record poll) it is bound for the listener call
+ * like a record's. A poll that mixes chains is left unbound here;
+ * KeyOrderedDispatcher opens the scope per record or per key, and set-based
+ * consumers open it around the per-record work they do (see EventBatches.traced).
+ */
+public class EnvelopeTracingInterceptor
+        implements RecordInterceptor<String, EventEnvelope>, BatchInterceptor<String, EventEnvelope> {
+
+    private final EventMetrics metrics;
+
+    public EnvelopeTracingInterceptor(EventMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ConsumerRecord<String, EventEnvelope> intercept(ConsumerRecord<String, EventEnvelope> record,
+                                                           Consumer<String, EventEnvelope> consumer) {
+        observe(record);
+        var id = correlationId(record);
+        if (id != null) MDC.put(Correlation.MDC_KEY, id);
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, EventEnvelope> record, Consumer<String, EventEnvelope> consumer) {
+        MDC.remove(Correlation.MDC_KEY);
+    }
+
+    @Override
+    public ConsumerRecords<String, EventEnvelope> intercept(ConsumerRecords<String, EventEnvelope> records,
+                                                            Consumer<String, EventEnvelope> consumer) {
+        for (var record : records) observe(record);
+        var id = sharedCorrelationId(records);
+        if (id != null) MDC.put(Correlation.MDC_KEY, id);
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<String, EventEnvelope> records, Consumer<String, EventEnvelope> consumer) {
+        MDC.remove(Correlation.MDC_KEY);
+    }
+
+    @Override
+    public void failure(ConsumerRecords<String, EventEnvelope> records, Exception exception,
+                        Consumer<String, EventEnvelope> consumer) {
+        MDC.remove(Correlation.MDC_KEY);
+    }
+
+    /**
+     * Envelope field first; the Kafka header covers records whose value failed to deserialize.
+     */
+    public static String correlationId(ConsumerRecord<?, ?> record) {
+        if (record.value() instanceof EventEnvelope envelope && envelope.correlationId() != null)
+            return envelope.correlationId();
+        var header = record.headers().lastHeader(Correlation.KAFKA_HEADER);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The id every record carries, or null when they differ, some have none or there are none.
+     */
+    public static String sharedCorrelationId(Iterable<? extends ConsumerRecord<?, ?>> records) {
+        String shared = null;
+        for (var record : records) {
+            var id = correlationId(record);
+            if (id == null || (shared != null && !shared.equals(id))) return null;
+            shared = id;
+        }
+        return shared;
+    }
+
+    private void observe(ConsumerRecord<String, EventEnvelope> record) {
+        if (record.value() != null) metrics.consumed(record.topic(), record.value().occurredAt());
+    }
+}
@@ -0,0 +1,64 @@
+package it.asd.common.kafka.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-topic Kafka meters, one instance per service.
+ * <p>
+ * - asd.kafka.published{topic,mode}          events handed to Kafka or the outbox (throughput)
+ * - asd.kafka.publish.latency{topic,outcome} send → broker ack (direct sends and the outbox relay)
+ * - asd.kafka.event.age{topic}               consume time − envelope.occurredAt (end-to-end lag;
+ * its count is the consume throughput)
+ * <p>
+ * Meters are resolved once per topic and cached, so the hot path is a map
+ * read plus an atomic add. No percentiles are published by default; enable
+ * them per service with management.metrics.distribution.percentiles-histogram.asd.kafka=true.
+ */
+@Component
+public class EventMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> published = new ConcurrentHashMap<>();
+    private final Map<String, Timer> latency = new ConcurrentHashMap<>();
+    private final Map<String, Timer> age = new ConcurrentHashMap<>();
+
+    public EventMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void published(String topic, boolean outbox) {
+        var mode = outbox ? "outbox" : "direct";
+        published.computeIfAbsent(topic + '|' + mode, _ -> Counter.builder("asd.kafka.published")
+                .description("Events published, per topic")
+                .tags("topic", topic, "mode", mode)
+                .register(registry)).increment();
+    }
+
+    public void publishLatency(String topic, long startNanos, boolean success) {
+        var outcome = success ? "success" : "failure";
+        latency.computeIfAbsent(topic + '|' + outcome, _ -> Timer.builder("asd.kafka.publish.latency")
+                        .description("Time from send() to broker acknowledgement")
+                        .tags("topic", topic, "outcome", outcome)
+                        .register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void consumed(String topic, Instant occurredAt) {
+        if (occurredAt == null) return;
+        var lag = Duration.between(occurredAt, Instant.now());
+        age.computeIfAbsent(topic, _ -> Timer.builder("asd.kafka.event.age")
+                        .description("Age of an event when this service consumes it")
+                        .tags("topic", topic)
+                        .register(registry))
+                .record(lag.isNegative() ? Duration.ZERO : lag);   // clock skew between hosts
+    }
+}
@@ -0,0 +1,72 @@
+package it.asd.common.tracing;
+
+import org.slf4j.MDC;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * One correlation id follows a unit of work across hops:
+ * HTTP request → EventEnvelope.correlationId (+ Kafka header) → consumer MDC
+ * → any event or HTTP call the consumer makes in turn.
+ * <p>
+ * The id lives in the SLF4J MDC under {@link #MDC_KEY}, so every log line of the
+ * hop carries it ({@code %X{correlationId}} in logging.pattern.console).
+ */
+public final class Correlation {
+
+    public static final String HTTP_HEADER = "X-Correlation-Id";
+    public static final String KAFKA_HEADER = "asd_correlation-id";
+    public static final String MDC_KEY = "correlationId";
+
+    // Incoming ids end up in logs: accept only short, plain tokens
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    private Correlation() {
+    }
+
+    /**
+     * Id of the current hop, or null outside a request/record scope.
+     */
+    public static String current() {
+        return MDC.get(MDC_KEY);
+    }
+
+    /**
+     * Id of the current hop; a fresh one starts a new chain (scheduled jobs, startup).
+     */
+    public static String currentOrNew() {
+        var id = current();
+        return id != null ? id : newId();
+    }
+
+    public static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * The incoming id if it is usable, otherwise a fresh one.
+     */
+    public static String sanitize(String incoming) {
+        return incoming != null && VALID.matcher(incoming).matches() ? incoming : newId();
+    }
+
+    /**
+     * Binds the id to the current thread until the scope is closed; the previous
+     * value is restored, so nested scopes (dispatcher threads, replays) are safe.
+     */
+    public static Scope open(String id) {
+        var previous = MDC.get(MDC_KEY);
+        if (id != null) MDC.put(MDC_KEY, id);
+        return () -> {
+            if (previous != null) MDC.put(MDC_KEY, previous);
+            else MDC.remove(MDC_KEY);
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
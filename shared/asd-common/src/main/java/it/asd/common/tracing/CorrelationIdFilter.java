@@ -0,0 +1,37 @@
+package it.asd.common.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens the correlation scope of an HTTP request.
+ * <p>
+ * Takes X-Correlation-Id from the caller (BFF or another service) or starts
+ * a new one, and echoes it on the response so a client can quote it.
+ * Runs first, so even security and validation logs carry the id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+
+        var id = Correlation.sanitize(request.getHeader(Correlation.HTTP_HEADER));
+        response.setHeader(Correlation.HTTP_HEADER, id);
+        try (var _ = Correlation.open(id)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
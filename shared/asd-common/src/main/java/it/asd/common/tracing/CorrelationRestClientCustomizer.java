@@ -0,0 +1,22 @@
+package it.asd.common.tracing;
+
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Forwards the current correlation id on every call made through an injected
+ * RestClient.Builder (e.g. competition → compliance eligibility checks).
+ */
+@Component
+public class CorrelationRestClientCustomizer implements RestClientCustomizer {
+
+    @Override
+    public void customize(RestClient.Builder builder) {
+        builder.requestInterceptor((request, body, execution) -> {
+            var id = Correlation.current();
+            if (id != null) request.getHeaders().set(Correlation.HTTP_HEADER, id);
+            return execution.execute(request, body);
+        });
+    }
+}
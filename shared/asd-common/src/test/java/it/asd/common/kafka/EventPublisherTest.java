@@ -0,0 +1,169 @@
+package it.asd.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.common.kafka.outbox.OutboxWriter;
+import it.asd.common.kafka.producer.ProducerProfiles;
+import it.asd.common.kafka.tracing.EventMetrics;
+import it.asd.common.tracing.Correlation;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.registry.SeasonActivatedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventPublisher")
+@Tag("unit")
+class EventPublisherTest {
+
+    private static final UUID ASD_ID = UUID.fromString("22222222-2222-2222-2222-222222222222");
+    private static final UUID SEASON_ID = UUID.fromString("33333333-3333-3333-3333-333333333333");
+
+    @Mock
+    KafkaTemplate<String, EventEnvelope> kafkaTemplate;
+    @Mock
+    ProducerProfiles producers;
+    @Mock
+    OutboxWriter outboxWriter;
+    @Mock
+    ObjectProvider<OutboxWriter> outboxProvider;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventMetrics metrics = new EventMetrics(meterRegistry);
+
+    private static SeasonActivatedEvent event() {
+        return new SeasonActivatedEvent(UUID.randomUUID(), ASD_ID, SEASON_ID, "2025-26", Instant.now());
+    }
+
+    @Nested
+    @DisplayName("direct mode")
+    class Direct {
+
+        @Test
+        @DisplayName("sends to Kafka keyed by aggregateId")
+        void sendsToKafka() {
+            when(outboxProvider.getIfAvailable()).thenReturn(null);
+            when(producers.templateFor(KafkaTopics.SEASON_ACTIVATED)).thenReturn(kafkaTemplate);
+            when(kafkaTemplate.send(anyString(), anyString(), any(EventEnvelope.class)))
+                    .thenReturn(new CompletableFuture<SendResult<String, EventEnvelope>>());
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            publisher.publish(KafkaTopics.SEASON_ACTIVATED, event(), ASD_ID, SEASON_ID);
+
+            var captor = ArgumentCaptor.forClass(EventEnvelope.class);
+            verify(kafkaTemplate).send(eq(KafkaTopics.SEASON_ACTIVATED), eq(SEASON_ID.toString()), captor.capture());
+            assertThat(captor.getValue().source()).isEqualTo("test-service");
+            assertThat(captor.getValue().asdId()).isEqualTo(ASD_ID);
+            assertThat(meterRegistry.get("asd.kafka.published")
+                    .tag("topic", KafkaTopics.SEASON_ACTIVATED).counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("publishAll issues every send before any ack and completes when all are acked")
+        void publishAllPipelines() {
+            when(outboxProvider.getIfAvailable()).thenReturn(null);
+            when(producers.templateFor(KafkaTopics.SEASON_ACTIVATED)).thenReturn(kafkaTemplate);
+            var first = new CompletableFuture<SendResult<String, EventEnvelope>>();
+            var second = new CompletableFuture<SendResult<String, EventEnvelope>>();
+            when(kafkaTemplate.send(anyString(), anyString(), any(EventEnvelope.class)))
+                    .thenReturn(first, second);
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            var all = publisher.publishAll(KafkaTopics.SEASON_ACTIVATED, List.of(event(), event()), ASD_ID, SEASON_ID);
+
+            verify(kafkaTemplate, times(2)).send(eq(KafkaTopics.SEASON_ACTIVATED), anyString(), any(EventEnvelope.class));
+            first.complete(null);
+            assertThat(all).isNotDone();
+            second.complete(null);
+            assertThat(all).isCompleted();
+        }
+    }
+
+    @Nested
+    @DisplayName("correlation")
+    class CorrelationId {
+
+        @Test
+        @DisplayName("inherits the id of the current scope")
+        void inheritsScope() {
+            when(outboxProvider.getIfAvailable()).thenReturn(outboxWriter);
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            try (var _ = Correlation.open("req-42")) {
+                publisher.publish(KafkaTopics.SEASON_ACTIVATED, event());
+            }
+
+            var captor = ArgumentCaptor.forClass(EventEnvelope.class);
+            verify(outboxWriter).append(anyString(), anyString(), captor.capture());
+            assertThat(captor.getValue().correlationId()).isEqualTo("req-42");
+            assertThat(Correlation.current()).isNull();
+        }
+
+        @Test
+        @DisplayName("starts a new chain outside any scope")
+        void startsNewChain() {
+            when(outboxProvider.getIfAvailable()).thenReturn(outboxWriter);
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            publisher.publish(KafkaTopics.SEASON_ACTIVATED, event());
+
+            var captor = ArgumentCaptor.forClass(EventEnvelope.class);
+            verify(outboxWriter).append(anyString(), anyString(), captor.capture());
+            assertThat(captor.getValue().correlationId()).isNotBlank();
+        }
+    }
+
+    @Nested
+    @DisplayName("outbox mode")
+    class Outbox {
+
+        @Test
+        @DisplayName("stages the envelope and never touches Kafka")
+        void stagesInOutbox() {
+            when(outboxProvider.getIfAvailable()).thenReturn(outboxWriter);
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            var future = publisher.publish(KafkaTopics.SEASON_ACTIVATED, event(), ASD_ID, SEASON_ID);
+
+            var captor = ArgumentCaptor.forClass(EventEnvelope.class);
+            verify(outboxWriter).append(eq(KafkaTopics.SEASON_ACTIVATED), eq(SEASON_ID.toString()), captor.capture());
+            assertThat(captor.getValue().seasonId()).isEqualTo(SEASON_ID);
+            assertThat(future).isCompleted();
+            verifyNoInteractions(kafkaTemplate);
+        }
+
+        @Test
+        @DisplayName("publishAll stages the whole burst with one batch")
+        @SuppressWarnings("unchecked")
+        void publishAllStagesOneBatch() {
+            when(outboxProvider.getIfAvailable()).thenReturn(outboxWriter);
+            var publisher = new EventPublisher(producers, outboxProvider, metrics, "test-service");
+
+            publisher.publishAll(KafkaTopics.SEASON_ACTIVATED, List.of(event(), event(), event()), ASD_ID, SEASON_ID);
+
+            var captor = ArgumentCaptor.forClass(List.class);
+            verify(outboxWriter).appendAll(eq(KafkaTopics.SEASON_ACTIVATED), captor.capture());
+            assertThat(captor.getValue()).hasSize(3);
+            verify(outboxWriter, never()).append(anyString(), anyString(), any());
+            verifyNoInteractions(kafkaTemplate);
+        }
+    }
+}
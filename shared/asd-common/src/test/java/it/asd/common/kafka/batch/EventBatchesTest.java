@@ -0,0 +1,103 @@
+package it.asd.common.kafka.batch;
+
+import it.asd.common.kafka.idempotency.IdempotencyStore;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import it.asd.events.identity.PersonUpdatedEvent;
+import it.asd.events.registry.SeasonActivatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("EventBatches")
+@Tag("unit")
+class EventBatchesTest {
+
+    private static final UUID PERSON_A = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID PERSON_B = UUID.fromString("22222222-2222-2222-2222-222222222222");
+
+    private static PersonUpdatedEvent updated(UUID personId, String nome, String email) {
+        return new PersonUpdatedEvent(UUID.randomUUID(), personId, nome, null, email, Instant.now());
+    }
+
+    private static ConsumerRecord<String, EventEnvelope> record(DomainEvent payload) {
+        var envelope = payload == null ? null : EventEnvelope.of(payload, "test");
+        return new ConsumerRecord<>("topic", 0, 0L, null, envelope);
+    }
+
+    @Test
+    @DisplayName("payloads() keeps the expected type in poll order and drops the rest")
+    void payloadsFiltersType() {
+        var a = updated(PERSON_A, "Mario", null);
+        var season = new SeasonActivatedEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                "2025-26", Instant.now());
+        var b = updated(PERSON_B, "Luigi", null);
+
+        var result = EventBatches.payloads(List.of(record(a), record(season), record(null), record(b)),
+                PersonUpdatedEvent.class);
+
+        assertThat(result).containsExactly(a, b);
+    }
+
+    @Test
+    @DisplayName("unprocessed() drops records whose envelope the consumer already processed")
+    void unprocessedFiltersSeenEnvelopes() {
+        var seen = record(updated(PERSON_A, "Mario", null));
+        var fresh = record(updated(PERSON_B, "Luigi", null));
+        var empty = record(null);
+        var store = mock(IdempotencyStore.class);
+        when(store.filterNew(eq("consumer"), anyCollection())).thenReturn(List.of(fresh.value().envelopeId()));
+
+        var result = EventBatches.unprocessed(List.of(seen, fresh, empty), store, "consumer");
+
+        assertThat(result).containsExactly(fresh, empty);
+        assertThat(EventBatches.envelopeIds(List.of(seen, fresh, empty, fresh)))
+                .containsExactly(seen.value().envelopeId(), fresh.value().envelopeId());
+    }
+
+    @Test
+    @DisplayName("unprocessed() keeps the whole poll when idempotency is disabled")
+    void unprocessedWithoutStore() {
+        var records = List.of(record(updated(PERSON_A, "Mario", null)), record(null));
+
+        assertThat(EventBatches.unprocessed(records, null, "consumer")).isEqualTo(records);
+    }
+
+    @Test
+    @DisplayName("latestByKey() keeps the newest event per key")
+    void latestByKey() {
+        var a1 = updated(PERSON_A, "Mario", null);
+        var b1 = updated(PERSON_B, "Luigi", null);
+        var a2 = updated(PERSON_A, "Maria", null);
+
+        assertThat(EventBatches.latestByKey(List.of(a1, b1, a2), PersonUpdatedEvent::personId))
+                .containsExactly(a2, b1);
+    }
+
+    @Test
+    @DisplayName("mergeByKey() folds oldest first")
+    void mergeByKey() {
+        var a1 = updated(PERSON_A, "Mario", "mario@example.com");
+        var a2 = updated(PERSON_A, "Maria", null);
+
+        var merged = EventBatches.mergeByKey(List.of(a1, a2), PersonUpdatedEvent::personId,
+                (older, newer) -> updated(newer.personId(), newer.nome(),
+                        newer.email() != null ? newer.email() : older.email()));
+
+        assertThat(merged).singleElement().satisfies(e -> {
+            assertThat(e.nome()).isEqualTo("Maria");
+            assertThat(e.email()).isEqualTo("mario@example.com");
+        });
+    }
+}
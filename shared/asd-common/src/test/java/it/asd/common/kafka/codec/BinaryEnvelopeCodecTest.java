@@ -0,0 +1,208 @@
+package it.asd.common.kafka.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.asd.events.DomainEvent;
+import it.asd.events.EventEnvelope;
+import it.asd.events.competition.ParticipantResultSetEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent;
+import it.asd.events.compliance.DocumentsExpiringSoonEvent.ExpiringDocument;
+import it.asd.events.compliance.PersonIneligibleEvent;
+import it.asd.events.finance.PaymentCreatedEvent;
+import it.asd.events.scheduling.SessionScheduledEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BinaryEnvelopeCodec")
+@Tag("unit")
+class BinaryEnvelopeCodecTest {
+
+    private static final UUID PERSON_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID ASD_ID = UUID.fromString("22222222-2222-2222-2222-222222222222");
+    private static final UUID SEASON_ID = UUID.fromString("33333333-3333-3333-3333-333333333333");
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final EventTypeRegistry registry = new EventTypeRegistry();
+    private final BinaryEnvelopeCodec codec = new BinaryEnvelopeCodec(registry, mapper);
+
+    private static EventEnvelope envelope(DomainEvent event) {
+        return EventEnvelope.of(event, "test-service")
+                .withAsdContext(ASD_ID, SEASON_ID)
+                .withCorrelationId("corr-1");
+    }
+
+    private EventEnvelope roundTrip(EventEnvelope envelope) {
+        return codec.decode(codec.encode(envelope));
+    }
+
+    @Nested
+    @DisplayName("round trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("BigDecimal, LocalDate and envelope metadata survive")
+        void payment() {
+            var event = new PaymentCreatedEvent(UUID.randomUUID(), UUID.randomUUID(), PERSON_ID, ASD_ID,
+                    SEASON_ID, "QUOTA_ASSOCIATIVA", new BigDecimal("50.00"), LocalDate.of(2025, 10, 31), NOW);
+            var original = envelope(event);
+
+            var decoded = roundTrip(original);
+
+            assertThat(decoded.payload()).isEqualTo(event);
+            assertThat(decoded.envelopeId()).isEqualTo(original.envelopeId());
+            assertThat(decoded.occurredAt()).isEqualTo(original.occurredAt().truncatedTo(ChronoUnit.MICROS));
+            assertThat(decoded.source()).isEqualTo("test-service");
+            assertThat(decoded.asdId()).isEqualTo(ASD_ID);
+            assertThat(decoded.seasonId()).isEqualTo(SEASON_ID);
+            assertThat(decoded.correlationId()).isEqualTo("corr-1");
+        }
+
+        @Test
+        @DisplayName("List<String> component")
+        void stringList() {
+            var event = new PersonIneligibleEvent(UUID.randomUUID(), PERSON_ID, ASD_ID,
+                    List.of("CERTIFICATO_MEDICO_AGONISTICO", "TESSERA_FEDERALE"), NOW);
+
+            assertThat(roundTrip(envelope(event)).payload()).isEqualTo(event);
+        }
+
+        @Test
+        @DisplayName("LocalTime components")
+        void localTime() {
+            var event = new SessionScheduledEvent(UUID.randomUUID(), UUID.randomUUID(), ASD_ID, UUID.randomUUID(),
+                    UUID.randomUUID(), LocalDate.of(2025, 3, 1), LocalTime.of(18, 30), LocalTime.of(20, 0),
+                    "ALLENAMENTO", NOW);
+
+            assertThat(roundTrip(envelope(event)).payload()).isEqualTo(event);
+        }
+
+        @Test
+        @DisplayName("null components and Map via JSON escape hatch")
+        void nullsAndMap() {
+            var event = new ParticipantResultSetEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                    PERSON_ID, null, "NUOTO", 3, 87.5, Map.of("tempo", "00:58.31", "corsia", 4), NOW);
+
+            var decoded = (ParticipantResultSetEvent) roundTrip(envelope(event)).payload();
+
+            assertThat(decoded.groupId()).isNull();
+            assertThat(decoded.posizione()).isEqualTo(3);
+            assertThat(decoded.punteggio()).isEqualTo(87.5);
+            assertThat(decoded.resultData()).containsEntry("tempo", "00:58.31").containsEntry("corsia", 4);
+        }
+
+        @Test
+        @DisplayName("List of nested records via JSON escape hatch")
+        void nestedRecords() {
+            var expiresOn = LocalDate.of(2025, 10, 1);
+            var documents = List.of(
+                    new ExpiringDocument(UUID.randomUUID(), "CERTIFICATO_MEDICO_AGONISTICO", expiresOn),
+                    new ExpiringDocument(UUID.randomUUID(), "ASSICURAZIONE", expiresOn.plusDays(9)));
+            var event = new DocumentsExpiringSoonEvent(UUID.randomUUID(), PERSON_ID, ASD_ID,
+                    documents, expiresOn, NOW);
+
+            var decoded = (DocumentsExpiringSoonEvent) roundTrip(envelope(event)).payload();
+
+            assertThat(decoded).isEqualTo(event);
+        }
+
+        @Test
+        @DisplayName("null envelope context fields")
+        void nullContext() {
+            var event = new PersonIneligibleEvent(UUID.randomUUID(), PERSON_ID, ASD_ID, List.of(), NOW);
+            var original = EventEnvelope.of(event, "test-service");
+
+            var decoded = roundTrip(original);
+
+            assertThat(decoded.asdId()).isNull();
+            assertThat(decoded.seasonId()).isNull();
+            assertThat(decoded.correlationId()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("format")
+    class Format {
+
+        @Test
+        @DisplayName("starts with the magic byte and is smaller than class-name JSON")
+        void smallerThanJson() throws Exception {
+            var event = new PaymentCreatedEvent(UUID.randomUUID(), UUID.randomUUID(), PERSON_ID, ASD_ID,
+                    SEASON_ID, "QUOTA_ASSOCIATIVA", new BigDecimal("50.00"), LocalDate.of(2025, 10, 31), NOW);
+            var original = envelope(event);
+
+            var binary = codec.encode(original);
+            var json = mapper.writeValueAsBytes(original);
+
+            assertThat(BinaryEnvelopeCodec.isBinary(binary)).isTrue();
+            assertThat(BinaryEnvelopeCodec.isBinary(json)).isFalse();
+            assertThat(binary.length).isLessThan(json.length / 2);
+        }
+
+        @Test
+        @DisplayName("rejects an unknown format version")
+        void unknownVersion() {
+            var event = new PersonIneligibleEvent(UUID.randomUUID(), PERSON_ID, ASD_ID, List.of(), NOW);
+            var bytes = codec.encode(envelope(event));
+            bytes[1] = 99;
+
+            assertThatThrownBy(() -> codec.decode(bytes))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("version");
+        }
+    }
+
+    @Nested
+    @DisplayName("registry")
+    class Registry {
+
+        @Test
+        @DisplayName("every DomainEvent record in it.asd.events has a type tag")
+        void everyEventRegistered() throws Exception {
+            var scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter(new AssignableTypeFilter(DomainEvent.class));
+
+            for (var candidate : scanner.findCandidateComponents("it.asd.events")) {
+                var type = Class.forName(candidate.getBeanClassName());
+                assertThat(registry.isRegistered(type))
+                        .as("type tag for %s", type.getSimpleName())
+                        .isTrue();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("CodecProperties")
+    class Properties {
+
+        @Test
+        @DisplayName("matches exact names and .* prefixes, defaults to JSON")
+        void topicSelection() {
+            var props = new CodecProperties(List.of("finance.*", "compliance.document.expired"));
+
+            assertThat(props.isBinary("finance.payment.created")).isTrue();
+            assertThat(props.isBinary("compliance.document.expired")).isTrue();
+            assertThat(props.isBinary("compliance.document.renewed")).isFalse();
+            assertThat(new CodecProperties(null).isBinary("finance.payment.created")).isFalse();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package it.asd.common.kafka.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.asd.events.EventEnvelope;
+import it.asd.events.registry.SeasonActivatedEvent;
+import it.asd.events.schema.EventSchema;
+import it.asd.events.schema.EventSchemaRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EnvelopeSerializer / EnvelopeDeserializer schema ids")
+@Tag("unit")
+class EnvelopeDeserializerTest {
+
+    private static final String TOPIC = "season.activated";
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final EventSchemaRegistry schemas = EventSchemaRegistry.load(EventTypeRegistry.types());
+    private final BinaryEnvelopeCodec codec = new BinaryEnvelopeCodec(new EventTypeRegistry(), mapper);
+    private final EnvelopeSerializer serializer = new EnvelopeSerializer(
+            new JsonSerializer<>(mapper), codec, new CodecProperties(List.of()), schemas);
+    private final EnvelopeDeserializer deserializer = new EnvelopeDeserializer(
+            new JsonDeserializer<>(EventEnvelope.class, mapper, false), codec, mapper, schemas);
+
+    private static EventEnvelope envelope() {
+        return EventEnvelope.of(new SeasonActivatedEvent(UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), "2025-26", Instant.now().truncatedTo(ChronoUnit.MILLIS)), "test");
+    }
+
+    @Test
+    @DisplayName("writes the current schema id and reads it back")
+    void roundTrip() {
+        var headers = new RecordHeaders();
+        var original = envelope();
+
+        var bytes = serializer.serialize(TOPIC, headers, original);
+
+        var header = headers.lastHeader(EnvelopeSerializer.SCHEMA_ID_HEADER);
+        assertThat(new String(header.value(), StandardCharsets.UTF_8))
+                .isEqualTo(EventSchema.of(SeasonActivatedEvent.class, 1).id());
+        assertThat(deserializer.deserialize(TOPIC, headers, bytes)).isEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("a record from an unknown (newer) schema with an extra component is read leniently")
+    void newerProducerIsTolerated() throws Exception {
+        var original = envelope();
+        var tree = (ObjectNode) mapper.valueToTree(original);
+        ((ObjectNode) tree.get("payload")).put("note", "appended by a newer producer");
+        var headers = new RecordHeaders();
+        headers.add(EnvelopeSerializer.SCHEMA_ID_HEADER, "00ff00ff00ff00ff".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(deserializer.deserialize(TOPIC, headers, mapper.writeValueAsBytes(tree))).isEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("the current schema id keeps unknown properties an error")
+    void currentSchemaIsStrict() throws Exception {
+        var tree = (ObjectNode) mapper.valueToTree(envelope());
+        ((ObjectNode) tree.get("payload")).put("note", "not part of v1");
+        var headers = new RecordHeaders();
+        serializer.serialize(TOPIC, headers, envelope());   // stamps the current id
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, mapper.writeValueAsBytes(tree)))
+                .hasMessageContaining(TOPIC);
+    }
+}
@@ -0,0 +1,39 @@
+package it.asd.common.kafka.error;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DeadLetterTopics")
+@Tag("unit")
+class DeadLetterTopicsTest {
+
+    private static ConsumerRecord<String, String> record(String replayGroup) {
+        var rec = new ConsumerRecord<String, String>("membership.activated", 0, 0L, "key", "value");
+        if (replayGroup != null)
+            rec.headers().add(DeadLetterTopics.REPLAY_GROUP, replayGroup.getBytes(StandardCharsets.UTF_8));
+        return rec;
+    }
+
+    @Test
+    @DisplayName("names retry tiers and DLT per source topic and consuming service")
+    void names() {
+        assertThat(DeadLetterTopics.dlt("membership.activated", "finance-service"))
+                .isEqualTo("membership.activated.finance-service-dlt");
+        assertThat("membership.activated" + DeadLetterTopics.retrySuffix("finance-service") + "-0")
+                .isEqualTo("membership.activated.finance-service-retry-0");
+    }
+
+    @Test
+    @DisplayName("a replayed record is only processed by the group that dead-lettered it")
+    void replayFilter() {
+        assertThat(DeadLetterTopics.isReplayForOtherGroup(record(null), "finance-service")).isFalse();
+        assertThat(DeadLetterTopics.isReplayForOtherGroup(record("finance-service"), "finance-service")).isFalse();
+        assertThat(DeadLetterTopics.isReplayForOtherGroup(record("competition-service"), "finance-service")).isTrue();
+    }
+}
@@ -0,0 +1,67 @@
+package it.asd.common.kafka.error;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DeliveryAttempts")
+@Tag("unit")
+class DeliveryAttemptsTest {
+
+    private final DeliveryAttempts attempts = new DeliveryAttempts();
+
+    private static ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>("membership.activated", 0, offset, "key", "value");
+    }
+
+    @Test
+    @DisplayName("a record recovered without a reported failure was delivered once")
+    void notRetried() {
+        assertThat(attempts.of(record(7))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("counts the failed deliveries of the record being recovered")
+    void retried() {
+        var rec = record(7);
+        attempts.failedDelivery(rec, new IllegalStateException(), 1);
+        attempts.failedDelivery(rec, new IllegalStateException(), 4);
+
+        assertThat(attempts.of(rec)).isEqualTo(4);
+        assertThat(attempts.of(record(8))).isEqualTo(1);
+
+        attempts.recovered(rec, new IllegalStateException());
+        assertThat(attempts.of(rec)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a failed batch counts for every record of it")
+    void batch() {
+        var records = new ConsumerRecords<>(Map.of(
+                new TopicPartition("membership.activated", 0), List.of(record(3), record(4), record(5))));
+        attempts.failedDelivery(records, new IllegalStateException(), 3);
+
+        assertThat(attempts.of(record(3))).isEqualTo(3);
+        assertThat(attempts.of(record(5))).isEqualTo(3);
+        assertThat(attempts.of(record(6))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a record from retry topics counts its retry_topic-attempts header")
+    void retryTiers() {
+        var rec = record(7);
+        rec.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES).putInt(3).array());
+
+        assertThat(attempts.of(rec)).isEqualTo(3);
+    }
+}
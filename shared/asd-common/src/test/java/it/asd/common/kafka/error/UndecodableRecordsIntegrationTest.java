@@ -0,0 +1,153 @@
+package it.asd.common.kafka.error;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.common.kafka.KafkaConfig;
+import it.asd.common.kafka.tracing.EventMetrics;
+import it.asd.events.EventEnvelope;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * A corrupt payload is dead-lettered with its raw bytes, and the partition
+ * carries on with the records behind it — for record and batch listeners.
+ */
+@DisplayName("Undecodable records")
+@Tag("integration")
+class UndecodableRecordsIntegrationTest {
+
+    private static final String SERVICE = "test-service";
+    private static final String RECORD_TOPIC = "test.undecodable.record";
+    private static final String BATCH_TOPIC = "test.undecodable.batch";
+    private static final byte[] CORRUPT = "{not an envelope".getBytes(StandardCharsets.UTF_8);
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1, RECORD_TOPIC, BATCH_TOPIC,
+                DeadLetterTopics.dlt(RECORD_TOPIC, SERVICE), DeadLetterTopics.dlt(BATCH_TOPIC, SERVICE));
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    private ApplicationContextRunner context() {
+        return new ApplicationContextRunner()
+                .withUserConfiguration(KafkaConfig.class, ErrorHandlingConfig.class, EventMetrics.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "spring.application.name=" + SERVICE,
+                        "asd.kafka.errors.enabled=true");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"kafkaListenerContainerFactory", "batchKafkaListenerContainerFactory"})
+    @DisplayName("lands in <topic>.<service>-dlt and does not block the partition")
+    @SuppressWarnings("unchecked")
+    void deadLettered(String factoryName) {
+        boolean batch = factoryName.startsWith("batch");
+        var topic = batch ? BATCH_TOPIC : RECORD_TOPIC;
+        var received = new CopyOnWriteArrayList<EventEnvelope>();
+
+        context().run(ctx -> {
+            var factory = (ConcurrentKafkaListenerContainerFactory<String, EventEnvelope>) ctx.getBean(factoryName);
+            var container = factory.createContainer(topic);
+            container.getContainerProperties().setGroupId(SERVICE + "-" + factoryName);
+            if (batch) {
+                container.setupMessageListener((BatchAcknowledgingMessageListener<String, EventEnvelope>) (records, ack) -> {
+                    records.forEach(rec -> received.add(rec.value()));
+                    ack.acknowledge();
+                });
+            } else {
+                container.setupMessageListener((AcknowledgingMessageListener<String, EventEnvelope>) (rec, ack) -> {
+                    received.add(rec.value());
+                    ack.acknowledge();
+                });
+            }
+
+            sendRaw(topic, CORRUPT);
+            var valid = EventEnvelope.of(expiredEvent(), "test");
+            ctx.getBean(KafkaTemplate.class).send(topic, "key", valid).get();
+
+            container.start();
+            try {
+                var dead = readOne(DeadLetterTopics.dlt(topic, SERVICE));
+                assertThat(dead.value()).isEqualTo(CORRUPT);
+                assertThat(new String(dead.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN).value(),
+                        StandardCharsets.UTF_8)).isEqualTo(DeserializationException.class.getName());
+                assertThat(new String(dead.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(),
+                        StandardCharsets.UTF_8)).isEqualTo(topic);
+                assertThat(new String(dead.headers().lastHeader(DeadLetterTopics.ATTEMPTS).value(),
+                        StandardCharsets.UTF_8)).isEqualTo("1");
+
+                await().atMost(Duration.ofSeconds(30)).until(() -> !received.isEmpty());
+                assertThat(received).extracting(EventEnvelope::envelopeId).containsExactly(valid.envelopeId());
+            } finally {
+                container.stop();
+            }
+        });
+    }
+
+    private static void sendRaw(String topic, byte[] value) throws Exception {
+        try (var producer = new KafkaProducer<>(Map.<String, Object>of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                new StringSerializer(), new ByteArraySerializer())) {
+            producer.send(new ProducerRecord<>(topic, "key", value)).get();
+        }
+    }
+
+    private static ConsumerRecord<String, byte[]> readOne(String topic) {
+        var props = KafkaTestUtils.consumerProps("dlt-reader-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer())) {
+            consumer.subscribe(List.of(topic));
+            return KafkaTestUtils.getSingleRecord(consumer, topic, Duration.ofSeconds(30));
+        }
+    }
+
+    private static DocumentExpiredEvent expiredEvent() {
+        return new DocumentExpiredEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), "CERTIFICATO_MEDICO", LocalDate.now(), Instant.now());
+    }
+}
@@ -0,0 +1,49 @@
+package it.asd.common.kafka.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EnvelopeBloomFilter")
+@Tag("unit")
+class EnvelopeBloomFilterTest {
+
+    private static final int INSERTIONS = 50_000;
+
+    @Test
+    @DisplayName("never forgets an id it was given")
+    void noFalseNegatives() {
+        var filter = new EnvelopeBloomFilter(INSERTIONS, 0.01);
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < INSERTIONS; i++) {
+            var id = UUID.randomUUID();
+            ids.add(id);
+            filter.put("finance.membership-activated", id);
+        }
+
+        assertThat(ids).allMatch(id -> filter.mightContain("finance.membership-activated", id));
+    }
+
+    @Test
+    @DisplayName("keeps false positives near the configured rate, also across consumers")
+    void falsePositiveRate() {
+        var filter = new EnvelopeBloomFilter(INSERTIONS, 0.01);
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < INSERTIONS; i++) {
+            var id = UUID.randomUUID();
+            ids.add(id);
+            filter.put("finance.membership-activated", id);
+        }
+
+        long unknown = ids.stream().filter(_ -> filter.mightContain("finance.membership-activated", UUID.randomUUID())).count();
+        long otherConsumer = ids.stream().filter(id -> filter.mightContain("membership.person-updated", id)).count();
+
+        assertThat(unknown).isLessThan(INSERTIONS / 50);        // < 2%
+        assertThat(otherConsumer).isLessThan(INSERTIONS / 50);
+    }
+}
@@ -0,0 +1,97 @@
+package it.asd.common.kafka.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeyOrderedDispatcher")
+@Tag("unit")
+class KeyOrderedDispatcherTest {
+
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(8);
+
+    @AfterEach
+    void close() {
+        dispatcher.destroy();
+    }
+
+    private static List<ConsumerRecord<String, String>> poll(String... keyValues) {
+        var records = new ArrayList<ConsumerRecord<String, String>>();
+        for (int i = 0; i < keyValues.length; i += 2)
+            records.add(new ConsumerRecord<>("topic", 0, i / 2, keyValues[i], keyValues[i + 1]));
+        return records;
+    }
+
+    @Test
+    @DisplayName("keeps poll order within each key")
+    void ordersPerKey() {
+        var seen = new ConcurrentHashMap<String, List<String>>();
+
+        var result = dispatcher.dispatch(poll("a", "a1", "b", "b1", "a", "a2", "b", "b2", "a", "a3"),
+                rec -> seen.computeIfAbsent(rec.key(), _ -> new CopyOnWriteArrayList<>()).add(rec.value()));
+
+        assertThat(result.complete()).isTrue();
+        assertThat(seen).isEqualTo(Map.of("a", List.of("a1", "a2", "a3"), "b", List.of("b1", "b2")));
+    }
+
+    @Test
+    @DisplayName("runs different keys concurrently")
+    void parallelAcrossKeys() {
+        var bothStarted = new CountDownLatch(2);
+
+        var result = dispatcher.dispatch(poll("a", "a1", "b", "b1"), _ -> {
+            bothStarted.countDown();
+            // deadlocks (and times out) if the two keys ran one after the other
+            if (!bothStarted.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException("keys ran sequentially");
+        });
+
+        assertThat(result.complete()).isTrue();
+    }
+
+    @Test
+    @DisplayName("stops a failing key, finishes the others and reports the earliest failed index")
+    void reportsEarliestFailure() {
+        var processed = ConcurrentHashMap.<String>newKeySet();
+
+        var result = dispatcher.dispatch(poll("a", "a1", "b", "b1", "a", "a2", "b", "b2", "a", "a3"), rec -> {
+            if (rec.value().equals("a2") || rec.value().equals("b2"))
+                throw new IllegalStateException("boom " + rec.value());
+            processed.add(rec.value());
+        });
+
+        assertThat(result.complete()).isFalse();
+        assertThat(result.firstFailedIndex()).isEqualTo(2);
+        assertThat(result.error()).hasMessage("boom a2");
+        assertThat(processed).isEqualTo(Set.of("a1", "b1"));   // a3 skipped to keep key order
+    }
+
+    @Test
+    @DisplayName("groups: hands each key its records at once and reports a failed group at its first index")
+    void groupsPerKey() {
+        var seen = new ConcurrentHashMap<String, List<String>>();
+
+        var result = dispatcher.dispatchGroups(poll("a", "a1", "b", "b1", "a", "a2", "b", "b2"), group -> {
+            var key = group.getFirst().key();
+            if (key.equals("b")) throw new IllegalStateException("boom " + key);
+            seen.put(key, group.stream().map(ConsumerRecord::value).toList());
+        });
+
+        assertThat(seen).isEqualTo(Map.of("a", List.of("a1", "a2")));
+        assertThat(result.firstFailedIndex()).isEqualTo(1);
+        assertThat(result.error()).hasMessage("boom b");
+    }
+}
@@ -0,0 +1,20 @@
+package it.asd.common.kafka.listener;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ListenerProperties")
+@Tag("unit")
+class ListenerPropertiesTest {
+
+    @Test
+    @DisplayName("key-parallelism is capped at the pool size minus headroom, never below 1")
+    void keyParallelismCappedByPool() {
+        assertThat(new ListenerProperties(1, null, 16).keyParallelismFor(10)).isEqualTo(7);
+        assertThat(new ListenerProperties(1, null, 6).keyParallelismFor(10)).isEqualTo(6);
+        assertThat(new ListenerProperties(1, null, 6).keyParallelismFor(2)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,132 @@
+package it.asd.common.kafka.producer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.asd.events.EventEnvelope;
+import it.asd.events.compliance.DocumentExpiredEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Micro-benchmark: msgs/sec and p99 send latency per producer profile
+ * against an embedded single-node broker.
+ * <p>
+ * Off by default — run with:
+ * <pre>
+ * mvn -pl shared/asd-common test -Dtest=ProducerProfileBenchmark -Dbenchmark=true
+ * </pre>
+ * Latency is measured per record from send() to broker ack, so it includes
+ * linger: expect latency to win p99 and throughput to win msgs/sec.
+ * Numbers from an embedded broker are only comparable with each other.
+ */
+@DisplayName("ProducerProfile benchmark")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProducerProfileBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ProducerProfileBenchmark.class);
+
+    private static final String TOPIC = "bench.document.expired";
+    private static final int WARMUP = 2_000;
+    private static final int MESSAGES = Integer.getInteger("benchmark.messages", 50_000);
+
+    private static EmbeddedKafkaKraftBroker broker;
+    private static ObjectMapper mapper;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    @DisplayName("latency vs throughput")
+    void compareProfiles() throws Exception {
+        var props = new ProducerProfileProperties(ProducerProfileProperties.LATENCY, null);
+        var report = new StringBuilder("\n[BENCH] profile      msgs/sec     p99 ms\n");
+
+        for (var name : props.profiles().keySet()) {
+            var result = run(props.profiles().get(name));
+            report.append("[BENCH] %-10s %10.0f %10.2f%n".formatted(name, result.msgsPerSec(), result.p99Millis()));
+            assertThat(result.msgsPerSec()).isPositive();
+        }
+        log.info("{}", report);
+    }
+
+    private Result run(ProducerProfileProperties.Profile profile) throws Exception {
+        var config = new HashMap<String, Object>(profile.toProducerConfig());
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        var factory = new DefaultKafkaProducerFactory<String, EventEnvelope>(config,
+                new StringSerializer(), new JsonSerializer<>(mapper));
+        var template = new KafkaTemplate<>(factory);
+        try {
+            send(template, WARMUP, new long[WARMUP]);
+
+            var latencies = new long[MESSAGES];
+            long start = System.nanoTime();
+            send(template, MESSAGES, latencies);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            double p99 = latencies[(int) Math.ceil(MESSAGES * 0.99) - 1] / 1_000_000.0;
+            return new Result(MESSAGES / (elapsed / 1_000_000_000.0), p99);
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static void send(KafkaTemplate<String, EventEnvelope> template, int count, long[] latencies)
+            throws Exception {
+        var futures = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            int slot = i;
+            var envelope = EventEnvelope.of(expiredEvent(), "bench");
+            long sentAt = System.nanoTime();
+            futures[i] = template.send(TOPIC, envelope.payload().aggregateId(), envelope)
+                    .whenComplete((_, _) -> latencies[slot] = System.nanoTime() - sentAt);
+        }
+        template.flush();
+        CompletableFuture.allOf(futures).get(2, TimeUnit.MINUTES);
+    }
+
+    private static DocumentExpiredEvent expiredEvent() {
+        return new DocumentExpiredEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), "CERTIFICATO_MEDICO", LocalDate.now(), Instant.now());
+    }
+
+    private record Result(double msgsPerSec, double p99Millis) {
+    }
+}
@@ -0,0 +1,88 @@
+package it.asd.common.kafka.producer;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static it.asd.common.kafka.producer.ProducerProfileProperties.LATENCY;
+import static it.asd.common.kafka.producer.ProducerProfileProperties.THROUGHPUT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ProducerProfileProperties")
+@Tag("unit")
+class ProducerProfilePropertiesTest {
+
+    private static ProducerProfileProperties.Profile topicsOnly(String... topics) {
+        return new ProducerProfileProperties.Profile(null, null, null, null, null, List.of(topics));
+    }
+
+    @Test
+    @DisplayName("without configuration both built-in profiles exist and latency is the default")
+    void builtIns() {
+        var props = new ProducerProfileProperties(LATENCY, null);
+
+        assertThat(props.profiles()).containsOnlyKeys(LATENCY, THROUGHPUT);
+        assertThat(props.profileFor("finance.payment.overdue")).isEqualTo(LATENCY);
+    }
+
+    @Test
+    @DisplayName("a partial profile inherits unset fields from the built-in of the same name")
+    void partialOverrideInherits() {
+        var props = new ProducerProfileProperties(LATENCY, Map.of(THROUGHPUT, topicsOnly("finance.payment.overdue")));
+
+        var config = props.profiles().get(THROUGHPUT).toProducerConfig();
+        assertThat(config)
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    }
+
+    @Test
+    @DisplayName("topics route by exact name or prefix, unclaimed topics use the default")
+    void routesTopics() {
+        var props = new ProducerProfileProperties(LATENCY,
+                Map.of(THROUGHPUT, topicsOnly("compliance.document.expired", "finance.*")));
+
+        assertThat(props.profileFor("compliance.document.expired")).isEqualTo(THROUGHPUT);
+        assertThat(props.profileFor("finance.payment.created")).isEqualTo(THROUGHPUT);
+        assertThat(props.profileFor("compliance.document.uploaded")).isEqualTo(LATENCY);
+    }
+
+    @Test
+    @DisplayName("overlapping patterns resolve to the most specific, whatever the map order")
+    void mostSpecificWins() {
+        var props = new ProducerProfileProperties(LATENCY, Map.of(
+                THROUGHPUT, topicsOnly("finance.*"),
+                LATENCY, topicsOnly("finance.payment.created"),
+                "bulk", topicsOnly("finance.payment.*")));
+
+        assertThat(props.profileFor("finance.payment.created")).isEqualTo(LATENCY);
+        assertThat(props.profileFor("finance.payment.overdue")).isEqualTo("bulk");
+        assertThat(props.profileFor("finance.fee.changed")).isEqualTo(THROUGHPUT);
+    }
+
+    @Test
+    @DisplayName("rejects the same pattern claimed by two profiles")
+    void rejectsDuplicatePattern() {
+        assertThatThrownBy(() -> new ProducerProfileProperties(LATENCY, Map.of(
+                THROUGHPUT, topicsOnly("finance.*"),
+                LATENCY, topicsOnly("finance.*"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("finance.*");
+    }
+
+    @Test
+    @DisplayName("rejects an unknown default profile and max-in-flight above 5")
+    void validates() {
+        assertThatThrownBy(() -> new ProducerProfileProperties("bulk", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ProducerProfileProperties.Profile(
+                Duration.ZERO, null, null, null, 6, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package it.asd.common.kafka.replay;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ReplayStart")
+@Tag("unit")
+class ReplayStartTest {
+
+    @Test
+    @DisplayName("blank and 'earliest' replay from scratch")
+    void earliest() {
+        assertThat(ReplayStart.parse(null)).isEqualTo(new ReplayStart.Earliest());
+        assertThat(ReplayStart.parse("EARLIEST").fromScratch()).isTrue();
+    }
+
+    @Test
+    @DisplayName("digits are partition 0's offset, ISO-8601 is a timestamp — both seed the shadow")
+    void offsetAndTimestamp() {
+        assertThat(ReplayStart.parse("1200")).isEqualTo(new ReplayStart.AtOffsets(Map.of(0, 1200L)));
+        var ts = ReplayStart.parse("2025-09-01T00:00:00Z");
+        assertThat(ts).isEqualTo(new ReplayStart.AtTimestamp(Instant.parse("2025-09-01T00:00:00Z")));
+        assertThat(ts.fromScratch()).isFalse();
+    }
+
+    @Test
+    @DisplayName("partition:offset pairs give each partition its own offset")
+    void perPartitionOffsets() {
+        assertThat(ReplayStart.parse("0:1200, 1:980"))
+                .isEqualTo(new ReplayStart.AtOffsets(Map.of(0, 1200L, 1, 980L)));
+        assertThatThrownBy(() -> ReplayStart.parse("0:1200,0:980"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("twice");
+        assertThatThrownBy(() -> ReplayStart.parse("0:x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("anything else is rejected")
+    void invalid() {
+        assertThatThrownBy(() -> ReplayStart.parse("yesterday"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("yesterday");
+    }
+}
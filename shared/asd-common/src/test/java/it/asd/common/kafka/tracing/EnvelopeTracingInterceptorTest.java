@@ -0,0 +1,75 @@
+package it.asd.common.kafka.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.asd.common.tracing.Correlation;
+import it.asd.events.EventEnvelope;
+import it.asd.events.KafkaTopics;
+import it.asd.events.registry.SeasonActivatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EnvelopeTracingInterceptor")
+@Tag("unit")
+class EnvelopeTracingInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EnvelopeTracingInterceptor interceptor = new EnvelopeTracingInterceptor(new EventMetrics(meterRegistry));
+
+    private static ConsumerRecord<String, EventEnvelope> record(String correlationId) {
+        var event = new SeasonActivatedEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                "2025-26", Instant.now());
+        var envelope = EventEnvelope.of(event, "registry-service").withCorrelationId(correlationId);
+        return new ConsumerRecord<>(KafkaTopics.SEASON_ACTIVATED, 0, 0L, event.aggregateId(), envelope);
+    }
+
+    @Test
+    @DisplayName("binds the envelope's correlation id for the listener call and records the event age")
+    void bindsCorrelation() {
+        var record = record("req-7");
+
+        interceptor.intercept(record, null);
+        assertThat(Correlation.current()).isEqualTo("req-7");
+
+        interceptor.afterRecord(record, null);
+        assertThat(Correlation.current()).isNull();
+        assertThat(meterRegistry.get("asd.kafka.event.age")
+                .tag("topic", KafkaTopics.SEASON_ACTIVATED).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("falls back to the Kafka header when the envelope has no id")
+    void headerFallback() {
+        var record = record(null);
+        record.headers().add(Correlation.KAFKA_HEADER, "hdr-1".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(EnvelopeTracingInterceptor.correlationId(record)).isEqualTo("hdr-1");
+    }
+
+    @Test
+    @DisplayName("binds a poll's correlation id only when every record shares it")
+    void bindsSharedCorrelationForBatch() {
+        var partition = new TopicPartition(KafkaTopics.SEASON_ACTIVATED, 0);
+        var shared = new ConsumerRecords<>(Map.of(partition, List.of(record("req-7"), record("req-7"))));
+        var mixed = new ConsumerRecords<>(Map.of(partition, List.of(record("req-7"), record("req-8"))));
+
+        interceptor.intercept(shared, null);
+        assertThat(Correlation.current()).isEqualTo("req-7");
+        interceptor.success(shared, null);
+        assertThat(Correlation.current()).isNull();
+
+        interceptor.intercept(mixed, null);
+        assertThat(Correlation.current()).isNull();
+    }
+}
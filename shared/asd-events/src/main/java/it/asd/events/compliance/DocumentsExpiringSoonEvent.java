@@ -0,0 +1,32 @@
+package it.asd.events.compliance;
+
+import it.asd.events.DomainEvent;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Digest of every EXPIRING_SOON document of one person in one asd, soonest first.
+ * Emitted by the expiry job when at least one of them entered the warning window;
+ * the latest digest for a (person, asd) is the complete list.
+ */
+public record DocumentsExpiringSoonEvent(
+        UUID eventId, UUID personId, UUID asdId,
+        List<ExpiringDocument> documents, LocalDate earliestExpiry, Instant occurredAt
+) implements DomainEvent {
+
+    public record ExpiringDocument(UUID documentId, String documentType, LocalDate expiresOn) {
+    }
+
+    @Override
+    public String aggregateId() {
+        return personId.toString();
+    }
+
+    @Override
+    public String aggregateType() {
+        return "Person";
+    }
+}
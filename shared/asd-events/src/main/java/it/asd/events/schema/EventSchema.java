@@ -0,0 +1,69 @@
+package it.asd.events.schema;
+
+import it.asd.events.DomainEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One version of a DomainEvent record's shape: its components in declaration order.
+ * <p>
+ * The id is a fingerprint of the canonical form
+ * {@code it.asd.events.x.FooEvent(eventId:java.util.UUID,...)} — the first
+ * 8 bytes of its SHA-256, hex encoded. It travels in the asd_schema-id Kafka
+ * header, so a consumer knows which shape produced a record before parsing it.
+ */
+public record EventSchema(String type, int version, String id, List<Field> fields) {
+
+    public record Field(String name, String type) {
+    }
+
+    public EventSchema {
+        fields = List.copyOf(fields);
+    }
+
+    /**
+     * Derives the schema of a record from its components.
+     */
+    public static EventSchema of(Class<? extends DomainEvent> type, int version) {
+        var components = type.getRecordComponents();
+        if (components == null)
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        var fields = new ArrayList<Field>(components.length);
+        for (var c : components)
+            fields.add(new Field(c.getName(), c.getGenericType().getTypeName()));
+        return new EventSchema(type.getName(), version, fingerprint(type.getName(), fields), fields);
+    }
+
+    public static String canonicalForm(String type, List<Field> fields) {
+        return fields.stream()
+                .map(f -> f.name() + ":" + f.type())
+                .collect(Collectors.joining(",", type + "(", ")"));
+    }
+
+    public static String fingerprint(String type, List<Field> fields) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonicalForm(type, fields).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Same shape, regardless of version number.
+     */
+    public boolean sameShape(EventSchema other) {
+        return id.equals(other.id());
+    }
+
+    public EventSchema withVersion(int version) {
+        return new EventSchema(type, version, id, fields);
+    }
+}
@@ -0,0 +1,63 @@
+package it.asd.events.schema;
+
+import it.asd.events.DomainEvent;
+
+import java.util.*;
+
+/**
+ * Read-only, in-memory view of the schema histories of a set of event types.
+ * <p>
+ * Built once at startup; lookups are plain map reads. The current schema of
+ * each type is derived from the record on the classpath — if it has no
+ * registered version yet (the build check was skipped), it is reported as
+ * latest+1 so the id still differs from every registered one.
+ */
+public final class EventSchemaRegistry {
+
+    private final Map<Class<?>, EventSchema> current = new HashMap<>();
+    private final Map<String, EventSchema> byId = new HashMap<>();
+    private final Set<String> currentIds = new HashSet<>();
+
+    private EventSchemaRegistry() {
+    }
+
+    public static EventSchemaRegistry load(Collection<Class<? extends DomainEvent>> types) {
+        var registry = new EventSchemaRegistry();
+        var loader = EventSchemaRegistry.class.getClassLoader();
+        for (var type : types) {
+            var history = SchemaHistory.load(type.getName(), loader)
+                    .orElseGet(() -> new SchemaHistory(type.getName(), List.of()));
+            history.versions().forEach(v -> registry.byId.putIfAbsent(v.id(), v));
+
+            var derived = EventSchema.of(type, 0);
+            var registered = history.byId(derived.id())
+                    .orElseGet(() -> history.append(derived).latest());
+            registry.current.put(type, registered);
+            registry.currentIds.add(registered.id());
+            registry.byId.putIfAbsent(registered.id(), registered);
+        }
+        return registry;
+    }
+
+    /**
+     * Schema the local record class produces.
+     */
+    public EventSchema current(Class<?> type) {
+        var schema = current.get(type);
+        if (schema == null)
+            throw new IllegalArgumentException("No schema loaded for " + type.getName());
+        return schema;
+    }
+
+    public Optional<EventSchema> byId(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public boolean isCurrent(String id) {
+        return currentIds.contains(id);
+    }
+
+    public Collection<EventSchema> all() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+}
@@ -0,0 +1,68 @@
+package it.asd.events.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compatibility rules between two versions of an event schema.
+ * <p>
+ * Both wire formats read components by position (binary) or by name (JSON),
+ * and both tolerate exactly one kind of change: appending a nullable component.
+ * - BACKWARD: a consumer on the new version can read records of the old one
+ * - FORWARD:  a consumer still on the old version can read records of the new one
+ * <p>
+ * Rules:
+ * - an existing component may not be renamed, retyped or moved     (both)
+ * - an appended component must be a reference type (null-filled)   (BACKWARD)
+ * - a component may not be removed                                 (FORWARD)
+ */
+public final class SchemaCompatibility {
+
+    public enum Direction {BACKWARD, FORWARD}
+
+    public record Violation(Direction direction, String type, String message) {
+        @Override
+        public String toString() {
+            return direction + " " + type + ": " + message;
+        }
+    }
+
+    private SchemaCompatibility() {
+    }
+
+    public static List<Violation> check(EventSchema previous, EventSchema next) {
+        var violations = new ArrayList<Violation>();
+        var before = previous.fields();
+        var after = next.fields();
+        int common = Math.min(before.size(), after.size());
+
+        for (int i = 0; i < common; i++) {
+            var old = before.get(i);
+            var now = after.get(i);
+            if (!old.equals(now)) {
+                var msg = "component #" + i + " changed from " + old.name() + ":" + old.type()
+                        + " to " + now.name() + ":" + now.type();
+                violations.add(new Violation(Direction.BACKWARD, next.type(), msg));
+                violations.add(new Violation(Direction.FORWARD, next.type(), msg));
+            }
+        }
+        for (int i = common; i < after.size(); i++) {
+            var added = after.get(i);
+            if (isPrimitive(added.type()))
+                violations.add(new Violation(Direction.BACKWARD, next.type(),
+                        "appended component " + added.name() + " is primitive " + added.type()
+                                + " and cannot be null-filled for old records"));
+        }
+        for (int i = common; i < before.size(); i++)
+            violations.add(new Violation(Direction.FORWARD, next.type(),
+                    "component " + before.get(i).name() + " was removed"));
+        return violations;
+    }
+
+    private static boolean isPrimitive(String typeName) {
+        return switch (typeName) {
+            case "boolean", "byte", "short", "char", "int", "long", "float", "double" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package it.asd.events.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every registered version of one event type, oldest first.
+ * Stored as {@code event-schemas/<fully.qualified.Type>.json} in asd-events.
+ */
+public record SchemaHistory(String type, List<EventSchema> versions) {
+
+    public static final String RESOURCE_DIR = "event-schemas";
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    public SchemaHistory {
+        versions = List.copyOf(versions);
+    }
+
+    public static String resourceName(String type) {
+        return RESOURCE_DIR + "/" + type + ".json";
+    }
+
+    /**
+     * Reads the history from the classpath; empty if the type was never registered.
+     */
+    public static Optional<SchemaHistory> load(String type, ClassLoader loader) {
+        try (InputStream in = loader.getResourceAsStream(resourceName(type))) {
+            return in == null ? Optional.empty() : Optional.of(JSON.readValue(in, SchemaHistory.class));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read schema history of " + type, ex);
+        }
+    }
+
+    public static SchemaHistory read(Path file) {
+        try {
+            return JSON.readValue(file.toFile(), SchemaHistory.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read schema history " + file, ex);
+        }
+    }
+
+    public void write(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            JSON.writeValue(dir.resolve(type + ".json").toFile(), this);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write schema history of " + type, ex);
+        }
+    }
+
+    public EventSchema latest() {
+        return versions.getLast();
+    }
+
+    public Optional<EventSchema> byId(String id) {
+        return versions.stream().filter(v -> v.id().equals(id)).findFirst();
+    }
+
+    public SchemaHistory append(EventSchema schema) {
+        var next = new ArrayList<>(versions);
+        next.add(schema.withVersion(versions.isEmpty() ? 1 : latest().version() + 1));
+        return new SchemaHistory(type, next);
+    }
+}
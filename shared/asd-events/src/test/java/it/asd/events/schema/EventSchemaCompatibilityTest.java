@@ -0,0 +1,174 @@
+package it.asd.events.schema;
+
+import it.asd.events.DomainEvent;
+import it.asd.events.registry.SeasonActivatedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Build-time gate for the event contracts.
+ * <p>
+ * Every DomainEvent record must match the latest version registered under
+ * src/main/resources/event-schemas. After a compatible change, register the
+ * new version with:
+ * <pre>
+ * mvn -pl shared/asd-events test -Dasd.schemas.write=true
+ * </pre>
+ * and commit the updated JSON. Incompatible changes fail even with the flag:
+ * publish a new event type instead.
+ */
+@DisplayName("Event schema compatibility")
+@Tag("unit")
+class EventSchemaCompatibilityTest {
+
+    private static final Path REGISTRY_DIR = Path.of("src/main/resources", SchemaHistory.RESOURCE_DIR);
+    private static final boolean WRITE = Boolean.getBoolean("asd.schemas.write");
+
+    private static EventSchema schema(String... fields) {
+        var list = new ArrayList<EventSchema.Field>();
+        for (int i = 0; i < fields.length; i += 2)
+            list.add(new EventSchema.Field(fields[i], fields[i + 1]));
+        return new EventSchema("it.asd.events.x.FooEvent", 1,
+                EventSchema.fingerprint("it.asd.events.x.FooEvent", list), list);
+    }
+
+    @Nested
+    @DisplayName("rules")
+    class Rules {
+
+        @Test
+        @DisplayName("appending a reference component is compatible both ways")
+        void appendReference() {
+            var v1 = schema("eventId", "java.util.UUID");
+            var v2 = schema("eventId", "java.util.UUID", "note", "java.lang.String");
+
+            assertThat(SchemaCompatibility.check(v1, v2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("appending a primitive component breaks BACKWARD")
+        void appendPrimitive() {
+            var v1 = schema("eventId", "java.util.UUID");
+            var v2 = schema("eventId", "java.util.UUID", "count", "int");
+
+            assertThat(SchemaCompatibility.check(v1, v2))
+                    .extracting(SchemaCompatibility.Violation::direction)
+                    .containsExactly(SchemaCompatibility.Direction.BACKWARD);
+        }
+
+        @Test
+        @DisplayName("removing a component breaks FORWARD")
+        void remove() {
+            var v1 = schema("eventId", "java.util.UUID", "note", "java.lang.String");
+            var v2 = schema("eventId", "java.util.UUID");
+
+            assertThat(SchemaCompatibility.check(v1, v2))
+                    .extracting(SchemaCompatibility.Violation::direction)
+                    .containsExactly(SchemaCompatibility.Direction.FORWARD);
+        }
+
+        @Test
+        @DisplayName("retyping or reordering a component breaks both directions")
+        void retype() {
+            var v1 = schema("eventId", "java.util.UUID", "importo", "java.lang.Double");
+            var v2 = schema("eventId", "java.util.UUID", "importo", "java.math.BigDecimal");
+
+            assertThat(SchemaCompatibility.check(v1, v2))
+                    .extracting(SchemaCompatibility.Violation::direction)
+                    .containsExactlyInAnyOrder(SchemaCompatibility.Direction.BACKWARD,
+                            SchemaCompatibility.Direction.FORWARD);
+        }
+
+        @Test
+        @DisplayName("the id only depends on the shape")
+        void fingerprintIsStable() {
+            assertThat(EventSchema.of(SeasonActivatedEvent.class, 1).id())
+                    .isEqualTo(EventSchema.of(SeasonActivatedEvent.class, 7).id())
+                    .hasSize(16);
+        }
+    }
+
+    @Nested
+    @DisplayName("registered schemas")
+    class Registered {
+
+        @Test
+        @DisplayName("every event record matches a compatible registered version")
+        void everyEventIsRegistered() throws Exception {
+            var problems = new ArrayList<String>();
+            var seen = new HashSet<String>();
+
+            for (var type : eventTypes()) {
+                seen.add(type.getName());
+                var file = REGISTRY_DIR.resolve(type.getName() + ".json");
+                var history = Files.exists(file)
+                        ? SchemaHistory.read(file)
+                        : new SchemaHistory(type.getName(), List.of());
+                var derived = EventSchema.of(type, 0);
+
+                if (history.byId(derived.id()).isPresent()) continue;
+
+                var violations = history.versions().isEmpty()
+                        ? List.<SchemaCompatibility.Violation>of()
+                        : SchemaCompatibility.check(history.latest(), derived);
+                if (!violations.isEmpty())
+                    violations.forEach(v -> problems.add(v.toString()));
+                else if (WRITE)
+                    history.append(derived).write(REGISTRY_DIR);
+                else
+                    problems.add("UNREGISTERED " + type.getName()
+                            + ": run with -Dasd.schemas.write=true to register the new version");
+            }
+
+            try (var files = Files.list(REGISTRY_DIR)) {
+                files.map(p -> p.getFileName().toString().replaceFirst("\\.json$", ""))
+                        .filter(name -> !seen.contains(name))
+                        .forEach(name -> problems.add("REMOVED " + name
+                                + ": registered event types may not be deleted"));
+            }
+
+            assertThat(problems).as("event schema problems").isEmpty();
+        }
+    }
+
+    /**
+     * All DomainEvent records compiled into asd-events.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends DomainEvent>> eventTypes() throws IOException, URISyntaxException {
+        var classes = Path.of(DomainEvent.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        var types = new ArrayList<Class<? extends DomainEvent>>();
+        Set<String> names;
+        try (var files = Files.walk(classes)) {
+            names = files.map(p -> classes.relativize(p).toString())
+                    .filter(p -> p.endsWith(".class") && !p.contains("$"))
+                    .map(p -> p.substring(0, p.length() - ".class".length()).replace('/', '.'))
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+        for (var name : names) {
+            try {
+                var type = Class.forName(name);
+                if (type.isRecord() && DomainEvent.class.isAssignableFrom(type))
+                    types.add((Class<? extends DomainEvent>) type);
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return types;
+    }
+}